@@ -0,0 +1,57 @@
+package com.wzz.registerhelper.ingredient;
+
+import net.minecraft.nbt.CompoundTag;
+
+import java.util.List;
+
+/**
+ * 基准测试对照：改为原地遍历之前 {@link PartialNbtIngredient#test} 的 NBT 匹配逻辑。
+ * 每次匹配都复制物品 NBT 和要求的 NBT，分别移除 ignore_keys 后再做子集比较。
+ */
+final class CopyStripNbtMatcher {
+
+    private CopyStripNbtMatcher() {
+    }
+
+    static boolean test(CompoundTag inputTag, CompoundTag requiredNbt, List<String> ignoreKeys) {
+        CompoundTag strippedInput    = inputTag.copy();
+        CompoundTag strippedRequired = requiredNbt.copy();
+        for (String path : ignoreKeys) {
+            removeByPath(strippedInput,    path);
+            removeByPath(strippedRequired, path);
+        }
+        return nbtContains(strippedInput, strippedRequired);
+    }
+
+    private static void removeByPath(CompoundTag tag, String path) {
+        int dot = path.indexOf('.');
+        if (dot < 0) {
+            // 顶层 key
+            tag.remove(path);
+        } else {
+            String head = path.substring(0, dot);
+            String tail = path.substring(dot + 1);
+            if (tag.get(head) instanceof CompoundTag nested) {
+                // 修改的是 nested 的副本的引用，需要替换回去
+                CompoundTag nestedCopy = nested.copy();
+                removeByPath(nestedCopy, tail);
+                tag.put(head, nestedCopy);
+            }
+            // 若 head 不是 CompoundTag，忽略（路径不存在则无操作）
+        }
+    }
+
+    private static boolean nbtContains(CompoundTag container, CompoundTag subset) {
+        for (String key : subset.getAllKeys()) {
+            if (!container.contains(key)) return false;
+            // 递归处理嵌套 CompoundTag
+            if (subset.get(key) instanceof CompoundTag subNested
+                    && container.get(key) instanceof CompoundTag conNested) {
+                if (!nbtContains(conNested, subNested)) return false;
+            } else {
+                if (!container.get(key).equals(subset.get(key))) return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,96 @@
+package com.wzz.registerhelper.ingredient;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.TagParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PartialNbtIngredient 的 NBT 匹配：旧的复制并移除（{@link CopyStripNbtMatcher}）
+ * 与现在的原地子集遍历（要求的 NBT 在构造时移除一次 ignore_keys）对比。
+ *
+ * 物品 NBT 仿照拔刀剑：刀的状态放在 ForgeCaps 下的嵌套 compound 中，
+ * 带附魔列表、显示名称和一批每次攻击都会变化的计数 key。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PartialNbtIngredientBenchmark {
+
+    private static final String BLADE_NBT = "{Damage:0,RepairCost:3,HideFlags:0,"
+            + "display:{Name:'{\"text\":\"阎魔刀\",\"italic\":false}',Lore:['{\"text\":\"传说之刃\"}','{\"text\":\"SA: 次元斩\"}']},"
+            + "Enchantments:[{id:\"minecraft:sharpness\",lvl:5s},{id:\"minecraft:unbreaking\",lvl:3s},"
+            + "{id:\"minecraft:looting\",lvl:3s},{id:\"minecraft:smite\",lvl:5s},{id:\"minecraft:fire_aspect\",lvl:2s}],"
+            + "ForgeCaps:{Parent:{},\"slashblade:bladestate\":{translationKey:\"item.slashblade.yamato\","
+            + "ModelName:\"slashblade:model/named/yamato.obj\",TextureName:\"slashblade:model/named/yamato.png\","
+            + "SpecialAttackType:\"slashblade:judgement_cut\",SlashArtsType:\"slashblade:judgement_cut\","
+            + "baseAttackModifier:7.0f,maxDamage:60,isBroken:0b,isSealed:0b,isNoScabbard:0b,isDefaultBewitched:1b,"
+            + "killCount:1523,proudSoul:48210,RepairCounter:12,lastActionTime:981273L,TargetEntity:-1,"
+            + "fallDecreaseRate:0.0f,attackAmplifier:1.5f,comboRoot:\"slashblade:standby\",comboSeq:\"slashblade:combo_a1\","
+            + "owner:[I;1234567,-89012345,67890123,-45678901],uniqueId:[I;-987654,321098,-765432,109876],"
+            + "SummonedSwordColor:3355647,SummonedSwordColorInverse:0b,adjustXYZ:[0.0d,0.0d,0.0d],"
+            + "specialEffects:[\"slashblade:wither_edge\",\"slashblade:burst_drive\"]},"
+            + "\"curios:inventory\":{Curios:[]}}}";
+
+    /** 配方只要求刀的种类和未封印、未损坏 */
+    private static final String REQUIRED_NBT = "{ForgeCaps:{\"slashblade:bladestate\":{"
+            + "translationKey:\"item.slashblade.yamato\",isSealed:0b,isBroken:0b,killCount:0,proudSoul:0}}}";
+
+    private static final List<String> IGNORE_KEYS = List.of(
+            "RepairCost",
+            "ForgeCaps.slashblade:bladestate.killCount",
+            "ForgeCaps.slashblade:bladestate.proudSoul",
+            "ForgeCaps.slashblade:bladestate.RepairCounter",
+            "ForgeCaps.slashblade:bladestate.lastActionTime",
+            "ForgeCaps.slashblade:bladestate.TargetEntity");
+
+    /** match：要求的 key 全部相同；mismatch：刀的种类不同，要走到最深一层才失败 */
+    @Param({"match", "mismatch"})
+    public String scenario;
+
+    private CompoundTag inputTag;
+    private CompoundTag requiredNbt;
+    private CompoundTag matchNbt;
+
+    @Setup
+    public void setup() throws Exception {
+        inputTag = TagParser.parseTag(BLADE_NBT);
+        if ("mismatch".equals(scenario)) {
+            inputTag.getCompound("ForgeCaps").getCompound("slashblade:bladestate")
+                    .putString("translationKey", "item.slashblade.muramasa");
+        }
+        requiredNbt = TagParser.parseTag(REQUIRED_NBT);
+        matchNbt = PartialNbtIngredient.stripIgnored(requiredNbt, IGNORE_KEYS);
+
+        boolean expected = "match".equals(scenario);
+        if (CopyStripNbtMatcher.test(inputTag, requiredNbt, IGNORE_KEYS) != expected
+                || PartialNbtIngredient.nbtContains(inputTag, matchNbt) != expected) {
+            throw new IllegalStateException("两种匹配方式的结果与预期不一致: " + scenario);
+        }
+    }
+
+    @Benchmark
+    public boolean copyAndStrip() {
+        return CopyStripNbtMatcher.test(inputTag, requiredNbt, IGNORE_KEYS);
+    }
+
+    @Benchmark
+    public boolean inPlace() {
+        return PartialNbtIngredient.nbtContains(inputTag, matchNbt);
+    }
+}
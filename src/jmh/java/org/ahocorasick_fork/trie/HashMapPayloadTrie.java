@@ -0,0 +1,168 @@
+package org.ahocorasick_fork.trie;
+
+import static java.lang.Character.isWhitespace;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.LinkedBlockingDeque;
+
+import org.ahocorasick_fork.interval.IntervalTree;
+import org.ahocorasick_fork.interval.Intervalable;
+import org.ahocorasick_fork.trie.handler.DefaultPayloadEmitHandler;
+import org.ahocorasick_fork.trie.handler.PayloadEmitHandler;
+import org.ahocorasick_fork.trie.handler.StatefulPayloadEmitHandler;
+
+/**
+ * Benchmark baseline: the scanning code of {@link PayloadTrie} as it was before the
+ * state graph was compiled into a {@link CompactAutomaton}. Every step walks the
+ * {@link PayloadState} graph through its {@code HashMap<Character, ...>} transitions
+ * and allocates a {@link PayloadEmit} per match.
+ *
+ * @param <T> The type of the payload.
+ */
+public class HashMapPayloadTrie<T> {
+
+    private final TrieConfig trieConfig;
+
+    private final PayloadState<T> rootState;
+
+    private HashMapPayloadTrie(final TrieConfig trieConfig) {
+        this.trieConfig = trieConfig;
+        this.rootState = new PayloadState<>();
+    }
+
+    private void addKeyword(String keyword, T emit) {
+        if (keyword.isEmpty()) {
+            return;
+        }
+
+        addState(keyword).addEmit(new Payload<>(keyword, emit));
+    }
+
+    private PayloadState<T> addState(final String keyword) {
+        PayloadState<T> state = rootState;
+        for (final Character character : keyword.toCharArray()) {
+            Character adjustedChar = trieConfig.isCaseInsensitive() ? Character.toLowerCase(character) : character;
+            state = state.addState(adjustedChar);
+        }
+        return state;
+    }
+
+    public Collection<PayloadEmit<T>> parseText(final CharSequence text) {
+        return parseText(text, new DefaultPayloadEmitHandler<>());
+    }
+
+    @SuppressWarnings("unchecked")
+    public Collection<PayloadEmit<T>> parseText(final CharSequence text, final StatefulPayloadEmitHandler<T> emitHandler) {
+        parseText(text, (PayloadEmitHandler<T>) emitHandler);
+
+        final List<PayloadEmit<T>> collectedEmits = emitHandler.getEmits();
+
+        if (!trieConfig.isAllowOverlaps()) {
+            IntervalTree intervalTree = new IntervalTree((List<Intervalable>) (List<?>) collectedEmits);
+            intervalTree.removeOverlaps((List<Intervalable>) (List<?>) collectedEmits);
+        }
+
+        return collectedEmits;
+    }
+
+    public void parseText(final CharSequence text, final PayloadEmitHandler<T> emitHandler) {
+        PayloadState<T> currentState = rootState;
+
+        for (int position = 0; position < text.length(); position++) {
+            char character = text.charAt(position);
+
+            if (trieConfig.isCaseInsensitive()) {
+                character = Character.toLowerCase(character);
+            }
+
+            currentState = getState(currentState, character);
+            final Collection<Payload<T>> payloads = currentState.emit();
+            if (processEmits(text, position, payloads, emitHandler) && trieConfig.isStopOnHit()) {
+                return;
+            }
+        }
+    }
+
+    private boolean isPartialMatch(final CharSequence searchText, final PayloadEmit<T> emit) {
+        return (emit.getStart() != 0 && Character.isAlphabetic(searchText.charAt(emit.getStart() - 1)))
+                || (emit.getEnd() + 1 != searchText.length() && Character.isAlphabetic(searchText.charAt(emit.getEnd() + 1)));
+    }
+
+    private boolean isPartialMatchWhiteSpaceSeparated(final CharSequence searchText, final PayloadEmit<T> emit) {
+        final long size = searchText.length();
+        return (emit.getStart() != 0 && !isWhitespace(searchText.charAt(emit.getStart() - 1)))
+                || (emit.getEnd() + 1 != size && !isWhitespace(searchText.charAt(emit.getEnd() + 1)));
+    }
+
+    private PayloadState<T> getState(PayloadState<T> currentState, final Character character) {
+        PayloadState<T> newCurrentState = currentState.nextState(character);
+
+        while (newCurrentState == null) {
+            currentState = currentState.failure();
+            newCurrentState = currentState.nextState(character);
+        }
+
+        return newCurrentState;
+    }
+
+    private void constructFailureStates() {
+        final Queue<PayloadState<T>> queue = new LinkedBlockingDeque<>();
+
+        // First, set the fail state of all depth 1 states to the root state
+        for (PayloadState<T> depthOneState : rootState.getStates()) {
+            depthOneState.setFailure(rootState);
+            queue.add(depthOneState);
+        }
+
+        // Second, determine the fail state for all depth > 1 state
+        while (!queue.isEmpty()) {
+            final PayloadState<T> currentState = queue.remove();
+
+            for (final Character transition : currentState.getTransitions()) {
+                PayloadState<T> targetState = currentState.nextState(transition);
+                queue.add(targetState);
+
+                PayloadState<T> traceFailureState = currentState.failure();
+                while (traceFailureState.nextState(transition) == null) {
+                    traceFailureState = traceFailureState.failure();
+                }
+
+                final PayloadState<T> newFailureState = traceFailureState.nextState(transition);
+                targetState.setFailure(newFailureState);
+                targetState.addEmit(newFailureState.emit());
+            }
+        }
+    }
+
+    private boolean processEmits(final CharSequence text, final int position, final Collection<Payload<T>> payloads, final PayloadEmitHandler<T> emitHandler) {
+        boolean emitted = false;
+        for (final Payload<T> payload : payloads) {
+            final PayloadEmit<T> payloadEmit = new PayloadEmit<>(position - payload.getKeyword().length() + 1,
+                    position, payload.getKeyword(), payload.getData());
+            if (!(trieConfig.isOnlyWholeWords() && isPartialMatch(text, payloadEmit)) &&
+                    !(trieConfig.isOnlyWholeWordsWhiteSpaceSeparated() && isPartialMatchWhiteSpaceSeparated(text, payloadEmit))) {
+                emitted = emitHandler.emit(payloadEmit) || emitted;
+                if (emitted && trieConfig.isStopOnHit()) {
+                    break;
+                }
+            }
+        }
+
+        return emitted;
+    }
+
+    /**
+     * Builds the baseline trie with the default configuration (overlaps allowed, case sensitive),
+     * the same configuration the pinyin dictionary uses.
+     */
+    public static <T> HashMapPayloadTrie<T> build(final Collection<Payload<T>> keywords) {
+        final HashMapPayloadTrie<T> trie = new HashMapPayloadTrie<>(new TrieConfig());
+        for (Payload<T> payload : keywords) {
+            trie.addKeyword(payload.getKeyword(), payload.getData());
+        }
+        trie.constructFailureStates();
+        return trie;
+    }
+}
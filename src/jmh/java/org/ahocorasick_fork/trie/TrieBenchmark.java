@@ -0,0 +1,139 @@
+package org.ahocorasick_fork.trie;
+
+import org.ahocorasick_fork.trie.handler.KeywordMatchHandler;
+import org.ahocorasick_fork.trie.handler.PayloadEmitHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the HashMap state graph ({@link HashMapPayloadTrie}) with the compiled
+ * {@link CompactAutomaton} behind {@link PayloadTrie} on the pinyin dictionary workload:
+ * a user dictionary of multi-character CJK words scanned over item display names.
+ * <p>
+ * Each invocation scans the whole text set, so the score is the time per batch.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrieBenchmark {
+
+    private static final int TEXT_COUNT = 2000;
+
+    @Param({"2000", "20000"})
+    public int keywordCount;
+
+    private HashMapPayloadTrie<String> hashMapTrie;
+    private PayloadTrie<String> compactTrie;
+    private String[] texts;
+
+    private int matches;
+    private final PayloadEmitHandler<String> emitHandler = emit -> {
+        matches += emit.getEnd() - emit.getStart() + 1;
+        return true;
+    };
+    private final KeywordMatchHandler keywordHandler = (start, end, keyword) -> {
+        matches += end - start + 1;
+        return true;
+    };
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+
+        // Dictionary words: 2-4 common CJK characters, payload is the pinyin string
+        final Set<String> words = new LinkedHashSet<>();
+        while (words.size() < keywordCount) {
+            words.add(randomCjk(random, 2 + random.nextInt(3)));
+        }
+        final List<Payload<String>> payloads = new ArrayList<>(words.size());
+        for (String word : words) {
+            payloads.add(new Payload<>(word, "PINYIN"));
+        }
+
+        hashMapTrie = HashMapPayloadTrie.build(payloads);
+        final PayloadTrie.PayloadTrieBuilder<String> builder = PayloadTrie.builder();
+        builder.addKeywords(payloads);
+        compactTrie = builder.build();
+
+        // Display names: dictionary words mixed with random CJK and ASCII fragments
+        final List<String> wordList = new ArrayList<>(words);
+        texts = new String[TEXT_COUNT];
+        for (int i = 0; i < TEXT_COUNT; i++) {
+            final StringBuilder text = new StringBuilder();
+            final int parts = 1 + random.nextInt(4);
+            for (int p = 0; p < parts; p++) {
+                switch (random.nextInt(3)) {
+                    case 0 -> text.append(wordList.get(random.nextInt(wordList.size())));
+                    case 1 -> text.append(randomCjk(random, 1 + random.nextInt(4)));
+                    default -> text.append(" Mk").append(random.nextInt(10)).append(' ');
+                }
+            }
+            texts[i] = text.toString();
+        }
+    }
+
+    private static String randomCjk(final Random random, final int length) {
+        final char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            // The most common characters sit at the start of the CJK block often enough for shared prefixes
+            chars[i] = (char) (0x4E00 + random.nextInt(3000));
+        }
+        return new String(chars);
+    }
+
+    @Benchmark
+    public int hashMapParseText() {
+        int total = 0;
+        for (String text : texts) {
+            total += hashMapTrie.parseText(text).size();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int compactParseText() {
+        int total = 0;
+        for (String text : texts) {
+            total += compactTrie.parseText(text).size();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int hashMapEmitHandler() {
+        matches = 0;
+        for (String text : texts) {
+            hashMapTrie.parseText(text, emitHandler);
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int compactKeywordHandler() {
+        matches = 0;
+        for (String text : texts) {
+            compactTrie.parseText(text, keywordHandler);
+        }
+        return matches;
+    }
+}
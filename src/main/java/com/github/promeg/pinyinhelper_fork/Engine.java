@@ -3,6 +3,7 @@ package com.github.promeg.pinyinhelper_fork;
 
 import org.ahocorasick_fork.trie.Emit;
 import org.ahocorasick_fork.trie.Trie;
+import org.ahocorasick_fork.trie.handler.KeywordMatchHandler;
 
 import java.util.Collections;
 import java.util.Comparator;
@@ -31,7 +32,7 @@ final class Engine {
 
         if (trie == null || selector == null) {
             // 没有提供字典或选择器，按单字符转换输出
-            StringBuffer resultPinyinStrBuf = new StringBuffer();
+            StringBuilder resultPinyinStrBuf = new StringBuilder();
             for (int i = 0; i < inputStr.length(); i++) {
                 resultPinyinStrBuf.append(Pinyin.toPinyin(inputStr.charAt(i)));
                 if (i != inputStr.length() - 1) {
@@ -45,7 +46,7 @@ final class Engine {
 
         Collections.sort(selectedEmits, EMIT_COMPARATOR);
 
-        StringBuffer resultPinyinStrBuf = new StringBuffer();
+        StringBuilder resultPinyinStrBuf = new StringBuilder();
 
         int nextHitIndex = 0;
 
@@ -77,6 +78,88 @@ final class Engine {
         return resultPinyinStrBuf.toString();
     }
 
+    /**
+     * 单次遍历输入字符串，把小写的完整拼音（带分隔符）、首字母、无分隔符拼音分别追加到对应的StringBuilder，
+     * 不需要的形式传null。
+     *
+     * 没有字典时逐字符查表，不产生任何中间对象；有字典时（正向最大匹配）直接在匹配回调中选词，
+     * 不再收集、排序Emit列表
+     */
+    static void toPinyin(final CharSequence inputStr, final Trie trie, final List<PinyinDict> pinyinDictList,
+            final String separator, final SegmentationSelector selector,
+            final StringBuilder full, final StringBuilder initials, final StringBuilder noSeparator) {
+        if (inputStr == null || inputStr.length() == 0) {
+            return;
+        }
+
+        final int length = inputStr.length();
+        // 每个位置开始的选中词，null表示该位置按单字符转换
+        String[] words = null;
+
+        if (trie != null && selector instanceof ForwardLongestSelector) {
+            // 记录每个位置开始的最长词，从左到右跳过已选词覆盖的位置即为正向最大匹配
+            final String[] longest = new String[length];
+            trie.parseText(inputStr, (KeywordMatchHandler) (start, end, keyword) -> {
+                if (longest[start] == null || end - start + 1 > longest[start].length()) {
+                    longest[start] = trie.getKeyword(keyword);
+                }
+                return true;
+            });
+            words = longest;
+        } else if (trie != null && selector != null) {
+            words = new String[length];
+            for (Emit emit : selector.select(trie.parseText(inputStr))) {
+                words[emit.getStart()] = emit.getKeyword();
+            }
+        }
+
+        for (int i = 0; i < length;) {
+            if (words != null && words[i] != null) {
+                String[] fromDicts = pinyinFromDict(words[i], pinyinDictList);
+                for (int j = 0; j < fromDicts.length; j++) {
+                    appendSyllable(fromDicts[j], full, initials, noSeparator);
+                    if (full != null && j != fromDicts.length - 1) {
+                        full.append(separator);
+                    }
+                }
+                i += words[i].length();
+            } else {
+                final char c = inputStr.charAt(i);
+                final String pinyin = Pinyin.lowerCasePinyin(c);
+                if (pinyin != null) {
+                    if (full != null) full.append(pinyin);
+                    if (initials != null) initials.append(pinyin.charAt(0));
+                    if (noSeparator != null) noSeparator.append(pinyin);
+                } else {
+                    final char lower = Character.toLowerCase(c);
+                    if (full != null) full.append(lower);
+                    if (initials != null) initials.append(lower);
+                    if (noSeparator != null) noSeparator.append(lower);
+                }
+                i++;
+            }
+
+            if (full != null && i != length) {
+                full.append(separator);
+            }
+        }
+    }
+
+    private static void appendSyllable(final String syllable, final StringBuilder full,
+            final StringBuilder initials, final StringBuilder noSeparator) {
+        if (syllable.isEmpty()) {
+            return;
+        }
+        if (initials != null) {
+            initials.append(Character.toLowerCase(syllable.charAt(0)));
+        }
+        for (int k = 0; k < syllable.length(); k++) {
+            final char lower = Character.toLowerCase(syllable.charAt(k));
+            if (full != null) full.append(lower);
+            if (noSeparator != null) noSeparator.append(lower);
+        }
+    }
+
     static String[] pinyinFromDict(String wordInDict, List<PinyinDict> pinyinDictSet) {
         if (pinyinDictSet != null) {
             for (PinyinDict dict : pinyinDictSet) {
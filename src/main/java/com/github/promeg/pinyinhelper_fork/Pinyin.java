@@ -96,6 +96,43 @@ public final class Pinyin {
         }
     }
 
+    /**
+     * 单次遍历将输入字符串转为小写拼音，同时写出三种形式，不产生中间列表和逐字符字符串：
+     * <ul>
+     *     <li>full：以字符为单位插入分隔符，与 toPinyin(str, separator).toLowerCase() 相同</li>
+     *     <li>initials：每个汉字（或字典词的每个音节）取首字母，其他字符转为小写</li>
+     *     <li>noSeparator：不带分隔符的完整拼音</li>
+     * </ul>
+     * 结果追加到传入的StringBuilder（可以复用），不需要的形式传null
+     *
+     * 例: "Hello中国" 在separator为" "时，full为 "h e l l o zhong guo"，initials为 "hellozg"，
+     * noSeparator为 "hellozhongguo"
+     *
+     * @param str 输入字符串
+     * @param separator full中使用的分隔符
+     * @param full 完整拼音输出，可为null
+     * @param initials 首字母输出，可为null
+     * @param noSeparator 无分隔符拼音输出，可为null
+     */
+    public static void toPinyin(CharSequence str, String separator, StringBuilder full, StringBuilder initials,
+                                StringBuilder noSeparator) {
+        Engine.toPinyin(str, mTrieDict, mPinyinDicts, separator, mSelector, full, initials, noSeparator);
+    }
+
+    /**
+     * 返回汉字的小写拼音，非汉字返回null
+     */
+    static String lowerCasePinyin(char c) {
+        if (c == PinyinData.CHAR_12295) {
+            return PinyinData.PINYIN_12295_LOWER_CASE;
+        }
+        if (c < PinyinData.MIN_VALUE || c > PinyinData.MAX_VALUE) {
+            return null;
+        }
+        int code = getPinyinCode(c);
+        return code > 0 ? PinyinData.PINYIN_TABLE_LOWER_CASE[code] : null;
+    }
+
     /**
      * 判断输入字符是否为汉字
      *
@@ -1,5 +1,7 @@
 package com.github.promeg.pinyinhelper_fork;
 
+import java.util.Locale;
+
 final class PinyinData {
 
     static final char MIN_VALUE = 19968;
@@ -10,6 +12,8 @@ final class PinyinData {
 
     static final char CHAR_12295 = 12295;
 
+    static final String PINYIN_12295_LOWER_CASE = "ling";
+
     static final int PINYIN_CODE_1_OFFSET = 7000;
 
     static final int PINYIN_CODE_2_OFFSET = 7000 * 2;
@@ -60,4 +64,15 @@ final class PinyinData {
             "ZHEN", "ZHENG", "ZHI", "ZHONG", "ZHOU", "ZHU", "ZHUA", "ZHUAI", "ZHUAN", "ZHUANG",
             "ZHUI", "ZHUN", "ZHUO", "ZI", "ZONG", "ZOU", "ZU", "ZUAN", "ZUI", "ZUN", "ZUO"};
     //CHECKSTYLE:ON
+
+    /**
+     * 小写的拼音表，流式转换时直接追加，不再逐字符调用toLowerCase
+     */
+    static final String[] PINYIN_TABLE_LOWER_CASE = new String[PINYIN_TABLE.length];
+
+    static {
+        for (int i = 0; i < PINYIN_TABLE.length; i++) {
+            PINYIN_TABLE_LOWER_CASE[i] = PINYIN_TABLE[i].toLowerCase(Locale.ROOT);
+        }
+    }
 }
@@ -2,8 +2,11 @@ package com.wzz.registerhelper.command;
 
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.context.CommandContext;
+import com.wzz.registerhelper.ingredient.NbtMatchCache;
+import com.wzz.registerhelper.init.ModConfig;
 import com.wzz.registerhelper.init.ModNetwork;
 import com.wzz.registerhelper.network.OpenGUIPacket;
+import com.wzz.registerhelper.recipe.RecipeBundle;
 import com.wzz.registerhelper.util.CrtUtils;
 import com.wzz.registerhelper.util.KubeJsUtils;
 import com.wzz.registerhelper.util.RecipeReloadHelper;
@@ -13,12 +16,16 @@ import net.minecraft.commands.Commands;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraftforge.fml.ModList;
+import net.minecraftforge.fml.loading.FMLPaths;
 import net.minecraftforge.network.PacketDistributor;
 import com.mojang.logging.LogUtils;
 import org.slf4j.Logger;
 
+import java.nio.file.Path;
+
 public class RecipeCommand {
     private static final Logger LOGGER = LogUtils.getLogger();
+    private static final Path RECIPES_DIR = FMLPaths.CONFIGDIR.get().resolve("registerhelper/recipes");
 
     public static void register(CommandDispatcher<CommandSourceStack> dispatcher, CommandBuildContext buildContext) {
         dispatcher.register(Commands.literal("recipe_helper")
@@ -27,6 +34,16 @@ public class RecipeCommand {
                         .executes(RecipeCommand::openGUI))
                 .then(Commands.literal("reload")
                         .executes(RecipeCommand::reloadRecipes))
+                .then(Commands.literal("stats")
+                        .then(Commands.literal("nbt_cache")
+                                .executes(RecipeCommand::showNbtCacheStats)
+                                .then(Commands.literal("reset")
+                                        .executes(RecipeCommand::resetNbtCacheStats))))
+                .then(Commands.literal("bundle")
+                        .then(Commands.literal("pack")
+                                .executes(RecipeCommand::packRecipes))
+                        .then(Commands.literal("unpack")
+                                .executes(RecipeCommand::unpackRecipes)))
                 .then(Commands.literal("export")
                         .then(Commands.literal("kubejs")
                                 .then(Commands.literal("single")
@@ -64,6 +81,58 @@ public class RecipeCommand {
         }
     }
 
+    /**
+     * 显示NBT匹配缓存的命中统计
+     */
+    private static int showNbtCacheStats(CommandContext<CommandSourceStack> context) {
+        long hits = NbtMatchCache.getHits();
+        long misses = NbtMatchCache.getMisses();
+        long total = hits + misses;
+        String rate = total > 0 ? String.format("%.1f%%", hits * 100.0 / total) : "-";
+        context.getSource().sendSuccess(() -> Component.literal(String.format("§aNBT匹配缓存%s: 命中 %d 次，未命中 %d 次，命中率 %s",
+                ModConfig.isNbtMatchCacheEnabled() ? "" : "（未启用）", hits, misses, rate)), false);
+        return 1;
+    }
+
+    private static int resetNbtCacheStats(CommandContext<CommandSourceStack> context) {
+        NbtMatchCache.resetStats();
+        context.getSource().sendSuccess(() -> Component.literal("§aNBT匹配缓存统计已重置"), false);
+        return 1;
+    }
+
+    /**
+     * 把 config/registerhelper/recipes 下的散装配方打包为 recipes.rhpack
+     */
+    private static int packRecipes(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        try {
+            int count = RecipeBundle.packDirectory(RECIPES_DIR);
+            source.sendSuccess(() -> Component.literal("§a成功打包 " + count + " 个配方到 " + RecipeBundle.DEFAULT_NAME
+                    + "，原文件已移动到 config/registerhelper/.backup"), true);
+            return 1;
+        } catch (Exception e) {
+            source.sendFailure(Component.literal("§c打包失败: " + e.getMessage()));
+            LOGGER.error("打包配方失败", e);
+            return 0;
+        }
+    }
+
+    /**
+     * 把打包文件还原为散装配方文件（不覆盖已存在的文件）
+     */
+    private static int unpackRecipes(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        try {
+            int count = RecipeBundle.unpackDirectory(RECIPES_DIR);
+            source.sendSuccess(() -> Component.literal("§a成功还原 " + count + " 个配方文件，打包文件已移动到 config/registerhelper/.backup"), true);
+            return 1;
+        } catch (Exception e) {
+            source.sendFailure(Component.literal("§c解包失败: " + e.getMessage()));
+            LOGGER.error("解包配方失败", e);
+            return 0;
+        }
+    }
+
     private static int exportAllToKubeJSSingle(CommandContext<CommandSourceStack> context) {
         CommandSourceStack source = context.getSource();
         try {
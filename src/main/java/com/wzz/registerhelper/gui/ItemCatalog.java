@@ -0,0 +1,167 @@
+package com.wzz.registerhelper.gui;
+
+import com.mojang.logging.LogUtils;
+import com.wzz.registerhelper.util.PinyinSearchHelper;
+import net.minecraft.Util;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.resources.ResourceManagerReloadListener;
+import net.minecraft.world.item.ArmorItem;
+import net.minecraft.world.item.BlockItem;
+import net.minecraft.world.item.BowItem;
+import net.minecraft.world.item.CrossbowItem;
+import net.minecraft.world.item.DiggerItem;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.item.ShieldItem;
+import net.minecraft.world.item.SwordItem;
+import net.minecraft.world.item.TridentItem;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.client.event.RegisterClientReloadListenersEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 客户端物品目录，所有物品选择界面共用
+ * 每次资源重载（包括切换语言）后在后台线程重新构建：缓存显示名称、分类、模组ID，
+ * 并建立拼音搜索索引，界面打开时直接使用
+ *
+ * 条目中的 ItemStack 是共享的，使用方不能修改，需要交给其他地方时先 copy
+ */
+@OnlyIn(Dist.CLIENT)
+@Mod.EventBusSubscriber(modid = "registerhelper", value = Dist.CLIENT, bus = Mod.EventBusSubscriber.Bus.MOD)
+public class ItemCatalog {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private static volatile CompletableFuture<ItemCatalog> current;
+
+    private final List<Entry> entries;
+    private final Map<Item, Entry> byItem;
+    // 只在客户端线程搜索（搜索词编译结果缓存在索引中）
+    private final PinyinSearchHelper<Entry> searchHelper;
+
+    /**
+     * 物品分类（仿原版创造栏标签）
+     */
+    public enum Category {
+        BLOCKS, TOOLS, COMBAT, FOOD, MISC
+    }
+
+    /**
+     * 目录中的一个物品
+     * @param stack 物品的默认实例（共享，不可修改）
+     */
+    public record Entry(Item item, ItemStack stack, ResourceLocation id, String modId, String displayName,
+                        Category category) {
+    }
+
+    private ItemCatalog(List<ItemStack> stacks) {
+        List<Entry> list = new ArrayList<>(stacks.size());
+        Map<Item, Entry> map = new HashMap<>(stacks.size() * 2);
+        for (ItemStack stack : stacks) {
+            Item item = stack.getItem();
+            ResourceLocation id = BuiltInRegistries.ITEM.getKey(item);
+            String displayName;
+            try {
+                displayName = stack.getHoverName().getString();
+            } catch (Exception e) {
+                displayName = id.toString();
+            }
+            Entry entry = new Entry(item, stack, id, id.getNamespace(), displayName, classify(item));
+            list.add(entry);
+            map.put(item, entry);
+        }
+        this.entries = Collections.unmodifiableList(list);
+        this.byItem = map;
+        this.searchHelper = new PinyinSearchHelper<>(Entry::displayName, entry -> entry.id().toString());
+        this.searchHelper.buildCache(list);
+    }
+
+    /**
+     * 获取物品目录，还在构建时等待构建完成（在客户端线程调用）
+     */
+    public static ItemCatalog get() {
+        CompletableFuture<ItemCatalog> future = current;
+        if (future == null) {
+            rebuild();
+            future = current;
+        }
+        return future.join();
+    }
+
+    /**
+     * 重新构建物品目录：ItemStack 在客户端线程创建，名称、分类和搜索索引在后台线程计算
+     */
+    public static void rebuild() {
+        long startTime = System.nanoTime();
+        List<ItemStack> stacks = new ArrayList<>();
+        for (Item item : BuiltInRegistries.ITEM) {
+            if (item != Items.AIR) {
+                stacks.add(item.getDefaultInstance());
+            }
+        }
+        current = CompletableFuture.supplyAsync(() -> {
+            ItemCatalog catalog = new ItemCatalog(stacks);
+            LOGGER.debug("物品目录已构建: {} 个物品，耗时 {}ms", catalog.entries.size(),
+                    (System.nanoTime() - startTime) / 1_000_000L);
+            return catalog;
+        }, Util.backgroundExecutor());
+    }
+
+    /**
+     * 资源重载（启动、切换语言、F3+T）后重新构建
+     */
+    @SubscribeEvent
+    public static void onRegisterReloadListeners(RegisterClientReloadListenersEvent event) {
+        event.registerReloadListener((ResourceManagerReloadListener) resourceManager -> rebuild());
+    }
+
+    /**
+     * 判断物品属于哪个分类
+     */
+    public static Category classify(Item item) {
+        if (item instanceof BlockItem) return Category.BLOCKS;
+        if (item instanceof SwordItem || item instanceof BowItem
+                || item instanceof CrossbowItem || item instanceof ArmorItem
+                || item instanceof TridentItem || item instanceof ShieldItem)
+            return Category.COMBAT;
+        if (item instanceof DiggerItem) return Category.TOOLS;
+        if (item.isEdible()) return Category.FOOD;
+        return Category.MISC;
+    }
+
+    /**
+     * 所有物品（按注册顺序）
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * 获取物品对应的条目，不存在时返回 null
+     */
+    public Entry getEntry(Item item) {
+        return byItem.get(item);
+    }
+
+    /**
+     * 搜索物品（支持中文名称、拼音、首字母、mod过滤），按注册顺序返回
+     */
+    public List<Entry> search(String text) {
+        return searchHelper.search(text);
+    }
+
+    public PinyinSearchHelper.PinyinInfo getPinyinInfo(Entry entry) {
+        return searchHelper.getPinyinInfo(entry);
+    }
+}
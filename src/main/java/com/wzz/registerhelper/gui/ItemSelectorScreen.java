@@ -16,11 +16,6 @@ import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
-import net.minecraft.world.item.ArmorItem;
-import net.minecraft.world.item.BowItem;
-import net.minecraft.world.item.CrossbowItem;
-import net.minecraft.world.item.DiggerItem;
-import net.minecraft.world.item.SwordItem;
 import net.minecraftforge.registries.ForgeRegistries;
 import org.jetbrains.annotations.NotNull;
 
@@ -48,6 +43,8 @@ public class ItemSelectorScreen extends Screen {
     private final List<ItemStack> allItems = new ArrayList<>();
     private final List<ItemStack> inventoryItems = new ArrayList<>();
     private final List<ItemStack> filteredItems = new ArrayList<>();
+    private final ItemCatalog catalog;
+    // 背包物品不在目录中，单独搜索
     private final PinyinSearchHelper<ItemStack> searchHelper;
 
     private int currentPage = 0;
@@ -78,22 +75,24 @@ public class ItemSelectorScreen extends Screen {
 
     /** 物品分类（仿原版创造栏标签） */
     public enum ItemCategory {
-        ALL      ("全部",   0xFFE0E0E0),
-        BLOCKS   ("方块",   0xFF88DDAA),
-        TOOLS    ("工具",   0xFFDDAA55),
-        COMBAT   ("战斗",   0xFFDD5555),
-        FOOD     ("食物",   0xFFDDCC44),
-        MISC     ("其他",   0xFFAAAACC);
+        ALL      ("全部",   0xFFE0E0E0, null),
+        BLOCKS   ("方块",   0xFF88DDAA, ItemCatalog.Category.BLOCKS),
+        TOOLS    ("工具",   0xFFDDAA55, ItemCatalog.Category.TOOLS),
+        COMBAT   ("战斗",   0xFFDD5555, ItemCatalog.Category.COMBAT),
+        FOOD     ("食物",   0xFFDDCC44, ItemCatalog.Category.FOOD),
+        MISC     ("其他",   0xFFAAAACC, ItemCatalog.Category.MISC);
 
         final String label;
         final int color;
-        ItemCategory(String l, int c) { label = l; color = c; }
+        final ItemCatalog.Category category;
+        ItemCategory(String l, int c, ItemCatalog.Category cat) { label = l; color = c; category = cat; }
     }
 
     public ItemSelectorScreen(Screen parentScreen, Consumer<ItemStack> onItemSelected) {
         super(Component.literal("选择物品"));
         this.parentScreen = parentScreen;
         this.onItemSelected = onItemSelected;
+        this.catalog = ItemCatalog.get();
         this.searchHelper = new PinyinSearchHelper<>(
                 item -> item.getItem().getDescription().getString(),
                 item -> { ResourceLocation id = BuiltInRegistries.ITEM.getKey(item.getItem()); return id != null ? id.toString() : ""; }
@@ -103,7 +102,6 @@ public class ItemSelectorScreen extends Screen {
         this.itemsPerPage = 77;
         collectAllItems();
         collectInventoryItems();
-        searchHelper.buildCache(allItems);
         updateFilteredItems("");
     }
 
@@ -119,9 +117,10 @@ public class ItemSelectorScreen extends Screen {
             Items.DRAGON_EGG.getDefaultInstance()
         );
         allItems.addAll(common);
-        for (Item item : BuiltInRegistries.ITEM) {
-            ItemStack s = item.getDefaultInstance();
-            if (!allItems.contains(s) && item != Items.AIR) allItems.add(s);
+        Set<Item> added = new HashSet<>();
+        for (ItemStack s : common) added.add(s.getItem());
+        for (ItemCatalog.Entry entry : catalog.getEntries()) {
+            if (added.add(entry.item())) allItems.add(entry.stack());
         }
     }
 
@@ -146,28 +145,23 @@ public class ItemSelectorScreen extends Screen {
         return s.hasTag() ? base + "#" + s.getTag().hashCode() : base;
     }
 
-    /** 判断物品属于哪个分类 */
-    private ItemCategory classifyItem(ItemStack stack) {
-        Item item = stack.getItem();
-        if (item instanceof net.minecraft.world.item.BlockItem) return ItemCategory.BLOCKS;
-        if (item instanceof SwordItem || item instanceof BowItem
-                || item instanceof CrossbowItem || item instanceof ArmorItem
-                || item instanceof net.minecraft.world.item.TridentItem
-                || item instanceof net.minecraft.world.item.ShieldItem)
-            return ItemCategory.COMBAT;
-        if (item instanceof DiggerItem) return ItemCategory.TOOLS;
-        if (item.isEdible()) return ItemCategory.FOOD;
-        return ItemCategory.MISC;
-    }
-
     private void updateFilteredItems(String text) {
         filteredItems.clear();
         List<ItemStack> src = currentMode == SelectionMode.INVENTORY ? inventoryItems : allItems;
-        List<ItemStack> searched = text.isEmpty() ? new ArrayList<>(src) : new ArrayList<>(searchHelper.filter(src, text));
+        List<ItemStack> searched;
+        if (text.isEmpty()) {
+            searched = new ArrayList<>(src);
+        } else if (src == allItems) {
+            // 全部物品直接按目录的索引搜索
+            searched = new ArrayList<>();
+            for (ItemCatalog.Entry entry : catalog.search(text)) searched.add(entry.stack());
+        } else {
+            searched = searchHelper.filter(src, text);
+        }
 
         // 物品类型分类过滤
         if (currentCategory != ItemCategory.ALL) {
-            searched.removeIf(s -> classifyItem(s) != currentCategory);
+            searched.removeIf(s -> ItemCatalog.classify(s.getItem()) != currentCategory.category);
         }
         filteredItems.addAll(searched);
         maxPage = itemsPerPage > 0 ? Math.max(0, (filteredItems.size() - 1) / itemsPerPage) : 0;
@@ -382,7 +376,8 @@ public class ItemSelectorScreen extends Screen {
                     tt.add(Component.literal("§8将保留附魔、名称等数据"));
                 }
                 if (item.getCount() > 1) tt.add(Component.literal("§7数量: " + item.getCount()));
-                PinyinSearchHelper.PinyinInfo pi = searchHelper.getPinyinInfo(item);
+                ItemCatalog.Entry entry = catalog.getEntry(item.getItem());
+                PinyinSearchHelper.PinyinInfo pi = entry != null ? catalog.getPinyinInfo(entry) : null;
                 if (pi != null && !pi.fullPinyin.trim().isEmpty()) {
                     String dn = item.getItem().getDescription().getString();
                     if (PinyinSearchHelper.containsChinese(dn)) {
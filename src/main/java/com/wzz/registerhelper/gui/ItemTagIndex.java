@@ -0,0 +1,145 @@
+package com.wzz.registerhelper.gui;
+
+import com.mojang.datafixers.util.Pair;
+import com.mojang.logging.LogUtils;
+import net.minecraft.Util;
+import net.minecraft.core.Holder;
+import net.minecraft.core.HolderSet;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.Items;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.event.TagsUpdatedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 客户端物品标签索引：标签 -> (物品数量, 代表性物品)
+ * 在后台线程一次遍历所有物品标签构建，按标签ID顺序分批发布，界面可以边构建边显示。
+ * 索引在客户端共用，收到服务器的标签更新后失效，下次使用时重新构建
+ */
+@OnlyIn(Dist.CLIENT)
+@Mod.EventBusSubscriber(modid = "registerhelper", value = Dist.CLIENT)
+public class ItemTagIndex {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final int BATCH_SIZE = 256;
+
+    private static Build current;
+
+    /**
+     * 一个物品标签
+     * @param itemName 代表性物品的显示名称（用于搜索）
+     */
+    public record Entry(ResourceLocation tagId, Item representativeItem, int itemCount, String itemName) {
+    }
+
+    /**
+     * 一次构建，条目按标签ID顺序追加
+     */
+    public static class Build {
+        private final List<Entry> entries = new ArrayList<>();
+        private volatile boolean done;
+        private volatile boolean cancelled;
+
+        /**
+         * 获取从 start 开始的新条目
+         */
+        public synchronized List<Entry> entriesFrom(int start) {
+            return start >= entries.size() ? List.of() : List.copyOf(entries.subList(start, entries.size()));
+        }
+
+        public synchronized int size() {
+            return entries.size();
+        }
+
+        /**
+         * 是否已构建完成（失效的构建不会再完成）
+         */
+        public boolean isDone() {
+            return done;
+        }
+
+        private synchronized void publish(List<Entry> batch) {
+            entries.addAll(batch);
+        }
+    }
+
+    /**
+     * 获取当前索引，没有时在后台开始构建（在客户端线程调用）
+     */
+    public static Build get() {
+        if (current == null) {
+            Build build = new Build();
+            // 标签集合列表在客户端线程取出，后台只读取已绑定的标签内容
+            List<Pair<TagKey<Item>, HolderSet.Named<Item>>> tags = BuiltInRegistries.ITEM.getTags().toList();
+            Util.backgroundExecutor().execute(() -> build(build, tags));
+            current = build;
+        }
+        return current;
+    }
+
+    /**
+     * 标签更新后丢弃索引（正在进行的构建会提前结束）
+     */
+    public static void invalidate() {
+        if (current != null) {
+            current.cancelled = true;
+            current = null;
+        }
+    }
+
+    @SubscribeEvent
+    public static void onTagsUpdated(TagsUpdatedEvent event) {
+        if (event.getUpdateCause() == TagsUpdatedEvent.UpdateCause.CLIENT_PACKET_RECEIVED) {
+            invalidate();
+        }
+    }
+
+    private static void build(Build build, List<Pair<TagKey<Item>, HolderSet.Named<Item>>> tags) {
+        long startTime = System.nanoTime();
+        try {
+            List<Pair<TagKey<Item>, HolderSet.Named<Item>>> sorted = new ArrayList<>(tags);
+            sorted.sort(Comparator.comparing(pair -> pair.getFirst().location().toString()));
+
+            List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+            for (Pair<TagKey<Item>, HolderSet.Named<Item>> pair : sorted) {
+                if (build.cancelled) {
+                    return;
+                }
+                Item representative = null;
+                for (Holder<Item> holder : pair.getSecond()) {
+                    if (holder.value() != Items.AIR) {
+                        representative = holder.value();
+                        break;
+                    }
+                }
+                // 没有物品的标签不显示
+                if (representative == null) {
+                    continue;
+                }
+                batch.add(new Entry(pair.getFirst().location(), representative, pair.getSecond().size(),
+                        representative.getDescription().getString()));
+                if (batch.size() >= BATCH_SIZE) {
+                    build.publish(batch);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            build.publish(batch);
+            build.done = true;
+            LOGGER.debug("物品标签索引已构建: {} 个标签，耗时 {}ms", build.size(),
+                    (System.nanoTime() - startTime) / 1_000_000L);
+        } catch (Exception e) {
+            // 已发布的条目保留，下次标签更新时重新构建
+            LOGGER.error("构建物品标签索引失败", e);
+            build.done = true;
+        }
+    }
+}
@@ -10,6 +10,7 @@ import net.minecraft.client.gui.screens.Screen;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.crafting.Ingredient;
 import net.minecraft.world.item.crafting.Recipe;
@@ -66,9 +67,15 @@ public class RecipeCloneWizardScreen extends Screen {
     private EditBox searchBox;
     private int itemScroll = 0;
     private ItemStack targetItem = ItemStack.EMPTY;
+    // 选择物品时配方物品索引还在构建，构建完成后重新查找
+    private boolean indexPending = false;
 
     // 拼音搜索助手
+    private final ItemCatalog catalog;
+    // 只索引背包物品，注册物品由目录搜索
     private final PinyinSearchHelper<ItemStack> searchHelper;
+    private final List<ItemStack> inventoryItems = new ArrayList<>();
+    private final Set<Item> inventoryItemSet = new HashSet<>();
 
     private static final int ITEM_COLS = 8;
     private static final int ITEM_ROWS = 7;
@@ -93,6 +100,7 @@ public class RecipeCloneWizardScreen extends Screen {
         super(Component.literal("配方克隆向导"));
         this.parent  = parent;
         this.onClone = onClone;
+        this.catalog = ItemCatalog.get();
         this.searchHelper = new PinyinSearchHelper<>(
                 item -> item.getHoverName().getString(),
                 item -> {
@@ -109,19 +117,17 @@ public class RecipeCloneWizardScreen extends Screen {
         var player = Minecraft.getInstance().player;
         if (player != null) {
             for (ItemStack s : player.getInventory().items) {
-                if (!s.isEmpty()) addUnique(s.copy());
+                if (!s.isEmpty() && inventoryItemSet.add(s.getItem())) inventoryItems.add(s.copy());
             }
         }
-        // 全部注册物品
-        for (var item : ForgeRegistries.ITEMS.getValues()) addUnique(new ItemStack(item));
+        allItems.addAll(inventoryItems);
+        // 全部注册物品（使用共享的物品目录）
+        for (ItemCatalog.Entry entry : catalog.getEntries()) {
+            if (!inventoryItemSet.contains(entry.item())) allItems.add(entry.stack());
+        }
         filteredItems.addAll(allItems);
-        // 构建拼音缓存
-        searchHelper.buildCache(allItems);
-    }
-
-    private void addUnique(ItemStack s) {
-        for (ItemStack x : allItems) if (ItemStack.isSameItem(x, s)) return;
-        allItems.add(s);
+        // 构建背包物品的拼音缓存
+        searchHelper.buildCache(inventoryItems);
     }
 
     // ── 搜索（支持中文名称、拼音、首字母、mod过滤） ───────────────
@@ -130,11 +136,16 @@ public class RecipeCloneWizardScreen extends Screen {
         if (text.isBlank()) {
             filteredItems.addAll(allItems);
         } else {
-            for (ItemStack s : allItems) {
+            for (ItemStack s : inventoryItems) {
                 if (searchHelper.matches(s, text)) {
                     filteredItems.add(s);
                 }
             }
+            for (ItemCatalog.Entry entry : catalog.search(text)) {
+                if (!inventoryItemSet.contains(entry.item())) {
+                    filteredItems.add(entry.stack());
+                }
+            }
         }
         itemScroll = 0;
     }
@@ -152,20 +163,13 @@ public class RecipeCloneWizardScreen extends Screen {
         RecipeManager rm = getRM();
         if (rm == null) return;
 
-        Set<ResourceLocation> seen = new LinkedHashSet<>();
-        for (Recipe<?> r : rm.getRecipes()) {
-            try {
-                boolean asIng = false, asRes = false;
-                ItemStack res = r.getResultItem(Minecraft.getInstance().level.registryAccess());
-                if (ItemStack.isSameItem(res, item)) asRes = true;
-                for (Ingredient ing : r.getIngredients()) {
-                    if (!ing.isEmpty()) for (ItemStack m : ing.getItems())
-                        if (ItemStack.isSameItem(m, item)) { asIng = true; break; }
-                    if (asIng) break;
-                }
-                if ((asIng || asRes) && seen.add(r.getId()))
-                    recipeList.add(new RecipeEntry(r, asIng, asRes));
-            } catch (Exception ignored) {}
+        // 从配方物品索引查找，不再遍历全部配方
+        RecipeItemIndex index = RecipeItemIndex.get();
+        indexPending = !RecipeItemIndex.isReady();
+        Set<ResourceLocation> using = new HashSet<>(index.getRecipesUsing(item.getItem()));
+        Set<ResourceLocation> producing = new HashSet<>(index.getRecipesProducing(item.getItem()));
+        for (ResourceLocation id : index.getRecipesFor(item.getItem())) {
+            rm.byKey(id).ifPresent(r -> recipeList.add(new RecipeEntry(r, using.contains(id), producing.contains(id))));
         }
         // 排序：产物在前，原料在后
         recipeList.sort(Comparator.comparingInt(e -> (e.asResult ? 0 : 1)));
@@ -243,6 +247,15 @@ public class RecipeCloneWizardScreen extends Screen {
                 .bounds(c2x + 74, footY, 50, 20).build());
     }
 
+    @Override
+    public void tick() {
+        super.tick();
+        if (indexPending && RecipeItemIndex.isReady()) {
+            indexPending = false;
+            if (!targetItem.isEmpty()) pickItem(targetItem);
+        }
+    }
+
     private void doClone() {
         if (selectedIdx >= 0 && selectedIdx < recipeList.size()) {
             onClone.accept(recipeList.get(selectedIdx).id);
@@ -341,7 +354,7 @@ public class RecipeCloneWizardScreen extends Screen {
         g.fill(c2x,   contentY,   c2x+COL2_W,   contentY+contentH,   0xFF0C0C18);
 
         if (recipeList.isEmpty()) {
-            g.drawCenteredString(font, "§8无含此物品的配方",
+            g.drawCenteredString(font, indexPending ? "§8正在建立配方索引..." : "§8无含此物品的配方",
                     c2x+COL2_W/2, contentY+contentH/2, 0x444455);
             return;
         }
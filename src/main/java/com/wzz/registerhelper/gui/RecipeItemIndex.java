@@ -0,0 +1,221 @@
+package com.wzz.registerhelper.gui;
+
+import com.mojang.logging.LogUtils;
+import net.minecraft.Util;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientPacketListener;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.minecraft.world.item.crafting.Recipe;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.client.event.ClientPlayerNetworkEvent;
+import net.minecraftforge.client.event.RecipesUpdatedEvent;
+import net.minecraftforge.event.TagsUpdatedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 客户端配方物品索引：物品 -> 使用它作为原料的配方ID / 产出它的配方ID
+ * 收到服务器的配方（或标签）更新后，在后台线程分块并行构建；
+ * 原料只在构建时展开一次（标签原料不用每次点击都重新解析）
+ * 查询不会等待构建：构建完成前得到空索引，界面通过 {@link #isReady()} 判断并在构建完成后刷新
+ */
+@OnlyIn(Dist.CLIENT)
+@Mod.EventBusSubscriber(modid = "registerhelper", value = Dist.CLIENT)
+public class RecipeItemIndex {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final RecipeItemIndex EMPTY = new RecipeItemIndex(Map.of(), Map.of());
+    // 每个后台任务处理的配方数
+    private static final int CHUNK_SIZE = 512;
+
+    private static Build current;
+
+    private final Map<Item, List<ResourceLocation>> usedBy;
+    private final Map<Item, List<ResourceLocation>> producedBy;
+
+    private static class Build {
+        private volatile boolean cancelled;
+        private CompletableFuture<RecipeItemIndex> future;
+    }
+
+    /**
+     * 一个分块的构建结果
+     */
+    private record Partial(Map<Item, List<ResourceLocation>> usedBy, Map<Item, List<ResourceLocation>> producedBy) {
+    }
+
+    private RecipeItemIndex(Map<Item, List<ResourceLocation>> usedBy, Map<Item, List<ResourceLocation>> producedBy) {
+        this.usedBy = usedBy;
+        this.producedBy = producedBy;
+    }
+
+    /**
+     * 获取当前索引（在客户端线程调用，不等待构建）
+     * 还在构建或未连接服务器时返回空索引
+     */
+    public static RecipeItemIndex get() {
+        if (current == null) {
+            ClientPacketListener connection = Minecraft.getInstance().getConnection();
+            if (connection == null) {
+                return EMPTY;
+            }
+            rebuild(connection.getRecipeManager(), connection.registryAccess());
+        }
+        return current.future.getNow(EMPTY);
+    }
+
+    /**
+     * 索引是否已构建完成（未连接服务器时视为完成，结果为空索引）
+     */
+    public static boolean isReady() {
+        Build build = current;
+        return build == null ? Minecraft.getInstance().getConnection() == null : build.future.isDone();
+    }
+
+    /**
+     * 丢弃索引（正在进行的构建会提前结束），下次使用时重新构建
+     */
+    public static void invalidate() {
+        if (current != null) {
+            current.cancelled = true;
+            current = null;
+        }
+    }
+
+    /**
+     * 在后台重新构建索引，配方列表在客户端线程取出
+     */
+    public static void rebuild(RecipeManager recipeManager, RegistryAccess registryAccess) {
+        invalidate();
+        long startTime = System.nanoTime();
+        Build build = new Build();
+        List<Recipe<?>> recipes = List.copyOf(recipeManager.getRecipes());
+
+        List<CompletableFuture<Partial>> parts = new ArrayList<>();
+        for (int start = 0; start < recipes.size(); start += CHUNK_SIZE) {
+            List<Recipe<?>> chunk = recipes.subList(start, Math.min(start + CHUNK_SIZE, recipes.size()));
+            parts.add(CompletableFuture.supplyAsync(() -> indexChunk(chunk, registryAccess, build),
+                    Util.backgroundExecutor()));
+        }
+        build.future = CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new)).thenApply(v -> {
+            // 按分块顺序合并，每个物品的配方顺序与配方管理器一致
+            Map<Item, List<ResourceLocation>> usedBy = new HashMap<>();
+            Map<Item, List<ResourceLocation>> producedBy = new HashMap<>();
+            for (CompletableFuture<Partial> part : parts) {
+                Partial partial = part.join();
+                merge(usedBy, partial.usedBy);
+                merge(producedBy, partial.producedBy);
+            }
+            LOGGER.debug("配方物品索引已构建: {} 个配方，耗时 {}ms", recipes.size(),
+                    (System.nanoTime() - startTime) / 1_000_000L);
+            return new RecipeItemIndex(usedBy, producedBy);
+        }).exceptionally(e -> {
+            LOGGER.error("构建配方物品索引失败", e instanceof CompletionException ? e.getCause() : e);
+            return EMPTY;
+        });
+        current = build;
+    }
+
+    @SubscribeEvent
+    public static void onRecipesUpdated(RecipesUpdatedEvent event) {
+        ClientPacketListener connection = Minecraft.getInstance().getConnection();
+        if (connection != null) {
+            rebuild(event.getRecipeManager(), connection.registryAccess());
+        }
+    }
+
+    /**
+     * 标签原料的内容随标签变化，标签更新后也要重建
+     */
+    @SubscribeEvent
+    public static void onTagsUpdated(TagsUpdatedEvent event) {
+        if (event.getUpdateCause() == TagsUpdatedEvent.UpdateCause.CLIENT_PACKET_RECEIVED) {
+            ClientPacketListener connection = Minecraft.getInstance().getConnection();
+            if (connection != null) {
+                rebuild(connection.getRecipeManager(), connection.registryAccess());
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onLoggingOut(ClientPlayerNetworkEvent.LoggingOut event) {
+        invalidate();
+    }
+
+    private static Partial indexChunk(List<Recipe<?>> recipes, RegistryAccess registryAccess, Build build) {
+        Map<Item, List<ResourceLocation>> usedBy = new HashMap<>();
+        Map<Item, List<ResourceLocation>> producedBy = new HashMap<>();
+        Set<Item> ingredientItems = new HashSet<>();
+        for (Recipe<?> recipe : recipes) {
+            if (build.cancelled) {
+                break;
+            }
+            try {
+                ResourceLocation id = recipe.getId();
+                ItemStack result = recipe.getResultItem(registryAccess);
+                if (!result.isEmpty()) {
+                    producedBy.computeIfAbsent(result.getItem(), k -> new ArrayList<>()).add(id);
+                }
+                // 同一配方中重复出现的原料只记录一次
+                ingredientItems.clear();
+                for (Ingredient ingredient : recipe.getIngredients()) {
+                    if (ingredient.isEmpty()) continue;
+                    for (ItemStack stack : ingredient.getItems()) {
+                        ingredientItems.add(stack.getItem());
+                    }
+                }
+                for (Item item : ingredientItems) {
+                    usedBy.computeIfAbsent(item, k -> new ArrayList<>()).add(id);
+                }
+            } catch (Exception e) {
+                LOGGER.debug("索引配方 {} 时出错: {}", recipe.getId(), e.getMessage());
+            }
+        }
+        return new Partial(usedBy, producedBy);
+    }
+
+    private static void merge(Map<Item, List<ResourceLocation>> target, Map<Item, List<ResourceLocation>> source) {
+        for (Map.Entry<Item, List<ResourceLocation>> entry : source.entrySet()) {
+            target.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).addAll(entry.getValue());
+        }
+    }
+
+    /**
+     * 使用该物品作为原料的配方ID
+     */
+    public List<ResourceLocation> getRecipesUsing(Item item) {
+        return usedBy.getOrDefault(item, List.of());
+    }
+
+    /**
+     * 产出该物品的配方ID
+     */
+    public List<ResourceLocation> getRecipesProducing(Item item) {
+        return producedBy.getOrDefault(item, List.of());
+    }
+
+    /**
+     * 使用或产出该物品的配方ID（产出在前）
+     */
+    public Set<ResourceLocation> getRecipesFor(Item item) {
+        Set<ResourceLocation> ids = new LinkedHashSet<>(getRecipesProducing(item));
+        ids.addAll(getRecipesUsing(item));
+        return ids;
+    }
+}
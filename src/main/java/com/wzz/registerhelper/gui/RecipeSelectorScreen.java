@@ -5,6 +5,7 @@ import com.mojang.logging.LogUtils;
 import com.wzz.registerhelper.info.UnifiedRecipeInfo;
 import com.wzz.registerhelper.util.PinyinSearchHelper;
 import com.wzz.registerhelper.network.RecipeClientCache;
+import com.wzz.registerhelper.network.RecipeQuery;
 import com.wzz.registerhelper.network.RequestRecipeListPacket;
 import com.wzz.registerhelper.network.SyncRecipeListPacket;
 import net.minecraft.client.Minecraft;
@@ -12,11 +13,13 @@ import net.minecraft.client.gui.GuiGraphics;
 import net.minecraft.client.gui.components.Button;
 import net.minecraft.client.gui.components.EditBox;
 import net.minecraft.client.gui.screens.Screen;
+import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.world.item.crafting.Recipe;
 import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.crafting.Ingredient;
 import net.minecraftforge.api.distmarker.Dist;
@@ -39,6 +42,10 @@ public class RecipeSelectorScreen extends Screen {
     private static final int MAX_VISIBLE_RECIPES = 11;
     private static final int SLOT_SIZE = 18;
     private static final int SLOT_SPACING = 20;
+    // 远程服务器分页查询每页条目数
+    private static final int REMOTE_PAGE_SIZE = 100;
+    // 停止输入多少 tick 后才向服务器发送查询
+    private static final int REMOTE_QUERY_DELAY_TICKS = 5;
 
     private final Screen parentScreen;
     private final Consumer<ResourceLocation> onRecipeSelected;
@@ -60,6 +67,10 @@ public class RecipeSelectorScreen extends Screen {
 
     private EditBox searchBox;
     private PinyinSearchHelper<RecipeEntry> searchHelper;
+    // 搜索文本是物品ID时，使用或产出该物品的配方
+    private Set<ResourceLocation> searchItemRecipeIds = Set.of();
+    // 按物品ID搜索时配方物品索引还在构建，构建完成后重新搜索
+    private boolean itemIndexPending = false;
     private Button selectButton;
     private Button cancelButton;
     private Button scrollUpButton;
@@ -68,6 +79,16 @@ public class RecipeSelectorScreen extends Screen {
     private final Set<ResourceLocation> allowedRecipeIds = new HashSet<>();
     private final boolean useRecipeFilter;
 
+    // 远程服务器：按搜索条件分页查询，allRecipes 只保存本地自定义配方
+    private boolean remotePaging = false;
+    private RecipeQuery remoteQuery;
+    private int remoteQueryId = -1;
+    private int remoteTotal = 0;
+    private int remoteLoaded = 0;
+    // 等待发送的查询文本（连续输入时只发送最后一次）
+    private String pendingRemoteSearch = null;
+    private int remoteQueryDelay = 0;
+
     public RecipeSelectorScreen(Screen parentScreen, Consumer<ResourceLocation> onRecipeSelected) {
         super(Component.literal("选择配方"));
         this.minecraft = Minecraft.getInstance();
@@ -135,6 +156,15 @@ public class RecipeSelectorScreen extends Screen {
                 // 单人游戏或局域网主机，直接从服务器获取
                 recipeManager = server.getRecipeManager();
                 LOGGER.info("从集成服务器加载配方");
+            } else if (!useRecipeFilter) {
+                // 远程服务器，按搜索条件分页查询，不再同步完整列表
+                LOGGER.info("检测到远程服务器，使用分页查询获取配方列表");
+                remotePaging = true;
+                loadCustomRecipes();
+                allRecipes.sort(Comparator.comparing(entry -> entry.recipeId.toString()));
+                searchHelper.buildCache(allRecipes);
+                onSearchTextChanged(searchBox != null ? searchBox.getValue() : "");
+                return;
             } else {
                 // 远程服务器，使用网络包请求
                 LOGGER.info("检测到远程服务器，使用网络包获取配方列表");
@@ -333,25 +363,6 @@ public class RecipeSelectorScreen extends Screen {
 
         for (UnifiedRecipeInfo info : recipes) {
             try {
-                // 尝试从客户端获取配方详情（用于显示）
-                Recipe<?> recipe = null;
-                ItemStack resultItem = ItemStack.EMPTY;
-
-                if (clientRecipeManager != null) {
-                    recipe = clientRecipeManager.byKey(info.id).orElse(null);
-                    if (recipe != null) {
-                        try {
-                            resultItem = recipe.getResultItem(minecraft.level.registryAccess());
-                        } catch (Exception e) {
-                            // 忽略
-                        }
-                    }
-                }
-
-                // 从描述中提取类型
-                String recipeType = info.description.contains("->") ?
-                        info.description.split("->")[0].trim() : "未知类型";
-
                 // 应用过滤器
                 if (useRecipeFilter && !allowedRecipeIds.isEmpty()) {
                     if (!allowedRecipeIds.contains(info.id)) {
@@ -359,7 +370,7 @@ public class RecipeSelectorScreen extends Screen {
                     }
                 }
 
-                allRecipes.add(new RecipeEntry(info.id, resultItem, recipeType, recipe));
+                allRecipes.add(toRecipeEntry(info, clientRecipeManager));
 
             } catch (Exception e) {
                 LOGGER.warn("处理配方 {} 时出错: {}", info.id, e.getMessage());
@@ -379,6 +390,101 @@ public class RecipeSelectorScreen extends Screen {
         }
     }
 
+    /**
+     * 将服务器返回的配方信息转换为列表条目（尽量从客户端配方管理器取得配方详情用于显示）
+     */
+    private RecipeEntry toRecipeEntry(UnifiedRecipeInfo info, RecipeManager clientRecipeManager) {
+        Recipe<?> recipe = null;
+        ItemStack resultItem = ItemStack.EMPTY;
+
+        if (clientRecipeManager != null) {
+            recipe = clientRecipeManager.byKey(info.id).orElse(null);
+            if (recipe != null) {
+                try {
+                    resultItem = recipe.getResultItem(minecraft.level.registryAccess());
+                } catch (Exception e) {
+                    // 忽略
+                }
+            }
+        }
+
+        // 从描述中提取类型
+        String recipeType = info.description.contains("->") ?
+                info.description.split("->")[0].trim() : "未知类型";
+
+        return new RecipeEntry(info.id, resultItem, recipeType, recipe);
+    }
+
+    /**
+     * 输入停止 {@link #REMOTE_QUERY_DELAY_TICKS} tick 后再发送查询，之前未返回的查询立即取消
+     */
+    private void scheduleRemoteQuery(String searchText) {
+        if (remoteQueryId >= 0) {
+            RecipeClientCache.cancelQuery(remoteQueryId);
+            remoteQueryId = -1;
+        }
+        remoteTotal = 0;
+        remoteLoaded = 0;
+        pendingRemoteSearch = searchText;
+        remoteQueryDelay = REMOTE_QUERY_DELAY_TICKS;
+    }
+
+    private boolean isRemoteQueryRunning() {
+        return remoteQueryId >= 0 || pendingRemoteSearch != null;
+    }
+
+    /**
+     * 发送新的分页查询，之前未返回的查询结果会被丢弃
+     */
+    private void startRemoteQuery(String searchText) {
+        if (remoteQueryId >= 0) {
+            RecipeClientCache.cancelQuery(remoteQueryId);
+        }
+        remoteQuery = RecipeQuery.parse(searchText, REMOTE_PAGE_SIZE);
+        remoteTotal = 0;
+        remoteLoaded = 0;
+        requestRemotePage(0);
+    }
+
+    private void requestRemotePage(int page) {
+        remoteQueryId = RecipeClientCache.query(remoteQuery.withPage(page),
+                result -> minecraft.execute(() -> onRemotePage(result)));
+    }
+
+    private void onRemotePage(RecipeClientCache.QueryPage result) {
+        if (result.queryId() != remoteQueryId) {
+            return;
+        }
+        remoteQueryId = -1;
+        remoteTotal = result.totalCount();
+        remoteLoaded += result.recipes().size();
+
+        RecipeManager clientRecipeManager = minecraft.level != null ?
+                minecraft.level.getRecipeManager() : null;
+        for (UnifiedRecipeInfo info : result.recipes()) {
+            try {
+                filteredRecipes.add(toRecipeEntry(info, clientRecipeManager));
+            } catch (Exception e) {
+                LOGGER.warn("处理配方 {} 时出错: {}", info.id, e.getMessage());
+            }
+        }
+        updateButtons();
+    }
+
+    /**
+     * 已加载的条目不足以继续滚动时请求下一页
+     */
+    private void loadMoreIfNeeded() {
+        if (remotePaging && remoteQueryId < 0 && remoteLoaded < remoteTotal
+                && scrollOffset + MAX_VISIBLE_RECIPES * 2 >= filteredRecipes.size()) {
+            requestRemotePage(remoteLoaded / REMOTE_PAGE_SIZE);
+        }
+    }
+
+    private boolean hasMoreRemoteRecipes() {
+        return remotePaging && remoteLoaded < remoteTotal;
+    }
+
     private String classifyRecipeType(Recipe<?> recipe) {
         try {
             String typeName = recipe.getType().toString().toLowerCase();
@@ -467,59 +573,91 @@ public class RecipeSelectorScreen extends Screen {
     }
 
     private void onSearchTextChanged(String searchText) {
+        itemIndexPending = false;
         if (searchText.isEmpty()) {
+            searchItemRecipeIds = Set.of();
             filteredRecipes = new ArrayList<>(allRecipes);
         } else {
-            String lowerSearch = searchText.toLowerCase();
-
+            searchItemRecipeIds = findItemRecipeIds(searchText);
             filteredRecipes = allRecipes.stream()
-                    .filter(entry -> {
-                        String recipeIdStr = entry.recipeId.toString().toLowerCase();
-                        if (recipeIdStr.contains(lowerSearch)) {
-                            return true;
-                        }
-                        String recipeTypeLower = entry.recipeType.toLowerCase();
-                        if (recipeTypeLower.contains(lowerSearch)) {
-                            return true;
-                        }
-                        if (lowerSearch.contains("自定义") || lowerSearch.contains("custom")) {
-                            if (entry.recipeId.getNamespace().equals("registerhelper") &&
-                                    entry.recipeId.getPath().startsWith("custom_")) {
-                                return true;
-                            }
-                        }
-                        if (lowerSearch.contains("酿造") || lowerSearch.contains("brew")) {
-                            if (recipeTypeLower.contains("酿造台") ||
-                                    entry.recipeId.getPath().contains("brewing")) {
-                                return true;
-                            }
-                        }
-                        if (lowerSearch.contains("铁砧") || lowerSearch.contains("anvil")) {
-                            if (recipeTypeLower.contains("铁砧") ||
-                                    entry.recipeId.getPath().contains("anvil")) {
-                                return true;
-                            }
-                        }
-                        try {
-                            if (!entry.resultItem.isEmpty()) {
-                                String itemName = entry.resultItem.getHoverName().getString().toLowerCase();
-                                if (itemName.contains(lowerSearch)) {
-                                    return true;
-                                }
-                            }
-                        } catch (Exception e) {
-                            // 忽略异常，继续其他匹配
-                        }
-                        return searchHelper.matches(entry, searchText);
-                    })
+                    .filter(entry -> matchesSearch(entry, searchText))
                     .collect(Collectors.toList());
         }
 
         scrollOffset = 0;
         selectedRecipeIndex = -1;
+        if (remotePaging) {
+            // 本地自定义配方在前，服务器配方按页追加
+            scheduleRemoteQuery(searchText);
+        }
         updateButtons();
     }
 
+    /**
+     * 搜索文本是完整的物品ID（如 minecraft:diamond）时，从配方物品索引取出使用或产出该物品的配方
+     */
+    private Set<ResourceLocation> findItemRecipeIds(String searchText) {
+        String text = searchText.trim().toLowerCase();
+        if (text.indexOf(':') <= 0) {
+            return Set.of();
+        }
+        ResourceLocation itemId = ResourceLocation.tryParse(text);
+        if (itemId == null) {
+            return Set.of();
+        }
+        Optional<Item> item = BuiltInRegistries.ITEM.getOptional(itemId);
+        if (item.isEmpty()) {
+            return Set.of();
+        }
+        RecipeItemIndex index = RecipeItemIndex.get();
+        itemIndexPending = !RecipeItemIndex.isReady();
+        return index.getRecipesFor(item.get());
+    }
+
+    private boolean matchesSearch(RecipeEntry entry, String searchText) {
+        if (searchItemRecipeIds.contains(entry.recipeId)) {
+            return true;
+        }
+        String lowerSearch = searchText.toLowerCase();
+        String recipeIdStr = entry.recipeId.toString().toLowerCase();
+        if (recipeIdStr.contains(lowerSearch)) {
+            return true;
+        }
+        String recipeTypeLower = entry.recipeType.toLowerCase();
+        if (recipeTypeLower.contains(lowerSearch)) {
+            return true;
+        }
+        if (lowerSearch.contains("自定义") || lowerSearch.contains("custom")) {
+            if (entry.recipeId.getNamespace().equals("registerhelper") &&
+                    entry.recipeId.getPath().startsWith("custom_")) {
+                return true;
+            }
+        }
+        if (lowerSearch.contains("酿造") || lowerSearch.contains("brew")) {
+            if (recipeTypeLower.contains("酿造台") ||
+                    entry.recipeId.getPath().contains("brewing")) {
+                return true;
+            }
+        }
+        if (lowerSearch.contains("铁砧") || lowerSearch.contains("anvil")) {
+            if (recipeTypeLower.contains("铁砧") ||
+                    entry.recipeId.getPath().contains("anvil")) {
+                return true;
+            }
+        }
+        try {
+            if (!entry.resultItem.isEmpty()) {
+                String itemName = entry.resultItem.getHoverName().getString().toLowerCase();
+                if (itemName.contains(lowerSearch)) {
+                    return true;
+                }
+            }
+        } catch (Exception e) {
+            // 忽略异常，继续其他匹配
+        }
+        return searchHelper.matches(entry, searchText);
+    }
+
     private void scrollUp() {
         if (scrollOffset > 0) {
             scrollOffset--;
@@ -533,6 +671,7 @@ public class RecipeSelectorScreen extends Screen {
             scrollOffset++;
             updateButtons();
         }
+        loadMoreIfNeeded();
     }
 
     private void updateButtons() {
@@ -540,7 +679,8 @@ public class RecipeSelectorScreen extends Screen {
             scrollUpButton.active = scrollOffset > 0;
         }
         if (scrollDownButton != null) {
-            scrollDownButton.active = scrollOffset < Math.max(0, filteredRecipes.size() - MAX_VISIBLE_RECIPES);
+            scrollDownButton.active = scrollOffset < Math.max(0, filteredRecipes.size() - MAX_VISIBLE_RECIPES)
+                    || hasMoreRemoteRecipes();
         }
         if (selectButton != null) {
             selectButton.active = selectedRecipeIndex >= 0;
@@ -571,8 +711,26 @@ public class RecipeSelectorScreen extends Screen {
         }
     }
 
+    @Override
+    public void tick() {
+        super.tick();
+        if (itemIndexPending && RecipeItemIndex.isReady() && searchBox != null) {
+            onSearchTextChanged(searchBox.getValue());
+        }
+        if (pendingRemoteSearch != null && --remoteQueryDelay <= 0) {
+            String searchText = pendingRemoteSearch;
+            pendingRemoteSearch = null;
+            startRemoteQuery(searchText);
+        }
+    }
+
     @Override
     public void onClose() {
+        if (remoteQueryId >= 0) {
+            RecipeClientCache.cancelQuery(remoteQueryId);
+            remoteQueryId = -1;
+        }
+        pendingRemoteSearch = null;
         minecraft.setScreen(parentScreen);
     }
 
@@ -622,6 +780,11 @@ public class RecipeSelectorScreen extends Screen {
                 guiGraphics.drawCenteredString(this.font, "§e点击刷新按钮重试",
                         listAreaX + (contentWidth - RECIPE_DETAIL_WIDTH - 40) / 2, topPos + 105, 0xFFCC66);
             }
+        } else if (remotePaging) {
+            String countText = isRemoteQueryRunning() && remoteLoaded == 0 ? "正在从服务器查询配方..." :
+                    String.format("显示 %d/%d 个配方", filteredRecipes.size(),
+                            filteredRecipes.size() - remoteLoaded + remoteTotal);
+            guiGraphics.drawString(this.font, countText, listAreaX, topPos + 30, 0xCCCCCC, false);
         } else {
             String countText = String.format("显示 %d/%d 个配方", filteredRecipes.size(), allRecipes.size());
             guiGraphics.drawString(this.font, countText, listAreaX, topPos + 30, 0xCCCCCC, false);
@@ -766,7 +929,8 @@ public class RecipeSelectorScreen extends Screen {
 
     private void renderRecipeList(GuiGraphics guiGraphics, int mouseX, int mouseY, int listTop, int listAreaX, int listRight) {
         if (filteredRecipes.isEmpty()) {
-            String emptyMessage = allRecipes.isEmpty() ? "没有找到任何配方" : "没有匹配的配方";
+            String emptyMessage = remotePaging ? (isRemoteQueryRunning() ? "正在查询..." : "没有匹配的配方") :
+                    allRecipes.isEmpty() ? "没有找到任何配方" : "没有匹配的配方";
             guiGraphics.drawCenteredString(this.font, emptyMessage,
                     listAreaX + (listRight - listAreaX) / 2, listTop + 50, 0xCCCCCC);
             return;
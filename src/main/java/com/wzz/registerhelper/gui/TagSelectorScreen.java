@@ -8,11 +8,9 @@ import net.minecraft.client.gui.components.EditBox;
 import net.minecraft.client.gui.screens.Screen;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
-import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
-import net.minecraftforge.registries.ForgeRegistries;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
@@ -40,6 +38,12 @@ public class TagSelectorScreen extends Screen {
     private final List<TagEntry> allTags = new ArrayList<>();
     private final List<TagEntry> filteredTags = new ArrayList<>();
     private PinyinSearchHelper<TagEntry> searchHelper;
+    private String searchText = "";
+
+    // 标签索引在后台构建，界面每 tick 取出新构建好的条目
+    private ItemTagIndex.Build tagIndex;
+    private int consumedTags = 0;
+    private boolean tagsComplete = false;
     
     private int currentPage = 0;
     private int maxPage = 0;
@@ -53,11 +57,13 @@ public class TagSelectorScreen extends Screen {
         final ItemStack representativeItem;
         final String displayName;
         final int itemCount;
+        final String itemName;
         
-        TagEntry(ResourceLocation tagId, ItemStack representativeItem, int itemCount) {
+        TagEntry(ResourceLocation tagId, ItemStack representativeItem, int itemCount, String itemName) {
             this.tagId = tagId;
             this.representativeItem = representativeItem;
             this.itemCount = itemCount;
+            this.itemName = itemName;
             this.displayName = tagId.toString();
         }
     }
@@ -67,58 +73,63 @@ public class TagSelectorScreen extends Screen {
         this.parentScreen = parentScreen;
         this.onTagSelected = onTagSelected;
         this.searchHelper = new PinyinSearchHelper<>(
-                tag -> tag.representativeItem.getItem().getDescription().getString(),
+                tag -> tag.itemName,
                 tag -> tag.tagId.toString()
         );
         collectAllTags();
-        updateFilteredTags("");
     }
     
     /**
-     * 收集所有可用的物品标签
+     * 从标签索引取出新构建好的标签（索引按标签ID顺序构建，直接追加即可保持排序）
      */
     private void collectAllTags() {
-        allTags.clear();
-        
-        Set<ResourceLocation> processedTags = new HashSet<>();
+        ItemTagIndex.Build index = ItemTagIndex.get();
+        if (index != tagIndex) {
+            // 首次打开，或标签已更新、索引被重建
+            tagIndex = index;
+            consumedTags = 0;
+            allTags.clear();
+            filteredTags.clear();
+            searchHelper.clearCache();
+        }
         
-        // 遍历所有物品，收集它们的标签
-        for (Item item : ForgeRegistries.ITEMS.getValues()) {
-            if (item == net.minecraft.world.item.Items.AIR) continue;
-            
-            // 获取物品的所有标签
-            item.builtInRegistryHolder().tags().forEach(tagKey -> {
-                ResourceLocation tagId = tagKey.location();
-                
-                if (!processedTags.contains(tagId)) {
-                    processedTags.add(tagId);
-                    
-                    // 计算该标签包含的物品数量
-                    int itemCount = (int) ForgeRegistries.ITEMS.getValues().stream()
-                            .filter(i -> i.builtInRegistryHolder().is(tagKey))
-                            .count();
-                    
-                    // 创建标签条目
-                    ItemStack representativeItem = new ItemStack(item, 1);
-                    allTags.add(new TagEntry(tagId, representativeItem, itemCount));
-                }
-            });
+        List<TagEntry> newTags = new ArrayList<>();
+        for (ItemTagIndex.Entry entry : index.entriesFrom(consumedTags)) {
+            newTags.add(new TagEntry(entry.tagId(), new ItemStack(entry.representativeItem(), 1),
+                    entry.itemCount(), entry.itemName()));
         }
+        consumedTags += newTags.size();
+        tagsComplete = index.isDone() && consumedTags == index.size();
         
-        // 按命名空间和路径排序
-        allTags.sort(Comparator.comparing(tag -> tag.tagId.toString()));
-        searchHelper.buildCache(allTags);
+        allTags.addAll(newTags);
+        searchHelper.addToCache(newTags);
+        appendFilteredTags(newTags);
+    }
+    
+    @Override
+    public void tick() {
+        super.tick();
+        if (!tagsComplete) {
+            collectAllTags();
+        }
     }
     
     /**
      * 更新过滤后的标签列表
      */
     private void updateFilteredTags(String searchText) {
+        this.searchText = searchText;
         filteredTags.clear();
-        
+        appendFilteredTags(allTags);
+    }
+    
+    /**
+     * 把匹配当前搜索条件的标签追加到过滤列表
+     */
+    private void appendFilteredTags(List<TagEntry> tags) {
         String lowerSearch = searchText.toLowerCase().trim();
         
-        for (TagEntry tag : allTags) {
+        for (TagEntry tag : tags) {
             if (matchesSearch(tag, lowerSearch)) {
                 filteredTags.add(tag);
             }
@@ -219,8 +230,8 @@ public class TagSelectorScreen extends Screen {
         super.render(guiGraphics, mouseX, mouseY, partialTick);
         
         // 页面信息
-        String pageInfo = String.format("第 %d/%d 页 (共%d个标签)",
-                currentPage + 1, maxPage + 1, filteredTags.size());
+        String pageInfo = String.format("第 %d/%d 页 (共%d个标签)%s",
+                currentPage + 1, maxPage + 1, filteredTags.size(), tagsComplete ? "" : " 加载中...");
         guiGraphics.drawCenteredString(this.font, pageInfo, leftPos + GUI_WIDTH / 2, topPos + GUI_HEIGHT + 5, 0x404040);
         
         // 渲染工具提示
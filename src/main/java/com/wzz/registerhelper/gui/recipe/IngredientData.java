@@ -1,8 +1,13 @@
 package com.wzz.registerhelper.gui.recipe;
 
 import com.wzz.registerhelper.init.ModConfig;
+import net.minecraft.core.Holder;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.core.registries.Registries;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraftforge.registries.ForgeRegistries;
 
@@ -133,15 +138,21 @@ public class IngredientData {
     
     /**
      * 获取标签的第一个物品（用于显示）
+     * 直接查标签内容，取注册顺序最靠前的物品，不遍历全部物品
      */
     private ItemStack getFirstTagItem() {
         if (tagId == null) return ItemStack.EMPTY;
         
-        return ForgeRegistries.ITEMS.getValues().stream()
-                .filter(item -> item.builtInRegistryHolder().is(tagId))
-                .findFirst()
-                .map(item -> new ItemStack(item, 1))
-                .orElse(ItemStack.EMPTY);
+        Item first = null;
+        int firstId = Integer.MAX_VALUE;
+        for (Holder<Item> holder : BuiltInRegistries.ITEM.getTagOrEmpty(TagKey.create(Registries.ITEM, tagId))) {
+            int id = BuiltInRegistries.ITEM.getId(holder.value());
+            if (id < firstId) {
+                firstId = id;
+                first = holder.value();
+            }
+        }
+        return first != null ? new ItemStack(first, 1) : ItemStack.EMPTY;
     }
     
     /**
@@ -5,8 +5,7 @@ import com.google.gson.JsonObject;
 import com.mojang.logging.LogUtils;
 import com.wzz.registerhelper.gui.recipe.IngredientData;
 import com.wzz.registerhelper.gui.recipe.component.ComponentDataManager;
-import com.wzz.registerhelper.init.ModNetwork;
-import com.wzz.registerhelper.network.CreateRecipeJsonPacket;
+import com.wzz.registerhelper.network.RecipeUploadPacket;
 import com.wzz.registerhelper.gui.recipe.dynamic.DynamicRecipeTypeConfig.*;
 import com.wzz.registerhelper.recipe.RecipeRequest;
 import com.wzz.registerhelper.recipe.integration.ModRecipeProcessor;
@@ -20,7 +19,7 @@ import java.util.*;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
-import static com.wzz.registerhelper.network.CreateRecipeJsonPacket.generateOptimizedFileName;
+import static com.wzz.registerhelper.recipe.RecipeFileSaver.generateOptimizedFileName;
 import static com.wzz.registerhelper.util.RecipeUtil.SYMBOL_CHARS;
 
 /**
@@ -106,9 +105,8 @@ public class DynamicRecipeBuilder {
 
             Gson gson = new Gson();
             String jsonString = gson.toJson(recipeJson);
-            CreateRecipeJsonPacket packet =
-                    new CreateRecipeJsonPacket(recipeId, jsonString, isOverride);
-            ModNetwork.CHANNEL.sendToServer(packet);
+            // 分包压缩上传，不受单个字符串 32767 字符的限制（大型 9x9 配方带 NBT 时会超出）
+            RecipeUploadPacket.upload(recipeId, jsonString, isOverride);
 
             String action = params.isEditing ? "更新" : "创建";
             String method = isOverride ? "覆盖" : "创建";
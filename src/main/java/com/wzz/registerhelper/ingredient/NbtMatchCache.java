@@ -0,0 +1,70 @@
+package com.wzz.registerhelper.ingredient;
+
+import net.minecraft.nbt.CompoundTag;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * NBT 匹配结果缓存（每个 Ingredient 实例一个）
+ *
+ * <p>以物品 NBT 对象的身份为键，记录上次的匹配结果。固定大小、按身份哈希直接映射，
+ * 冲突时直接覆盖旧条目；只弱引用 NBT 对象，不会阻止物品被回收。
+ *
+ * <p>失效规则：
+ * <ul>
+ *   <li>物品换了一个 NBT 对象（复制、setTag 等）时身份不同，不会命中。</li>
+ *   <li>NBT 被原地修改时，命中前会重新计算 hashCode 并与记录时比较，不一致则重新匹配。</li>
+ *   <li>NBT 对象被回收后对应条目自然失效。</li>
+ *   <li>配方重载会创建新的 Ingredient，旧缓存随之丢弃。</li>
+ * </ul>
+ * 校验需要计算整个 NBT 的 hashCode，只有配方要求的 NBT 比较本身开销更大时才划算，
+ * 因此默认关闭，可通过命中统计确认效果。
+ */
+public final class NbtMatchCache {
+    private static final int SIZE = 8;
+
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+
+    // 条目不可变，槽位整体替换，多线程读写不需要加锁
+    private final Entry[] entries = new Entry[SIZE];
+
+    private record Entry(WeakReference<CompoundTag> tag, int hash, boolean result) {
+    }
+
+    /**
+     * 缓存的匹配结果，未命中时返回 null
+     * @param hash 调用方计算好的 tag.hashCode()
+     */
+    Boolean get(CompoundTag tag, int hash) {
+        Entry entry = entries[slot(tag)];
+        if (entry != null && entry.hash == hash && entry.tag.get() == tag) {
+            HITS.increment();
+            return entry.result;
+        }
+        MISSES.increment();
+        return null;
+    }
+
+    void put(CompoundTag tag, int hash, boolean result) {
+        entries[slot(tag)] = new Entry(new WeakReference<>(tag), hash, result);
+    }
+
+    private static int slot(CompoundTag tag) {
+        return System.identityHashCode(tag) & (SIZE - 1);
+    }
+
+    public static long getHits() {
+        return HITS.sum();
+    }
+
+    public static long getMisses() {
+        return MISSES.sum();
+    }
+
+    public static void resetStats() {
+        HITS.reset();
+        MISSES.reset();
+    }
+}
@@ -4,7 +4,9 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.wzz.registerhelper.RecipeHelper;
+import com.wzz.registerhelper.init.ModConfig;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
 import net.minecraft.nbt.TagParser;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
@@ -26,11 +28,14 @@ import java.util.stream.Stream;
  * <p>匹配逻辑（子集匹配）：
  * <ol>
  *   <li>物品类型必须一致。</li>
- *   <li>将待检测物品的 NBT 复制一份，移除 {@code ignore_keys} 中的所有 key。</li>
- *   <li>检查配方要求的 NBT 是 stripped 之后物品 NBT 的子集
+ *   <li>从配方要求的 NBT 中移除 {@code ignore_keys} 中的所有 key（构造时完成一次）。</li>
+ *   <li>检查移除后的要求 NBT 是物品 NBT 的子集
  *       （即物品必须包含配方要求的所有 key=value，多余的 key 无所谓）。</li>
  * </ol>
  *
+ * <p>物品 NBT 中被忽略的 key 不会出现在要求的 NBT 里，子集比较不会访问它们，
+ * 因此匹配时直接遍历物品原有的 NBT，不做任何复制。
+ *
  * <p>JSON 格式：
  * <pre>{@code
  * {
@@ -53,12 +58,18 @@ public class PartialNbtIngredient extends AbstractIngredient {
     private final CompoundTag requiredNbt;
     /** 匹配时从物品实际 NBT 中移除的 key 列表（如 lastUsed、AttackCount 等动态 key） */
     private final List<String> ignoreKeys;
+    /** 已移除 ignoreKeys 的 requiredNbt，匹配时使用，null 表示只匹配物品类型 */
+    @Nullable
+    private final CompoundTag matchNbt;
+    /** 匹配结果缓存（配置启用时使用） */
+    private final NbtMatchCache matchCache = new NbtMatchCache();
 
     private PartialNbtIngredient(Item item, @Nullable CompoundTag requiredNbt, List<String> ignoreKeys) {
         super(Stream.of(buildDisplayStack(item, requiredNbt)).map(Ingredient.ItemValue::new));
         this.item = item;
         this.requiredNbt = requiredNbt;
         this.ignoreKeys = ignoreKeys;
+        this.matchNbt = stripIgnored(requiredNbt, ignoreKeys);
     }
 
     /**
@@ -76,18 +87,33 @@ public class PartialNbtIngredient extends AbstractIngredient {
     public boolean test(@Nullable ItemStack input) {
         if (input == null || input.isEmpty()) return false;
         if (!input.is(item)) return false;
-        if (requiredNbt == null || requiredNbt.isEmpty()) return true;
+        if (matchNbt == null) return true;
 
         CompoundTag inputTag = input.getTag();
         if (inputTag == null) return false;
 
-        CompoundTag strippedInput    = inputTag.copy();
-        CompoundTag strippedRequired = requiredNbt.copy();
+        if (!ModConfig.isNbtMatchCacheEnabled()) {
+            return nbtContains(inputTag, matchNbt);
+        }
+        int hash = inputTag.hashCode();
+        Boolean cached = matchCache.get(inputTag, hash);
+        if (cached != null) return cached;
+        boolean result = nbtContains(inputTag, matchNbt);
+        matchCache.put(inputTag, hash, result);
+        return result;
+    }
+
+    /**
+     * 复制要求的 NBT 并移除忽略的路径；要求为空时返回 null
+     */
+    @Nullable
+    static CompoundTag stripIgnored(@Nullable CompoundTag requiredNbt, List<String> ignoreKeys) {
+        if (requiredNbt == null || requiredNbt.isEmpty()) return null;
+        CompoundTag stripped = requiredNbt.copy();
         for (String path : ignoreKeys) {
-            removeByPath(strippedInput,    path);
-            removeByPath(strippedRequired, path);
+            removeByPath(stripped, path);
         }
-        return nbtContains(strippedInput, strippedRequired);
+        return stripped;
     }
 
     /**
@@ -116,15 +142,17 @@ public class PartialNbtIngredient extends AbstractIngredient {
     /**
      * 检查 {@code container} 是否包含 {@code subset} 的所有条目（深度子集）。
      */
-    private static boolean nbtContains(CompoundTag container, CompoundTag subset) {
+    static boolean nbtContains(CompoundTag container, CompoundTag subset) {
         for (String key : subset.getAllKeys()) {
-            if (!container.contains(key)) return false;
+            Tag conValue = container.get(key);
+            if (conValue == null) return false;
+            Tag subValue = subset.get(key);
             // 递归处理嵌套 CompoundTag
-            if (subset.get(key) instanceof CompoundTag subNested
-                    && container.get(key) instanceof CompoundTag conNested) {
+            if (subValue instanceof CompoundTag subNested
+                    && conValue instanceof CompoundTag conNested) {
                 if (!nbtContains(conNested, subNested)) return false;
             } else {
-                if (!container.get(key).equals(subset.get(key))) return false;
+                if (!conValue.equals(subValue)) return false;
             }
         }
         return true;
@@ -35,6 +35,10 @@ public class ModConfig {
         public final ForgeConfigSpec.BooleanValue enablePerSlotNBT;
         public final ForgeConfigSpec.BooleanValue enableDebugLogging;
         public final ForgeConfigSpec.BooleanValue defaultIncludeNBT;
+        public final ForgeConfigSpec.BooleanValue enableRecipeHotReload;
+        public final ForgeConfigSpec.BooleanValue enableRecipeParseCache;
+        public final ForgeConfigSpec.BooleanValue enableNbtMatchCache;
+        public final ForgeConfigSpec.BooleanValue compressRecipeSync;
 
         public CommonConfig(ForgeConfigSpec.Builder builder) {
             builder.push("nbt_matching");
@@ -63,6 +67,58 @@ public class ModConfig {
 
             builder.pop();
 
+            builder.push("hot_reload");
+
+            // 配方文件热重载开关
+            enableRecipeHotReload = builder
+                    .comment("监听 config/registerhelper 下的配方、黑名单和覆盖文件",
+                            "文件变化后只增量更新受影响的配方，无需执行完整的 /reload",
+                            "",
+                            "Watch recipe, blacklist and override files under config/registerhelper",
+                            "Changed recipes are patched in place without a full /reload")
+                    .define("enableRecipeHotReload", true);
+
+            builder.pop();
+
+            builder.push("cache");
+
+            // 配方解析缓存开关
+            enableRecipeParseCache = builder
+                    .comment("缓存已解析的自定义配方（config/registerhelper/.cache）",
+                            "未变化的配方文件直接从缓存读取，不再重新解析",
+                            "",
+                            "Cache parsed custom recipes in config/registerhelper/.cache",
+                            "Unchanged recipe files are served from the cache instead of being re-parsed")
+                    .define("enableRecipeParseCache", true);
+
+            // NBT匹配结果缓存开关
+            enableNbtMatchCache = builder
+                    .comment("缓存部分NBT匹配配料（registerhelper:partial_nbt）的匹配结果",
+                            "同一个物品NBT反复匹配同一配料时（自动合成、漏斗）直接返回上次结果",
+                            "命中前需要计算物品完整NBT的哈希，NBT要求很小时可能得不偿失，",
+                            "可用 /recipe_helper stats nbt_cache 查看命中率",
+                            "",
+                            "Cache match results of partial NBT ingredients (registerhelper:partial_nbt)",
+                            "Repeated tests of the same item NBT (auto-crafters, hoppers) return the previous result",
+                            "Each hit hashes the full item NBT, which may cost more than small NBT requirements,",
+                            "check the hit rate with /recipe_helper stats nbt_cache")
+                    .define("enableNbtMatchCache", false);
+
+            builder.pop();
+
+            builder.push("network");
+
+            // 配方列表同步压缩开关
+            compressRecipeSync = builder
+                    .comment("发送给客户端的配方列表使用 deflate 压缩",
+                            "配方很多的服务器上可以大幅减少打开配方界面时的流量，代价是少量CPU",
+                            "",
+                            "Compress the recipe list sent to clients with deflate",
+                            "Greatly reduces traffic when opening the recipe GUI on large servers at a small CPU cost")
+                    .define("compressRecipeSync", true);
+
+            builder.pop();
+
             builder.push("debug");
 
             // 调试日志开关
@@ -98,4 +154,32 @@ public class ModConfig {
     public static boolean getDefaultIncludeNBT() {
         return COMMON.defaultIncludeNBT.get();
     }
-}
\ No newline at end of file
+
+    /**
+     * 检查是否启用配方热重载
+     */
+    public static boolean isRecipeHotReloadEnabled() {
+        return COMMON.enableRecipeHotReload.get();
+    }
+
+    /**
+     * 检查是否压缩配方列表同步数据
+     */
+    public static boolean isRecipeSyncCompressionEnabled() {
+        return COMMON.compressRecipeSync.get();
+    }
+
+    /**
+     * 检查是否启用配方解析缓存
+     */
+    public static boolean isRecipeParseCacheEnabled() {
+        return COMMON.enableRecipeParseCache.get();
+    }
+
+    /**
+     * 检查是否启用NBT匹配结果缓存
+     */
+    public static boolean isNbtMatchCacheEnabled() {
+        return COMMON.enableNbtMatchCache.get();
+    }
+}
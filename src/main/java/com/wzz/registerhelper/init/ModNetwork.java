@@ -1,10 +1,14 @@
 package com.wzz.registerhelper.init;
 
 import com.wzz.registerhelper.RecipeHelper;
-import com.wzz.registerhelper.network.CreateRecipeJsonPacket;
 import com.wzz.registerhelper.network.OpenGUIPacket;
+import com.wzz.registerhelper.network.QueryRecipesPacket;
 import com.wzz.registerhelper.network.RecipeBlacklistPacket;
+import com.wzz.registerhelper.network.RecipeDeltaPacket;
+import com.wzz.registerhelper.network.RecipeQueryResultPacket;
+import com.wzz.registerhelper.network.RecipeUploadPacket;
 import com.wzz.registerhelper.network.RequestRecipeListPacket;
+import com.wzz.registerhelper.network.RequestRecipeResyncPacket;
 import com.wzz.registerhelper.network.SyncRecipeListPacket;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraftforge.network.NetworkDirection;
@@ -12,7 +16,7 @@ import net.minecraftforge.network.NetworkRegistry;
 import net.minecraftforge.network.simple.SimpleChannel;
 
 public class ModNetwork {
-    private static final String PROTOCOL_VERSION = "3";
+    private static final String PROTOCOL_VERSION = "8";
     public static final SimpleChannel CHANNEL = NetworkRegistry.newSimpleChannel(
             new ResourceLocation(RecipeHelper.MODID, "main"),
             () -> PROTOCOL_VERSION, PROTOCOL_VERSION::equals, PROTOCOL_VERSION::equals
@@ -28,15 +32,6 @@ public class ModNetwork {
                 .consumerMainThread(OpenGUIPacket::handle)
                 .add();
 
-        // 创建配方的包
-        CHANNEL.registerMessage(
-                id++,
-                CreateRecipeJsonPacket.class,
-                CreateRecipeJsonPacket::toBytes,
-                CreateRecipeJsonPacket::fromBytes,
-                CreateRecipeJsonPacket::handle
-        );
-
         // 请求配方列表（客户端 -> 服务器）
         CHANNEL.messageBuilder(RequestRecipeListPacket.class, id++, NetworkDirection.PLAY_TO_SERVER)
                 .encoder(RequestRecipeListPacket::encode)
@@ -57,5 +52,40 @@ public class ModNetwork {
                 .decoder(RecipeBlacklistPacket::decode)
                 .consumerMainThread(RecipeBlacklistPacket::handle)
                 .add();
+
+        // 分页查询配方（客户端 -> 服务器）
+        CHANNEL.messageBuilder(QueryRecipesPacket.class, id++, NetworkDirection.PLAY_TO_SERVER)
+                .encoder(QueryRecipesPacket::encode)
+                .decoder(QueryRecipesPacket::decode)
+                .consumerMainThread(QueryRecipesPacket::handle)
+                .add();
+
+        // 配方查询结果（服务器 -> 客户端）
+        CHANNEL.messageBuilder(RecipeQueryResultPacket.class, id++, NetworkDirection.PLAY_TO_CLIENT)
+                .encoder(RecipeQueryResultPacket::encode)
+                .decoder(RecipeQueryResultPacket::decode)
+                .consumerMainThread(RecipeQueryResultPacket::handle)
+                .add();
+
+        // 配方增量同步（服务器 -> 客户端）
+        CHANNEL.messageBuilder(RecipeDeltaPacket.class, id++, NetworkDirection.PLAY_TO_CLIENT)
+                .encoder(RecipeDeltaPacket::encode)
+                .decoder(RecipeDeltaPacket::decode)
+                .consumerMainThread(RecipeDeltaPacket::handle)
+                .add();
+
+        // 请求重新同步完整配方表（客户端 -> 服务器）
+        CHANNEL.messageBuilder(RequestRecipeResyncPacket.class, id++, NetworkDirection.PLAY_TO_SERVER)
+                .encoder(RequestRecipeResyncPacket::encode)
+                .decoder(RequestRecipeResyncPacket::decode)
+                .consumerMainThread(RequestRecipeResyncPacket::handle)
+                .add();
+
+        // 配方分包上传（客户端 -> 服务器）
+        CHANNEL.messageBuilder(RecipeUploadPacket.class, id++, NetworkDirection.PLAY_TO_SERVER)
+                .encoder(RecipeUploadPacket::encode)
+                .decoder(RecipeUploadPacket::decode)
+                .consumerMainThread(RecipeUploadPacket::handle)
+                .add();
     }
 }
\ No newline at end of file
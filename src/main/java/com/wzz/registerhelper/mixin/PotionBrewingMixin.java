@@ -20,8 +20,8 @@ public class PotionBrewingMixin {
      */
     @Inject(method = "hasMix", at = @At("HEAD"), cancellable = true)
     private static void onHasMix(ItemStack input, ItemStack ingredient, CallbackInfoReturnable<Boolean> cir) {
-        // 检查自定义配方
-        if (CustomRecipeLoader.hasBrewingRecipe(input, ingredient)) {
+        // 检查自定义配方（按物品索引查找）
+        if (CustomRecipeLoader.findBrewingRecipe(input, ingredient) != null) {
             cir.setReturnValue(true);
         }
     }
@@ -32,9 +32,9 @@ public class PotionBrewingMixin {
     @Inject(method = "mix", at = @At("HEAD"), cancellable = true)
     private static void onMix(ItemStack input, ItemStack ingredient, CallbackInfoReturnable<ItemStack> cir) {
         // 尝试使用自定义配方
-        ItemStack result = CustomRecipeLoader.getBrewingResult(input, ingredient);
-        if (!result.isEmpty()) {
-            cir.setReturnValue(result);
+        CustomRecipeLoader.BrewingRecipeData recipe = CustomRecipeLoader.findBrewingRecipe(input, ingredient);
+        if (recipe != null) {
+            cir.setReturnValue(recipe.output.copy());
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.wzz.registerhelper.mixin;
+
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.crafting.Recipe;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.item.crafting.RecipeType;
+import net.minecraftforge.common.crafting.conditions.ICondition;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+import java.util.Map;
+
+/**
+ * RecipeManager 内部映射访问器，供增量热重载直接替换受影响的条目
+ */
+@Mixin(RecipeManager.class)
+public interface RecipeManagerAccessor {
+    @Accessor("recipes")
+    Map<RecipeType<?>, Map<ResourceLocation, Recipe<?>>> registerhelper$getRecipes();
+
+    @Accessor("recipes")
+    void registerhelper$setRecipes(Map<RecipeType<?>, Map<ResourceLocation, Recipe<?>>> recipes);
+
+    @Accessor("byName")
+    Map<ResourceLocation, Recipe<?>> registerhelper$getByName();
+
+    @Accessor("byName")
+    void registerhelper$setByName(Map<ResourceLocation, Recipe<?>> byName);
+
+    @Accessor("context")
+    ICondition.IContext registerhelper$getContext();
+}
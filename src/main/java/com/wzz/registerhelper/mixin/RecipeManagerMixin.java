@@ -1,19 +1,16 @@
 package com.wzz.registerhelper.mixin;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.mojang.logging.LogUtils;
 import com.wzz.registerhelper.recipe.RecipeBlacklistManager;
+import com.wzz.registerhelper.recipe.RecipeFileLoader;
+import com.wzz.registerhelper.recipe.RecipeHotReloader;
 import com.wzz.registerhelper.recipe.RecipeTracker;
 import com.wzz.registerhelper.recipe.UnifiedRecipeOverrideManager;
-import net.minecraft.network.protocol.game.ClientboundUpdateRecipesPacket;
 import net.minecraft.resources.ResourceLocation;
-import net.minecraft.server.MinecraftServer;
-import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.server.packs.resources.ResourceManager;
 import net.minecraft.util.profiling.ProfilerFiller;
 import net.minecraft.world.item.crafting.RecipeManager;
-import net.minecraftforge.server.ServerLifecycleHooks;
 import org.slf4j.Logger;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Unique;
@@ -21,8 +18,7 @@ import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
-import java.io.File;
-import java.io.FileReader;
+import java.nio.file.Paths;
 import java.util.*;
 
 @Mixin(RecipeManager.class)
@@ -30,8 +26,6 @@ public class RecipeManagerMixin {
     @Unique
     private static final Logger registerhelper$LOGGER = LogUtils.getLogger();
     @Unique
-    private static final Gson registerhelper$GSON = new Gson();
-    @Unique
     private static final String RECIPES_DIR = getCustomRecipeDir();
 
     /**
@@ -49,20 +43,27 @@ public class RecipeManagerMixin {
             // 清空旧的配方追踪
             RecipeTracker.clearTrackedRecipes();
             
-            Map<ResourceLocation, JsonElement> customRecipes = loadCustomRecipes();
+            RecipeFileLoader.LoadResult loadResult = loadCustomRecipes();
+            Map<ResourceLocation, JsonElement> customRecipes = loadResult.recipes;
+            Map<ResourceLocation, JsonElement> shadowedRecipes = new HashMap<>();
             if (!customRecipes.isEmpty()) {
                 registerhelper$LOGGER.info("注入 {} 个自定义配方到游戏中", customRecipes.size());
+                for (ResourceLocation id : customRecipes.keySet()) {
+                    JsonElement shadowed = originalRecipes.get(id);
+                    if (shadowed != null) {
+                        shadowedRecipes.put(id, shadowed);
+                    }
+                }
                 originalRecipes.putAll(customRecipes);
                 
                 // 追踪所有自定义配方
                 RecipeTracker.trackRecipes(customRecipes.keySet());
                 registerhelper$LOGGER.info("已追踪 {} 个自定义配方", customRecipes.size());
             }
+            RecipeHotReloader.captureBaseline(originalRecipes, loadResult.files, loadResult.bundled, shadowedRecipes);
             UnifiedRecipeOverrideManager.applyOverridesToRecipeMap(originalRecipes);
             applyRecipeDeletions(originalRecipes);
-            if (!customRecipes.isEmpty()) {
-                syncRecipesToClients();
-            }
+            // 不需要额外同步：原版在重载完成后会把配方表发给所有玩家
 
         } catch (Exception e) {
             registerhelper$LOGGER.error("处理配方规则失败", e);
@@ -74,9 +75,7 @@ public class RecipeManagerMixin {
      */
     private void applyRecipeDeletions(Map<ResourceLocation, JsonElement> recipes) {
         try {
-            Set<ResourceLocation> blacklistedRecipes = RecipeBlacklistManager.getBlacklistedRecipes();
-
-            if (blacklistedRecipes.isEmpty()) {
+            if (!RecipeBlacklistManager.hasEntries()) {
                 return;
             }
 
@@ -87,7 +86,8 @@ public class RecipeManagerMixin {
                 Map.Entry<ResourceLocation, JsonElement> entry = iterator.next();
                 ResourceLocation recipeId = entry.getKey();
 
-                if (blacklistedRecipes.contains(recipeId)) {
+                // 精确ID哈希查找 + 编译后的规则匹配，一次遍历完成
+                if (RecipeBlacklistManager.isBlacklisted(recipeId, entry.getValue())) {
                     iterator.remove();
                     removedCount++;
                     registerhelper$LOGGER.debug("删除黑名单配方: {}", recipeId);
@@ -104,136 +104,10 @@ public class RecipeManagerMixin {
     }
 
     /**
-     * 加载所有自定义配方
-     */
-    private Map<ResourceLocation, JsonElement> loadCustomRecipes() {
-        Map<ResourceLocation, JsonElement> recipes = new HashMap<>();
-
-        File recipesDir = new File(RECIPES_DIR);
-        if (!recipesDir.exists()) {
-            registerhelper$LOGGER.debug("配方目录不存在: {}", RECIPES_DIR);
-            return recipes;
-        }
-
-        // 扫描所有mod目录
-        File[] modDirs = recipesDir.listFiles(File::isDirectory);
-        if (modDirs == null) {
-            return recipes;
-        }
-
-        for (File modDir : modDirs) {
-            String modId = modDir.getName();
-            loadModRecipes(modId, modDir, recipes);
-        }
-
-        return recipes;
-    }
-
-    /**
-     * 加载特定mod的配方
-     */
-    private void loadModRecipes(String modId, File modDir, Map<ResourceLocation, JsonElement> recipes) {
-        List<File> recipeFiles = scanRecipeFiles(modDir);
-
-        registerhelper$LOGGER.info("扫描到 {} 个 {} 配方文件", recipeFiles.size(), modId);
-
-        for (File recipeFile : recipeFiles) {
-            try {
-                String recipeId = getRecipeIdFromFile(modDir, recipeFile);
-                ResourceLocation resourceLocation = new ResourceLocation(modId, recipeId);
-
-                // 检查是否在黑名单中
-                if (RecipeBlacklistManager.isBlacklisted(resourceLocation)) {
-                    registerhelper$LOGGER.debug("跳过黑名单配方: {}", resourceLocation);
-                    continue;
-                }
-
-                try (FileReader reader = new FileReader(recipeFile)) {
-                    JsonElement jsonElement = registerhelper$GSON.fromJson(reader, JsonElement.class);
-
-                    if (jsonElement != null && jsonElement.isJsonObject()) {
-                        recipes.put(resourceLocation, jsonElement);
-                        registerhelper$LOGGER.debug("加载配方: {}", resourceLocation);
-                    } else {
-                        registerhelper$LOGGER.warn("无效的配方JSON: {}", recipeFile.getPath());
-                    }
-                }
-
-            } catch (Exception e) {
-                registerhelper$LOGGER.error("加载配方文件失败: " + recipeFile.getPath(), e);
-            }
-        }
-    }
-
-    /**
-     * 递归扫描配方文件
+     * 加载所有自定义配方（并行解析，按确定顺序合并）
      */
-    private List<File> scanRecipeFiles(File directory) {
-        List<File> files = new ArrayList<>();
-
-        File[] children = directory.listFiles();
-        if (children == null) {
-            return files;
-        }
-
-        for (File child : children) {
-            if (child.isDirectory()) {
-                files.addAll(scanRecipeFiles(child));
-            } else if (child.getName().endsWith(".json")) {
-                files.add(child);
-            }
-        }
-
-        return files;
-    }
-
-    /**
-     * 从文件路径获取配方ID
-     */
-    private String getRecipeIdFromFile(File modDir, File recipeFile) {
-        String modPath = modDir.getAbsolutePath();
-        String filePath = recipeFile.getAbsolutePath();
-
-        // 获取相对路径
-        String relativePath = filePath.substring(modPath.length() + 1);
-
-        // 移除.json扩展名
-        if (relativePath.endsWith(".json")) {
-            relativePath = relativePath.substring(0, relativePath.length() - 5);
-        }
-
-        // 将路径分隔符替换为下划线
-        return relativePath.replace(File.separatorChar, '_');
-    }
-
-    /**
-     * 同步配方到所有客户端
-     */
-    private void syncRecipesToClients() {
-        try {
-            MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
-            if (server != null) {
-                server.execute(() -> {
-                    try {
-                        RecipeManager recipeManager = server.getRecipeManager();
-                        ClientboundUpdateRecipesPacket packet = new ClientboundUpdateRecipesPacket(
-                                recipeManager.getRecipes()
-                        );
-
-                        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
-                            player.connection.send(packet);
-                        }
-
-                        registerhelper$LOGGER.debug("配方已同步到所有客户端");
-
-                    } catch (Exception e) {
-                        registerhelper$LOGGER.error("同步配方到客户端失败", e);
-                    }
-                });
-            }
-        } catch (Exception e) {
-            registerhelper$LOGGER.error("获取服务器实例失败", e);
-        }
+    private RecipeFileLoader.LoadResult loadCustomRecipes() {
+        return RecipeFileLoader.loadAll(Paths.get(RECIPES_DIR));
     }
 
     @Unique
@@ -0,0 +1,81 @@
+package com.wzz.registerhelper.network;
+
+import com.mojang.logging.LogUtils;
+import com.wzz.registerhelper.init.ModConfig;
+import com.wzz.registerhelper.init.ModNetwork;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.network.NetworkEvent;
+import net.minecraftforge.network.PacketDistributor;
+import org.slf4j.Logger;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * 分页查询配方的网络包
+ * 客户端 -> 服务器，服务器只返回请求的那一页和匹配总数（{@link RecipeQueryResultPacket}）
+ */
+public class QueryRecipesPacket {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private final int queryId;
+    private final RecipeQuery query;
+
+    public QueryRecipesPacket(int queryId, RecipeQuery query) {
+        this.queryId = queryId;
+        this.query = query;
+    }
+
+    public static void encode(QueryRecipesPacket packet, FriendlyByteBuf buf) {
+        buf.writeVarInt(packet.queryId);
+        packet.query.encode(buf);
+    }
+
+    public static QueryRecipesPacket decode(FriendlyByteBuf buf) {
+        return new QueryRecipesPacket(buf.readVarInt(), RecipeQuery.decode(buf));
+    }
+
+    public static void handle(QueryRecipesPacket packet, Supplier<NetworkEvent.Context> contextSupplier) {
+        NetworkEvent.Context context = contextSupplier.get();
+        context.enqueueWork(() -> {
+            ServerPlayer player = context.getSender();
+            if (player == null) {
+                LOGGER.warn("收到配方查询请求，但发送者为空");
+                return;
+            }
+
+            MinecraftServer server = player.getServer();
+            if (server == null) {
+                LOGGER.warn("无法获取服务器实例");
+                return;
+            }
+
+            // 快照在服务器线程获取，查询和编码在后台线程完成
+            CompletableFuture<RecipeQueryIndex.Page> result;
+            try {
+                result = RecipeListSnapshot.get(server).query(packet.query);
+            } catch (Exception e) {
+                result = CompletableFuture.failedFuture(e);
+            }
+            result.exceptionally(e -> {
+                LOGGER.error("查询配方列表时出错", e);
+                return new RecipeQueryIndex.Page(List.of(), 0);
+            }).thenAccept(page -> {
+                byte[] data = RecipeListCodec.encode(page.recipes(), ModConfig.isRecipeSyncCompressionEnabled());
+                ModNetwork.CHANNEL.send(PacketDistributor.PLAYER.with(() -> player),
+                        new RecipeQueryResultPacket(packet.queryId, packet.query.page, page.totalCount(), data));
+            });
+        });
+        context.setPacketHandled(true);
+    }
+
+    /**
+     * 客户端调用，发送查询到服务器
+     */
+    public static void sendToServer(int queryId, RecipeQuery query) {
+        ModNetwork.CHANNEL.sendToServer(new QueryRecipesPacket(queryId, query));
+    }
+}
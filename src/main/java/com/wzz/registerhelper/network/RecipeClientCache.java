@@ -5,12 +5,15 @@ import net.minecraft.resources.ResourceLocation;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 /**
  * 客户端配方缓存
- * 用于存储从服务器同步过来的配方列表
+ * 用于存储从服务器同步过来的配方列表，以及分页查询的回调
  */
 public class RecipeClientCache {
     
@@ -28,6 +31,17 @@ public class RecipeClientCache {
     
     // 错误信息
     private static volatile String errorMessage = null;
+
+    // 分页查询：查询编号 -> 回调
+    private static final AtomicInteger nextQueryId = new AtomicInteger();
+    private static final Map<Integer, Consumer<QueryPage>> pendingQueries = new ConcurrentHashMap<>();
+
+    /**
+     * 一页查询结果
+     * @param totalCount 服务器端匹配的配方总数
+     */
+    public record QueryPage(int queryId, int page, int totalCount, List<UnifiedRecipeInfo> recipes) {
+    }
     
     /**
      * 请求从服务器加载配方列表
@@ -46,6 +60,39 @@ public class RecipeClientCache {
         RequestRecipeListPacket.sendToServer();
     }
     
+    /**
+     * 向服务器发送分页查询，结果返回后在主线程调用回调
+     * @return 查询编号
+     */
+    public static int query(RecipeQuery query, Consumer<QueryPage> callback) {
+        int queryId = nextQueryId.incrementAndGet();
+        pendingQueries.put(queryId, callback);
+        QueryRecipesPacket.sendToServer(queryId, query);
+        return queryId;
+    }
+
+    /**
+     * 取消尚未返回的查询（结果到达后直接丢弃）
+     */
+    public static void cancelQuery(int queryId) {
+        pendingQueries.remove(queryId);
+    }
+
+    /**
+     * 服务器返回查询结果后调用
+     */
+    public static void onQueryResult(QueryPage page) {
+        Consumer<QueryPage> callback = pendingQueries.remove(page.queryId());
+        if (callback == null) {
+            return;
+        }
+        try {
+            callback.accept(page);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
     /**
      * 服务器响应后调用，设置配方列表
      */
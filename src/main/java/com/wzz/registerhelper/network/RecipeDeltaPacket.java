@@ -0,0 +1,192 @@
+package com.wzz.registerhelper.network;
+
+import com.mojang.logging.LogUtils;
+import com.wzz.registerhelper.mixin.RecipeManagerAccessor;
+import com.wzz.registerhelper.util.RecipeReloadHelper;
+import io.netty.buffer.Unpooled;
+import net.minecraft.client.ClientRecipeBook;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientPacketListener;
+import net.minecraft.client.searchtree.SearchRegistry;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.game.ClientboundUpdateRecipesPacket;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.crafting.Recipe;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.client.ForgeHooksClient;
+import net.minecraftforge.network.NetworkEvent;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 配方增量同步的网络包
+ * 服务器 -> 客户端，数据由 {@link RecipeDeltaSync} 编码，按字节数切分成多个包，客户端收齐后应用到本地配方管理器
+ */
+public class RecipeDeltaPacket {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    // 每个包携带的最大数据字节数（自定义负载包上限为 1MB）
+    public static final int MAX_CHUNK_BYTES = 256 * 1024;
+
+    private static final AtomicInteger NEXT_TRANSFER_ID = new AtomicInteger();
+
+    // 用于收集分包数据
+    private static byte[][] chunkBuffer = new byte[0][];
+    private static int currentTransferId = -1;
+    private static int receivedChunks = 0;
+
+    private final int transferId;
+    private final int chunkIndex;
+    private final int totalChunks;
+    private final byte[] data;
+
+    public RecipeDeltaPacket(int transferId, int chunkIndex, int totalChunks, byte[] data) {
+        this.transferId = transferId;
+        this.chunkIndex = chunkIndex;
+        this.totalChunks = totalChunks;
+        this.data = data;
+    }
+
+    /**
+     * 分配一次编码的编号
+     */
+    public static int nextTransferId() {
+        return NEXT_TRANSFER_ID.incrementAndGet();
+    }
+
+    public int getTransferId() {
+        return transferId;
+    }
+
+    public static void encode(RecipeDeltaPacket packet, FriendlyByteBuf buf) {
+        buf.writeVarInt(packet.transferId);
+        buf.writeVarInt(packet.chunkIndex);
+        buf.writeVarInt(packet.totalChunks);
+        buf.writeByteArray(packet.data);
+    }
+
+    public static RecipeDeltaPacket decode(FriendlyByteBuf buf) {
+        int transferId = buf.readVarInt();
+        int chunkIndex = buf.readVarInt();
+        int totalChunks = buf.readVarInt();
+        byte[] data = buf.readByteArray(MAX_CHUNK_BYTES);
+        return new RecipeDeltaPacket(transferId, chunkIndex, totalChunks, data);
+    }
+
+    public static void handle(RecipeDeltaPacket packet, Supplier<NetworkEvent.Context> contextSupplier) {
+        NetworkEvent.Context context = contextSupplier.get();
+        context.enqueueWork(() -> {
+            if (context.getDirection().getReceptionSide().isClient()) {
+                handleOnClient(packet);
+            }
+        });
+        context.setPacketHandled(true);
+    }
+
+    @OnlyIn(Dist.CLIENT)
+    private static void handleOnClient(RecipeDeltaPacket packet) {
+        if (packet.chunkIndex < 0 || packet.chunkIndex >= packet.totalChunks) {
+            LOGGER.warn("收到无效的配方同步分包 {}/{}", packet.chunkIndex, packet.totalChunks);
+            return;
+        }
+
+        // 新的一次发送，重置状态
+        if (packet.transferId != currentTransferId || chunkBuffer.length != packet.totalChunks) {
+            currentTransferId = packet.transferId;
+            chunkBuffer = new byte[packet.totalChunks][];
+            receivedChunks = 0;
+        }
+        if (chunkBuffer[packet.chunkIndex] == null) {
+            chunkBuffer[packet.chunkIndex] = packet.data;
+            receivedChunks++;
+        }
+        if (receivedChunks < chunkBuffer.length) {
+            return;
+        }
+
+        int length = 0;
+        for (byte[] chunk : chunkBuffer) {
+            length += chunk.length;
+        }
+        byte[] stream = new byte[length];
+        int offset = 0;
+        for (byte[] chunk : chunkBuffer) {
+            System.arraycopy(chunk, 0, stream, offset, chunk.length);
+            offset += chunk.length;
+        }
+        // 同一份编码可能再次发送（例如重新同步），收齐后清除编号
+        int transferId = currentTransferId;
+        chunkBuffer = new byte[0][];
+        currentTransferId = -1;
+
+        try {
+            apply(stream);
+        } catch (Exception e) {
+            // 完整配方表也应用失败时不再请求，避免反复重发
+            if (stream.length > 0 && stream[0] != 0) {
+                LOGGER.error("应用完整配方表失败", e);
+            } else {
+                LOGGER.error("应用配方增量数据失败，请求服务器重新发送完整配方表", e);
+                RequestRecipeResyncPacket.sendToServer(transferId);
+            }
+        }
+    }
+
+    @OnlyIn(Dist.CLIENT)
+    private static void apply(byte[] stream) {
+        Minecraft minecraft = Minecraft.getInstance();
+        ClientPacketListener connection = minecraft.getConnection();
+        if (connection == null) {
+            return;
+        }
+        RecipeManager recipeManager = connection.getRecipeManager();
+
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.wrappedBuffer(stream));
+        boolean replaceAll;
+        List<Recipe<?>> recipes;
+        List<ResourceLocation> removed;
+        try {
+            replaceAll = buf.readBoolean();
+            int count = buf.readVarInt();
+            recipes = new ArrayList<>(Math.min(count, 1 << 16));
+            for (int i = 0; i < count; i++) {
+                recipes.add(ClientboundUpdateRecipesPacket.fromNetwork(buf));
+            }
+            int removedCount = buf.readVarInt();
+            removed = new ArrayList<>(Math.min(removedCount, 1 << 16));
+            for (int i = 0; i < removedCount; i++) {
+                removed.add(buf.readResourceLocation());
+            }
+        } finally {
+            buf.release();
+        }
+
+        if (replaceAll) {
+            recipeManager.replaceRecipes(recipes);
+        } else {
+            Map<ResourceLocation, Recipe<?>> changed = new LinkedHashMap<>();
+            for (Recipe<?> recipe : recipes) {
+                changed.put(recipe.getId(), recipe);
+            }
+            RecipeReloadHelper.patchRecipeManager((RecipeManagerAccessor) recipeManager, changed, removed);
+        }
+
+        // 与原版收到配方包后的处理一致：刷新配方书和搜索树，通知其他模组（如JEI）
+        if (minecraft.player != null && minecraft.level != null) {
+            ClientRecipeBook recipeBook = minecraft.player.getRecipeBook();
+            recipeBook.setupCollections(recipeManager.getRecipes(), minecraft.level.registryAccess());
+            minecraft.populateSearchTree(SearchRegistry.RECIPE_COLLECTIONS, recipeBook.getCollections());
+        }
+        ForgeHooksClient.onRecipesUpdated(recipeManager);
+
+        LOGGER.info("已应用配方{}同步: {} 个配方，{} 个移除", replaceAll ? "完整" : "增量", recipes.size(), removed.size());
+    }
+}
@@ -0,0 +1,221 @@
+package com.wzz.registerhelper.network;
+
+import com.mojang.logging.LogUtils;
+import com.wzz.registerhelper.init.ModNetwork;
+import com.wzz.registerhelper.mixin.RecipeManagerAccessor;
+import com.wzz.registerhelper.util.RecipeReloadHelper;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.game.ClientboundUpdateRecipesPacket;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.item.crafting.Recipe;
+import net.minecraftforge.event.OnDatapackSyncEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.network.PacketDistributor;
+import org.slf4j.Logger;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 配方增量同步（服务器端）
+ * 热重载后只把新增、修改和移除的配方发给安装了本模组的客户端；
+ * 服务器记录每个玩家已有的配方版本，版本落后的客户端改发完整配方表，未安装本模组的客户端使用原版配方包。
+ * 增量数据和完整配方表都只编码一次，所有玩家共用同一组网络包
+ */
+@Mod.EventBusSubscriber(modid = "registerhelper")
+public class RecipeDeltaSync {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    // 同一玩家两次重新同步之间的最短间隔（tick）
+    private static final int RESYNC_INTERVAL_TICKS = 100;
+
+    // 服务器配方版本，每次增量修改加一（只在服务器线程访问）
+    private static long version = 0;
+    // 玩家 -> 客户端已有的配方版本
+    private static final Map<UUID, Long> playerVersions = new HashMap<>();
+    // 玩家 -> 最近发给该玩家、尚未确认失败的增量数据编号（只有它应用失败时才接受重新同步请求）
+    private static final Map<UUID, Integer> pendingDeltas = new HashMap<>();
+    // 玩家 -> 上次重新同步的服务器tick
+    private static final Map<UUID, Integer> lastResyncTicks = new HashMap<>();
+    // 当前配方表的完整编码，配方表被替换后重新编码
+    private static FullEncoding fullEncoding;
+
+    private record FullEncoding(Map<ResourceLocation, Recipe<?>> byName, RecipeDeltaPacket[] packets) {
+    }
+
+    /**
+     * 发送热重载产生的配方变化（在服务器线程调用，配方管理器已完成修改）
+     */
+    public static void sendChanges(MinecraftServer server, Map<ResourceLocation, Recipe<?>> changed,
+                                   Collection<ResourceLocation> removed) {
+        long baseVersion = version;
+        version++;
+
+        RecipeDeltaPacket[] delta = null;
+        ClientboundUpdateRecipesPacket vanillaPacket = null;
+        int deltaCount = 0, fullCount = 0, vanillaCount = 0;
+
+        try {
+            for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+                Long known = playerVersions.put(player.getUUID(), version);
+                pendingDeltas.remove(player.getUUID());
+                if (!ModNetwork.CHANNEL.isRemotePresent(player.connection.connection)) {
+                    if (vanillaPacket == null) {
+                        vanillaPacket = new ClientboundUpdateRecipesPacket(server.getRecipeManager().getRecipes());
+                    }
+                    player.connection.send(vanillaPacket);
+                    vanillaCount++;
+                } else if (known != null && known == baseVersion) {
+                    if (delta == null) {
+                        delta = encode(false, changed.values(), removed);
+                    }
+                    send(player, delta);
+                    pendingDeltas.put(player.getUUID(), delta[0].getTransferId());
+                    deltaCount++;
+                } else {
+                    send(player, getFullPackets(server));
+                    fullCount++;
+                }
+            }
+        } catch (Exception e) {
+            // 模组配方的网络序列化失败时退回原版同步
+            LOGGER.error("编码配方增量数据失败，改为发送完整配方包", e);
+            RecipeReloadHelper.syncRecipesToAllClients(server);
+            return;
+        }
+
+        LOGGER.info("配方变化已同步: 增量 {} 人，完整(模组通道) {} 人，完整(原版) {} 人，{} 个修改，{} 个移除",
+                deltaCount, fullCount, vanillaCount, changed.size(), removed.size());
+    }
+
+    /**
+     * 客户端应用增量失败后请求完整配方表
+     * 只接受针对最近发给该玩家的增量数据的请求，并限制频率；
+     * 过于频繁的请求不立即处理，只把玩家标记为版本落后，下次配方变化时发送完整配方表
+     * @param transferId 客户端应用失败的增量数据编号
+     */
+    public static void resync(ServerPlayer player, int transferId) {
+        MinecraftServer server = player.getServer();
+        if (server == null) {
+            return;
+        }
+        UUID uuid = player.getUUID();
+        Integer pending = pendingDeltas.get(uuid);
+        if (pending == null || pending != transferId) {
+            LOGGER.debug("忽略玩家 {} 的重新同步请求: 没有待确认的增量数据 {}", player.getName().getString(), transferId);
+            return;
+        }
+        pendingDeltas.remove(uuid);
+        Integer lastTick = lastResyncTicks.get(uuid);
+        if (lastTick != null && server.getTickCount() - lastTick < RESYNC_INTERVAL_TICKS) {
+            playerVersions.remove(uuid);
+            LOGGER.warn("玩家 {} 重新同步配方过于频繁，将在下次配方变化时发送完整配方表", player.getName().getString());
+            return;
+        }
+        lastResyncTicks.put(uuid, server.getTickCount());
+        try {
+            send(player, getFullPackets(server));
+        } catch (Exception e) {
+            LOGGER.error("编码完整配方表失败，改为发送原版配方包", e);
+            player.connection.send(new ClientboundUpdateRecipesPacket(server.getRecipeManager().getRecipes()));
+        }
+        playerVersions.put(player.getUUID(), version);
+        LOGGER.info("已向玩家 {} 重新发送完整配方表", player.getName().getString());
+    }
+
+    /**
+     * 原版在登录和 /reload 时会发送完整配方表，之后该玩家与服务器版本一致
+     */
+    @SubscribeEvent
+    public static void onDatapackSync(OnDatapackSyncEvent event) {
+        if (event.getPlayer() != null) {
+            playerVersions.put(event.getPlayer().getUUID(), version);
+            pendingDeltas.remove(event.getPlayer().getUUID());
+        } else {
+            for (ServerPlayer player : event.getPlayerList().getPlayers()) {
+                playerVersions.put(player.getUUID(), version);
+            }
+            pendingDeltas.clear();
+        }
+    }
+
+    @SubscribeEvent
+    public static void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        playerVersions.remove(event.getEntity().getUUID());
+        pendingDeltas.remove(event.getEntity().getUUID());
+        lastResyncTicks.remove(event.getEntity().getUUID());
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        playerVersions.clear();
+        pendingDeltas.clear();
+        lastResyncTicks.clear();
+        fullEncoding = null;
+        version = 0;
+    }
+
+    private static RecipeDeltaPacket[] getFullPackets(MinecraftServer server) {
+        Map<ResourceLocation, Recipe<?>> byName =
+                ((RecipeManagerAccessor) server.getRecipeManager()).registerhelper$getByName();
+        FullEncoding encoding = fullEncoding;
+        if (encoding == null || encoding.byName != byName) {
+            encoding = new FullEncoding(byName, encode(true, byName.values(), List.of()));
+            fullEncoding = encoding;
+        }
+        return encoding.packets;
+    }
+
+    private static void send(ServerPlayer player, RecipeDeltaPacket[] packets) {
+        for (RecipeDeltaPacket packet : packets) {
+            ModNetwork.CHANNEL.send(PacketDistributor.PLAYER.with(() -> player), packet);
+        }
+    }
+
+    /**
+     * 编码并按字节数分包
+     * 数据格式：是否替换全部配方, 配方数量, 配方（原版网络格式）..., 移除数量, 移除的ID...
+     */
+    private static RecipeDeltaPacket[] encode(boolean replaceAll, Collection<Recipe<?>> recipes,
+                                              Collection<ResourceLocation> removed) {
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+        byte[] stream;
+        try {
+            buf.writeBoolean(replaceAll);
+            buf.writeVarInt(recipes.size());
+            for (Recipe<?> recipe : recipes) {
+                ClientboundUpdateRecipesPacket.toNetwork(buf, recipe);
+            }
+            buf.writeVarInt(removed.size());
+            for (ResourceLocation id : removed) {
+                buf.writeResourceLocation(id);
+            }
+            stream = new byte[buf.readableBytes()];
+            buf.readBytes(stream);
+        } finally {
+            buf.release();
+        }
+
+        int transferId = RecipeDeltaPacket.nextTransferId();
+        int totalChunks = Math.max(1, (stream.length + RecipeDeltaPacket.MAX_CHUNK_BYTES - 1)
+                / RecipeDeltaPacket.MAX_CHUNK_BYTES);
+        RecipeDeltaPacket[] packets = new RecipeDeltaPacket[totalChunks];
+        for (int i = 0; i < totalChunks; i++) {
+            int start = i * RecipeDeltaPacket.MAX_CHUNK_BYTES;
+            packets[i] = new RecipeDeltaPacket(transferId, i, totalChunks, Arrays.copyOfRange(stream, start,
+                    Math.min(start + RecipeDeltaPacket.MAX_CHUNK_BYTES, stream.length)));
+        }
+        LOGGER.debug("配方{}数据已编码: {} 个配方，{} 个移除，{} 字节，{} 个包", replaceAll ? "完整" : "增量",
+                recipes.size(), removed.size(), stream.length, totalChunks);
+        return packets;
+    }
+}
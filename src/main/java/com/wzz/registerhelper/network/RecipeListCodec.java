@@ -0,0 +1,216 @@
+package com.wzz.registerhelper.network;
+
+import com.wzz.registerhelper.info.UnifiedRecipeInfo;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 配方列表的紧凑编码
+ * 命名空间、来源、配方类型和产物名称放入字符串字典，条目中只写字典序号（varint）；
+ * 状态位合并为一个标志字节；配方路径与上一条共享前缀；整个数据流可选 deflate 压缩
+ *
+ * 格式：格式字节（bit0=已压缩） + [字典大小, 字典字符串..., 配方数量, 条目...]
+ * 条目：标志字节, 命名空间序号, 共享前缀长度, 路径后缀, 来源序号, 描述（类型序号 + 名称序号，或整条描述序号）
+ */
+public class RecipeListCodec {
+    private static final int FORMAT_COMPRESSED = 1;
+
+    private static final int FLAG_BLACKLISTED = 1;
+    private static final int FLAG_OVERRIDE = 1 << 1;
+    // 描述为 "类型 -> 产物名称" 形式，分成两个字典项
+    private static final int FLAG_SPLIT_DESCRIPTION = 1 << 2;
+
+    private static final String DESCRIPTION_SEPARATOR = " -> ";
+    // 解压后数据的大小上限，防止异常数据耗尽客户端内存
+    private static final int MAX_DECODED_BYTES = 128 * 1024 * 1024;
+
+    /**
+     * 编码配方列表
+     * @param compress 是否使用 deflate 压缩
+     */
+    public static byte[] encode(List<UnifiedRecipeInfo> recipes, boolean compress) {
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+
+        FriendlyByteBuf entries = new FriendlyByteBuf(Unpooled.buffer());
+        FriendlyByteBuf out = new FriendlyByteBuf(Unpooled.buffer());
+        try {
+            String previousPath = "";
+            for (UnifiedRecipeInfo info : recipes) {
+                String description = info.description;
+                int separator = description.indexOf(DESCRIPTION_SEPARATOR);
+
+                int flags = 0;
+                if (info.isBlacklisted) flags |= FLAG_BLACKLISTED;
+                if (info.hasOverride) flags |= FLAG_OVERRIDE;
+                if (separator >= 0) flags |= FLAG_SPLIT_DESCRIPTION;
+                entries.writeByte(flags);
+
+                entries.writeVarInt(intern(info.id.getNamespace(), dictionary, strings));
+                String path = info.id.getPath();
+                int shared = sharedPrefixLength(previousPath, path);
+                entries.writeVarInt(shared);
+                entries.writeUtf(path.substring(shared));
+                previousPath = path;
+
+                entries.writeVarInt(intern(info.source, dictionary, strings));
+                if (separator >= 0) {
+                    entries.writeVarInt(intern(description.substring(0, separator), dictionary, strings));
+                    entries.writeVarInt(intern(description.substring(separator + DESCRIPTION_SEPARATOR.length()),
+                            dictionary, strings));
+                } else {
+                    entries.writeVarInt(intern(description, dictionary, strings));
+                }
+            }
+
+            out.writeVarInt(strings.size());
+            for (String string : strings) {
+                out.writeUtf(string);
+            }
+            out.writeVarInt(recipes.size());
+            out.writeBytes(entries, entries.readerIndex(), entries.readableBytes());
+
+            byte[] payload = new byte[out.readableBytes()];
+            out.readBytes(payload);
+            return compress ? prepend(FORMAT_COMPRESSED, deflate(payload)) : prepend(0, payload);
+        } finally {
+            entries.release();
+            out.release();
+        }
+    }
+
+    /**
+     * 解码配方列表
+     */
+    public static List<UnifiedRecipeInfo> decode(byte[] data) throws IOException {
+        if (data.length == 0) {
+            throw new IOException("配方列表数据为空");
+        }
+        byte[] payload = new byte[data.length - 1];
+        System.arraycopy(data, 1, payload, 0, payload.length);
+        if ((data[0] & FORMAT_COMPRESSED) != 0) {
+            payload = inflate(payload, MAX_DECODED_BYTES);
+        }
+
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.wrappedBuffer(payload));
+        try {
+            int dictionarySize = buf.readVarInt();
+            String[] strings = new String[dictionarySize];
+            for (int i = 0; i < dictionarySize; i++) {
+                strings[i] = buf.readUtf();
+            }
+
+            int count = buf.readVarInt();
+            List<UnifiedRecipeInfo> recipes = new ArrayList<>(Math.min(count, 1 << 16));
+            String previousPath = "";
+            for (int i = 0; i < count; i++) {
+                int flags = buf.readByte();
+                String namespace = strings[buf.readVarInt()];
+                int shared = buf.readVarInt();
+                String path = previousPath.substring(0, shared) + buf.readUtf();
+                previousPath = path;
+
+                String source = strings[buf.readVarInt()];
+                String description;
+                if ((flags & FLAG_SPLIT_DESCRIPTION) != 0) {
+                    String type = strings[buf.readVarInt()];
+                    description = type + DESCRIPTION_SEPARATOR + strings[buf.readVarInt()];
+                } else {
+                    description = strings[buf.readVarInt()];
+                }
+
+                recipes.add(new UnifiedRecipeInfo(new ResourceLocation(namespace, path), source,
+                        (flags & FLAG_BLACKLISTED) != 0, (flags & FLAG_OVERRIDE) != 0, description));
+            }
+            return recipes;
+        } catch (RuntimeException e) {
+            throw new IOException("配方列表数据格式错误", e);
+        } finally {
+            buf.release();
+        }
+    }
+
+    private static int intern(String value, Map<String, Integer> dictionary, List<String> strings) {
+        Integer index = dictionary.get(value);
+        if (index == null) {
+            index = strings.size();
+            dictionary.put(value, index);
+            strings.add(value);
+        }
+        return index;
+    }
+
+    private static int sharedPrefixLength(String a, String b) {
+        int max = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < max && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static byte[] prepend(int format, byte[] payload) {
+        byte[] data = new byte[payload.length + 1];
+        data[0] = (byte) format;
+        System.arraycopy(payload, 0, data, 1, payload.length);
+        return data;
+    }
+
+    /**
+     * deflate 压缩（配方上传也使用）
+     */
+    static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * deflate 解压，解压后超过 maxBytes 时抛出异常
+     */
+    static byte[] inflate(byte[] data, int maxBytes) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(data.length * 4, maxBytes));
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("配方压缩数据不完整");
+                }
+                out.write(buffer, 0, length);
+                if (out.size() > maxBytes) {
+                    throw new IOException("配方数据过大");
+                }
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("配方压缩数据损坏", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
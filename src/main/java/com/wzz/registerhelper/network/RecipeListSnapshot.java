@@ -0,0 +1,230 @@
+package com.wzz.registerhelper.network;
+
+import com.mojang.logging.LogUtils;
+import com.wzz.registerhelper.info.UnifiedRecipeInfo;
+import com.wzz.registerhelper.init.ModConfig;
+import com.wzz.registerhelper.init.ModNetwork;
+import com.wzz.registerhelper.mixin.RecipeManagerAccessor;
+import com.wzz.registerhelper.recipe.RecipeBlacklistManager;
+import com.wzz.registerhelper.recipe.UnifiedRecipeOverrideManager;
+import net.minecraft.Util;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Recipe;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.network.PacketDistributor;
+import net.minecraftforge.registries.ForgeRegistries;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 服务器端配方列表快照
+ * 配方列表只在配方重载、黑名单或覆盖变化后重建一次，排序键和编码后的网络数据都预先算好，
+ * 所有玩家的请求共享同一份快照；分页查询使用随快照在后台线程建立的 {@link RecipeQueryIndex}
+ */
+@Mod.EventBusSubscriber(modid = "registerhelper")
+public class RecipeListSnapshot {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private static volatile RecipeListSnapshot current;
+
+    // 生成快照时的配方表（热重载和 /reload 都会替换为新的对象）
+    private final Map<ResourceLocation, Recipe<?>> byName;
+    private final long blacklistVersion;
+    private final long overrideVersion;
+
+    // 已排序：未禁用的配方在前，所以可编辑配方是列表的前缀
+    private final List<UnifiedRecipeInfo> recipes;
+    private final int editableCount;
+    // 与 recipes 顺序一致的查询索引，生成快照后在后台线程建立
+    private final CompletableFuture<RecipeQueryIndex> queryIndex;
+    // 按请求类型缓存的编码数据
+    private final EncodedList[] encodedLists = new EncodedList[2];
+
+    private RecipeListSnapshot(Map<ResourceLocation, Recipe<?>> byName, long blacklistVersion, long overrideVersion,
+                               List<UnifiedRecipeInfo> recipes, int editableCount,
+                               List<RecipeQueryIndex.Entry> indexEntries) {
+        this.byName = byName;
+        this.blacklistVersion = blacklistVersion;
+        this.overrideVersion = overrideVersion;
+        this.recipes = recipes;
+        this.editableCount = editableCount;
+        this.queryIndex = CompletableFuture.supplyAsync(() -> {
+            long startTime = System.nanoTime();
+            RecipeQueryIndex index = new RecipeQueryIndex(indexEntries);
+            LOGGER.debug("配方查询索引已建立，耗时 {} ms", (System.nanoTime() - startTime) / 1_000_000);
+            return index;
+        }, Util.backgroundExecutor());
+    }
+
+    /**
+     * 获取当前快照，配方、黑名单或覆盖变化后重新生成（在服务器线程调用）
+     */
+    public static RecipeListSnapshot get(MinecraftServer server) {
+        Map<ResourceLocation, Recipe<?>> byName =
+                ((RecipeManagerAccessor) server.getRecipeManager()).registerhelper$getByName();
+        long blacklistVersion = RecipeBlacklistManager.getVersion();
+        long overrideVersion = UnifiedRecipeOverrideManager.getVersion();
+
+        RecipeListSnapshot snapshot = current;
+        if (snapshot == null || snapshot.byName != byName
+                || snapshot.blacklistVersion != blacklistVersion || snapshot.overrideVersion != overrideVersion) {
+            snapshot = build(server, byName, blacklistVersion, overrideVersion);
+            current = snapshot;
+        }
+        return snapshot;
+    }
+
+    /**
+     * 服务器关闭后丢弃快照，释放对旧配方表的引用
+     */
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        current = null;
+    }
+
+    private static RecipeListSnapshot build(MinecraftServer server, Map<ResourceLocation, Recipe<?>> byName,
+                                            long blacklistVersion, long overrideVersion) {
+        long startTime = System.nanoTime();
+        List<RecipeQueryIndex.Entry> entries = new ArrayList<>(byName.size());
+
+        for (Recipe<?> recipe : byName.values()) {
+            ResourceLocation id = recipe.getId();
+            boolean isBlacklisted = RecipeBlacklistManager.isBlacklisted(id, recipe, server.registryAccess());
+            boolean hasOverride = UnifiedRecipeOverrideManager.hasOverride(id);
+
+            String source = determineRecipeSource(id);
+            String typeId = recipe.getType().toString();
+            String description;
+            String outputId = "";
+            String outputName = "";
+            try {
+                ItemStack result = recipe.getResultItem(server.registryAccess());
+                outputName = result.getHoverName().getString();
+                description = typeId + " -> " + outputName;
+                if (!result.isEmpty()) {
+                    ResourceLocation itemId = ForgeRegistries.ITEMS.getKey(result.getItem());
+                    outputId = itemId != null ? itemId.toString() : "";
+                }
+            } catch (Exception e) {
+                description = typeId + " -> ?";
+            }
+
+            entries.add(new RecipeQueryIndex.Entry(
+                    new UnifiedRecipeInfo(id, source, isBlacklisted, hasOverride, description),
+                    id.toString(), typeId, outputId, outputName.toLowerCase()));
+        }
+
+        entries.sort(Comparator.<RecipeQueryIndex.Entry>comparingInt(entry -> entry.info().isBlacklisted ? 1 : 0)
+                .thenComparingInt(entry -> entry.info().hasOverride ? 0 : 1)
+                .thenComparing(entry -> entry.info().source)
+                .thenComparing(RecipeQueryIndex.Entry::idString));
+
+        List<UnifiedRecipeInfo> recipes = new ArrayList<>(entries.size());
+        int editableCount = 0;
+        for (RecipeQueryIndex.Entry entry : entries) {
+            recipes.add(entry.info());
+            if (!entry.info().isBlacklisted) {
+                editableCount++;
+            }
+        }
+
+        LOGGER.debug("配方列表快照已生成: {} 个配方，耗时 {} ms",
+                recipes.size(), (System.nanoTime() - startTime) / 1_000_000);
+        return new RecipeListSnapshot(byName, blacklistVersion, overrideVersion, List.copyOf(recipes), editableCount,
+                entries);
+    }
+
+    /**
+     * 确定配方来源
+     */
+    private static String determineRecipeSource(ResourceLocation recipeId) {
+        String namespace = recipeId.getNamespace();
+        String path = recipeId.getPath();
+
+        if (namespace.equals("registerhelper") || path.startsWith("custom_") || path.contains("_custom_")) {
+            return "自定义";
+        }
+
+        if (namespace.equals("minecraft")) {
+            return "原版";
+        }
+
+        return "模组(" + namespace + ")";
+    }
+
+    /**
+     * 获取配方列表
+     * @param requestType 0=所有配方, 1=可编辑配方(排除黑名单)
+     */
+    public List<UnifiedRecipeInfo> getRecipes(int requestType) {
+        return requestType == 1 ? recipes.subList(0, editableCount) : recipes;
+    }
+
+    /**
+     * 分页查询配方，索引建立完成后在后台线程执行查询
+     */
+    public CompletableFuture<RecipeQueryIndex.Page> query(RecipeQuery query) {
+        return queryIndex.thenApplyAsync(index -> index.query(query), Util.backgroundExecutor());
+    }
+
+    /**
+     * 发送配方列表给客户端（按字节数分包）
+     */
+    public void sendTo(ServerPlayer player, int requestType) {
+        int type = requestType == 1 ? 1 : 0;
+        byte[][] chunks = getEncodedChunks(type);
+        int totalRecipes = getRecipes(type).size();
+        int transferId = SyncRecipeListPacket.nextTransferId();
+
+        for (int batchIndex = 0; batchIndex < chunks.length; batchIndex++) {
+            SyncRecipeListPacket packet = new SyncRecipeListPacket(
+                transferId,
+                batchIndex,
+                chunks.length,
+                totalRecipes,
+                chunks[batchIndex]
+            );
+
+            ModNetwork.CHANNEL.send(PacketDistributor.PLAYER.with(() -> player), packet);
+        }
+
+        LOGGER.debug("已发送 {} 批配方数据给玩家 {}", chunks.length, player.getName().getString());
+    }
+
+    /**
+     * 获取编码并分包后的数据（每种请求类型只编码一次，压缩设置变化时重新编码）
+     */
+    private synchronized byte[][] getEncodedChunks(int type) {
+        boolean compress = ModConfig.isRecipeSyncCompressionEnabled();
+        EncodedList encoded = encodedLists[type];
+        if (encoded == null || encoded.compressed != compress) {
+            byte[] stream = RecipeListCodec.encode(getRecipes(type), compress);
+            int totalChunks = Math.max(1, (stream.length + SyncRecipeListPacket.MAX_CHUNK_BYTES - 1)
+                    / SyncRecipeListPacket.MAX_CHUNK_BYTES);
+            byte[][] chunks = new byte[totalChunks][];
+            for (int i = 0; i < totalChunks; i++) {
+                int start = i * SyncRecipeListPacket.MAX_CHUNK_BYTES;
+                chunks[i] = Arrays.copyOfRange(stream, start,
+                        Math.min(start + SyncRecipeListPacket.MAX_CHUNK_BYTES, stream.length));
+            }
+            encoded = new EncodedList(chunks, compress);
+            encodedLists[type] = encoded;
+            LOGGER.debug("配方列表已编码: {} 个配方，{} 字节，{} 个包", getRecipes(type).size(), stream.length, totalChunks);
+        }
+        return encoded.chunks;
+    }
+
+    private record EncodedList(byte[][] chunks, boolean compressed) {
+    }
+}
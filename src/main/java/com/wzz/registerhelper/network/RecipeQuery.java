@@ -0,0 +1,122 @@
+package com.wzz.registerhelper.network;
+
+import net.minecraft.network.FriendlyByteBuf;
+
+/**
+ * 配方查询条件（分页）
+ * 搜索框文本可以带过滤前缀：@命名空间、type:配方类型、output:产物物品、is:disabled / is:override / is:normal，
+ * 其余部分作为普通搜索文本（ID、类型、产物名称、拼音）
+ */
+public class RecipeQuery {
+    public static final int STATUS_ANY = 0;
+    public static final int STATUS_NORMAL = 1;
+    public static final int STATUS_BLACKLISTED = 2;
+    public static final int STATUS_OVERRIDDEN = 3;
+
+    // 单页最多条目数，服务器端会按此截断
+    public static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_FIELD_LENGTH = 256;
+
+    public final String text;          // 普通搜索文本（小写）
+    public final String namespace;     // 配方ID命名空间，空字符串表示不过滤
+    public final String recipeType;    // 配方类型ID或其路径部分
+    public final String outputItem;    // 产物物品ID或其路径部分
+    public final int status;           // STATUS_*
+    public final int page;
+    public final int pageSize;
+
+    public RecipeQuery(String text, String namespace, String recipeType, String outputItem,
+                       int status, int page, int pageSize) {
+        this.text = text;
+        this.namespace = namespace;
+        this.recipeType = recipeType;
+        this.outputItem = outputItem;
+        this.status = status;
+        this.page = Math.max(0, page);
+        this.pageSize = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * 从搜索框文本解析查询条件
+     */
+    public static RecipeQuery parse(String input, int pageSize) {
+        StringBuilder text = new StringBuilder();
+        String namespace = "";
+        String recipeType = "";
+        String outputItem = "";
+        int status = STATUS_ANY;
+
+        for (String token : input.trim().toLowerCase().split("\\s+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            if (token.startsWith("@") && token.length() > 1) {
+                namespace = normalizeNamespace(token.substring(1));
+            } else if (token.startsWith("type:") && token.length() > 5) {
+                recipeType = token.substring(5);
+            } else if (token.startsWith("output:") && token.length() > 7) {
+                outputItem = token.substring(7);
+            } else if (token.startsWith("is:") && parseStatus(token.substring(3)) != STATUS_ANY) {
+                status = parseStatus(token.substring(3));
+            } else {
+                if (text.length() > 0) {
+                    text.append(' ');
+                }
+                text.append(token);
+            }
+        }
+        return new RecipeQuery(text.toString(), namespace, recipeType, outputItem, status, 0, pageSize);
+    }
+
+    private static String normalizeNamespace(String namespace) {
+        return switch (namespace) {
+            case "mc", "minec" -> "minecraft";
+            default -> namespace;
+        };
+    }
+
+    private static int parseStatus(String value) {
+        return switch (value) {
+            case "normal", "正常" -> STATUS_NORMAL;
+            case "disabled", "blacklisted", "禁用", "已禁用" -> STATUS_BLACKLISTED;
+            case "override", "overridden", "覆盖", "已覆盖" -> STATUS_OVERRIDDEN;
+            default -> STATUS_ANY;
+        };
+    }
+
+    /**
+     * 同一条件的另一页
+     */
+    public RecipeQuery withPage(int page) {
+        return new RecipeQuery(text, namespace, recipeType, outputItem, status, page, pageSize);
+    }
+
+    /**
+     * 不含分页信息的过滤条件，用于缓存匹配结果
+     */
+    public String filterKey() {
+        return text + '\u0000' + namespace + '\u0000' + recipeType + '\u0000' + outputItem + '\u0000' + status;
+    }
+
+    public void encode(FriendlyByteBuf buf) {
+        buf.writeUtf(text, MAX_FIELD_LENGTH);
+        buf.writeUtf(namespace, MAX_FIELD_LENGTH);
+        buf.writeUtf(recipeType, MAX_FIELD_LENGTH);
+        buf.writeUtf(outputItem, MAX_FIELD_LENGTH);
+        buf.writeByte(status);
+        buf.writeVarInt(page);
+        buf.writeVarInt(pageSize);
+    }
+
+    public static RecipeQuery decode(FriendlyByteBuf buf) {
+        String text = buf.readUtf(MAX_FIELD_LENGTH);
+        String namespace = buf.readUtf(MAX_FIELD_LENGTH);
+        String recipeType = buf.readUtf(MAX_FIELD_LENGTH);
+        String outputItem = buf.readUtf(MAX_FIELD_LENGTH);
+        int status = buf.readByte();
+        int page = buf.readVarInt();
+        int pageSize = buf.readVarInt();
+        return new RecipeQuery(text, namespace, recipeType, outputItem,
+                status >= STATUS_ANY && status <= STATUS_OVERRIDDEN ? status : STATUS_ANY, page, pageSize);
+    }
+}
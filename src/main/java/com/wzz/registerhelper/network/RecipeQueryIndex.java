@@ -0,0 +1,244 @@
+package com.wzz.registerhelper.network;
+
+import com.wzz.registerhelper.info.UnifiedRecipeInfo;
+import com.wzz.registerhelper.util.PinyinSearchHelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 配方查询索引（服务器端，属于某一份 {@link RecipeListSnapshot}）
+ * 命名空间、配方类型、产物物品建立倒排表，文本使用 {@link PinyinSearchHelper} 的 trigram 索引，
+ * 查询时文本结果与最短的倒排表求交集后再检查其余条件；
+ * 最近查询过的条件缓存匹配结果，翻页时不再重新扫描。
+ * 建立索引（包括拼音转换）比较耗时，由 {@link RecipeListSnapshot} 在后台线程完成
+ */
+public class RecipeQueryIndex {
+    private static final int MATCH_CACHE_SIZE = 32;
+
+    /**
+     * 索引条目，与快照中的配方列表顺序一致
+     * @param idString 配方ID字符串（也用作排序键）
+     * @param typeId 配方类型ID
+     * @param outputId 产物物品ID，没有产物时为空字符串
+     * @param outputName 产物名称（小写）
+     */
+    public record Entry(UnifiedRecipeInfo info, String idString, String typeId, String outputId, String outputName) {
+    }
+
+    /**
+     * 查询结果：一页配方和匹配总数
+     */
+    public record Page(List<UnifiedRecipeInfo> recipes, int totalCount) {
+    }
+
+    private final Entry[] entries;
+    private final Map<String, int[]> byNamespace;
+    private final Map<String, int[]> byType;
+    private final Map<String, int[]> byOutput;
+    // 按条目下标建立的拼音索引，search 按下标升序返回
+    private final PinyinSearchHelper<Integer> searchHelper;
+
+    private final Map<String, int[]> matchCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) {
+            return size() > MATCH_CACHE_SIZE;
+        }
+    };
+
+    public RecipeQueryIndex(List<Entry> entries) {
+        this.entries = entries.toArray(new Entry[0]);
+
+        Map<String, List<Integer>> namespaces = new HashMap<>();
+        Map<String, List<Integer>> types = new HashMap<>();
+        Map<String, List<Integer>> outputs = new HashMap<>();
+        for (int i = 0; i < this.entries.length; i++) {
+            Entry entry = this.entries[i];
+            namespaces.computeIfAbsent(entry.info.id.getNamespace(), key -> new ArrayList<>()).add(i);
+            types.computeIfAbsent(entry.typeId, key -> new ArrayList<>()).add(i);
+            if (!entry.outputId.isEmpty()) {
+                outputs.computeIfAbsent(entry.outputId, key -> new ArrayList<>()).add(i);
+            }
+        }
+        this.byNamespace = toPostings(namespaces);
+        this.byType = toPostings(types);
+        this.byOutput = toPostings(outputs);
+
+        this.searchHelper = new PinyinSearchHelper<>(index -> this.entries[index].outputName,
+                index -> this.entries[index].idString);
+        List<Integer> positions = new ArrayList<>(this.entries.length);
+        for (int i = 0; i < this.entries.length; i++) {
+            positions.add(i);
+        }
+        this.searchHelper.buildCache(positions);
+    }
+
+    private static Map<String, int[]> toPostings(Map<String, List<Integer>> lists) {
+        Map<String, int[]> postings = new HashMap<>(lists.size() * 2);
+        for (Map.Entry<String, List<Integer>> entry : lists.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        return postings;
+    }
+
+    /**
+     * 执行查询，只返回请求的那一页
+     */
+    public synchronized Page query(RecipeQuery query) {
+        int[] matches = matchCache.get(query.filterKey());
+        if (matches == null) {
+            matches = findMatches(query);
+            matchCache.put(query.filterKey(), matches);
+        }
+
+        long from = (long) query.page * query.pageSize;
+        if (from >= matches.length) {
+            return new Page(List.of(), matches.length);
+        }
+        int to = (int) Math.min(from + query.pageSize, matches.length);
+        List<UnifiedRecipeInfo> recipes = new ArrayList<>(to - (int) from);
+        for (int i = (int) from; i < to; i++) {
+            recipes.add(entries[matches[i]].info);
+        }
+        return new Page(recipes, matches.length);
+    }
+
+    private int[] findMatches(RecipeQuery query) {
+        // 从最短的倒排表开始
+        int[] candidates = null;
+        if (!query.namespace.isEmpty()) {
+            candidates = shorter(candidates, byNamespace.getOrDefault(query.namespace, new int[0]));
+        }
+        if (!query.recipeType.isEmpty()) {
+            candidates = shorter(candidates, lookup(byType, query.recipeType));
+        }
+        if (!query.outputItem.isEmpty()) {
+            candidates = shorter(candidates, lookup(byOutput, query.outputItem));
+        }
+
+        if (!query.text.isEmpty()) {
+            int[] textMatches = findTextMatches(query.text);
+            candidates = candidates == null ? textMatches : intersect(candidates, textMatches);
+        }
+
+        int count = candidates != null ? candidates.length : entries.length;
+        int[] matches = new int[count];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            int index = candidates != null ? candidates[i] : i;
+            if (matches(entries[index], query)) {
+                matches[size++] = index;
+            }
+        }
+        return Arrays.copyOf(matches, size);
+    }
+
+    /**
+     * 文本匹配的条目下标（升序）：名称/ID/拼音命中，或配方类型包含该文本
+     */
+    private int[] findTextMatches(String text) {
+        int[] matches = searchHelper.search(text).stream().mapToInt(Integer::intValue).toArray();
+        for (Map.Entry<String, int[]> entry : byType.entrySet()) {
+            if (entry.getKey().contains(text)) {
+                matches = union(matches, entry.getValue());
+            }
+        }
+        return matches;
+    }
+
+    private static int[] shorter(int[] current, int[] postings) {
+        return current == null || postings.length < current.length ? postings : current;
+    }
+
+    /**
+     * 按完整ID查找；没有完整ID时匹配路径部分相同的所有键（如 type:smelting）
+     */
+    private static int[] lookup(Map<String, int[]> postings, String key) {
+        int[] exact = postings.get(key);
+        if (exact != null) {
+            return exact;
+        }
+        if (key.indexOf(':') >= 0) {
+            return new int[0];
+        }
+        int[] merged = new int[0];
+        String suffix = ":" + key;
+        for (Map.Entry<String, int[]> entry : postings.entrySet()) {
+            if (entry.getKey().endsWith(suffix)) {
+                merged = union(merged, entry.getValue());
+            }
+        }
+        return merged;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[k++] = a[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, k);
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        if (a.length == 0) {
+            return b;
+        }
+        int[] result = new int[a.length + b.length];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                result[k++] = a[i++];
+            } else if (a[i] > b[j]) {
+                result[k++] = b[j++];
+            } else {
+                result[k++] = a[i++];
+                j++;
+            }
+        }
+        while (i < a.length) result[k++] = a[i++];
+        while (j < b.length) result[k++] = b[j++];
+        return Arrays.copyOf(result, k);
+    }
+
+    private boolean matches(Entry entry, RecipeQuery query) {
+        if (!query.namespace.isEmpty() && !entry.info.id.getNamespace().equals(query.namespace)) {
+            return false;
+        }
+        if (!query.recipeType.isEmpty() && !keyMatches(entry.typeId, query.recipeType)) {
+            return false;
+        }
+        if (!query.outputItem.isEmpty() && !keyMatches(entry.outputId, query.outputItem)) {
+            return false;
+        }
+        switch (query.status) {
+            case RecipeQuery.STATUS_NORMAL -> {
+                if (entry.info.isBlacklisted || entry.info.hasOverride) return false;
+            }
+            case RecipeQuery.STATUS_BLACKLISTED -> {
+                if (!entry.info.isBlacklisted) return false;
+            }
+            case RecipeQuery.STATUS_OVERRIDDEN -> {
+                if (!entry.info.hasOverride) return false;
+            }
+            default -> {
+            }
+        }
+        return true;
+    }
+
+    private static boolean keyMatches(String id, String key) {
+        return id.equals(key) || (key.indexOf(':') < 0 && id.endsWith(":" + key));
+    }
+}
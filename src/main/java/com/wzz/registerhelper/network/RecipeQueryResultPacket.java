@@ -0,0 +1,73 @@
+package com.wzz.registerhelper.network;
+
+import com.mojang.logging.LogUtils;
+import com.wzz.registerhelper.info.UnifiedRecipeInfo;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.network.NetworkEvent;
+import org.slf4j.Logger;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 配方分页查询结果
+ * 服务器 -> 客户端，一页配方由 {@link RecipeListCodec} 编码
+ */
+public class RecipeQueryResultPacket {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    // 一页最多 RecipeQuery.MAX_PAGE_SIZE 条，编码后远小于该值
+    private static final int MAX_DATA_BYTES = 1024 * 1024;
+
+    private final int queryId;
+    private final int page;
+    private final int totalCount;
+    private final byte[] data;
+
+    public RecipeQueryResultPacket(int queryId, int page, int totalCount, byte[] data) {
+        this.queryId = queryId;
+        this.page = page;
+        this.totalCount = totalCount;
+        this.data = data;
+    }
+
+    public static void encode(RecipeQueryResultPacket packet, FriendlyByteBuf buf) {
+        buf.writeVarInt(packet.queryId);
+        buf.writeVarInt(packet.page);
+        buf.writeVarInt(packet.totalCount);
+        buf.writeByteArray(packet.data);
+    }
+
+    public static RecipeQueryResultPacket decode(FriendlyByteBuf buf) {
+        int queryId = buf.readVarInt();
+        int page = buf.readVarInt();
+        int totalCount = buf.readVarInt();
+        byte[] data = buf.readByteArray(MAX_DATA_BYTES);
+        return new RecipeQueryResultPacket(queryId, page, totalCount, data);
+    }
+
+    public static void handle(RecipeQueryResultPacket packet, Supplier<NetworkEvent.Context> contextSupplier) {
+        NetworkEvent.Context context = contextSupplier.get();
+        context.enqueueWork(() -> {
+            if (context.getDirection().getReceptionSide().isClient()) {
+                handleOnClient(packet);
+            }
+        });
+        context.setPacketHandled(true);
+    }
+
+    @OnlyIn(Dist.CLIENT)
+    private static void handleOnClient(RecipeQueryResultPacket packet) {
+        List<UnifiedRecipeInfo> recipes;
+        try {
+            recipes = RecipeListCodec.decode(packet.data);
+        } catch (Exception e) {
+            LOGGER.error("处理配方查询结果时出错", e);
+            recipes = List.of();
+        }
+        RecipeClientCache.onQueryResult(
+                new RecipeClientCache.QueryPage(packet.queryId, packet.page, packet.totalCount, recipes));
+    }
+}
@@ -0,0 +1,302 @@
+package com.wzz.registerhelper.network;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.mojang.logging.LogUtils;
+import com.wzz.registerhelper.init.ModNetwork;
+import com.wzz.registerhelper.recipe.RecipeFileSaver;
+import com.wzz.registerhelper.recipe.RecipeHotReloader;
+import com.wzz.registerhelper.recipe.UnifiedRecipeOverrideManager;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.network.NetworkEvent;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 配方上传的网络包（配方JSON不受单个字符串 32767 字符的限制）
+ * 客户端 -> 服务器
+ * 一次上传可以包含多个配方：整批数据 deflate 压缩后按字节数分包，服务器按玩家收集分包，
+ * 收齐后校验大小并解压，覆盖配方一次性写入覆盖日志
+ *
+ * 数据格式：配方数量, [配方ID, 是否覆盖, 配方JSON]...
+ */
+@Mod.EventBusSubscriber(modid = "registerhelper")
+public class RecipeUploadPacket {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    // 客户端 -> 服务器的自定义负载包上限为 32767 字节，留出包头空间
+    public static final int MAX_CHUNK_BYTES = 30000;
+    // 一次上传压缩后的大小上限
+    private static final int MAX_COMPRESSED_BYTES = 4 * 1024 * 1024;
+    // 一次上传解压后的大小上限
+    private static final int MAX_DECODED_BYTES = 32 * 1024 * 1024;
+    // 单个配方JSON的长度上限（字符）
+    private static final int MAX_RECIPE_JSON_LENGTH = 4 * 1024 * 1024;
+    private static final int MAX_RECIPES = 4096;
+
+    private static final AtomicInteger NEXT_TRANSFER_ID = new AtomicInteger();
+
+    // 服务器端：玩家 -> 正在接收的上传（只在服务器线程访问）
+    private static final Map<UUID, Transfer> transfers = new HashMap<>();
+
+    private final int transferId;
+    private final int chunkIndex;
+    private final int totalChunks;
+    private final byte[] data;
+
+    /**
+     * 上传的一个配方
+     * @param isOverride 是否为覆盖模式
+     */
+    public record Entry(String recipeId, String recipeJson, boolean isOverride) {
+    }
+
+    private static class Transfer {
+        final int transferId;
+        final byte[][] chunks;
+        int received;
+        int bytes;
+
+        Transfer(int transferId, int totalChunks) {
+            this.transferId = transferId;
+            this.chunks = new byte[totalChunks][];
+        }
+    }
+
+    public RecipeUploadPacket(int transferId, int chunkIndex, int totalChunks, byte[] data) {
+        this.transferId = transferId;
+        this.chunkIndex = chunkIndex;
+        this.totalChunks = totalChunks;
+        this.data = data;
+    }
+
+    public static void encode(RecipeUploadPacket packet, FriendlyByteBuf buf) {
+        buf.writeVarInt(packet.transferId);
+        buf.writeVarInt(packet.chunkIndex);
+        buf.writeVarInt(packet.totalChunks);
+        buf.writeByteArray(packet.data);
+    }
+
+    public static RecipeUploadPacket decode(FriendlyByteBuf buf) {
+        int transferId = buf.readVarInt();
+        int chunkIndex = buf.readVarInt();
+        int totalChunks = buf.readVarInt();
+        byte[] data = buf.readByteArray(MAX_CHUNK_BYTES);
+        return new RecipeUploadPacket(transferId, chunkIndex, totalChunks, data);
+    }
+
+    /**
+     * 客户端调用，上传一个配方
+     */
+    public static void upload(String recipeId, String recipeJson, boolean isOverride) {
+        upload(List.of(new Entry(recipeId, recipeJson, isOverride)));
+    }
+
+    /**
+     * 在一次传输中上传多个配方
+     * 数据格式和服务器端支持批量上传，配方编辑器目前每次只保存一个配方
+     */
+    private static void upload(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+        byte[] compressed;
+        try {
+            buf.writeVarInt(entries.size());
+            for (Entry entry : entries) {
+                buf.writeUtf(entry.recipeId);
+                buf.writeBoolean(entry.isOverride);
+                buf.writeUtf(entry.recipeJson, MAX_RECIPE_JSON_LENGTH);
+            }
+            byte[] payload = new byte[buf.readableBytes()];
+            buf.readBytes(payload);
+            compressed = RecipeListCodec.deflate(payload);
+        } finally {
+            buf.release();
+        }
+
+        if (compressed.length > MAX_COMPRESSED_BYTES) {
+            throw new IllegalArgumentException("配方数据过大: " + compressed.length + " 字节");
+        }
+
+        int transferId = NEXT_TRANSFER_ID.incrementAndGet();
+        int totalChunks = Math.max(1, (compressed.length + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+        for (int i = 0; i < totalChunks; i++) {
+            int start = i * MAX_CHUNK_BYTES;
+            byte[] chunk = Arrays.copyOfRange(compressed, start, Math.min(start + MAX_CHUNK_BYTES, compressed.length));
+            ModNetwork.CHANNEL.sendToServer(new RecipeUploadPacket(transferId, i, totalChunks, chunk));
+        }
+        LOGGER.debug("已上传 {} 个配方，压缩后 {} 字节，{} 个包", entries.size(), compressed.length, totalChunks);
+    }
+
+    public static void handle(RecipeUploadPacket packet, Supplier<NetworkEvent.Context> contextSupplier) {
+        NetworkEvent.Context context = contextSupplier.get();
+        context.enqueueWork(() -> {
+            ServerPlayer sender = context.getSender();
+            if (sender == null) {
+                return;
+            }
+            try {
+                receive(sender, packet);
+            } catch (Exception e) {
+                transfers.remove(sender.getUUID());
+                LOGGER.error("处理配方上传时发生错误", e);
+                sender.sendSystemMessage(Component.literal("§c处理配方时发生错误: " + e.getMessage()));
+            }
+        });
+        context.setPacketHandled(true);
+    }
+
+    private static void receive(ServerPlayer sender, RecipeUploadPacket packet) throws Exception {
+        if (packet.totalChunks <= 0 || packet.chunkIndex < 0 || packet.chunkIndex >= packet.totalChunks
+                || packet.totalChunks > (MAX_COMPRESSED_BYTES + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES) {
+            LOGGER.warn("玩家 {} 发送了无效的配方上传分包 {}/{}", sender.getName().getString(),
+                    packet.chunkIndex, packet.totalChunks);
+            transfers.remove(sender.getUUID());
+            return;
+        }
+
+        Transfer transfer = transfers.get(sender.getUUID());
+        if (transfer == null || transfer.transferId != packet.transferId
+                || transfer.chunks.length != packet.totalChunks) {
+            // 新的一次上传（未完成的旧上传被丢弃），第一个分包时验证权限
+            if (!sender.hasPermissions(2)) {
+                transfers.remove(sender.getUUID());
+                if (packet.chunkIndex == 0) {
+                    sender.sendSystemMessage(Component.literal("§c您没有权限创建配方"));
+                }
+                return;
+            }
+            transfer = new Transfer(packet.transferId, packet.totalChunks);
+            transfers.put(sender.getUUID(), transfer);
+        }
+
+        if (transfer.chunks[packet.chunkIndex] == null) {
+            transfer.bytes += packet.data.length;
+            if (transfer.bytes > MAX_COMPRESSED_BYTES) {
+                transfers.remove(sender.getUUID());
+                sender.sendSystemMessage(Component.literal("§c配方数据过大，上传已取消"));
+                return;
+            }
+            transfer.chunks[packet.chunkIndex] = packet.data;
+            transfer.received++;
+        }
+        if (transfer.received < transfer.chunks.length) {
+            return;
+        }
+        transfers.remove(sender.getUUID());
+
+        byte[] compressed = new byte[transfer.bytes];
+        int offset = 0;
+        for (byte[] chunk : transfer.chunks) {
+            System.arraycopy(chunk, 0, compressed, offset, chunk.length);
+            offset += chunk.length;
+        }
+        apply(sender, readEntries(RecipeListCodec.inflate(compressed, MAX_DECODED_BYTES)));
+    }
+
+    private static List<Entry> readEntries(byte[] payload) {
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.wrappedBuffer(payload));
+        try {
+            int count = buf.readVarInt();
+            if (count < 0 || count > MAX_RECIPES) {
+                throw new IllegalArgumentException("配方数量超出限制: " + count);
+            }
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String recipeId = buf.readUtf(32767);
+                boolean isOverride = buf.readBoolean();
+                String recipeJson = buf.readUtf(MAX_RECIPE_JSON_LENGTH);
+                entries.add(new Entry(recipeId, recipeJson, isOverride));
+            }
+            return entries;
+        } finally {
+            buf.release();
+        }
+    }
+
+    /**
+     * 保存上传的配方：新建配方逐个写入配方文件，覆盖配方合并为一次日志写入
+     */
+    private static void apply(ServerPlayer sender, List<Entry> entries) {
+        Map<ResourceLocation, JsonObject> overrides = new LinkedHashMap<>();
+        List<String> created = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+
+        for (Entry entry : entries) {
+            JsonObject recipeObj;
+            ResourceLocation recipeId;
+            try {
+                recipeId = new ResourceLocation(entry.recipeId);
+                recipeObj = JsonParser.parseString(entry.recipeJson).getAsJsonObject();
+            } catch (Exception e) {
+                LOGGER.error("配方JSON解析失败: {}", entry.recipeId, e);
+                failed.add(entry.recipeId);
+                continue;
+            }
+
+            if (entry.isOverride) {
+                overrides.put(recipeId, recipeObj);
+            } else if (RecipeFileSaver.saveRecipeFile(recipeId, recipeObj)) {
+                created.add(entry.recipeId);
+            } else {
+                LOGGER.warn("配方创建失败: {}", entry.recipeId);
+                failed.add(entry.recipeId);
+            }
+        }
+
+        int overridden = 0;
+        if (!overrides.isEmpty()) {
+            try {
+                overridden = UnifiedRecipeOverrideManager.addMultipleOverrides(overrides);
+            } catch (Exception e) {
+                LOGGER.error("批量添加配方覆盖失败", e);
+            }
+            if (overridden < overrides.size()) {
+                for (ResourceLocation id : overrides.keySet()) {
+                    failed.add(id.toString());
+                }
+                overridden = 0;
+            }
+        }
+
+        if (entries.size() == 1) {
+            // 单个配方沿用原有的提示
+            Entry entry = entries.get(0);
+            if (!failed.isEmpty()) {
+                sender.sendSystemMessage(Component.literal(entry.isOverride ? "§c配方覆盖失败" : "§c配方创建失败"));
+            } else {
+                sender.sendSystemMessage(Component.literal((entry.isOverride ? "§a配方覆盖成功: " : "§a配方创建成功: ")
+                        + entry.recipeId + " " + RecipeHotReloader.getRefreshHint()));
+            }
+        } else {
+            sender.sendSystemMessage(Component.literal(String.format("§a已创建 %d 个配方，覆盖 %d 个配方%s %s",
+                    created.size(), overridden, failed.isEmpty() ? "" : "，§c失败 " + failed.size() + " 个§a",
+                    RecipeHotReloader.getRefreshHint())));
+        }
+        LOGGER.info("玩家 {} 上传了 {} 个配方: 创建 {}，覆盖 {}，失败 {}", sender.getName().getString(),
+                entries.size(), created.size(), overridden, failed.size());
+    }
+
+    @SubscribeEvent
+    public static void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        transfers.remove(event.getEntity().getUUID());
+    }
+}
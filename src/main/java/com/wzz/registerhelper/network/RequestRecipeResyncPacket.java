@@ -0,0 +1,48 @@
+package com.wzz.registerhelper.network;
+
+import com.wzz.registerhelper.init.ModNetwork;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.function.Supplier;
+
+/**
+ * 请求重新发送完整配方表的网络包（客户端应用增量同步失败时发送）
+ * 客户端 -> 服务器
+ */
+public class RequestRecipeResyncPacket {
+    // 应用失败的增量数据编号
+    private final int transferId;
+
+    public RequestRecipeResyncPacket(int transferId) {
+        this.transferId = transferId;
+    }
+
+    public static void encode(RequestRecipeResyncPacket packet, FriendlyByteBuf buf) {
+        buf.writeVarInt(packet.transferId);
+    }
+
+    public static RequestRecipeResyncPacket decode(FriendlyByteBuf buf) {
+        return new RequestRecipeResyncPacket(buf.readVarInt());
+    }
+
+    public static void handle(RequestRecipeResyncPacket packet, Supplier<NetworkEvent.Context> contextSupplier) {
+        NetworkEvent.Context context = contextSupplier.get();
+        context.enqueueWork(() -> {
+            ServerPlayer player = context.getSender();
+            if (player != null) {
+                RecipeDeltaSync.resync(player, packet.transferId);
+            }
+        });
+        context.setPacketHandled(true);
+    }
+
+    /**
+     * 客户端调用，发送请求到服务器
+     * @param transferId 应用失败的增量数据编号
+     */
+    public static void sendToServer(int transferId) {
+        ModNetwork.CHANNEL.sendToServer(new RequestRecipeResyncPacket(transferId));
+    }
+}
@@ -2,79 +2,75 @@ package com.wzz.registerhelper.network;
 
 import com.mojang.logging.LogUtils;
 import com.wzz.registerhelper.info.UnifiedRecipeInfo;
-import net.minecraft.client.Minecraft;
 import net.minecraft.network.FriendlyByteBuf;
-import net.minecraft.resources.ResourceLocation;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
 import net.minecraftforge.network.NetworkEvent;
 import org.slf4j.Logger;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 /**
  * 同步配方列表的网络包
  * 服务器 -> 客户端
+ * 配方列表由 {@link RecipeListCodec} 编码为一个数据流，按字节数切分成多个包发送，客户端收齐后再解码
  */
 public class SyncRecipeListPacket {
     private static final Logger LOGGER = LogUtils.getLogger();
-    
+
+    // 每个包携带的最大数据字节数
+    public static final int MAX_CHUNK_BYTES = 32 * 1024;
+
+    private static final AtomicInteger NEXT_TRANSFER_ID = new AtomicInteger();
+
     // 用于收集分包数据
-    private static final ConcurrentHashMap<Integer, List<UnifiedRecipeInfo>> batchBuffer = new ConcurrentHashMap<>();
+    private static byte[][] chunkBuffer = new byte[0][];
+    private static int currentTransferId = -1;
     private static volatile int expectedBatches = 0;
     private static volatile int receivedBatches = 0;
     private static volatile int expectedTotal = 0;
-    
-    private final List<UnifiedRecipeInfo> recipes;
+
+    private final int transferId;      // 同一次发送的所有包共用的编号
     private final int batchIndex;      // 当前批次索引
     private final int totalBatches;    // 总批次数
     private final int totalRecipes;    // 总配方数
-    
-    public SyncRecipeListPacket(List<UnifiedRecipeInfo> recipes, int batchIndex, int totalBatches, int totalRecipes) {
-        this.recipes = recipes;
+    private final byte[] data;         // 本批次的数据
+
+    public SyncRecipeListPacket(int transferId, int batchIndex, int totalBatches, int totalRecipes, byte[] data) {
+        this.transferId = transferId;
         this.batchIndex = batchIndex;
         this.totalBatches = totalBatches;
         this.totalRecipes = totalRecipes;
+        this.data = data;
+    }
+
+    /**
+     * 分配一次发送的编号
+     */
+    public static int nextTransferId() {
+        return NEXT_TRANSFER_ID.incrementAndGet();
     }
-    
+
     public static void encode(SyncRecipeListPacket packet, FriendlyByteBuf buf) {
-        buf.writeInt(packet.batchIndex);
-        buf.writeInt(packet.totalBatches);
-        buf.writeInt(packet.totalRecipes);
-        buf.writeInt(packet.recipes.size());
-        
-        for (UnifiedRecipeInfo info : packet.recipes) {
-            buf.writeResourceLocation(info.id);
-            buf.writeUtf(info.source);
-            buf.writeBoolean(info.isBlacklisted);
-            buf.writeBoolean(info.hasOverride);
-            buf.writeUtf(info.description);
-        }
+        buf.writeVarInt(packet.transferId);
+        buf.writeVarInt(packet.batchIndex);
+        buf.writeVarInt(packet.totalBatches);
+        buf.writeVarInt(packet.totalRecipes);
+        buf.writeByteArray(packet.data);
     }
-    
+
     public static SyncRecipeListPacket decode(FriendlyByteBuf buf) {
-        int batchIndex = buf.readInt();
-        int totalBatches = buf.readInt();
-        int totalRecipes = buf.readInt();
-        int count = buf.readInt();
-        
-        List<UnifiedRecipeInfo> recipes = new ArrayList<>(count);
-        for (int i = 0; i < count; i++) {
-            ResourceLocation id = buf.readResourceLocation();
-            String source = buf.readUtf();
-            boolean isBlacklisted = buf.readBoolean();
-            boolean hasOverride = buf.readBoolean();
-            String description = buf.readUtf();
-            
-            recipes.add(new UnifiedRecipeInfo(id, source, isBlacklisted, hasOverride, description));
-        }
-        
-        return new SyncRecipeListPacket(recipes, batchIndex, totalBatches, totalRecipes);
+        int transferId = buf.readVarInt();
+        int batchIndex = buf.readVarInt();
+        int totalBatches = buf.readVarInt();
+        int totalRecipes = buf.readVarInt();
+        byte[] data = buf.readByteArray(MAX_CHUNK_BYTES);
+
+        return new SyncRecipeListPacket(transferId, batchIndex, totalBatches, totalRecipes, data);
     }
-    
+
     public static void handle(SyncRecipeListPacket packet, Supplier<NetworkEvent.Context> contextSupplier) {
         NetworkEvent.Context context = contextSupplier.get();
         context.enqueueWork(() -> {
@@ -84,53 +80,70 @@ public class SyncRecipeListPacket {
         });
         context.setPacketHandled(true);
     }
-    
+
     @OnlyIn(Dist.CLIENT)
     private static void handleOnClient(SyncRecipeListPacket packet) {
         try {
-            // 如果是第一批，重置状态
-            if (packet.batchIndex == 0) {
-                batchBuffer.clear();
+            if (packet.batchIndex < 0 || packet.batchIndex >= packet.totalBatches) {
+                LOGGER.warn("收到无效的配方批次 {}/{}", packet.batchIndex, packet.totalBatches);
+                return;
+            }
+
+            // 新的一次发送，重置状态
+            if (packet.transferId != currentTransferId) {
+                currentTransferId = packet.transferId;
+                chunkBuffer = new byte[packet.totalBatches][];
                 receivedBatches = 0;
                 expectedBatches = packet.totalBatches;
                 expectedTotal = packet.totalRecipes;
-                LOGGER.debug("开始接收配方数据，预期 {} 批，共 {} 个配方", 
+                LOGGER.debug("开始接收配方数据，预期 {} 批，共 {} 个配方",
                     packet.totalBatches, packet.totalRecipes);
             }
-            
+
             // 存储当前批次
-            batchBuffer.put(packet.batchIndex, new ArrayList<>(packet.recipes));
-            receivedBatches++;
-            
-            LOGGER.debug("收到配方批次 {}/{}, 本批 {} 个配方", 
-                packet.batchIndex + 1, packet.totalBatches, packet.recipes.size());
-            
+            if (chunkBuffer[packet.batchIndex] == null) {
+                chunkBuffer[packet.batchIndex] = packet.data;
+                receivedBatches++;
+            }
+
+            LOGGER.debug("收到配方批次 {}/{}, 本批 {} 字节",
+                packet.batchIndex + 1, packet.totalBatches, packet.data.length);
+
             // 检查是否所有批次都已收到
             if (receivedBatches >= expectedBatches) {
-                // 合并所有批次
-                List<UnifiedRecipeInfo> allRecipes = new ArrayList<>(expectedTotal);
-                for (int i = 0; i < expectedBatches; i++) {
-                    List<UnifiedRecipeInfo> batch = batchBuffer.get(i);
-                    if (batch != null) {
-                        allRecipes.addAll(batch);
-                    }
+                // 合并所有批次后解码
+                int length = 0;
+                for (byte[] chunk : chunkBuffer) {
+                    length += chunk.length;
+                }
+                byte[] stream = new byte[length];
+                int offset = 0;
+                for (byte[] chunk : chunkBuffer) {
+                    System.arraycopy(chunk, 0, stream, offset, chunk.length);
+                    offset += chunk.length;
+                }
+
+                // 清理缓冲区
+                chunkBuffer = new byte[0][];
+
+                List<UnifiedRecipeInfo> allRecipes = RecipeListCodec.decode(stream);
+                if (allRecipes.size() != expectedTotal) {
+                    LOGGER.warn("配方数量与预期不符: {} / {}", allRecipes.size(), expectedTotal);
                 }
-                
-                LOGGER.info("配方数据接收完成，共 {} 个配方", allRecipes.size());
-                
+
+                LOGGER.info("配方数据接收完成，共 {} 个配方（{} 字节）", allRecipes.size(), length);
+
                 // 更新客户端缓存
                 RecipeClientCache.setRecipes(allRecipes);
-                
-                // 清理缓冲区
-                batchBuffer.clear();
             }
-            
+
         } catch (Exception e) {
             LOGGER.error("处理配方同步数据时出错", e);
+            chunkBuffer = new byte[0][];
             RecipeClientCache.setError("处理配方数据时出错: " + e.getMessage());
         }
     }
-    
+
     /**
      * 获取当前接收进度 (0.0 - 1.0)
      */
@@ -138,11 +151,11 @@ public class SyncRecipeListPacket {
         if (expectedBatches == 0) return 0;
         return (float) receivedBatches / expectedBatches;
     }
-    
+
     /**
      * 是否正在接收数据
      */
     public static boolean isReceiving() {
         return receivedBatches > 0 && receivedBatches < expectedBatches;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,331 @@
+package com.wzz.registerhelper.recipe;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Recipe;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 黑名单规则匹配器
+ * 每次加载黑名单时把规则编译一次：
+ *   纯ID前缀规则（create:*、create:crushing/*）放入前缀树，
+ *   带配方类型/产物条件的规则按类型或产物建立哈希索引，
+ *   其余通配符规则逐条匹配
+ * 单个配方的匹配代价与规则总数无关（通配符规则除外）
+ */
+public class BlacklistRuleMatcher {
+    public static final BlacklistRuleMatcher EMPTY = new BlacklistRuleMatcher(Collections.emptyList());
+
+    private final List<Rule> rules;
+    private final PrefixNode prefixRoot = new PrefixNode();
+    private final List<Rule> idRules = new ArrayList<>();
+    private final Map<ResourceLocation, List<Rule>> byType = new HashMap<>();
+    private final Map<ResourceLocation, List<Rule>> byOutput = new HashMap<>();
+    private final Map<Rule, CompiledRule> compiled = new HashMap<>();
+    // 是否有规则带产物条件（包括同时带类型条件、只索引在 byType 中的规则）
+    private final boolean hasOutputRules;
+
+    /**
+     * 一条黑名单规则，所有非空条件同时满足时匹配
+     * @param id 配方ID通配符（* 匹配任意字符，? 匹配单个字符）
+     * @param namespace 配方命名空间
+     * @param type 配方类型
+     * @param output 产物物品
+     */
+    public record Rule(String id, String namespace, ResourceLocation type, ResourceLocation output) {
+        /**
+         * 从黑名单文件中的条目解析规则
+         * 字符串条目为ID通配符，对象条目支持 id / namespace / type / output 字段
+         */
+        public static Rule fromJson(JsonElement element) {
+            if (element.isJsonPrimitive()) {
+                return new Rule(element.getAsString(), null, null, null);
+            }
+            JsonObject obj = element.getAsJsonObject();
+            Rule rule = new Rule(
+                    obj.has("id") ? obj.get("id").getAsString() : null,
+                    obj.has("namespace") ? obj.get("namespace").getAsString() : null,
+                    obj.has("type") ? new ResourceLocation(obj.get("type").getAsString()) : null,
+                    obj.has("output") ? new ResourceLocation(obj.get("output").getAsString()) : null);
+            if (rule.id == null && rule.namespace == null && rule.type == null && rule.output == null) {
+                throw new IllegalArgumentException("规则至少需要一个条件");
+            }
+            return rule;
+        }
+
+        public JsonElement toJson() {
+            JsonObject obj = new JsonObject();
+            if (id != null) obj.addProperty("id", id);
+            if (namespace != null) obj.addProperty("namespace", namespace);
+            if (type != null) obj.addProperty("type", type.toString());
+            if (output != null) obj.addProperty("output", output.toString());
+            return obj;
+        }
+
+        /**
+         * 是否只包含ID条件（不需要配方内容即可判断）
+         */
+        public boolean isIdOnly() {
+            return type == null && output == null;
+        }
+
+        @Override
+        public String toString() {
+            return toJson().toString();
+        }
+    }
+
+    /**
+     * 编译后的规则：ID通配符预先转换为正则
+     */
+    private record CompiledRule(Rule rule, Pattern idPattern) {
+        boolean test(String id, String namespace, ResourceLocation type, ResourceLocation output) {
+            return (rule.namespace == null || rule.namespace.equals(namespace))
+                    && (rule.type == null || rule.type.equals(type))
+                    && (rule.output == null || rule.output.equals(output))
+                    && (idPattern == null || idPattern.matcher(id).matches());
+        }
+    }
+
+    public BlacklistRuleMatcher(List<Rule> rules) {
+        this.rules = List.copyOf(rules);
+        boolean outputRules = false;
+        for (Rule rule : this.rules) {
+            outputRules |= rule.output != null;
+            compiled.put(rule, new CompiledRule(rule, rule.id == null ? null : compileGlob(rule.id)));
+
+            if (rule.type != null) {
+                byType.computeIfAbsent(rule.type, k -> new ArrayList<>()).add(rule);
+            } else if (rule.output != null) {
+                byOutput.computeIfAbsent(rule.output, k -> new ArrayList<>()).add(rule);
+            } else {
+                String prefix = getPlainPrefix(rule);
+                if (prefix != null) {
+                    prefixRoot.insert(prefix);
+                } else {
+                    idRules.add(rule);
+                }
+            }
+        }
+        this.hasOutputRules = outputRules;
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public boolean isEmpty() {
+        return rules.isEmpty();
+    }
+
+    /**
+     * 只根据配方ID判断（只有纯ID规则生效）
+     */
+    public boolean matchesId(ResourceLocation id) {
+        if (rules.isEmpty()) {
+            return false;
+        }
+        String idString = id.toString();
+        if (prefixRoot.matchesPrefixOf(idString)) {
+            return true;
+        }
+        return testAll(idRules, idString, id.getNamespace(), null, null);
+    }
+
+    /**
+     * 根据配方ID、类型和产物判断
+     */
+    public boolean matches(ResourceLocation id, ResourceLocation type, ResourceLocation output) {
+        if (matchesId(id)) {
+            return true;
+        }
+        String idString = id.toString();
+        if (type != null) {
+            List<Rule> typeRules = byType.get(type);
+            if (typeRules != null && testAll(typeRules, idString, id.getNamespace(), type, output)) {
+                return true;
+            }
+        }
+        if (output != null) {
+            List<Rule> outputRules = byOutput.get(output);
+            return outputRules != null && testAll(outputRules, idString, id.getNamespace(), type, output);
+        }
+        return false;
+    }
+
+    /**
+     * 根据配方JSON判断
+     */
+    public boolean matches(ResourceLocation id, JsonElement json) {
+        if (byType.isEmpty() && byOutput.isEmpty()) {
+            return matchesId(id);
+        }
+        return matches(id, getType(json), getOutput(json));
+    }
+
+    /**
+     * 根据已解析的配方对象判断
+     */
+    public boolean matches(ResourceLocation id, Recipe<?> recipe, RegistryAccess registryAccess) {
+        if (byType.isEmpty() && byOutput.isEmpty()) {
+            return matchesId(id);
+        }
+        ResourceLocation type = BuiltInRegistries.RECIPE_TYPE.getKey(recipe.getType());
+        ResourceLocation output = null;
+        if (hasOutputRules) {
+            try {
+                ItemStack result = recipe.getResultItem(registryAccess);
+                if (result != null && !result.isEmpty()) {
+                    output = BuiltInRegistries.ITEM.getKey(result.getItem());
+                }
+            } catch (Exception ignored) {
+                // 部分模组配方在这里会抛出异常，按无产物处理
+            }
+        }
+        return matches(id, type, output);
+    }
+
+    private boolean testAll(List<Rule> candidates, String id, String namespace,
+                            ResourceLocation type, ResourceLocation output) {
+        for (Rule rule : candidates) {
+            if (compiled.get(rule).test(id, namespace, type, output)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 纯前缀规则返回对应的前缀（namespace 规则即 "namespace:"），否则返回 null
+     */
+    private static String getPlainPrefix(Rule rule) {
+        if (rule.id == null) {
+            return rule.namespace + ":";
+        }
+        if (rule.namespace != null) {
+            return null;
+        }
+        String id = rule.id;
+        int star = id.indexOf('*');
+        if (star == id.length() - 1 && id.indexOf('?') < 0) {
+            return id.substring(0, star);
+        }
+        return null;
+    }
+
+    private static Pattern compileGlob(String glob) {
+        StringBuilder regex = new StringBuilder();
+        int literalStart = 0;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' || c == '?') {
+                if (i > literalStart) {
+                    regex.append(Pattern.quote(glob.substring(literalStart, i)));
+                }
+                regex.append(c == '*' ? ".*" : ".");
+                literalStart = i + 1;
+            }
+        }
+        if (literalStart < glob.length()) {
+            regex.append(Pattern.quote(glob.substring(literalStart)));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    /**
+     * 是否包含通配符（不含通配符的字符串条目按精确ID处理）
+     */
+    public static boolean isPattern(String entry) {
+        return entry.indexOf('*') >= 0 || entry.indexOf('?') >= 0;
+    }
+
+    /**
+     * 从配方JSON读取类型
+     */
+    public static ResourceLocation getType(JsonElement json) {
+        if (json == null || !json.isJsonObject()) {
+            return null;
+        }
+        JsonElement type = json.getAsJsonObject().get("type");
+        return type != null && type.isJsonPrimitive() ? ResourceLocation.tryParse(type.getAsString()) : null;
+    }
+
+    /**
+     * 从配方JSON读取产物物品（result / results / output 的常见写法）
+     */
+    public static ResourceLocation getOutput(JsonElement json) {
+        if (json == null || !json.isJsonObject()) {
+            return null;
+        }
+        JsonObject obj = json.getAsJsonObject();
+        JsonElement result = obj.get("result");
+        if (result == null) {
+            result = obj.get("output");
+        }
+        if (result == null) {
+            result = obj.get("results");
+        }
+        if (result != null && result.isJsonArray()) {
+            JsonArray array = result.getAsJsonArray();
+            result = array.isEmpty() ? null : array.get(0);
+        }
+        if (result == null) {
+            return null;
+        }
+        if (result.isJsonPrimitive()) {
+            return ResourceLocation.tryParse(result.getAsString());
+        }
+        if (result.isJsonObject()) {
+            JsonObject resultObj = result.getAsJsonObject();
+            JsonElement item = resultObj.has("item") ? resultObj.get("item") : resultObj.get("id");
+            if (item != null && item.isJsonPrimitive()) {
+                return ResourceLocation.tryParse(item.getAsString());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 字符前缀树，任一已插入前缀是ID的前缀即匹配
+     */
+    private static class PrefixNode {
+        private final Map<Character, PrefixNode> children = new HashMap<>();
+        private boolean terminal = false;
+
+        void insert(String prefix) {
+            PrefixNode node = this;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.children.computeIfAbsent(prefix.charAt(i), k -> new PrefixNode());
+            }
+            node.terminal = true;
+        }
+
+        boolean matchesPrefixOf(String value) {
+            PrefixNode node = this;
+            if (node.terminal) {
+                return true;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                node = node.children.get(value.charAt(i));
+                if (node == null) {
+                    return false;
+                }
+                if (node.terminal) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -8,14 +8,17 @@ import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.TagParser;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.server.packs.resources.SimplePreparableReloadListener;
+import net.minecraft.util.profiling.ProfilerFiller;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
 import net.minecraft.world.item.alchemy.Potion;
 import net.minecraft.world.item.alchemy.PotionUtils;
 import net.minecraft.world.item.alchemy.Potions;
+import net.minecraftforge.event.AddReloadListenerEvent;
 import net.minecraftforge.event.AnvilUpdateEvent;
-import net.minecraftforge.event.OnDatapackSyncEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.loading.FMLPaths;
@@ -25,8 +28,14 @@ import org.slf4j.Logger;
 import java.io.FileReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 /**
@@ -38,9 +47,79 @@ public class CustomRecipeLoader {
     private static final Logger LOGGER = LogUtils.getLogger();
     private static final Gson GSON = new Gson();
 
-    // 存储加载的配方
-    private static final List<BrewingRecipeData> BREWING_RECIPES = new ArrayList<>();
-    private static final List<AnvilRecipeData> ANVIL_RECIPES = new ArrayList<>();
+    // 当前加载的配方（不可变快照，重载时整体替换，查询方不会看到加载到一半的状态）
+    private static volatile RecipeStore store = RecipeStore.EMPTY;
+
+    // 文件 -> 上次的解析结果（只在持有类锁的 readStore 中访问）
+    private static final Map<Path, ParsedFile<BrewingRecipeData>> BREWING_CACHE = new HashMap<>();
+    private static final Map<Path, ParsedFile<AnvilRecipeData>> ANVIL_CACHE = new HashMap<>();
+    private static int cacheHits;
+
+    /**
+     * 单个配方文件的解析结果
+     * @param recipe 解析失败时为 null（文件修改前不再重复解析）
+     */
+    private record ParsedFile<T>(long size, long lastModified, T recipe) {
+    }
+
+    /**
+     * 已加载配方的不可变快照
+     * @param brewingIndex 输入物品 -> 材料物品 -> 候选配方（文件顺序），NBT 在候选中逐个比较
+     * @param anvilIndex 左侧物品 -> 右侧物品 -> 候选配方（文件顺序）
+     */
+    private record RecipeStore(List<BrewingRecipeData> brewing, List<AnvilRecipeData> anvil,
+                               Map<Item, Map<Item, BrewingRecipeData[]>> brewingIndex,
+                               Map<Item, Map<Item, AnvilCandidate[]>> anvilIndex) {
+        static final RecipeStore EMPTY = new RecipeStore(List.of(), List.of(), Map.of(), Map.of());
+
+        static RecipeStore of(List<BrewingRecipeData> brewing, List<AnvilRecipeData> anvil) {
+            Map<Item, Map<Item, List<BrewingRecipeData>>> grouped = new HashMap<>();
+            for (BrewingRecipeData recipe : brewing) {
+                grouped.computeIfAbsent(recipe.input.getItem(), item -> new HashMap<>())
+                        .computeIfAbsent(recipe.ingredient.getItem(), item -> new ArrayList<>())
+                        .add(recipe);
+            }
+            Map<Item, Map<Item, BrewingRecipeData[]>> index = new HashMap<>(grouped.size() * 2);
+            for (Map.Entry<Item, Map<Item, List<BrewingRecipeData>>> byInput : grouped.entrySet()) {
+                Map<Item, BrewingRecipeData[]> byIngredient = new HashMap<>(byInput.getValue().size() * 2);
+                for (Map.Entry<Item, List<BrewingRecipeData>> entry : byInput.getValue().entrySet()) {
+                    byIngredient.put(entry.getKey(), entry.getValue().toArray(new BrewingRecipeData[0]));
+                }
+                index.put(byInput.getKey(), byIngredient);
+            }
+
+            Map<Item, Map<Item, List<AnvilCandidate>>> anvilGrouped = new HashMap<>();
+            for (AnvilRecipeData recipe : anvil) {
+                anvilGrouped.computeIfAbsent(recipe.left.getItem(), item -> new HashMap<>())
+                        .computeIfAbsent(recipe.right.getItem(), item -> new ArrayList<>())
+                        .add(new AnvilCandidate(recipe, tagHash(recipe.left), tagHash(recipe.right)));
+            }
+            Map<Item, Map<Item, AnvilCandidate[]>> anvilIndex = new HashMap<>(anvilGrouped.size() * 2);
+            for (Map.Entry<Item, Map<Item, List<AnvilCandidate>>> byLeft : anvilGrouped.entrySet()) {
+                Map<Item, AnvilCandidate[]> byRight = new HashMap<>(byLeft.getValue().size() * 2);
+                for (Map.Entry<Item, List<AnvilCandidate>> entry : byLeft.getValue().entrySet()) {
+                    byRight.put(entry.getKey(), entry.getValue().toArray(new AnvilCandidate[0]));
+                }
+                anvilIndex.put(byLeft.getKey(), byRight);
+            }
+
+            return new RecipeStore(List.copyOf(brewing), List.copyOf(anvil), index, anvilIndex);
+        }
+    }
+
+    /**
+     * 铁砧配方候选，预先计算两侧模板的NBT指纹（模板没有NBT时不比较）
+     */
+    private record AnvilCandidate(AnvilRecipeData recipe, int leftTagHash, int rightTagHash) {
+        boolean matches(ItemStack left, int leftHash, ItemStack right, int rightHash) {
+            if (recipe.left.hasTag()
+                    && (leftHash != leftTagHash || !ItemStack.isSameItemSameTags(left, recipe.left))) {
+                return false;
+            }
+            return !recipe.right.hasTag()
+                    || (rightHash == rightTagHash && ItemStack.isSameItemSameTags(right, recipe.right));
+        }
+    }
 
     /**
      * 酿造台配方数据
@@ -77,46 +156,84 @@ public class CustomRecipeLoader {
     }
 
     /**
-     * 加载所有自定义配方
+     * 加载所有自定义配方，完成后替换当前快照
      */
     public static void loadCustomRecipes() {
+        store = readStore();
+    }
+
+    /**
+     * 读取配方文件并构建快照（不修改当前快照，可在后台线程调用）
+     * 大小和修改时间都没有变化的文件直接使用上次的解析结果
+     */
+    private static synchronized RecipeStore readStore() {
         Path recipesDir = FMLPaths.CONFIGDIR.get().resolve("registerhelper/custom_recipes");
+        List<BrewingRecipeData> brewing = new ArrayList<>();
+        List<AnvilRecipeData> anvil = new ArrayList<>();
+        long startTime = System.nanoTime();
+        cacheHits = 0;
 
         try {
             Files.createDirectories(recipesDir);
 
             // 加载酿造台配方
-            loadBrewingRecipes(recipesDir.resolve("brewing"));
+            loadRecipes(recipesDir.resolve("brewing"), BREWING_CACHE, CustomRecipeLoader::parseBrewingRecipe, brewing);
 
             // 加载铁砧配方
-            loadAnvilRecipes(recipesDir.resolve("anvil"));
+            loadRecipes(recipesDir.resolve("anvil"), ANVIL_CACHE, CustomRecipeLoader::parseAnvilRecipe, anvil);
 
         } catch (Exception e) {
             LOGGER.error("加载自定义配方时出错", e);
         }
+
+        LOGGER.debug("自定义配方已加载: 酿造台 {} 个，铁砧 {} 个，{} 个文件使用缓存，耗时 {}ms",
+                brewing.size(), anvil.size(), cacheHits, (System.nanoTime() - startTime) / 1_000_000L);
+        return RecipeStore.of(brewing, anvil);
     }
 
     /**
-     * 加载酿造台配方
+     * 加载一个目录下的配方文件（按路径排序，结果顺序固定）
      */
-    private static void loadBrewingRecipes(Path brewingDir) {
+    private static <T> void loadRecipes(Path dir, Map<Path, ParsedFile<T>> cache, Function<Path, T> parser,
+                                        List<T> recipes) {
+        Set<Path> seen = new HashSet<>();
         try {
-            Files.createDirectories(brewingDir);
+            Files.createDirectories(dir);
 
-            try (Stream<Path> paths = Files.walk(brewingDir)) {
-                paths.filter(Files::isRegularFile)
+            List<Path> files;
+            try (Stream<Path> paths = Files.walk(dir)) {
+                files = paths.filter(Files::isRegularFile)
                         .filter(p -> p.toString().endsWith(".json"))
-                        .forEach(CustomRecipeLoader::loadBrewingRecipe);
+                        .sorted()
+                        .toList();
+            }
+
+            for (Path file : files) {
+                seen.add(file);
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                long lastModified = attrs.lastModifiedTime().toMillis();
+                ParsedFile<T> parsed = cache.get(file);
+                if (parsed != null && parsed.size == attrs.size() && parsed.lastModified == lastModified) {
+                    cacheHits++;
+                } else {
+                    parsed = new ParsedFile<>(attrs.size(), lastModified, parser.apply(file));
+                    cache.put(file, parsed);
+                }
+                if (parsed.recipe != null) {
+                    recipes.add(parsed.recipe);
+                }
             }
         } catch (Exception e) {
-            LOGGER.error("加载酿造台配方失败", e);
+            LOGGER.error("加载自定义配方目录失败: {}", dir, e);
         }
+        // 移除已删除文件的缓存
+        cache.keySet().retainAll(seen);
     }
 
     /**
-     * 加载单个酿造台配方文件
+     * 解析单个酿造台配方文件，失败时返回 null
      */
-    private static void loadBrewingRecipe(Path file) {
+    private static BrewingRecipeData parseBrewingRecipe(Path file) {
         try (FileReader reader = new FileReader(file.toFile())) {
             JsonObject json = GSON.fromJson(reader, JsonObject.class);
 
@@ -125,34 +242,18 @@ public class CustomRecipeLoader {
             ItemStack output = parseItemStack(json.get("output"));
 
             if (input != null && ingredient != null && output != null) {
-                BREWING_RECIPES.add(new BrewingRecipeData(input, ingredient, output));
+                return new BrewingRecipeData(input, ingredient, output);
             }
         } catch (Exception e) {
             LOGGER.error("加载酿造台配方文件失败: {}", file, e);
         }
+        return null;
     }
 
     /**
-     * 加载铁砧配方
-     */
-    private static void loadAnvilRecipes(Path anvilDir) {
-        try {
-            Files.createDirectories(anvilDir);
-
-            try (Stream<Path> paths = Files.walk(anvilDir)) {
-                paths.filter(Files::isRegularFile)
-                        .filter(p -> p.toString().endsWith(".json"))
-                        .forEach(CustomRecipeLoader::loadAnvilRecipe);
-            }
-        } catch (Exception e) {
-            LOGGER.error("加载铁砧配方失败", e);
-        }
-    }
-
-    /**
-     * 加载单个铁砧配方文件
+     * 解析单个铁砧配方文件，失败时返回 null
      */
-    private static void loadAnvilRecipe(Path file) {
+    private static AnvilRecipeData parseAnvilRecipe(Path file) {
         try (FileReader reader = new FileReader(file.toFile())) {
             JsonObject json = GSON.fromJson(reader, JsonObject.class);
 
@@ -163,11 +264,12 @@ public class CustomRecipeLoader {
             int materialCost = json.has("material_cost") ? json.get("material_cost").getAsInt() : 1;
 
             if (left != null && right != null && output != null) {
-                ANVIL_RECIPES.add(new AnvilRecipeData(left, right, output, cost, materialCost));
+                return new AnvilRecipeData(left, right, output, cost, materialCost);
             }
         } catch (Exception e) {
             LOGGER.error("加载铁砧配方文件失败: {}", file, e);
         }
+        return null;
     }
 
     /**
@@ -222,43 +324,54 @@ public class CustomRecipeLoader {
     }
 
     /**
-     * 检查是否有匹配的酿造配方（供Mixin调用）
+     * 查找匹配的酿造配方（供Mixin调用）
+     * 先按 (输入物品, 材料物品) 查索引，再在候选中比较NBT；没有匹配时返回 null
      */
-    public static boolean hasBrewingRecipe(ItemStack input, ItemStack ingredient) {
-        for (BrewingRecipeData recipe : BREWING_RECIPES) {
+    public static BrewingRecipeData findBrewingRecipe(ItemStack input, ItemStack ingredient) {
+        Map<Item, BrewingRecipeData[]> byIngredient = store.brewingIndex.get(input.getItem());
+        if (byIngredient == null) {
+            return null;
+        }
+        BrewingRecipeData[] candidates = byIngredient.get(ingredient.getItem());
+        if (candidates == null) {
+            return null;
+        }
+        for (BrewingRecipeData recipe : candidates) {
             if (itemStackMatches(input, recipe.input) &&
                     itemStackMatches(ingredient, recipe.ingredient)) {
-                return true;
+                return recipe;
             }
         }
-        return false;
+        return null;
+    }
+
+    /**
+     * 检查是否有匹配的酿造配方
+     */
+    public static boolean hasBrewingRecipe(ItemStack input, ItemStack ingredient) {
+        return findBrewingRecipe(input, ingredient) != null;
     }
 
     /**
-     * 获取酿造结果（供Mixin调用）
+     * 获取酿造结果
      */
     public static ItemStack getBrewingResult(ItemStack input, ItemStack ingredient) {
-        for (BrewingRecipeData recipe : BREWING_RECIPES) {
-            if (itemStackMatches(input, recipe.input) &&
-                    itemStackMatches(ingredient, recipe.ingredient)) {
-                return recipe.output.copy();
-            }
-        }
-        return ItemStack.EMPTY;
+        BrewingRecipeData recipe = findBrewingRecipe(input, ingredient);
+        return recipe != null ? recipe.output.copy() : ItemStack.EMPTY;
     }
 
     /**
      * 获取所有酿造配方（供JEI使用）
      */
     public static List<BrewingRecipeData> getBrewingRecipes() {
-        return new ArrayList<>(BREWING_RECIPES);
+        return new ArrayList<>(store.brewing);
     }
 
     /**
      * 获取所有铁砧配方（供JEI使用）
      */
     public static List<AnvilRecipeData> getAnvilRecipes() {
-        return new ArrayList<>(ANVIL_RECIPES);
+        return new ArrayList<>(store.anvil);
     }
 
     /**
@@ -273,9 +386,23 @@ public class CustomRecipeLoader {
             return;
         }
 
-        // 检查是否匹配自定义铁砧配方
-        for (AnvilRecipeData recipe : ANVIL_RECIPES) {
-            if (itemStackMatches(left, recipe.left) && itemStackMatches(right, recipe.right)) {
+        // 按物品索引查找，没有自定义配方使用的物品组合直接返回
+        Map<Item, AnvilCandidate[]> byRight = store.anvilIndex.get(left.getItem());
+        if (byRight == null) {
+            return;
+        }
+        AnvilCandidate[] candidates = byRight.get(right.getItem());
+        if (candidates == null) {
+            return;
+        }
+
+        // 检查是否匹配自定义铁砧配方，NBT指纹不同的候选不做完整比较
+        int leftHash = tagHash(left);
+        int rightHash = tagHash(right);
+        for (AnvilCandidate candidate : candidates) {
+            if (candidate.matches(left, leftHash, right, rightHash)) {
+                AnvilRecipeData recipe = candidate.recipe;
+
                 // 设置输出
                 event.setOutput(recipe.output.copy());
 
@@ -307,20 +434,37 @@ public class CustomRecipeLoader {
     }
 
     /**
-     * 监听数据包同步事件，自动重载自定义配方
-     * 当服务器执行/reload时会触发
+     * NBT指纹（没有NBT时为0）
+     */
+    private static int tagHash(ItemStack stack) {
+        CompoundTag tag = stack.getTag();
+        return tag != null ? tag.hashCode() : 0;
+    }
+
+    /**
+     * 服务器启动和执行/reload时重载自定义配方
+     * 文件在资源重载的后台阶段读取，应用阶段在服务器线程替换快照，重载期间查询仍使用旧配方。
+     * 玩家登录时的数据包同步不会重新读取文件
      */
     @SubscribeEvent
-    public static void onDatapackSync(OnDatapackSyncEvent event) {
-        clearRecipes();
-        loadCustomRecipes();
+    public static void onAddReloadListener(AddReloadListenerEvent event) {
+        event.addListener(new SimplePreparableReloadListener<RecipeStore>() {
+            @Override
+            protected RecipeStore prepare(ResourceManager resourceManager, ProfilerFiller profiler) {
+                return readStore();
+            }
+
+            @Override
+            protected void apply(RecipeStore loaded, ResourceManager resourceManager, ProfilerFiller profiler) {
+                store = loaded;
+            }
+        });
     }
 
     /**
-     * 清空配方缓存（用于重载）
+     * 清空配方缓存
      */
     public static void clearRecipes() {
-        BREWING_RECIPES.clear();
-        ANVIL_RECIPES.clear();
+        store = RecipeStore.EMPTY;
     }
 }
\ No newline at end of file
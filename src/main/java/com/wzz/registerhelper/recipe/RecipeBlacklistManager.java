@@ -2,26 +2,36 @@ package com.wzz.registerhelper.recipe;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import com.mojang.logging.LogUtils;
+import com.wzz.registerhelper.util.ConfigJournal;
+import net.minecraft.core.RegistryAccess;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.item.crafting.Recipe;
 import net.minecraftforge.fml.loading.FMLPaths;
 import net.minecraftforge.server.ServerLifecycleHooks;
 import org.slf4j.Logger;
 
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
-import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 配方黑名单管理器 - 管理被禁用的配方
+ * 黑名单文件中的字符串条目为精确配方ID，含通配符的字符串（如 create:crushing/*）
+ * 以及对象条目（{"namespace": ..., "type": ..., "output": ...}）作为规则，加载时编译为 {@link BlacklistRuleMatcher}
+ * 增删操作写入 recipe_blacklist.journal，加载时在快照之上重放
  */
 public class RecipeBlacklistManager {
     private static final Logger LOGGER = LogUtils.getLogger();
@@ -30,6 +40,11 @@ public class RecipeBlacklistManager {
             .resolve("registerhelper/recipe_blacklist.json").toAbsolutePath().normalize().toString();
 
     private static final Set<ResourceLocation> blacklistedRecipes = ConcurrentHashMap.newKeySet();
+    private static volatile BlacklistRuleMatcher ruleMatcher = BlacklistRuleMatcher.EMPTY;
+    // 修改操作追加到日志，避免每次点击都重写整个文件；同时作为修改与压缩之间的锁
+    private static final ConfigJournal JOURNAL = new ConfigJournal(Paths.get(BLACKLIST_FILE));
+    // 每次修改或重新加载递增，供缓存判断黑名单是否变化
+    private static volatile long version = 0;
     private static boolean initialized = false;
 
     /**
@@ -43,7 +58,8 @@ public class RecipeBlacklistManager {
         try {
             loadBlacklist();
             initialized = true;
-            LOGGER.info("配方黑名单管理器已初始化，黑名单配方数量: {}", blacklistedRecipes.size());
+            LOGGER.info("配方黑名单管理器已初始化，黑名单配方数量: {}, 规则数量: {}",
+                    blacklistedRecipes.size(), ruleMatcher.getRules().size());
         } catch (Exception e) {
             LOGGER.error("初始化配方黑名单管理器失败", e);
             initialized = true; // 即使失败也标记为已初始化，避免重复尝试
@@ -57,9 +73,14 @@ public class RecipeBlacklistManager {
         try {
             initialize();
 
-            boolean added = blacklistedRecipes.add(recipeId);
+            boolean added;
+            synchronized (JOURNAL) {
+                added = blacklistedRecipes.add(recipeId);
+                if (added) {
+                    appendJournal(List.of(record("add", recipeId)));
+                }
+            }
             if (added) {
-                saveBlacklist();
                 LOGGER.info("配方已添加到黑名单: {}", recipeId);
                 return true;
             } else {
@@ -80,9 +101,14 @@ public class RecipeBlacklistManager {
         try {
             initialize();
 
-            boolean removed = blacklistedRecipes.remove(recipeId);
+            boolean removed;
+            synchronized (JOURNAL) {
+                removed = blacklistedRecipes.remove(recipeId);
+                if (removed) {
+                    appendJournal(List.of(record("remove", recipeId)));
+                }
+            }
             if (removed) {
-                saveBlacklist();
                 LOGGER.info("配方已从黑名单移除: {}", recipeId);
                 return true;
             } else {
@@ -97,11 +123,50 @@ public class RecipeBlacklistManager {
     }
 
     /**
-     * 检查配方是否在黑名单中
+     * 检查配方是否在黑名单中（精确ID + 纯ID规则）
      */
     public static boolean isBlacklisted(ResourceLocation recipeId) {
         initialize();
-        return blacklistedRecipes.contains(recipeId);
+        return blacklistedRecipes.contains(recipeId) || ruleMatcher.matchesId(recipeId);
+    }
+
+    /**
+     * 检查配方是否在黑名单中，同时按配方JSON中的类型和产物匹配规则
+     */
+    public static boolean isBlacklisted(ResourceLocation recipeId, JsonElement json) {
+        initialize();
+        return blacklistedRecipes.contains(recipeId) || ruleMatcher.matches(recipeId, json);
+    }
+
+    /**
+     * 检查配方是否在黑名单中，同时按配方对象的类型和产物匹配规则
+     */
+    public static boolean isBlacklisted(ResourceLocation recipeId, Recipe<?> recipe, RegistryAccess registryAccess) {
+        initialize();
+        return blacklistedRecipes.contains(recipeId) || ruleMatcher.matches(recipeId, recipe, registryAccess);
+    }
+
+    /**
+     * 是否存在任何黑名单条目或规则
+     */
+    public static boolean hasEntries() {
+        initialize();
+        return !blacklistedRecipes.isEmpty() || !ruleMatcher.isEmpty();
+    }
+
+    /**
+     * 获取当前编译好的规则匹配器
+     */
+    public static BlacklistRuleMatcher getRuleMatcher() {
+        initialize();
+        return ruleMatcher;
+    }
+
+    /**
+     * 获取黑名单版本号
+     */
+    public static long getVersion() {
+        return version;
     }
 
     /**
@@ -113,15 +178,18 @@ public class RecipeBlacklistManager {
     }
 
     /**
-     * 清空黑名单
+     * 清空黑名单（只清空精确ID，规则需要在文件中手动修改）
      */
     public static boolean clearBlacklist() {
         try {
             initialize();
 
-            int count = blacklistedRecipes.size();
-            blacklistedRecipes.clear();
-            saveBlacklist();
+            int count;
+            synchronized (JOURNAL) {
+                count = blacklistedRecipes.size();
+                blacklistedRecipes.clear();
+                appendJournal(List.of(record("clear", null)));
+            }
 
             LOGGER.info("已清空黑名单，移除了 {} 个配方", count);
             return true;
@@ -140,6 +208,7 @@ public class RecipeBlacklistManager {
 
         BlacklistStats stats = new BlacklistStats();
         stats.totalBlacklisted = blacklistedRecipes.size();
+        stats.totalRules = ruleMatcher.getRules().size();
 
         // 按命名空间分组统计
         for (ResourceLocation recipeId : blacklistedRecipes) {
@@ -156,15 +225,18 @@ public class RecipeBlacklistManager {
     public static int addMultipleToBlacklist(Set<ResourceLocation> recipeIds) {
         initialize();
 
-        int addedCount = 0;
-        for (ResourceLocation recipeId : recipeIds) {
-            if (blacklistedRecipes.add(recipeId)) {
-                addedCount++;
+        List<JsonObject> records = new ArrayList<>();
+        synchronized (JOURNAL) {
+            for (ResourceLocation recipeId : recipeIds) {
+                if (blacklistedRecipes.add(recipeId)) {
+                    records.add(record("add", recipeId));
+                }
             }
+            appendJournal(records);
         }
 
+        int addedCount = records.size();
         if (addedCount > 0) {
-            saveBlacklist();
             LOGGER.info("批量添加 {} 个配方到黑名单", addedCount);
         }
 
@@ -177,15 +249,18 @@ public class RecipeBlacklistManager {
     public static int removeMultipleFromBlacklist(Set<ResourceLocation> recipeIds) {
         initialize();
 
-        int removedCount = 0;
-        for (ResourceLocation recipeId : recipeIds) {
-            if (blacklistedRecipes.remove(recipeId)) {
-                removedCount++;
+        List<JsonObject> records = new ArrayList<>();
+        synchronized (JOURNAL) {
+            for (ResourceLocation recipeId : recipeIds) {
+                if (blacklistedRecipes.remove(recipeId)) {
+                    records.add(record("remove", recipeId));
+                }
             }
+            appendJournal(records);
         }
 
+        int removedCount = records.size();
         if (removedCount > 0) {
-            saveBlacklist();
             LOGGER.info("批量从黑名单移除 {} 个配方", removedCount);
         }
 
@@ -193,65 +268,144 @@ public class RecipeBlacklistManager {
     }
 
     /**
-     * 从文件加载黑名单
+     * 从文件加载黑名单：先读取快照文件，再重放操作日志
      */
     private static void loadBlacklist() {
         File blacklistFile = new File(BLACKLIST_FILE);
 
-        if (!blacklistFile.exists()) {
-            LOGGER.debug("黑名单文件不存在，创建空黑名单: {}", BLACKLIST_FILE);
-            blacklistedRecipes.clear();
-            saveBlacklist(); // 创建空文件
-            return;
-        }
+        synchronized (JOURNAL) {
+            Set<ResourceLocation> recipeIds = new HashSet<>();
+            List<BlacklistRuleMatcher.Rule> rules = new ArrayList<>();
+
+            if (blacklistFile.exists()) {
+                try (FileReader reader = new FileReader(blacklistFile, StandardCharsets.UTF_8)) {
+                    JsonArray entries = GSON.fromJson(reader, JsonArray.class);
+                    if (entries != null) {
+                        for (JsonElement entry : entries) {
+                            try {
+                                if (entry.isJsonPrimitive() && !BlacklistRuleMatcher.isPattern(entry.getAsString())) {
+                                    recipeIds.add(new ResourceLocation(entry.getAsString()));
+                                } else {
+                                    rules.add(BlacklistRuleMatcher.Rule.fromJson(entry));
+                                }
+                            } catch (Exception e) {
+                                LOGGER.warn("无效的黑名单条目: {}", entry);
+                            }
+                        }
+                    }
+                } catch (Exception e) {
+                    LOGGER.error("加载黑名单文件失败: " + BLACKLIST_FILE, e);
+                    recipeIds.clear(); // 出错时清空，避免使用损坏的数据
+                    rules.clear();
+                }
+            }
 
-        try (FileReader reader = new FileReader(blacklistFile, StandardCharsets.UTF_8)) {
-            Type setType = new TypeToken<Set<String>>() {}.getType();
-            Set<String> recipeStrings = GSON.fromJson(reader, setType);
+            int replayed = JOURNAL.replay(record -> applyRecord(record, recipeIds));
 
             blacklistedRecipes.clear();
-            if (recipeStrings != null) {
-                for (String recipeString : recipeStrings) {
-                    try {
-                        ResourceLocation recipeId = new ResourceLocation(recipeString);
-                        blacklistedRecipes.add(recipeId);
-                    } catch (Exception e) {
-                        LOGGER.warn("无效的配方ID格式: {}", recipeString);
-                    }
-                }
+            blacklistedRecipes.addAll(recipeIds);
+            ruleMatcher = new BlacklistRuleMatcher(rules);
+            version++;
+
+            if (!blacklistFile.exists()) {
+                LOGGER.debug("黑名单文件不存在，创建黑名单文件: {}", BLACKLIST_FILE);
+                saveBlacklist();
             }
 
-            LOGGER.debug("从文件加载了 {} 个黑名单配方", blacklistedRecipes.size());
+            LOGGER.debug("从文件加载了 {} 个黑名单配方, {} 条规则（重放日志 {} 条）",
+                    blacklistedRecipes.size(), rules.size(), replayed);
+        }
+    }
+
+    /**
+     * 重放一条日志记录
+     */
+    private static void applyRecord(JsonObject record, Set<ResourceLocation> recipeIds) {
+        String op = record.get("op").getAsString();
+        switch (op) {
+            case "add" -> recipeIds.add(new ResourceLocation(record.get("id").getAsString()));
+            case "remove" -> recipeIds.remove(new ResourceLocation(record.get("id").getAsString()));
+            case "clear" -> recipeIds.clear();
+            default -> LOGGER.warn("未知的黑名单日志操作: {}", op);
+        }
+    }
+
+    private static JsonObject record(String op, ResourceLocation recipeId) {
+        JsonObject record = new JsonObject();
+        record.addProperty("op", op);
+        if (recipeId != null) {
+            record.addProperty("id", recipeId.toString());
+        }
+        return record;
+    }
 
+    /**
+     * 追加日志记录（调用方持有 JOURNAL 锁），日志过大时在后台压缩为快照
+     */
+    private static void appendJournal(List<JsonObject> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        version++;
+        try {
+            JOURNAL.append(records);
         } catch (Exception e) {
-            LOGGER.error("加载黑名单文件失败: " + BLACKLIST_FILE, e);
-            blacklistedRecipes.clear(); // 出错时清空，避免使用损坏的数据
+            LOGGER.error("写入黑名单日志失败，改为保存完整文件", e);
+            saveBlacklist();
+            return;
+        }
+
+        if (JOURNAL.needsCompaction()) {
+            saveBlacklist();
         }
     }
 
     /**
-     * 保存黑名单到文件
+     * 保存完整黑名单到文件：在后台写入快照，写完后清理已合并的日志
      */
     private static void saveBlacklist() {
-        try {
-            File blacklistFile = new File(BLACKLIST_FILE);
-            blacklistFile.getParentFile().mkdirs();
+        synchronized (JOURNAL) {
+            List<ResourceLocation> recipeIds = List.copyOf(blacklistedRecipes);
+            List<BlacklistRuleMatcher.Rule> rules = ruleMatcher.getRules();
+            JOURNAL.compact(() -> serialize(recipeIds, rules));
+        }
+        LOGGER.debug("黑名单已安排保存: {} (配方数量: {})", BLACKLIST_FILE, blacklistedRecipes.size());
+    }
 
-            // 转换为字符串集合
-            Set<String> recipeStrings = new HashSet<>();
-            for (ResourceLocation recipeId : blacklistedRecipes) {
-                recipeStrings.add(recipeId.toString());
-            }
+    /**
+     * 生成黑名单文件内容：精确ID在前（排序），规则原样写回
+     */
+    private static String serialize(Collection<ResourceLocation> recipeIds, List<BlacklistRuleMatcher.Rule> rules) {
+        List<String> recipeStrings = new ArrayList<>();
+        for (ResourceLocation recipeId : recipeIds) {
+            recipeStrings.add(recipeId.toString());
+        }
+        Collections.sort(recipeStrings);
 
-            try (FileWriter writer = new FileWriter(blacklistFile, StandardCharsets.UTF_8)) {
-                GSON.toJson(recipeStrings, writer);
+        JsonArray entries = new JsonArray();
+        recipeStrings.forEach(entries::add);
+        for (BlacklistRuleMatcher.Rule rule : rules) {
+            if (rule.isIdOnly() && rule.namespace() == null) {
+                entries.add(rule.id());
+            } else {
+                entries.add(rule.toJson());
             }
+        }
+        return GSON.toJson(entries);
+    }
 
-            LOGGER.debug("黑名单已保存到文件: {} (配方数量: {})", BLACKLIST_FILE, blacklistedRecipes.size());
+    /**
+     * 黑名单文件或日志是否被外部修改过（自身写入不算）
+     */
+    public static boolean isModifiedExternally() {
+        return JOURNAL.isModifiedExternally();
+    }
 
-        } catch (Exception e) {
-            LOGGER.error("保存黑名单文件失败: " + BLACKLIST_FILE, e);
-        }
+    /**
+     * 获取操作日志文件（供热重载监听）
+     */
+    public static java.nio.file.Path getJournalFile() {
+        return JOURNAL.getJournalFile();
     }
 
     /**
@@ -261,7 +415,8 @@ public class RecipeBlacklistManager {
         try {
             LOGGER.info("重新加载配方黑名单...");
             loadBlacklist();
-            LOGGER.info("配方黑名单重新加载完成，当前黑名单配方数量: {}", blacklistedRecipes.size());
+            LOGGER.info("配方黑名单重新加载完成，当前黑名单配方数量: {}, 规则数量: {}",
+                    blacklistedRecipes.size(), ruleMatcher.getRules().size());
         } catch (Exception e) {
             LOGGER.error("重新加载配方黑名单失败", e);
         }
@@ -306,12 +461,16 @@ public class RecipeBlacklistManager {
      */
     public static class BlacklistStats {
         public int totalBlacklisted = 0;
+        public int totalRules = 0;
         public java.util.Map<String, Integer> byNamespace = new java.util.HashMap<>();
 
         @Override
         public String toString() {
             StringBuilder sb = new StringBuilder();
             sb.append("黑名单统计: 总计 ").append(totalBlacklisted).append(" 个配方\n");
+            if (totalRules > 0) {
+                sb.append("规则: ").append(totalRules).append(" 条\n");
+            }
 
             if (!byNamespace.isEmpty()) {
                 sb.append("按命名空间分布:\n");
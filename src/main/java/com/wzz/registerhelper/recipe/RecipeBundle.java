@@ -0,0 +1,413 @@
+package com.wzz.registerhelper.recipe;
+
+import com.mojang.logging.LogUtils;
+import net.minecraft.resources.ResourceLocation;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 配方打包文件（.rhpack）
+ * 把 config/registerhelper/recipes 下的大量小JSON文件合并为一个文件，
+ * 文件头是 配方ID -> 偏移/长度 的索引，读取时一次性把整个文件读入内存，
+ * 每个配方只是缓冲区上的一个切片，不需要逐个打开文件。
+ * 不使用内存映射：映射区域要等GC才会释放，Windows 上映射期间无法替换或移动打包文件
+ *
+ * 文件格式（大端序）：
+ *   int magic, int version, int count
+ *   count x { short idLength, byte[] id, short pathLength, byte[] relativePath, long offset, int length }
+ *   数据区：各配方原始JSON文本（UTF-8）
+ */
+public class RecipeBundle {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    public static final String EXTENSION = ".rhpack";
+    public static final String DEFAULT_NAME = "recipes" + EXTENSION;
+
+    private static final int MAGIC = 0x5248504B; // "RHPK"
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final List<Entry> entries;
+
+    /**
+     * 索引条目
+     * @param relativePath 相对 recipes 目录的原始路径（解包时还原目录结构）
+     */
+    public record Entry(ResourceLocation id, String relativePath, long offset, int length) {
+    }
+
+    private RecipeBundle(Path file, ByteBuffer buffer, List<Entry> entries) {
+        this.file = file;
+        this.buffer = buffer;
+        this.entries = entries;
+    }
+
+    /**
+     * 把打包文件读入堆内存，读取后不再占用文件
+     */
+    public static RecipeBundle load(Path file) throws IOException {
+        if (Files.size(file) > Integer.MAX_VALUE) {
+            throw new IOException("配方打包文件过大: " + file);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        return new RecipeBundle(file, buffer, readIndex(file, buffer));
+    }
+
+    private static List<Entry> readIndex(Path file, ByteBuffer buffer) throws IOException {
+        try {
+            ByteBuffer header = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("不是配方打包文件: " + file);
+            }
+            int version = header.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("不支持的配方打包文件版本 " + version + ": " + file);
+            }
+
+            int count = header.getInt();
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String id = readShortString(header);
+                String relativePath = readShortString(header);
+                long offset = header.getLong();
+                int length = header.getInt();
+                if (offset < 0 || length < 0 || offset + length > buffer.capacity()) {
+                    throw new IOException("配方打包文件已损坏: " + file + " (" + id + ")");
+                }
+                entries.add(new Entry(new ResourceLocation(id), relativePath, offset, length));
+            }
+            return Collections.unmodifiableList(entries);
+        } catch (java.nio.BufferUnderflowException e) {
+            throw new IOException("配方打包文件已损坏: " + file, e);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * 获取条目内容的只读切片（不复制数据）
+     */
+    public ByteBuffer slice(Entry entry) {
+        return buffer.slice((int) entry.offset(), entry.length()).asReadOnlyBuffer();
+    }
+
+    /**
+     * 读取条目的JSON文本
+     */
+    public String readString(Entry entry) {
+        return StandardCharsets.UTF_8.decode(slice(entry)).toString();
+    }
+
+    /**
+     * 查找配方目录根部的所有打包文件（按文件名排序）
+     */
+    public static List<Path> findBundles(Path recipesDir) {
+        List<Path> bundles = new ArrayList<>();
+        if (!Files.isDirectory(recipesDir)) {
+            return bundles;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(recipesDir, "*" + EXTENSION)) {
+            for (Path bundle : stream) {
+                if (Files.isRegularFile(bundle)) {
+                    bundles.add(bundle);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("扫描配方打包文件失败: " + recipesDir, e);
+        }
+        bundles.sort(null);
+        return bundles;
+    }
+
+    /**
+     * 打开目录下所有打包文件，按文件名顺序合并索引（靠前的文件优先）
+     */
+    public static Map<ResourceLocation, Source> openAll(Path recipesDir) {
+        Map<ResourceLocation, Source> sources = new LinkedHashMap<>();
+        for (Path bundleFile : findBundles(recipesDir)) {
+            try {
+                RecipeBundle bundle = load(bundleFile);
+                for (Entry entry : bundle.getEntries()) {
+                    sources.putIfAbsent(entry.id(), new Source(entry.relativePath(), null, bundle, entry));
+                }
+                LOGGER.debug("已打开配方打包文件: {} ({} 个配方)", bundleFile, bundle.getEntries().size());
+            } catch (Exception e) {
+                LOGGER.error("打开配方打包文件失败: " + bundleFile, e);
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * 收集所有配方来源：散装文件 + 打包文件，散装文件优先
+     * 供导出等需要遍历全部配方文本的功能使用
+     */
+    public static List<Source> collectSources(Path recipesDir) {
+        List<Source> sources = new ArrayList<>();
+        Map<String, Source> byPath = new LinkedHashMap<>();
+
+        if (Files.isDirectory(recipesDir)) {
+            try (Stream<Path> paths = Files.walk(recipesDir)) {
+                paths.filter(Files::isRegularFile)
+                        .filter(path -> path.toString().endsWith(".json"))
+                        .sorted()
+                        .forEach(path -> {
+                            String relativePath = toRelativePath(recipesDir, path);
+                            byPath.put(relativePath, new Source(relativePath, path, null, null));
+                        });
+            } catch (IOException e) {
+                LOGGER.error("扫描配方目录失败: " + recipesDir, e);
+            }
+        }
+
+        for (Source source : openAll(recipesDir).values()) {
+            byPath.putIfAbsent(source.relativePath(), source);
+        }
+
+        sources.addAll(byPath.values());
+        return sources;
+    }
+
+    /**
+     * 把配方目录整体打包为 recipes.rhpack，原散装文件和其他打包文件移动到备份目录
+     * @return 打包的配方数量
+     */
+    public static int packDirectory(Path recipesDir) throws IOException {
+        Path bundleFile = recipesDir.resolve(DEFAULT_NAME);
+        int count = pack(recipesDir, bundleFile);
+
+        List<Path> archived = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(recipesDir)) {
+            for (Path path : stream) {
+                if (Files.isDirectory(path) || (path.toString().endsWith(EXTENSION) && !path.equals(bundleFile))) {
+                    archived.add(path);
+                }
+            }
+        }
+        Path backupDir = moveToBackup(recipesDir, archived);
+        LOGGER.info("已打包 {} 个配方到 {}，原文件已移动到 {}", count, bundleFile, backupDir);
+        return count;
+    }
+
+    /**
+     * 把配方目录中的所有打包文件还原为散装文件，打包文件移动到备份目录
+     * @return 写出的文件数量
+     */
+    public static int unpackDirectory(Path recipesDir) throws IOException {
+        List<Path> bundles = findBundles(recipesDir);
+        int written = 0;
+        for (Path bundleFile : bundles) {
+            written += unpack(bundleFile, recipesDir);
+        }
+        Path backupDir = moveToBackup(recipesDir, bundles);
+        LOGGER.info("已从 {} 个打包文件还原 {} 个配方文件，打包文件已移动到 {}", bundles.size(), written, backupDir);
+        return written;
+    }
+
+    /**
+     * 把配方目录下的文件/目录移动到 config/registerhelper/.backup/recipes-时间戳
+     */
+    private static Path moveToBackup(Path recipesDir, List<Path> paths) throws IOException {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path backupDir = recipesDir.getParent().resolve(".backup").resolve("recipes-" + timestamp);
+        if (paths.isEmpty()) {
+            return backupDir;
+        }
+        Files.createDirectories(backupDir);
+        for (Path path : paths) {
+            Files.move(path, backupDir.resolve(recipesDir.relativize(path).toString()));
+        }
+        return backupDir;
+    }
+
+    /**
+     * 把配方目录中的散装文件（以及已有的打包文件）打包为一个文件
+     * @return 打包的配方数量
+     */
+    public static int pack(Path recipesDir, Path bundleFile) throws IOException {
+        // 散装文件优先，其次是已有打包文件中的条目
+        Map<ResourceLocation, PendingEntry> pending = new LinkedHashMap<>();
+
+        List<Path> modDirs = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(recipesDir, Files::isDirectory)) {
+            stream.forEach(modDirs::add);
+        }
+        modDirs.sort(null);
+
+        for (Path modDir : modDirs) {
+            String modId = modDir.getFileName().toString();
+            List<Path> files;
+            try (Stream<Path> paths = Files.walk(modDir)) {
+                files = paths.filter(Files::isRegularFile)
+                        .filter(path -> path.toString().endsWith(".json"))
+                        .sorted()
+                        .toList();
+            }
+            for (Path file : files) {
+                try {
+                    ResourceLocation id = new ResourceLocation(modId, RecipeFileLoader.getRecipeIdFromFile(modDir, file));
+                    pending.put(id, new PendingEntry(toRelativePath(recipesDir, file), Files.readAllBytes(file)));
+                } catch (Exception e) {
+                    LOGGER.warn("跳过无法打包的配方文件: {} ({})", file, e.toString());
+                }
+            }
+        }
+
+        for (Path existing : findBundles(recipesDir)) {
+            RecipeBundle bundle = load(existing);
+            for (Entry entry : bundle.getEntries()) {
+                if (!pending.containsKey(entry.id())) {
+                    byte[] bytes = new byte[entry.length()];
+                    bundle.slice(entry).get(bytes);
+                    pending.put(entry.id(), new PendingEntry(entry.relativePath(), bytes));
+                }
+            }
+        }
+
+        write(bundleFile, pending);
+        return pending.size();
+    }
+
+    /**
+     * 把打包文件还原为散装文件；已存在的散装文件不会被覆盖
+     * @return 写出的文件数量
+     */
+    public static int unpack(Path bundleFile, Path recipesDir) throws IOException {
+        RecipeBundle bundle = load(bundleFile);
+        Path root = recipesDir.toAbsolutePath().normalize();
+        int written = 0;
+
+        for (Entry entry : bundle.getEntries()) {
+            Path target = root.resolve(entry.relativePath()).normalize();
+            if (!target.startsWith(root) || target.equals(root)) {
+                LOGGER.warn("跳过非法的打包路径: {}", entry.relativePath());
+                continue;
+            }
+            if (Files.exists(target)) {
+                continue;
+            }
+
+            byte[] bytes = new byte[entry.length()];
+            bundle.slice(entry).get(bytes);
+            Files.createDirectories(target.getParent());
+            Files.write(target, bytes);
+            written++;
+        }
+        return written;
+    }
+
+    private record PendingEntry(String relativePath, byte[] data) {
+    }
+
+    private static void write(Path bundleFile, Map<ResourceLocation, PendingEntry> pending) throws IOException {
+        // 先计算索引大小，数据区紧随其后
+        List<byte[]> ids = new ArrayList<>(pending.size());
+        List<byte[]> paths = new ArrayList<>(pending.size());
+        long indexSize = 12;
+        for (Map.Entry<ResourceLocation, PendingEntry> entry : pending.entrySet()) {
+            byte[] id = entry.getKey().toString().getBytes(StandardCharsets.UTF_8);
+            byte[] path = entry.getValue().relativePath().getBytes(StandardCharsets.UTF_8);
+            if (id.length > 0xFFFF || path.length > 0xFFFF) {
+                throw new IOException("配方ID或路径过长: " + entry.getKey());
+            }
+            ids.add(id);
+            paths.add(path);
+            indexSize += 2 + id.length + 2 + path.length + 8 + 4;
+        }
+
+        ByteBuffer index = ByteBuffer.allocate((int) indexSize).order(ByteOrder.BIG_ENDIAN);
+        index.putInt(MAGIC);
+        index.putInt(FORMAT_VERSION);
+        index.putInt(pending.size());
+
+        long offset = indexSize;
+        int i = 0;
+        for (PendingEntry entry : pending.values()) {
+            index.putShort((short) ids.get(i).length);
+            index.put(ids.get(i));
+            index.putShort((short) paths.get(i).length);
+            index.put(paths.get(i));
+            index.putLong(offset);
+            index.putInt(entry.data().length);
+            offset += entry.data().length;
+            i++;
+        }
+        if (offset > Integer.MAX_VALUE) {
+            throw new IOException("配方打包文件过大");
+        }
+        index.flip();
+
+        Files.createDirectories(bundleFile.getParent());
+        Path tempFile = bundleFile.resolveSibling(bundleFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (index.hasRemaining()) {
+                channel.write(index);
+            }
+            for (PendingEntry entry : pending.values()) {
+                ByteBuffer data = ByteBuffer.wrap(entry.data());
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+            }
+            channel.force(true);
+        }
+
+        try {
+            Files.move(tempFile, bundleFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, bundleFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String readShortString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String toRelativePath(Path root, Path file) {
+        return root.relativize(file).toString().replace('\\', '/');
+    }
+
+    /**
+     * 一个配方的来源：散装文件或打包文件中的条目
+     */
+    public record Source(String relativePath, Path file, RecipeBundle bundle, Entry entry) {
+        public String read() throws IOException {
+            return file != null ? Files.readString(file, StandardCharsets.UTF_8) : bundle.readString(entry);
+        }
+
+        public String getFileName() {
+            int slash = relativePath.lastIndexOf('/');
+            return slash >= 0 ? relativePath.substring(slash + 1) : relativePath;
+        }
+    }
+}
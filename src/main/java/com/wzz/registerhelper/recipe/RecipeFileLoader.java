@@ -0,0 +1,320 @@
+package com.wzz.registerhelper.recipe;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.mojang.logging.LogUtils;
+import com.wzz.registerhelper.init.ModConfig;
+import net.minecraft.resources.ResourceLocation;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 自定义配方文件加载器
+ * 使用 NIO 遍历 config/registerhelper/recipes，在有界线程池中并行解析JSON，
+ * 并按 命名空间 -> 相对路径 的固定顺序合并结果
+ * 目录根部的 .rhpack 打包文件作为补充来源，同ID的散装文件优先
+ */
+public class RecipeFileLoader {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final Gson GSON = new Gson();
+
+    private static final int PARALLELISM = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() - 1, 8));
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(PARALLELISM, new LoaderThreadFactory());
+
+    /**
+     * 配置文件解析线程池，其他配置加载器（如自定义标签）共用
+     */
+    public static ExecutorService getExecutor() {
+        return EXECUTOR;
+    }
+
+    /**
+     * 加载目录下所有命名空间的配方
+     * @param recipesDir 配方根目录，每个子目录名即命名空间
+     */
+    public static LoadResult loadAll(Path recipesDir) {
+        LoadResult result = new LoadResult();
+
+        if (!Files.isDirectory(recipesDir)) {
+            LOGGER.debug("配方目录不存在: {}", recipesDir);
+            return result;
+        }
+
+        long startTime = System.nanoTime();
+
+        List<RecipeFile> recipeFiles = new ArrayList<>();
+        for (Path modDir : listNamespaceDirs(recipesDir)) {
+            String modId = modDir.getFileName().toString();
+            NamespaceStats stats = result.namespaceStats.computeIfAbsent(modId, k -> new NamespaceStats());
+            scanRecipeFiles(modId, modDir, recipeFiles, result.files, stats);
+        }
+        scanBundles(recipesDir, recipeFiles, result);
+
+        // 并行解析，未变化的文件直接使用缓存
+        RecipeParseCache cache = ModConfig.isRecipeParseCacheEnabled()
+                ? RecipeParseCache.open(recipesDir, "recipes")
+                : null;
+        List<Future<JsonElement>> futures = new ArrayList<>(recipeFiles.size());
+        for (RecipeFile recipeFile : recipeFiles) {
+            NamespaceStats stats = result.namespaceStats.get(recipeFile.id.getNamespace());
+            futures.add(EXECUTOR.submit(() -> parseRecipeFile(recipeFile, cache, stats)));
+        }
+
+        // 按扫描顺序合并，保证结果确定
+        for (int i = 0; i < recipeFiles.size(); i++) {
+            RecipeFile recipeFile = recipeFiles.get(i);
+            NamespaceStats stats = result.namespaceStats.get(recipeFile.id.getNamespace());
+            try {
+                JsonElement json = futures.get(i).get();
+                if (json != null) {
+                    result.recipes.put(recipeFile.id, json);
+                    stats.loaded++;
+                } else {
+                    stats.failed++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.error("配方加载被中断");
+                break;
+            } catch (ExecutionException e) {
+                stats.failed++;
+                LOGGER.error("加载配方文件失败: " + recipeFile.describe(), e.getCause());
+            }
+        }
+
+        if (cache != null) {
+            cache.save();
+            result.cacheHits = cache.getHits();
+            result.cacheMisses = cache.getMisses();
+        }
+
+        result.elapsedMillis = (System.nanoTime() - startTime) / 1_000_000L;
+        logStats(result);
+        return result;
+    }
+
+    /**
+     * 列出所有命名空间目录（按名称排序）
+     */
+    private static List<Path> listNamespaceDirs(Path recipesDir) {
+        List<Path> modDirs = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(recipesDir, Files::isDirectory)) {
+            for (Path modDir : stream) {
+                modDirs.add(modDir);
+            }
+        } catch (IOException e) {
+            LOGGER.error("扫描配方目录失败: " + recipesDir, e);
+        }
+        modDirs.sort(null);
+        return modDirs;
+    }
+
+    /**
+     * 遍历命名空间目录，收集配方文件
+     */
+    private static void scanRecipeFiles(String modId, Path modDir, List<RecipeFile> out,
+                                        Map<ResourceLocation, Path> fileIndex, NamespaceStats stats) {
+        List<RecipeFile> files = new ArrayList<>();
+        try {
+            Files.walkFileTree(modDir, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (!attrs.isRegularFile() || !file.getFileName().toString().endsWith(".json")) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    stats.files++;
+                    try {
+                        ResourceLocation id = new ResourceLocation(modId, getRecipeIdFromFile(modDir, file));
+                        fileIndex.put(id, file);
+                        if (RecipeBlacklistManager.isBlacklisted(id)) {
+                            LOGGER.debug("跳过黑名单配方: {}", id);
+                            stats.skipped++;
+                        } else {
+                            files.add(new RecipeFile(id, file, attrs.size(), attrs.lastModifiedTime().toMillis(), null));
+                        }
+                    } catch (Exception e) {
+                        stats.failed++;
+                        LOGGER.error("无效的配方文件路径: " + file, e);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    LOGGER.warn("无法访问配方文件: {}", file, e);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            LOGGER.error("遍历配方目录失败: " + modDir, e);
+        }
+
+        files.sort((a, b) -> a.path.compareTo(b.path));
+        out.addAll(files);
+    }
+
+    /**
+     * 收集打包文件中的配方，已有散装文件的ID被跳过
+     */
+    private static void scanBundles(Path recipesDir, List<RecipeFile> out, LoadResult result) {
+        for (Map.Entry<ResourceLocation, RecipeBundle.Source> entry : RecipeBundle.openAll(recipesDir).entrySet()) {
+            ResourceLocation id = entry.getKey();
+            result.bundled.add(id);
+            if (result.files.containsKey(id)) {
+                continue;
+            }
+
+            NamespaceStats stats = result.namespaceStats.computeIfAbsent(id.getNamespace(), k -> new NamespaceStats());
+            stats.files++;
+            if (RecipeBlacklistManager.isBlacklisted(id)) {
+                LOGGER.debug("跳过黑名单配方: {}", id);
+                stats.skipped++;
+            } else {
+                out.add(new RecipeFile(id, null, 0, 0, entry.getValue()));
+            }
+        }
+    }
+
+    /**
+     * 解析单个配方文件（在工作线程中执行）
+     */
+    private static JsonElement parseRecipeFile(RecipeFile recipeFile, RecipeParseCache cache,
+                                               NamespaceStats stats) throws IOException {
+        long start = System.nanoTime();
+        try {
+            JsonElement jsonElement;
+            if (recipeFile.bundled != null) {
+                // 打包条目已在内存中，直接解析
+                jsonElement = GSON.fromJson(recipeFile.bundled.read(), JsonElement.class);
+            } else if (cache != null) {
+                jsonElement = cache.get(recipeFile.path, recipeFile.size, recipeFile.modified);
+            } else {
+                jsonElement = readJson(recipeFile.path);
+            }
+            if (jsonElement != null && jsonElement.isJsonObject()) {
+                LOGGER.debug("加载配方: {}", recipeFile.id);
+                return jsonElement;
+            }
+            LOGGER.warn("无效的配方JSON: {}", recipeFile.describe());
+            return null;
+        } catch (RuntimeException e) {
+            LOGGER.error("解析配方文件失败: " + recipeFile.describe(), e);
+            return null;
+        } finally {
+            stats.parseNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    private static JsonElement readJson(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return GSON.fromJson(reader, JsonElement.class);
+        }
+    }
+
+    /**
+     * 从文件路径获取配方ID：相对路径去掉 .json，目录分隔符替换为下划线
+     */
+    public static String getRecipeIdFromFile(Path modDir, Path recipeFile) {
+        Path relative = modDir.relativize(recipeFile);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < relative.getNameCount(); i++) {
+            if (i > 0) {
+                sb.append('_');
+            }
+            sb.append(relative.getName(i).toString());
+        }
+
+        String recipeId = sb.toString();
+        if (recipeId.endsWith(".json")) {
+            recipeId = recipeId.substring(0, recipeId.length() - 5);
+        }
+        return recipeId;
+    }
+
+    private static void logStats(LoadResult result) {
+        for (Map.Entry<String, NamespaceStats> entry : result.namespaceStats.entrySet()) {
+            NamespaceStats stats = entry.getValue();
+            LOGGER.info("扫描到 {} 个 {} 配方文件: 加载 {}, 跳过 {}, 失败 {}, 解析耗时 {} ms",
+                    stats.files, entry.getKey(), stats.loaded, stats.skipped, stats.failed,
+                    stats.parseNanos.get() / 1_000_000L);
+        }
+        LOGGER.info("自定义配方加载完成: {} 个配方, {} 个命名空间, 耗时 {} ms (线程数 {}, 缓存命中 {}, 重新解析 {})",
+                result.recipes.size(), result.namespaceStats.size(), result.elapsedMillis, PARALLELISM,
+                result.cacheHits, result.cacheMisses);
+    }
+
+    /**
+     * 待解析的配方：散装文件（path）或打包条目（bundled）
+     */
+    private record RecipeFile(ResourceLocation id, Path path, long size, long modified, RecipeBundle.Source bundled) {
+        String describe() {
+            return bundled != null ? bundled.bundle().getFile() + "!" + bundled.relativePath() : path.toString();
+        }
+    }
+
+    /**
+     * 加载结果
+     */
+    public static class LoadResult {
+        public final Map<ResourceLocation, JsonElement> recipes = new LinkedHashMap<>();
+        public final Map<String, NamespaceStats> namespaceStats = new TreeMap<>();
+        // 配方ID -> 源文件（包含被黑名单跳过的文件）
+        public final Map<ResourceLocation, Path> files = new HashMap<>();
+        // 打包文件中包含的所有配方ID（包括被散装文件覆盖的）
+        public final Set<ResourceLocation> bundled = new HashSet<>();
+        public long elapsedMillis = 0;
+        public int cacheHits = 0;
+        public int cacheMisses = 0;
+
+        public Map<String, NamespaceStats> getNamespaceStats() {
+            return Collections.unmodifiableMap(namespaceStats);
+        }
+    }
+
+    /**
+     * 单个命名空间的统计信息
+     */
+    public static class NamespaceStats {
+        public int files = 0;
+        public int loaded = 0;
+        public int skipped = 0;
+        public int failed = 0;
+        public final AtomicLong parseNanos = new AtomicLong();
+    }
+
+    private static class LoaderThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "RegisterHelper-RecipeLoader-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
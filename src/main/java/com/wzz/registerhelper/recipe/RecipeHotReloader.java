@@ -0,0 +1,731 @@
+package com.wzz.registerhelper.recipe;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.mojang.logging.LogUtils;
+import com.wzz.registerhelper.init.ModConfig;
+import com.wzz.registerhelper.mixin.RecipeManagerAccessor;
+import com.wzz.registerhelper.network.RecipeDeltaSync;
+import com.wzz.registerhelper.util.RecipeReloadHelper;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.item.crafting.Recipe;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraftforge.common.crafting.CraftingHelper;
+import net.minecraftforge.common.crafting.conditions.ICondition;
+import net.minecraftforge.event.server.ServerStartedEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.loading.FMLPaths;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 配方热重载器
+ * 监听 config/registerhelper 下的配方目录、黑名单和覆盖文件，
+ * 文件变化后只重新计算受影响的配方ID，并直接修补服务器当前的 RecipeManager，
+ * 避免一次编辑就触发完整的数据包 /reload
+ */
+@Mod.EventBusSubscriber(modid = "registerhelper")
+public class RecipeHotReloader {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final Gson GSON = new Gson();
+
+    // 事件合并窗口：最后一次文件事件后等待的时间
+    private static final long DEBOUNCE_MS = 300;
+    // 持续有事件时，最长等待时间
+    private static final long MAX_DELAY_MS = 2000;
+
+    private static final Path CONFIG_DIR = FMLPaths.CONFIGDIR.get().resolve("registerhelper").toAbsolutePath().normalize();
+    private static final Path RECIPES_DIR = CONFIG_DIR.resolve("recipes");
+    private static final Path CUSTOM_RECIPES_DIR = CONFIG_DIR.resolve("custom_recipes");
+    private static final Path BLACKLIST_FILE = CONFIG_DIR.resolve("recipe_blacklist.json");
+    private static final Path OVERRIDES_FILE = CONFIG_DIR.resolve("recipe_overrides.json");
+    // 按命名空间分片的覆盖文件
+    private static final Path OVERRIDES_DIR = CONFIG_DIR.resolve("overrides");
+    // 黑名单/覆盖的操作日志，GUI 中的修改只追加到日志
+    private static final Path BLACKLIST_JOURNAL = CONFIG_DIR.resolve("recipe_blacklist.journal");
+    private static final Path OVERRIDES_JOURNAL = CONFIG_DIR.resolve("recipe_overrides.journal");
+
+    private static final Map<WatchKey, Path> watchedDirs = new ConcurrentHashMap<>();
+    private static volatile WatchService watchService;
+    private static volatile Thread watcherThread;
+    private static volatile MinecraftServer currentServer;
+
+    // 最近一次 apply 时的配方状态，热重载基于它计算增量
+    private static volatile Baseline baseline;
+    // 当前批次打开的打包文件索引（仅服务器线程访问）
+    private static Map<ResourceLocation, RecipeBundle.Source> bundleSources;
+
+    /**
+     * 配方基线 - 记录上一次应用到 RecipeManager 的黑名单、覆盖以及原始配方
+     */
+    private static class Baseline {
+        // 已应用的黑名单
+        final Set<ResourceLocation> blacklist = ConcurrentHashMap.newKeySet();
+        // 已应用的黑名单规则
+        volatile List<BlacklistRuleMatcher.Rule> blacklistRules = List.of();
+        // 已应用的覆盖（配方ID -> 覆盖JSON哈希）
+        final Map<ResourceLocation, Integer> overrideHashes = new ConcurrentHashMap<>();
+        // 被覆盖或被黑名单移除的配方在覆盖前的JSON
+        final Map<ResourceLocation, JsonElement> originals = new ConcurrentHashMap<>();
+        // 被自定义配方文件遮蔽的数据包配方JSON
+        final Map<ResourceLocation, JsonElement> shadowed = new ConcurrentHashMap<>();
+        // 自定义配方ID -> 源文件
+        final Map<ResourceLocation, Path> customFiles = new ConcurrentHashMap<>();
+        // 打包文件（.rhpack）中的配方ID，散装文件被删除时回退到打包内容
+        final Set<ResourceLocation> bundled = ConcurrentHashMap.newKeySet();
+        // 热重载期间被覆盖、黑名单或新的自定义配方文件替换掉，且没有JSON可恢复的原始配方对象
+        final Map<ResourceLocation, Recipe<?>> displaced = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * 记录本次 apply 的基线（供 RecipeManagerMixin 在应用覆盖和黑名单之前调用）
+     * @param recipes 已合并自定义配方、尚未应用覆盖和黑名单的配方JSON
+     * @param customFiles 自定义配方ID -> 源文件
+     * @param bundled 打包文件中的自定义配方ID
+     * @param shadowed 被自定义配方替换掉的数据包配方JSON
+     */
+    public static void captureBaseline(Map<ResourceLocation, JsonElement> recipes,
+                                       Map<ResourceLocation, Path> customFiles,
+                                       Set<ResourceLocation> bundled,
+                                       Map<ResourceLocation, JsonElement> shadowed) {
+        Baseline base = new Baseline();
+        base.blacklist.addAll(RecipeBlacklistManager.getBlacklistedRecipes());
+        BlacklistRuleMatcher matcher = RecipeBlacklistManager.getRuleMatcher();
+        base.blacklistRules = matcher.getRules();
+        base.overrideHashes.putAll(UnifiedRecipeOverrideManager.getOverrideHashes());
+
+        if (matcher.isEmpty()) {
+            for (ResourceLocation id : base.blacklist) {
+                JsonElement json = recipes.get(id);
+                if (json != null) {
+                    base.originals.put(id, json);
+                }
+            }
+        } else {
+            // 有规则时需要一次遍历找出所有会被移除的配方；
+            // 与 apply 一致，规则按覆盖之后的内容判断（被覆盖的配方下面会统一记录）
+            for (Map.Entry<ResourceLocation, JsonElement> entry : recipes.entrySet()) {
+                if (base.blacklist.contains(entry.getKey())
+                        || (!base.overrideHashes.containsKey(entry.getKey())
+                        && matcher.matches(entry.getKey(), entry.getValue()))) {
+                    base.originals.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        for (ResourceLocation id : base.overrideHashes.keySet()) {
+            JsonElement json = recipes.get(id);
+            if (json != null) {
+                base.originals.put(id, json);
+            }
+        }
+
+        base.customFiles.putAll(customFiles);
+        base.bundled.addAll(bundled);
+        base.shadowed.putAll(shadowed);
+        baseline = base;
+    }
+
+    /**
+     * 热重载是否正在运行
+     */
+    public static boolean isRunning() {
+        return watcherThread != null && watcherThread.isAlive();
+    }
+
+    /**
+     * 获取提示玩家如何生效的文本
+     */
+    public static String getRefreshHint() {
+        return isRunning() ? "已自动热重载" : "使用 /reload 刷新配方";
+    }
+
+    @SubscribeEvent
+    public static void onServerStarted(ServerStartedEvent event) {
+        if (!ModConfig.isRecipeHotReloadEnabled()) {
+            LOGGER.info("配方热重载已禁用");
+            return;
+        }
+        start(event.getServer());
+    }
+
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent event) {
+        stop();
+    }
+
+    /**
+     * 启动文件监听
+     */
+    public static synchronized void start(MinecraftServer server) {
+        stop();
+        currentServer = server;
+
+        try {
+            Files.createDirectories(RECIPES_DIR);
+            Files.createDirectories(CUSTOM_RECIPES_DIR);
+            Files.createDirectories(OVERRIDES_DIR);
+
+            watchService = FileSystems.getDefault().newWatchService();
+            registerDirectory(CONFIG_DIR);
+            registerDirectory(OVERRIDES_DIR);
+            registerTree(RECIPES_DIR, null);
+            registerTree(CUSTOM_RECIPES_DIR, null);
+
+            Thread thread = new Thread(RecipeHotReloader::watchLoop, "RegisterHelper-HotReload");
+            thread.setDaemon(true);
+            watcherThread = thread;
+            thread.start();
+
+            LOGGER.info("配方热重载已启动，监听 {} 个目录", watchedDirs.size());
+        } catch (Exception e) {
+            LOGGER.error("启动配方热重载失败", e);
+            stop();
+        }
+    }
+
+    /**
+     * 停止文件监听
+     */
+    public static synchronized void stop() {
+        Thread thread = watcherThread;
+        watcherThread = null;
+
+        WatchService service = watchService;
+        watchService = null;
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException e) {
+                LOGGER.warn("关闭文件监听失败", e);
+            }
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+
+        watchedDirs.clear();
+        currentServer = null;
+    }
+
+    /**
+     * 监听线程主循环：收集文件事件，合并后交给服务器线程处理
+     */
+    private static void watchLoop() {
+        Set<Path> pending = new LinkedHashSet<>();
+        long firstPendingAt = 0;
+
+        while (watcherThread == Thread.currentThread()) {
+            WatchService service = watchService;
+            if (service == null) {
+                break;
+            }
+
+            try {
+                WatchKey key = pending.isEmpty()
+                        ? service.take()
+                        : service.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+
+                if (key != null) {
+                    if (pending.isEmpty()) {
+                        firstPendingAt = System.currentTimeMillis();
+                    }
+                    collectEvents(key, pending);
+                }
+
+                boolean quiet = key == null;
+                boolean tooLong = !pending.isEmpty() && System.currentTimeMillis() - firstPendingAt >= MAX_DELAY_MS;
+                if (!pending.isEmpty() && (quiet || tooLong)) {
+                    Set<Path> batch = new LinkedHashSet<>(pending);
+                    pending.clear();
+                    dispatch(batch);
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                break;
+            } catch (Exception e) {
+                LOGGER.error("配方热重载监听出错", e);
+            }
+        }
+    }
+
+    /**
+     * 读取一个 WatchKey 上的事件
+     */
+    private static void collectEvents(WatchKey key, Set<Path> pending) {
+        Path dir = watchedDirs.get(key);
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                LOGGER.warn("文件事件溢出，将重新扫描配方目录");
+                pending.add(RECIPES_DIR);
+                pending.add(CUSTOM_RECIPES_DIR);
+                continue;
+            }
+            if (dir == null) {
+                continue;
+            }
+
+            Path child = dir.resolve((Path) event.context());
+            if (!isRelevant(child)) {
+                continue;
+            }
+            pending.add(child);
+
+            // 新建的目录需要注册监听，并补上注册之前就已写入的文件
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(child)) {
+                registerTree(child, pending);
+            }
+        }
+
+        if (!key.reset()) {
+            watchedDirs.remove(key);
+        }
+    }
+
+    private static boolean isRelevant(Path path) {
+        return path.startsWith(RECIPES_DIR) || path.startsWith(CUSTOM_RECIPES_DIR)
+                || path.equals(BLACKLIST_FILE) || path.equals(OVERRIDES_FILE) || isOverrideShard(path)
+                || path.equals(BLACKLIST_JOURNAL) || path.equals(OVERRIDES_JOURNAL);
+    }
+
+    private static boolean isOverrideShard(Path path) {
+        return path.getParent() != null && path.getParent().equals(OVERRIDES_DIR)
+                && path.getFileName().toString().endsWith(".json");
+    }
+
+    private static void registerDirectory(Path dir) throws IOException {
+        WatchService service = watchService;
+        if (service == null) {
+            return;
+        }
+        WatchKey key = dir.register(service,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        watchedDirs.put(key, dir);
+    }
+
+    /**
+     * 递归注册目录
+     * @param discovered 不为空时，把遍历到的文件加入待处理集合
+     */
+    private static void registerTree(Path root, Set<Path> discovered) {
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    registerDirectory(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (discovered != null) {
+                        discovered.add(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            LOGGER.error("注册监听目录失败: " + root, e);
+        }
+    }
+
+    /**
+     * 把一批文件变化交给服务器线程
+     */
+    private static void dispatch(Set<Path> batch) {
+        MinecraftServer server = currentServer;
+        if (server == null) {
+            return;
+        }
+        server.execute(() -> {
+            try {
+                processChanges(server, batch);
+            } catch (Exception e) {
+                LOGGER.error("处理配方热重载失败", e);
+            } finally {
+                bundleSources = null;
+            }
+        });
+    }
+
+    /**
+     * 处理一批文件变化（服务器线程）
+     */
+    private static void processChanges(MinecraftServer server, Set<Path> batch) {
+        Baseline base = baseline;
+        if (base == null) {
+            LOGGER.debug("配方尚未加载，忽略文件变化");
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        Set<ResourceLocation> dirty = new LinkedHashSet<>();
+        boolean customRecipesChanged = false;
+        boolean blacklistChanged = false;
+        boolean overridesChanged = false;
+        // 本批次新出现的自定义配方文件
+        Set<ResourceLocation> newCustomFiles = new HashSet<>();
+
+        for (Path path : batch) {
+            if (path.startsWith(RECIPES_DIR)) {
+                collectRecipeFileChanges(path, base, dirty, newCustomFiles);
+            } else if (path.startsWith(CUSTOM_RECIPES_DIR)) {
+                customRecipesChanged = true;
+            } else if (path.equals(BLACKLIST_FILE) || path.equals(BLACKLIST_JOURNAL)) {
+                blacklistChanged = true;
+            } else if (path.equals(OVERRIDES_FILE) || path.equals(OVERRIDES_JOURNAL) || isOverrideShard(path)) {
+                overridesChanged = true;
+            }
+        }
+
+        // 记录变化之前已应用的覆盖，用于判断当前配方是否为原始配方
+        Set<ResourceLocation> previouslyOverridden = new HashSet<>(base.overrideHashes.keySet());
+
+        if (blacklistChanged) {
+            // 自身写入的日志不需要重新读取文件，内存状态已是最新
+            if (RecipeBlacklistManager.isModifiedExternally()) {
+                RecipeBlacklistManager.reload();
+            }
+            Set<ResourceLocation> current = RecipeBlacklistManager.getBlacklistedRecipes();
+            diffInto(base.blacklist, current, dirty);
+            base.blacklist.clear();
+            base.blacklist.addAll(current);
+
+            BlacklistRuleMatcher matcher = RecipeBlacklistManager.getRuleMatcher();
+            if (!matcher.getRules().equals(base.blacklistRules)) {
+                // 规则变化：之前被移除的配方都有原始JSON，加上当前会被新规则命中的配方
+                dirty.addAll(base.originals.keySet());
+                Map<ResourceLocation, Recipe<?>> byName =
+                        ((RecipeManagerAccessor) server.getRecipeManager()).registerhelper$getByName();
+                for (Map.Entry<ResourceLocation, Recipe<?>> entry : byName.entrySet()) {
+                    if (matcher.matches(entry.getKey(), entry.getValue(), server.registryAccess())) {
+                        dirty.add(entry.getKey());
+                    }
+                }
+                base.blacklistRules = matcher.getRules();
+            }
+        }
+
+        if (overridesChanged) {
+            if (UnifiedRecipeOverrideManager.isModifiedExternally()) {
+                UnifiedRecipeOverrideManager.reload();
+            }
+            Map<ResourceLocation, Integer> current = new HashMap<>(UnifiedRecipeOverrideManager.getOverrideHashes());
+            for (Map.Entry<ResourceLocation, Integer> entry : current.entrySet()) {
+                if (!entry.getValue().equals(base.overrideHashes.get(entry.getKey()))) {
+                    dirty.add(entry.getKey());
+                }
+            }
+            for (ResourceLocation id : base.overrideHashes.keySet()) {
+                if (!current.containsKey(id)) {
+                    dirty.add(id);
+                }
+            }
+            base.overrideHashes.clear();
+            base.overrideHashes.putAll(current);
+        }
+
+        if (customRecipesChanged) {
+            CustomRecipeLoader.loadCustomRecipes();
+            LOGGER.info("自定义酿造/铁砧配方已热重载");
+        }
+
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        RecipeManager recipeManager = server.getRecipeManager();
+        RecipeManagerAccessor accessor = (RecipeManagerAccessor) recipeManager;
+        Map<ResourceLocation, Recipe<?>> byName = accessor.registerhelper$getByName();
+        ICondition.IContext context = accessor.registerhelper$getContext();
+
+        Map<ResourceLocation, Recipe<?>> changed = new LinkedHashMap<>();
+        Set<ResourceLocation> removed = new LinkedHashSet<>();
+        // 一次取出所有受影响配方的覆盖，每个覆盖分片只读取一次
+        Map<ResourceLocation, JsonObject> overrides = UnifiedRecipeOverrideManager.getOverrides(dirty);
+
+        for (ResourceLocation id : dirty) {
+            Recipe<?> current = byName.get(id);
+            // 当前配方是否来自自定义配方文件（需在 resolveRecipe 移除已删除文件的记录之前判断）
+            boolean currentIsCustom = (base.customFiles.containsKey(id) && !newCustomFiles.contains(id))
+                    || base.bundled.contains(id);
+
+            if (current != null && newCustomFiles.contains(id)) {
+                // 新的自定义配方文件遮蔽了现有配方：记录被遮蔽的配方，删除文件后恢复
+                JsonElement original = base.originals.get(id);
+                if (original != null) {
+                    base.shadowed.putIfAbsent(id, original);
+                } else if (!base.shadowed.containsKey(id) && !previouslyOverridden.contains(id)) {
+                    base.displaced.putIfAbsent(id, current);
+                }
+            } else if (current != null && !currentIsCustom && !previouslyOverridden.contains(id)
+                    && !hasBaseJson(id, base)) {
+                // 当前配方就是原始配方且没有JSON可以恢复时，保留对象以便之后撤销覆盖/黑名单
+                base.displaced.putIfAbsent(id, current);
+            }
+
+            Recipe<?> next = resolveRecipe(id, base, current, currentIsCustom, previouslyOverridden.contains(id),
+                    overrides.get(id), context, server.registryAccess());
+            if (next == null) {
+                if (current != null) {
+                    removed.add(id);
+                }
+            } else if (next != current) {
+                changed.put(id, next);
+            }
+        }
+
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+
+        RecipeReloadHelper.patchRecipeManager(accessor, changed, removed);
+
+        for (ResourceLocation id : changed.keySet()) {
+            if (base.customFiles.containsKey(id) || base.bundled.contains(id)) {
+                RecipeTracker.trackRecipe(id);
+            } else {
+                // 自定义配方文件被删除，恢复为被遮蔽的配方
+                RecipeTracker.untrackRecipe(id);
+            }
+        }
+        for (ResourceLocation id : removed) {
+            RecipeTracker.untrackRecipe(id);
+        }
+
+        RecipeDeltaSync.sendChanges(server, changed, removed);
+
+        LOGGER.info("配方热重载完成: 更新 {} 个, 移除 {} 个, 耗时 {} ms",
+                changed.size(), removed.size(), (System.nanoTime() - startTime) / 1_000_000L);
+    }
+
+    /**
+     * 把配方目录中的一次文件变化转换为受影响的配方ID
+     * @param newCustomFiles 收集之前没有对应文件的配方ID
+     */
+    private static void collectRecipeFileChanges(Path path, Baseline base, Set<ResourceLocation> dirty,
+                                                 Set<ResourceLocation> newCustomFiles) {
+        if (Files.isRegularFile(path)) {
+            Path relative = RECIPES_DIR.relativize(path);
+            if (relative.getNameCount() < 2 || !path.getFileName().toString().endsWith(".json")) {
+                return;
+            }
+            String namespace = relative.getName(0).toString();
+            try {
+                ResourceLocation id = new ResourceLocation(namespace,
+                        RecipeFileLoader.getRecipeIdFromFile(RECIPES_DIR.resolve(namespace), path));
+                if (base.customFiles.put(id, path) == null && !base.bundled.contains(id)) {
+                    newCustomFiles.add(id);
+                }
+                dirty.add(id);
+            } catch (Exception e) {
+                LOGGER.error("无效的配方文件路径: " + path, e);
+            }
+            return;
+        }
+
+        if (Files.isDirectory(path)) {
+            if (path.equals(RECIPES_DIR)) {
+                // 事件溢出后的全量比对：标记所有已知文件，新文件由 registerTree 补充
+                for (Map.Entry<ResourceLocation, Path> entry : base.customFiles.entrySet()) {
+                    if (!Files.isRegularFile(entry.getValue())) {
+                        dirty.add(entry.getKey());
+                    }
+                }
+                Set<Path> files = new LinkedHashSet<>();
+                registerTree(RECIPES_DIR, files);
+                for (Path file : files) {
+                    collectRecipeFileChanges(file, base, dirty, newCustomFiles);
+                }
+            }
+            return;
+        }
+
+        // 文件或目录被删除
+        for (Map.Entry<ResourceLocation, Path> entry : base.customFiles.entrySet()) {
+            if (entry.getValue().startsWith(path)) {
+                dirty.add(entry.getKey());
+            }
+        }
+    }
+
+    private static void diffInto(Set<ResourceLocation> before, Set<ResourceLocation> after, Set<ResourceLocation> out) {
+        for (ResourceLocation id : after) {
+            if (!before.contains(id)) {
+                out.add(id);
+            }
+        }
+        for (ResourceLocation id : before) {
+            if (!after.contains(id)) {
+                out.add(id);
+            }
+        }
+    }
+
+    private static boolean hasBaseJson(ResourceLocation id, Baseline base) {
+        Path file = base.customFiles.get(id);
+        return (file != null && Files.isRegularFile(file))
+                || base.bundled.contains(id)
+                || base.originals.containsKey(id)
+                || base.shadowed.containsKey(id);
+    }
+
+    /**
+     * 计算配方ID在当前黑名单/覆盖/文件状态下应有的配方
+     * @param currentIsCustom 当前配方来自自定义配方文件
+     * @param override 配方当前的覆盖，没有覆盖时为 null
+     * @return 应有的配方；null 表示该配方应被移除
+     */
+    private static Recipe<?> resolveRecipe(ResourceLocation id, Baseline base, Recipe<?> current,
+                                           boolean currentIsCustom, boolean wasOverridden, JsonObject override,
+                                           ICondition.IContext context, RegistryAccess registryAccess) {
+        if (RecipeBlacklistManager.isBlacklisted(id)) {
+            return null;
+        }
+
+        JsonElement baseJson = resolveBaseJson(id, base);
+        Recipe<?> displaced = base.displaced.get(id);
+        // 自定义配方文件被删除后，当前配方不再有来源
+        Recipe<?> currentOriginal = wasOverridden || currentIsCustom ? null : current;
+        boolean baseExists = baseJson != null || displaced != null || (current != null && !currentIsCustom);
+
+        // apply 时先应用覆盖再应用黑名单，类型/产物规则按覆盖之后的内容判断
+        if (override != null) {
+            if (!baseExists || RecipeBlacklistManager.isBlacklisted(id, override)) {
+                return null;
+            }
+            return parseRecipe(id, override, context);
+        }
+
+        if (baseJson != null) {
+            return RecipeBlacklistManager.isBlacklisted(id, baseJson) ? null : parseRecipe(id, baseJson, context);
+        }
+        Recipe<?> original = displaced != null ? displaced : currentOriginal;
+        if (original != null && RecipeBlacklistManager.isBlacklisted(id, original, registryAccess)) {
+            return null;
+        }
+        if (displaced != null) {
+            base.displaced.remove(id);
+            return displaced;
+        }
+        if (currentIsCustom) {
+            // 自定义配方文件已删除，且没有被它遮蔽的配方
+            return null;
+        }
+        if (current != null && wasOverridden) {
+            LOGGER.warn("无法恢复配方 {} 的原始内容，需要执行 /reload", id);
+        }
+        return current;
+    }
+
+    /**
+     * 获取配方在应用覆盖之前的JSON
+     */
+    private static JsonElement resolveBaseJson(ResourceLocation id, Baseline base) {
+        Path file = base.customFiles.get(id);
+        if (file != null) {
+            if (Files.isRegularFile(file)) {
+                return readJson(file);
+            }
+            // 文件已删除：记录的覆盖前JSON是自定义配方的内容，回退到被遮蔽的配方
+            base.customFiles.remove(id);
+            base.originals.remove(id);
+        }
+
+        if (base.bundled.contains(id)) {
+            JsonElement bundledJson = readBundledJson(id);
+            if (bundledJson != null) {
+                return bundledJson;
+            }
+        }
+
+        JsonElement original = base.originals.get(id);
+        if (original != null) {
+            return original;
+        }
+        return base.shadowed.get(id);
+    }
+
+    /**
+     * 从打包文件读取配方（同一批变化内只打开一次打包文件）
+     */
+    private static JsonElement readBundledJson(ResourceLocation id) {
+        if (bundleSources == null) {
+            bundleSources = RecipeBundle.openAll(RECIPES_DIR);
+        }
+        RecipeBundle.Source source = bundleSources.get(id);
+        if (source == null) {
+            return null;
+        }
+        try {
+            JsonElement json = GSON.fromJson(source.read(), JsonElement.class);
+            if (json != null && json.isJsonObject()) {
+                return json;
+            }
+            LOGGER.warn("无效的打包配方JSON: {}", id);
+        } catch (Exception e) {
+            LOGGER.error("读取打包配方失败: " + id, e);
+        }
+        return null;
+    }
+
+    private static JsonElement readJson(Path file) {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            JsonElement json = GSON.fromJson(reader, JsonElement.class);
+            if (json != null && json.isJsonObject()) {
+                return json;
+            }
+            LOGGER.warn("无效的配方JSON: {}", file);
+        } catch (Exception e) {
+            LOGGER.error("读取配方文件失败: " + file, e);
+        }
+        return null;
+    }
+
+    private static Recipe<?> parseRecipe(ResourceLocation id, JsonElement json, ICondition.IContext context) {
+        try {
+            if (!json.isJsonObject()) {
+                return null;
+            }
+            // 覆盖和记录的原始JSON是共享对象，序列化器可能修改传入的JSON，解析副本
+            JsonObject obj = json.getAsJsonObject().deepCopy();
+            if (!CraftingHelper.processConditions(obj, "conditions", context)) {
+                LOGGER.debug("配方条件不满足，跳过: {}", id);
+                return null;
+            }
+            return RecipeManager.fromJson(id, obj, context);
+        } catch (Exception e) {
+            LOGGER.error("解析配方失败: {}", id, e);
+            return null;
+        }
+    }
+}
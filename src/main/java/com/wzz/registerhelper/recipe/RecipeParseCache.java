@@ -0,0 +1,248 @@
+package com.wzz.registerhelper.recipe;
+
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.mojang.logging.LogUtils;
+import com.wzz.registerhelper.RecipeHelper;
+import com.wzz.registerhelper.util.JsonBinaryCodec;
+import net.minecraftforge.fml.ModList;
+import net.minecraftforge.fml.loading.FMLPaths;
+import org.slf4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 已解析配方的持久化缓存
+ * 以 文件相对路径 + 大小 + 修改时间 + 内容哈希 作为指纹，保存解析后的JSON树（二进制形式），
+ * 未变化的文件直接从缓存读取，只有变化的文件才重新解析
+ * 模组版本、Gson 版本或 Gson 输出格式变化时整个缓存失效
+ */
+public class RecipeParseCache {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final Gson GSON = new Gson();
+
+    private static final int MAGIC = 0x52485043; // "RHPC"
+    private static final int FORMAT_VERSION = 1;
+    private static final Path CACHE_DIR = FMLPaths.CONFIGDIR.get().resolve("registerhelper/.cache");
+
+    private final Path root;
+    private final Path cacheFile;
+    private final Map<String, Entry> previous;
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private volatile boolean dirty = false;
+
+    /**
+     * 缓存条目：文件指纹 + 编码后的JSON树
+     */
+    private record Entry(long size, long modified, long hash, byte[] payload) {
+    }
+
+    private RecipeParseCache(Path root, Path cacheFile, Map<String, Entry> previous) {
+        this.root = root;
+        this.cacheFile = cacheFile;
+        this.previous = previous;
+    }
+
+    /**
+     * 打开某个目录对应的缓存
+     * @param root 被缓存的配方目录
+     * @param name 缓存文件名
+     */
+    public static RecipeParseCache open(Path root, String name) {
+        Path cacheFile = CACHE_DIR.resolve(name + ".bin");
+        return new RecipeParseCache(root, cacheFile, readCacheFile(cacheFile));
+    }
+
+    /**
+     * 获取文件解析后的JSON，命中缓存时不读取和解析文件
+     * @param size 文件大小（来自目录遍历时的文件属性）
+     * @param modified 文件修改时间（毫秒）
+     * @return 解析结果；文件内容不是合法JSON时返回 null
+     */
+    public JsonElement get(Path file, long size, long modified) throws IOException {
+        String key = keyOf(file);
+        Entry cached = previous.get(key);
+
+        if (cached != null && cached.size == size && cached.modified == modified) {
+            JsonElement json = decode(cached);
+            if (json != null) {
+                current.put(key, cached);
+                hits.incrementAndGet();
+                return json;
+            }
+        }
+
+        byte[] bytes = Files.readAllBytes(file);
+        long hash = hash(bytes);
+
+        // 只有修改时间变化（例如 git checkout）而内容未变
+        if (cached != null && cached.size == bytes.length && cached.hash == hash) {
+            JsonElement json = decode(cached);
+            if (json != null) {
+                current.put(key, new Entry(bytes.length, modified, hash, cached.payload));
+                dirty = true;
+                hits.incrementAndGet();
+                return json;
+            }
+        }
+
+        misses.incrementAndGet();
+        dirty = true;
+        JsonElement json = GSON.fromJson(new String(bytes, StandardCharsets.UTF_8), JsonElement.class);
+        if (json != null && json.isJsonObject()) {
+            current.put(key, new Entry(bytes.length, modified, hash, JsonBinaryCodec.encode(json)));
+        }
+        return json;
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * 保存本次加载用到的条目；已删除文件对应的条目随之丢弃
+     */
+    public void save() {
+        if (!dirty && current.size() == previous.size()) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            Path tempFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new DeflaterOutputStream(Files.newOutputStream(tempFile))))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(getCompatibilityKey());
+                out.writeInt(current.size());
+                for (Map.Entry<String, Entry> entry : current.entrySet()) {
+                    Entry value = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(value.size);
+                    out.writeLong(value.modified);
+                    out.writeLong(value.hash);
+                    JsonBinaryCodec.writeVarInt(out, value.payload.length);
+                    out.write(value.payload);
+                }
+            }
+
+            try {
+                Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            LOGGER.debug("配方解析缓存已保存: {} (条目数量: {})", cacheFile, current.size());
+        } catch (Exception e) {
+            LOGGER.warn("保存配方解析缓存失败: " + cacheFile, e);
+        }
+    }
+
+    private String keyOf(Path file) {
+        return root.relativize(file).toString().replace('\\', '/');
+    }
+
+    private static JsonElement decode(Entry entry) {
+        try {
+            return JsonBinaryCodec.decode(entry.payload);
+        } catch (IOException e) {
+            LOGGER.debug("配方缓存条目损坏，重新解析");
+            return null;
+        }
+    }
+
+    private static long hash(byte[] bytes) {
+        return Hashing.murmur3_128().hashBytes(bytes).asLong();
+    }
+
+    /**
+     * 读取缓存文件；格式、模组版本或 Gson 不匹配时返回空缓存
+     */
+    private static Map<String, Entry> readCacheFile(Path cacheFile) {
+        Map<String, Entry> entries = new HashMap<>();
+        if (!Files.isRegularFile(cacheFile)) {
+            return entries;
+        }
+
+        try (InputStream raw = Files.newInputStream(cacheFile);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(raw)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                LOGGER.info("配方解析缓存格式已变化，重建缓存");
+                return entries;
+            }
+            if (!getCompatibilityKey().equals(in.readUTF())) {
+                LOGGER.info("模组或 Gson 版本已变化，重建配方解析缓存");
+                return entries;
+            }
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                long size = in.readLong();
+                long modified = in.readLong();
+                long hash = in.readLong();
+                byte[] payload = new byte[JsonBinaryCodec.readVarInt(in)];
+                in.readFully(payload);
+                entries.put(key, new Entry(size, modified, hash, payload));
+            }
+        } catch (Exception e) {
+            LOGGER.warn("读取配方解析缓存失败，将重新解析所有配方: {}", e.toString());
+            entries.clear();
+        }
+        return entries;
+    }
+
+    /**
+     * 缓存兼容性标识：模组版本 + Gson 版本 + Gson 输出格式指纹
+     */
+    private static String getCompatibilityKey() {
+        String modVersion = ModList.get() == null ? "unknown" : ModList.get().getModContainerById(RecipeHelper.MODID)
+                .map(container -> container.getModInfo().getVersion().toString())
+                .orElse("unknown");
+        String gsonVersion = String.valueOf(Gson.class.getPackage().getImplementationVersion());
+        return modVersion + "|" + gsonVersion + "|" + getGsonFormatFingerprint();
+    }
+
+    /**
+     * 用一个固定的样例JSON检测 Gson 的解析/输出行为是否变化
+     */
+    private static long getGsonFormatFingerprint() {
+        JsonObject probe = new JsonObject();
+        probe.addProperty("string", "配方 \"quoted\" \\ <tag> é");
+        probe.addProperty("int", 64);
+        probe.addProperty("double", 0.1);
+        JsonArray array = new JsonArray();
+        array.add(true);
+        array.add(1.0E10);
+        probe.add("array", array);
+        String text = GSON.toJson(GSON.fromJson(GSON.toJson(probe), JsonElement.class));
+        return Hashing.murmur3_128().hashString(text, StandardCharsets.UTF_8).asLong();
+    }
+}
@@ -4,34 +4,82 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
 import com.mojang.logging.LogUtils;
+import com.wzz.registerhelper.util.ConfigJournal;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraftforge.fml.loading.FMLPaths;
 import org.slf4j.Logger;
 
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.SimpleDateFormat;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
- * 统一的配方覆盖管理器 - 在内存中管理配方覆盖规则
+ * 统一的配方覆盖管理器 - 管理配方覆盖规则
+ * 覆盖按命名空间分片存放在 overrides/<命名空间>.json，内存中只保留ID索引，
+ * 覆盖内容按需从分片读取并放入有上限的缓存；对外返回与缓存共享的对象，调用方不得修改，
+ * 需要交给会修改JSON的代码（如配方序列化器）时由调用方复制
+ * 增删操作写入 recipe_overrides.journal，加载时在分片之上重放，压缩时只重写变化的分片
  */
 public class UnifiedRecipeOverrideManager {
     private static final Logger LOGGER = LogUtils.getLogger();
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
-    private static final String OVERRIDES_FILE = FMLPaths.CONFIGDIR.get()
-            .resolve("registerhelper/recipe_overrides.json").toAbsolutePath().normalize().toString();
-    
-    // 内存中的覆盖映射：原配方ID -> 覆盖JSON
-    private static final Map<ResourceLocation, JsonObject> recipeOverrides = new ConcurrentHashMap<>();
+    private static final Path CONFIG_DIR = FMLPaths.CONFIGDIR.get().resolve("registerhelper").toAbsolutePath().normalize();
+    // 旧版单文件存储，加载时迁移到分片目录
+    private static final Path LEGACY_FILE = CONFIG_DIR.resolve("recipe_overrides.json");
+    private static final Path SHARD_DIR = CONFIG_DIR.resolve("overrides");
+    // 缓存的覆盖内容数量上限
+    private static final int CACHE_SIZE = 256;
+
+    // 内存索引：原配方ID -> 覆盖JSON哈希（热重载用来判断覆盖是否变化）
+    private static final Map<ResourceLocation, Integer> index = new ConcurrentHashMap<>();
+    // 只存在于操作日志、尚未写入分片的覆盖内容，压缩完成后移除
+    private static final Map<ResourceLocation, JsonObject> unsaved = new ConcurrentHashMap<>();
+    // 下次压缩需要重写的分片（持有 JOURNAL 锁访问）
+    private static Set<String> dirtyShards = new HashSet<>();
+    // 最近读取过的覆盖内容
+    private static final Map<ResourceLocation, JsonObject> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ResourceLocation, JsonObject> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    // 每次修改递增，防止并发读取把旧内容放回缓存，也供外部缓存判断覆盖是否变化
+    private static volatile long version = 0;
+    // 旧版文件已读入、等待压缩写入分片后删除
+    private static boolean migrating = false;
+    private static final Map<ResourceLocation, JsonObject> VIEW = new OverridesView();
     private static boolean initialized = false;
+    // 修改操作追加到日志，避免每次修改都重写分片；同时作为修改与压缩之间的锁
+    private static final ConfigJournal JOURNAL = new ConfigJournal(LEGACY_FILE, SHARD_DIR);
     
     /**
      * 初始化覆盖管理器
@@ -44,7 +92,7 @@ public class UnifiedRecipeOverrideManager {
         try {
             loadOverrides();
             initialized = true;
-            LOGGER.info("配方覆盖管理器已初始化，覆盖配方数量: {}", recipeOverrides.size());
+            LOGGER.info("配方覆盖管理器已初始化，覆盖配方数量: {}", index.size());
         } catch (Exception e) {
             LOGGER.error("初始化配方覆盖管理器失败", e);
             initialized = true;
@@ -58,8 +106,11 @@ public class UnifiedRecipeOverrideManager {
         try {
             initialize();
             
-            recipeOverrides.put(recipeId, overrideJson.deepCopy());
-            saveOverrides();
+            JsonObject copy = overrideJson.deepCopy();
+            synchronized (JOURNAL) {
+                putEntry(recipeId, copy);
+                appendJournal(List.of(record("put", recipeId, copy)));
+            }
             
             LOGGER.info("配方覆盖已添加: {}", recipeId);
             return true;
@@ -77,9 +128,14 @@ public class UnifiedRecipeOverrideManager {
         try {
             initialize();
             
-            JsonObject removed = recipeOverrides.remove(recipeId);
-            if (removed != null) {
-                saveOverrides();
+            boolean removed;
+            synchronized (JOURNAL) {
+                removed = removeEntry(recipeId);
+                if (removed) {
+                    appendJournal(List.of(record("remove", recipeId, null)));
+                }
+            }
+            if (removed) {
                 LOGGER.info("配方覆盖已移除: {}", recipeId);
                 return true;
             } else {
@@ -98,36 +154,119 @@ public class UnifiedRecipeOverrideManager {
      */
     public static boolean hasOverride(ResourceLocation recipeId) {
         initialize();
-        return recipeOverrides.containsKey(recipeId);
+        return index.containsKey(recipeId);
     }
     
     /**
      * 获取配方覆盖
+     * 返回的对象与缓存共享，调用方不得修改
      */
     public static JsonObject getOverride(ResourceLocation recipeId) {
         initialize();
-        JsonObject override = recipeOverrides.get(recipeId);
-        return override != null ? override.deepCopy() : null;
+        if (!index.containsKey(recipeId)) {
+            return null;
+        }
+        JsonObject override = unsaved.get(recipeId);
+        if (override != null) {
+            return override;
+        }
+        synchronized (cache) {
+            override = cache.get(recipeId);
+        }
+        if (override != null) {
+            return override;
+        }
+        
+        long readVersion = version;
+        JsonObject[] found = new JsonObject[1];
+        try {
+            readShard(recipeId.getNamespace(), recipeId::equals, (id, json) -> {
+                found[0] = json;
+                return false;
+            });
+        } catch (Exception e) {
+            LOGGER.error("读取覆盖分片失败: " + recipeId, e);
+        }
+        if (found[0] != null && readVersion == version) {
+            synchronized (cache) {
+                cache.put(recipeId, found[0]);
+            }
+        }
+        return found[0];
     }
-    
+
     /**
-     * 获取所有覆盖配方
+     * 批量获取配方覆盖：内存和缓存中没有的按命名空间分组，每个分片只读取一次
+     * 返回的对象与缓存共享，调用方不得修改
+     * @return 配方ID -> 覆盖，没有覆盖的ID不在结果中
      */
-    public static Map<ResourceLocation, JsonObject> getAllOverrides() {
+    public static Map<ResourceLocation, JsonObject> getOverrides(Collection<ResourceLocation> recipeIds) {
         initialize();
         Map<ResourceLocation, JsonObject> result = new HashMap<>();
-        for (Map.Entry<ResourceLocation, JsonObject> entry : recipeOverrides.entrySet()) {
-            result.put(entry.getKey(), entry.getValue().deepCopy());
+        Map<String, Set<ResourceLocation>> missing = new TreeMap<>();
+        synchronized (cache) {
+            for (ResourceLocation recipeId : recipeIds) {
+                if (!index.containsKey(recipeId)) {
+                    continue;
+                }
+                JsonObject override = unsaved.get(recipeId);
+                if (override == null) {
+                    override = cache.get(recipeId);
+                }
+                if (override != null) {
+                    result.put(recipeId, override);
+                } else {
+                    missing.computeIfAbsent(recipeId.getNamespace(), k -> new HashSet<>()).add(recipeId);
+                }
+            }
+        }
+
+        for (Map.Entry<String, Set<ResourceLocation>> entry : missing.entrySet()) {
+            Set<ResourceLocation> ids = entry.getValue();
+            int[] remaining = {ids.size()};
+            try {
+                readShard(entry.getKey(), ids::contains, (id, json) -> {
+                    result.put(id, json);
+                    // 需要的覆盖都已读到时不再读取分片的剩余部分
+                    return --remaining[0] > 0;
+                });
+            } catch (Exception e) {
+                LOGGER.error("读取覆盖分片失败: " + shardFile(entry.getKey()), e);
+            }
         }
         return result;
     }
+
+    /**
+     * 获取所有覆盖配方
+     * 返回只读视图：ID 来自内存索引，内容在访问时按分片读取，不会一次性载入全部覆盖
+     */
+    public static Map<ResourceLocation, JsonObject> getAllOverrides() {
+        initialize();
+        return VIEW;
+    }
+    
+    /**
+     * 获取覆盖内容哈希（只读视图），用于判断覆盖是否变化而无需读取覆盖内容
+     */
+    public static Map<ResourceLocation, Integer> getOverrideHashes() {
+        initialize();
+        return Collections.unmodifiableMap(index);
+    }
+    
+    /**
+     * 获取覆盖版本号（覆盖变化或重新加载时递增）
+     */
+    public static long getVersion() {
+        return version;
+    }
     
     /**
      * 获取覆盖配方ID集合
      */
     public static Set<ResourceLocation> getOverriddenRecipeIds() {
         initialize();
-        return Set.copyOf(recipeOverrides.keySet());
+        return Set.copyOf(index.keySet());
     }
     
     /**
@@ -137,9 +276,12 @@ public class UnifiedRecipeOverrideManager {
         try {
             initialize();
             
-            int count = recipeOverrides.size();
-            recipeOverrides.clear();
-            saveOverrides();
+            int count;
+            synchronized (JOURNAL) {
+                count = index.size();
+                clearEntries();
+                appendJournal(List.of(record("clear", null, null)));
+            }
             
             LOGGER.info("已清空所有配方覆盖，移除了 {} 个覆盖", count);
             return true;
@@ -156,14 +298,18 @@ public class UnifiedRecipeOverrideManager {
     public static int addMultipleOverrides(Map<ResourceLocation, JsonObject> overrides) {
         initialize();
         
-        int addedCount = 0;
-        for (Map.Entry<ResourceLocation, JsonObject> entry : overrides.entrySet()) {
-            recipeOverrides.put(entry.getKey(), entry.getValue().deepCopy());
-            addedCount++;
+        List<JsonObject> records = new ArrayList<>();
+        synchronized (JOURNAL) {
+            for (Map.Entry<ResourceLocation, JsonObject> entry : overrides.entrySet()) {
+                JsonObject copy = entry.getValue().deepCopy();
+                putEntry(entry.getKey(), copy);
+                records.add(record("put", entry.getKey(), copy));
+            }
+            appendJournal(records);
         }
         
+        int addedCount = records.size();
         if (addedCount > 0) {
-            saveOverrides();
             LOGGER.info("批量添加 {} 个配方覆盖", addedCount);
         }
         
@@ -176,15 +322,18 @@ public class UnifiedRecipeOverrideManager {
     public static int removeMultipleOverrides(Set<ResourceLocation> recipeIds) {
         initialize();
         
-        int removedCount = 0;
-        for (ResourceLocation recipeId : recipeIds) {
-            if (recipeOverrides.remove(recipeId) != null) {
-                removedCount++;
+        List<JsonObject> records = new ArrayList<>();
+        synchronized (JOURNAL) {
+            for (ResourceLocation recipeId : recipeIds) {
+                if (removeEntry(recipeId)) {
+                    records.add(record("remove", recipeId, null));
+                }
             }
+            appendJournal(records);
         }
         
+        int removedCount = records.size();
         if (removedCount > 0) {
-            saveOverrides();
             LOGGER.info("批量移除 {} 个配方覆盖", removedCount);
         }
         
@@ -198,10 +347,10 @@ public class UnifiedRecipeOverrideManager {
         initialize();
         
         OverrideStats stats = new OverrideStats();
-        stats.totalOverrides = recipeOverrides.size();
+        stats.totalOverrides = index.size();
         
         // 按命名空间分组统计
-        for (ResourceLocation recipeId : recipeOverrides.keySet()) {
+        for (ResourceLocation recipeId : index.keySet()) {
             String namespace = recipeId.getNamespace();
             stats.byNamespace.merge(namespace, 1, Integer::sum);
         }
@@ -211,92 +360,466 @@ public class UnifiedRecipeOverrideManager {
     
     /**
      * 应用覆盖到配方映射（供Mixin使用）
+     * 逐个分片流式读取，只解析原配方存在的覆盖；读出的对象直接交给配方映射，不再复制
      */
     public static void applyOverridesToRecipeMap(Map<ResourceLocation, JsonElement> recipes) {
         initialize();
         
-        if (recipeOverrides.isEmpty()) {
+        if (index.isEmpty()) {
             return;
         }
         
-        int appliedCount = 0;
-        for (Map.Entry<ResourceLocation, JsonObject> entry : recipeOverrides.entrySet()) {
-            ResourceLocation recipeId = entry.getKey();
-            JsonObject overrideJson = entry.getValue();
-            
-            if (recipes.containsKey(recipeId)) {
-                recipes.put(recipeId, overrideJson.deepCopy());
-                appliedCount++;
-                LOGGER.debug("应用配方覆盖: {}", recipeId);
-            } else {
-                LOGGER.debug("原配方不存在，跳过覆盖: {}", recipeId);
+        Map<ResourceLocation, JsonObject> pending = new HashMap<>(unsaved);
+        int[] appliedCount = {0};
+        for (String namespace : namespacesOf(index.keySet())) {
+            try {
+                readShard(namespace,
+                        id -> index.containsKey(id) && !pending.containsKey(id) && recipes.containsKey(id),
+                        (id, json) -> {
+                            recipes.put(id, json);
+                            appliedCount[0]++;
+                            return true;
+                        });
+            } catch (Exception e) {
+                LOGGER.error("读取覆盖分片失败: " + shardFile(namespace), e);
+            }
+        }
+        // 未写入分片的覆盖会继续留在内存中供查询，交出副本
+        for (Map.Entry<ResourceLocation, JsonObject> entry : pending.entrySet()) {
+            if (index.containsKey(entry.getKey()) && recipes.containsKey(entry.getKey())) {
+                recipes.put(entry.getKey(), entry.getValue().deepCopy());
+                appliedCount[0]++;
+            }
+        }
+        
+        if (LOGGER.isDebugEnabled()) {
+            for (ResourceLocation recipeId : index.keySet()) {
+                if (!recipes.containsKey(recipeId)) {
+                    LOGGER.debug("原配方不存在，跳过覆盖: {}", recipeId);
+                }
             }
         }
         
-        if (appliedCount > 0) {
-            LOGGER.info("已应用 {} 个配方覆盖", appliedCount);
+        if (appliedCount[0] > 0) {
+            LOGGER.info("已应用 {} 个配方覆盖", appliedCount[0]);
+        }
+    }
+    
+    // ── 索引维护（持有 JOURNAL 锁调用）────────────────────────────────
+    
+    private static void putEntry(ResourceLocation recipeId, JsonObject override) {
+        index.put(recipeId, override.hashCode());
+        unsaved.put(recipeId, override);
+        dirtyShards.add(recipeId.getNamespace());
+        invalidate(recipeId);
+    }
+    
+    private static boolean removeEntry(ResourceLocation recipeId) {
+        if (index.remove(recipeId) == null) {
+            return false;
+        }
+        unsaved.remove(recipeId);
+        dirtyShards.add(recipeId.getNamespace());
+        invalidate(recipeId);
+        return true;
+    }
+    
+    private static void clearEntries() {
+        dirtyShards.addAll(namespacesOf(index.keySet()));
+        dirtyShards.addAll(listShards());
+        index.clear();
+        unsaved.clear();
+        version++;
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+    
+    private static void invalidate(ResourceLocation recipeId) {
+        version++;
+        synchronized (cache) {
+            cache.remove(recipeId);
         }
     }
     
     /**
-     * 从文件加载覆盖
+     * 从文件加载覆盖：先读取分片（以及待迁移的旧版文件），再重放操作日志
      */
     private static void loadOverrides() {
-        File overridesFile = new File(OVERRIDES_FILE);
-        
-        if (!overridesFile.exists()) {
-            LOGGER.debug("覆盖文件不存在，创建空覆盖映射: {}", OVERRIDES_FILE);
-            recipeOverrides.clear();
-            saveOverrides();
-            return;
+        synchronized (JOURNAL) {
+            index.clear();
+            unsaved.clear();
+            dirtyShards = new HashSet<>();
+            version++;
+            synchronized (cache) {
+                cache.clear();
+            }
+            
+            try {
+                Files.createDirectories(SHARD_DIR);
+            } catch (IOException e) {
+                LOGGER.error("创建覆盖目录失败: " + SHARD_DIR, e);
+            }
+            
+            for (String namespace : listShards()) {
+                try {
+                    readShard(namespace, id -> true, (id, json) -> {
+                        index.put(id, json.hashCode());
+                        if (!id.getNamespace().equals(namespace)) {
+                            // 放错分片的条目在下次压缩时移到正确的分片
+                            unsaved.put(id, json);
+                            dirtyShards.add(namespace);
+                            dirtyShards.add(id.getNamespace());
+                        }
+                        return true;
+                    });
+                } catch (Exception e) {
+                    LOGGER.error("加载覆盖分片失败: " + shardFile(namespace), e);
+                }
+            }
+            
+            migrating = Files.isRegularFile(LEGACY_FILE) && loadLegacyFile();
+            
+            int replayed = JOURNAL.replay(UnifiedRecipeOverrideManager::applyRecord);
+            
+            if (migrating) {
+                backupLegacyFile();
+                saveOverrides();
+                LOGGER.info("旧版覆盖文件已迁移到分片目录: {}", SHARD_DIR);
+            }
+            
+            LOGGER.debug("从文件加载了 {} 个配方覆盖（重放日志 {} 条）", index.size(), replayed);
         }
-        
-        try (FileReader reader = new FileReader(overridesFile, StandardCharsets.UTF_8)) {
+    }
+    
+    /**
+     * 读取旧版单文件覆盖，内容叠加在分片之上（迁移中途退出时分片可能只写了一部分）
+     * @return 是否读取成功；读取失败时保留旧文件不迁移
+     */
+    private static boolean loadLegacyFile() {
+        try (Reader reader = Files.newBufferedReader(LEGACY_FILE, StandardCharsets.UTF_8)) {
             Type mapType = new TypeToken<Map<String, JsonObject>>() {}.getType();
             Map<String, JsonObject> overrideMap = GSON.fromJson(reader, mapType);
             
-            recipeOverrides.clear();
             if (overrideMap != null) {
                 for (Map.Entry<String, JsonObject> entry : overrideMap.entrySet()) {
                     try {
-                        ResourceLocation recipeId = new ResourceLocation(entry.getKey());
-                        recipeOverrides.put(recipeId, entry.getValue());
+                        putEntry(new ResourceLocation(entry.getKey()), entry.getValue());
                     } catch (Exception e) {
                         LOGGER.warn("无效的配方ID格式: {}", entry.getKey());
                     }
                 }
             }
-            
-            LOGGER.debug("从文件加载了 {} 个配方覆盖", recipeOverrides.size());
-            
+            return true;
         } catch (Exception e) {
-            LOGGER.error("加载覆盖文件失败: " + OVERRIDES_FILE, e);
-            recipeOverrides.clear();
+            LOGGER.error("加载覆盖文件失败: " + LEGACY_FILE, e);
+            return false;
+        }
+    }
+    
+    private static void backupLegacyFile() {
+        try {
+            String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+            Path backupFile = CONFIG_DIR.resolve(".backup").resolve("recipe_overrides-" + timestamp + ".json");
+            Files.createDirectories(backupFile.getParent());
+            Files.copy(LEGACY_FILE, backupFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.warn("备份旧版覆盖文件失败: {}", e.toString());
         }
     }
     
     /**
-     * 保存覆盖到文件
+     * 重放一条日志记录
      */
-    private static void saveOverrides() {
+    private static void applyRecord(JsonObject record) {
+        String op = record.get("op").getAsString();
+        switch (op) {
+            case "put" -> putEntry(new ResourceLocation(record.get("id").getAsString()),
+                    record.getAsJsonObject("value"));
+            case "remove" -> removeEntry(new ResourceLocation(record.get("id").getAsString()));
+            case "clear" -> clearEntries();
+            default -> LOGGER.warn("未知的覆盖日志操作: {}", op);
+        }
+    }
+    
+    private static JsonObject record(String op, ResourceLocation recipeId, JsonObject value) {
+        JsonObject record = new JsonObject();
+        record.addProperty("op", op);
+        if (recipeId != null) {
+            record.addProperty("id", recipeId.toString());
+        }
+        if (value != null) {
+            record.add("value", value);
+        }
+        return record;
+    }
+    
+    /**
+     * 追加日志记录（调用方持有 JOURNAL 锁），日志过大时在后台压缩到分片
+     */
+    private static void appendJournal(List<JsonObject> records) {
+        if (records.isEmpty()) {
+            return;
+        }
         try {
-            File overridesFile = new File(OVERRIDES_FILE);
-            overridesFile.getParentFile().mkdirs();
+            JOURNAL.append(records);
+        } catch (Exception e) {
+            LOGGER.error("写入覆盖日志失败，改为重写分片", e);
+            saveOverrides();
+            return;
+        }
+        
+        if (JOURNAL.needsCompaction()) {
+            saveOverrides();
+        }
+    }
+    
+    /**
+     * 把变化的分片写入文件：在后台重写分片，写完后清理已合并的日志
+     */
+    private static void saveOverrides() {
+        synchronized (JOURNAL) {
+            Set<String> shards = dirtyShards;
+            dirtyShards = new HashSet<>();
             
-            // 转换为字符串键的映射
-            Map<String, JsonObject> saveMap = new HashMap<>();
-            for (Map.Entry<ResourceLocation, JsonObject> entry : recipeOverrides.entrySet()) {
-                saveMap.put(entry.getKey().toString(), entry.getValue());
+            Map<String, Set<ResourceLocation>> shardIds = new HashMap<>();
+            for (ResourceLocation recipeId : index.keySet()) {
+                if (shards.contains(recipeId.getNamespace())) {
+                    shardIds.computeIfAbsent(recipeId.getNamespace(), k -> new HashSet<>()).add(recipeId);
+                }
             }
+            // 存储的 JsonObject 不会再被修改，浅拷贝即可
+            Map<ResourceLocation, JsonObject> pending = new HashMap<>(unsaved);
+            boolean deleteLegacy = migrating;
             
-            try (FileWriter writer = new FileWriter(overridesFile, StandardCharsets.UTF_8)) {
-                GSON.toJson(saveMap, writer);
+            JOURNAL.compactFiles(() -> buildShards(shards, shardIds, pending, deleteLegacy),
+                    success -> onCompacted(success, shards, pending, deleteLegacy));
+        }
+        LOGGER.debug("覆盖已安排保存: {} (覆盖数量: {})", SHARD_DIR, index.size());
+    }
+    
+    /**
+     * 生成变化分片的新内容（在写入线程上执行）：未保存的覆盖取自内存，其余从旧分片读取
+     */
+    private static Map<Path, String> buildShards(Set<String> shards, Map<String, Set<ResourceLocation>> shardIds,
+                                                 Map<ResourceLocation, JsonObject> pending,
+                                                 boolean deleteLegacy) throws IOException {
+        Map<Path, String> files = new LinkedHashMap<>();
+        for (String namespace : shards) {
+            Set<ResourceLocation> ids = shardIds.get(namespace);
+            if (ids == null) {
+                files.put(shardFile(namespace), null);
+                continue;
             }
             
-            LOGGER.debug("覆盖已保存到文件: {} (覆盖数量: {})", OVERRIDES_FILE, recipeOverrides.size());
+            Map<ResourceLocation, JsonObject> entries = new TreeMap<>();
+            for (ResourceLocation recipeId : ids) {
+                JsonObject override = pending.get(recipeId);
+                if (override != null) {
+                    entries.put(recipeId, override);
+                }
+            }
+            readShard(namespace, id -> ids.contains(id) && !entries.containsKey(id), (id, json) -> {
+                entries.put(id, json);
+                return true;
+            });
+            if (entries.size() < ids.size()) {
+                LOGGER.warn("覆盖分片 {} 中有 {} 个覆盖内容丢失", namespace, ids.size() - entries.size());
+            }
             
+            JsonObject root = new JsonObject();
+            entries.forEach((id, json) -> root.add(id.toString(), json));
+            files.put(shardFile(namespace), GSON.toJson(root));
+        }
+        if (deleteLegacy) {
+            files.put(LEGACY_FILE, null);
+        }
+        return files;
+    }
+    
+    private static void onCompacted(boolean success, Set<String> shards,
+                                    Map<ResourceLocation, JsonObject> pending, boolean deleteLegacy) {
+        synchronized (JOURNAL) {
+            if (!success) {
+                dirtyShards.addAll(shards);
+                return;
+            }
+            // 已写入分片的覆盖改为按需读取；写入期间又被修改的保留在内存
+            for (Map.Entry<ResourceLocation, JsonObject> entry : pending.entrySet()) {
+                if (shards.contains(entry.getKey().getNamespace())
+                        && unsaved.remove(entry.getKey(), entry.getValue())) {
+                    version++;
+                }
+            }
+            if (deleteLegacy) {
+                migrating = false;
+            }
+        }
+    }
+    
+    // ── 分片文件 ──────────────────────────────────────────────────────
+    
+    private static Path shardFile(String namespace) {
+        return SHARD_DIR.resolve(namespace + ".json");
+    }
+    
+    /**
+     * 列出磁盘上已有的分片（命名空间）
+     */
+    private static Set<String> listShards() {
+        Set<String> namespaces = new TreeSet<>();
+        if (!Files.isDirectory(SHARD_DIR)) {
+            return namespaces;
+        }
+        try (Stream<Path> files = Files.list(SHARD_DIR)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(".json"))
+                    .forEach(name -> namespaces.add(name.substring(0, name.length() - 5)));
+        } catch (IOException e) {
+            LOGGER.error("列出覆盖分片失败: " + SHARD_DIR, e);
+        }
+        return namespaces;
+    }
+    
+    private static Set<String> namespacesOf(Set<ResourceLocation> recipeIds) {
+        Set<String> namespaces = new TreeSet<>();
+        for (ResourceLocation recipeId : recipeIds) {
+            namespaces.add(recipeId.getNamespace());
+        }
+        return namespaces;
+    }
+    
+    /**
+     * 流式读取分片文件，只解析 filter 接受的条目，其余直接跳过
+     * @param consumer 返回 false 时停止读取
+     */
+    private static void readShard(String namespace, Predicate<ResourceLocation> filter,
+                                  BiPredicate<ResourceLocation, JsonObject> consumer) throws IOException {
+        Path file = shardFile(namespace);
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                ResourceLocation recipeId = ResourceLocation.tryParse(reader.nextName());
+                if (recipeId == null || !filter.test(recipeId)) {
+                    reader.skipValue();
+                    continue;
+                }
+                JsonElement json = JsonParser.parseReader(reader);
+                if (json.isJsonObject() && !consumer.test(recipeId, json.getAsJsonObject())) {
+                    return;
+                }
+            }
+            reader.endObject();
+        }
+    }
+    
+    /**
+     * 读取一个命名空间下的全部覆盖
+     */
+    private static Map<ResourceLocation, JsonObject> loadNamespace(String namespace) {
+        Map<ResourceLocation, JsonObject> entries = new LinkedHashMap<>();
+        for (Map.Entry<ResourceLocation, JsonObject> entry : unsaved.entrySet()) {
+            if (entry.getKey().getNamespace().equals(namespace)) {
+                entries.put(entry.getKey(), entry.getValue());
+            }
+        }
+        try {
+            readShard(namespace, id -> index.containsKey(id) && !entries.containsKey(id), (id, json) -> {
+                entries.put(id, json);
+                return true;
+            });
+        } catch (Exception e) {
+            LOGGER.error("读取覆盖分片失败: " + shardFile(namespace), e);
+        }
+        return entries;
+    }
+    
+    /**
+     * 所有覆盖的只读视图，遍历时每次只载入一个命名空间
+     */
+    private static class OverridesView extends AbstractMap<ResourceLocation, JsonObject> {
+        @Override
+        public int size() {
+            return index.size();
+        }
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return index.containsKey(key);
+        }
+        
+        @Override
+        public JsonObject get(Object key) {
+            return key instanceof ResourceLocation recipeId ? getOverride(recipeId) : null;
+        }
+        
+        @Override
+        public Set<ResourceLocation> keySet() {
+            return Collections.unmodifiableSet(index.keySet());
+        }
+        
+        @Override
+        public Set<Map.Entry<ResourceLocation, JsonObject>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return index.size();
+                }
+                
+                @Override
+                public Iterator<Map.Entry<ResourceLocation, JsonObject>> iterator() {
+                    Iterator<String> namespaces = namespacesOf(index.keySet()).iterator();
+                    return new Iterator<>() {
+                        private Iterator<Map.Entry<ResourceLocation, JsonObject>> current = Collections.emptyIterator();
+                        
+                        @Override
+                        public boolean hasNext() {
+                            while (!current.hasNext() && namespaces.hasNext()) {
+                                current = loadNamespace(namespaces.next()).entrySet().iterator();
+                            }
+                            return current.hasNext();
+                        }
+                        
+                        @Override
+                        public Map.Entry<ResourceLocation, JsonObject> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            return new AbstractMap.SimpleImmutableEntry<>(current.next());
+                        }
+                    };
+                }
+            };
+        }
+    }
+    
+    /**
+     * 覆盖分片或日志是否被外部修改过（自身写入不算）
+     */
+    public static boolean isModifiedExternally() {
+        return JOURNAL.isModifiedExternally();
+    }
+
+    /**
+     * 获取操作日志文件（供热重载监听）
+     */
+    public static Path getJournalFile() {
+        return JOURNAL.getJournalFile();
+    }
+
+    /**
+     * 重新加载覆盖
+     */
+    public static void reload() {
+        try {
+            LOGGER.info("重新加载配方覆盖...");
+            loadOverrides();
+            LOGGER.info("配方覆盖重新加载完成，当前覆盖配方数量: {}", index.size());
         } catch (Exception e) {
-            LOGGER.error("保存覆盖文件失败: " + OVERRIDES_FILE, e);
+            LOGGER.error("重新加载配方覆盖失败", e);
         }
     }
     
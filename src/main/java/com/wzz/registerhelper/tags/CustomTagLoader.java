@@ -0,0 +1,254 @@
+package com.wzz.registerhelper.tags;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.mojang.logging.LogUtils;
+import com.wzz.registerhelper.recipe.RecipeFileLoader;
+import com.wzz.registerhelper.util.ConfigFileWriter;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.tags.TagEntry;
+import net.minecraft.tags.TagLoader;
+import net.minecraftforge.fml.loading.FMLPaths;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * 自定义标签加载器
+ * 每次资源重载只扫描一次 config/registerhelper/custom_tags，按注册表目录分组，
+ * 各注册表的 TagLoader 只取自己的那一组。
+ *
+ * 目录结构：custom_tags/命名空间/类型/路径.json，类型目录 items 对应 TagLoader 目录 tags/items，
+ * blocks 对应 tags/blocks，其他类型（fluids、entity_types 等）同理
+ */
+public class CustomTagLoader {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final Gson GSON = new Gson();
+    private static final Path TAGS_DIR = FMLPaths.CONFIGDIR.get().resolve("registerhelper/custom_tags");
+
+    // 上次加载时的资源管理器，同一次重载中所有注册表共用同一个
+    private static WeakReference<ResourceManager> loadedFor = new WeakReference<>(null);
+    // 注册表目录 -> 标签ID -> 条目
+    private static Map<String, Map<ResourceLocation, List<TagLoader.EntryWithSource>>> tagsByDirectory = Map.of();
+    // 文件 -> 上次的解析结果（大小和修改时间不变时直接使用）
+    private static final Map<Path, ParsedTag> PARSE_CACHE = new HashMap<>();
+
+    /**
+     * 单个标签文件的解析结果
+     * @param entries 文件无效时为 null
+     */
+    private record ParsedTag(long size, long lastModified, List<TagLoader.EntryWithSource> entries) {
+    }
+
+    private record TagFile(String directory, ResourceLocation tagId, String source, Path path,
+                           long size, long lastModified) {
+    }
+
+    /**
+     * 获取某个注册表目录（如 tags/items）的自定义标签
+     * 同一次重载中第一次调用时加载，之后直接返回
+     */
+    public static synchronized Map<ResourceLocation, List<TagLoader.EntryWithSource>> getTags(
+            ResourceManager resourceManager, String directory) {
+        if (loadedFor.get() != resourceManager) {
+            tagsByDirectory = loadAll();
+            loadedFor = new WeakReference<>(resourceManager);
+        }
+        return tagsByDirectory.getOrDefault(directory, Map.of());
+    }
+
+    /**
+     * 扫描并解析所有自定义标签，未变化的文件使用缓存，其余文件并行解析
+     */
+    private static Map<String, Map<ResourceLocation, List<TagLoader.EntryWithSource>>> loadAll() {
+        // 先写完刚创建、尚在异步写入队列中的标签文件
+        ConfigFileWriter.flushAll();
+
+        Map<String, Map<ResourceLocation, List<TagLoader.EntryWithSource>>> result = new HashMap<>();
+        if (!Files.isDirectory(TAGS_DIR)) {
+            LOGGER.debug("自定义标签目录不存在: {}", TAGS_DIR);
+            PARSE_CACHE.clear();
+            return result;
+        }
+
+        long startTime = System.nanoTime();
+        List<TagFile> tagFiles = scanTagFiles();
+
+        List<Future<List<TagLoader.EntryWithSource>>> futures = new ArrayList<>(tagFiles.size());
+        int cacheHits = 0;
+        for (TagFile tagFile : tagFiles) {
+            ParsedTag cached = PARSE_CACHE.get(tagFile.path);
+            if (cached != null && cached.size == tagFile.size && cached.lastModified == tagFile.lastModified) {
+                futures.add(null);
+                cacheHits++;
+            } else {
+                futures.add(RecipeFileLoader.getExecutor().submit(() -> parseTagFile(tagFile)));
+            }
+        }
+
+        // 按扫描顺序合并，保证结果确定
+        Set<Path> seen = new HashSet<>();
+        int tagCount = 0;
+        for (int i = 0; i < tagFiles.size(); i++) {
+            TagFile tagFile = tagFiles.get(i);
+            seen.add(tagFile.path);
+            List<TagLoader.EntryWithSource> entries;
+            Future<List<TagLoader.EntryWithSource>> future = futures.get(i);
+            if (future == null) {
+                entries = PARSE_CACHE.get(tagFile.path).entries;
+            } else {
+                try {
+                    entries = future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    LOGGER.error("自定义标签加载被中断");
+                    break;
+                } catch (ExecutionException e) {
+                    LOGGER.error("加载标签文件失败: " + tagFile.path, e.getCause());
+                    entries = null;
+                }
+                PARSE_CACHE.put(tagFile.path, new ParsedTag(tagFile.size, tagFile.lastModified, entries));
+            }
+            if (entries != null && !entries.isEmpty()) {
+                result.computeIfAbsent(tagFile.directory, k -> new LinkedHashMap<>()).put(tagFile.tagId, entries);
+                tagCount++;
+            }
+        }
+        // 移除已删除文件的缓存
+        PARSE_CACHE.keySet().retainAll(seen);
+
+        LOGGER.debug("已加载 {} 个自定义标签（{} 个文件使用缓存），耗时 {}ms", tagCount, cacheHits,
+                (System.nanoTime() - startTime) / 1_000_000L);
+        return result;
+    }
+
+    /**
+     * 扫描 命名空间/类型/路径.json，按路径排序
+     */
+    private static List<TagFile> scanTagFiles() {
+        List<TagFile> tagFiles = new ArrayList<>();
+        try (Stream<Path> namespaceDirs = Files.list(TAGS_DIR)) {
+            for (Path namespaceDir : namespaceDirs.filter(Files::isDirectory).sorted().toList()) {
+                String namespace = namespaceDir.getFileName().toString();
+                try (Stream<Path> typeDirs = Files.list(namespaceDir)) {
+                    for (Path typeDir : typeDirs.filter(Files::isDirectory).sorted().toList()) {
+                        scanTypeDir(namespace, typeDir, tagFiles);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("扫描自定义标签目录失败: " + TAGS_DIR, e);
+        }
+        return tagFiles;
+    }
+
+    private static void scanTypeDir(String namespace, Path typeDir, List<TagFile> out) throws IOException {
+        String type = typeDir.getFileName().toString();
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(typeDir)) {
+            files = paths.filter(Files::isRegularFile)
+                    .filter(p -> p.getFileName().toString().endsWith(".json"))
+                    .sorted()
+                    .toList();
+        }
+        for (Path file : files) {
+            try {
+                String relativePath = typeDir.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+                String tagPath = relativePath.substring(0, relativePath.length() - ".json".length());
+                ResourceLocation tagId = new ResourceLocation(namespace, tagPath);
+                String source = "registerhelper:custom/" + namespace + "/" + type + "/" + tagPath;
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                out.add(new TagFile("tags/" + type, tagId, source, file, attrs.size(),
+                        attrs.lastModifiedTime().toMillis()));
+            } catch (Exception e) {
+                LOGGER.error("无效的标签文件路径: " + file, e);
+            }
+        }
+    }
+
+    /**
+     * 解析单个标签文件（在工作线程中执行），文件无效时返回 null
+     */
+    private static List<TagLoader.EntryWithSource> parseTagFile(TagFile tagFile) throws IOException {
+        try (Reader reader = Files.newBufferedReader(tagFile.path, StandardCharsets.UTF_8)) {
+            JsonObject tagJson = GSON.fromJson(reader, JsonObject.class);
+            if (tagJson == null || !tagJson.has("values")) {
+                LOGGER.warn("无效的标签JSON (缺少values字段): {}", tagFile.path);
+                return null;
+            }
+            return List.copyOf(parseTagEntries(tagJson, tagFile.source));
+        }
+    }
+
+    /**
+     * 解析标签条目
+     */
+    private static List<TagLoader.EntryWithSource> parseTagEntries(JsonObject tagJson, String source) {
+        List<TagLoader.EntryWithSource> entries = new ArrayList<>();
+        JsonArray valuesArray = tagJson.getAsJsonArray("values");
+
+        for (JsonElement element : valuesArray) {
+            try {
+                if (element.isJsonPrimitive()) {
+                    // 简单的字符串条目: "minecraft:diamond" - 默认设为可选
+                    String value = element.getAsString();
+                    entries.add(createTagEntry(value, source, false));
+
+                } else if (element.isJsonObject()) {
+                    // 对象条目: {"id": "minecraft:diamond", "required": false}
+                    JsonObject entryObj = element.getAsJsonObject();
+                    String value = entryObj.get("id").getAsString();
+                    // 默认为false（可选），避免加载错误
+                    boolean required = entryObj.has("required") ?
+                            entryObj.get("required").getAsBoolean() : false;
+
+                    entries.add(createTagEntry(value, source, required));
+                }
+
+            } catch (Exception e) {
+                LOGGER.error("解析标签条目失败: " + element, e);
+            }
+        }
+
+        return entries;
+    }
+
+    /**
+     * 创建标签条目
+     */
+    private static TagLoader.EntryWithSource createTagEntry(String value, String source, boolean required) {
+        TagEntry entry;
+
+        if (value.startsWith("#")) {
+            // 标签引用: #minecraft:planks
+            ResourceLocation tagRef = new ResourceLocation(value.substring(1));
+            entry = required ? TagEntry.tag(tagRef) : TagEntry.optionalTag(tagRef);
+        } else {
+            // 普通条目: minecraft:diamond
+            ResourceLocation itemId = new ResourceLocation(value);
+            // 默认设置为可选，避免加载错误
+            entry = required ? TagEntry.element(itemId) : TagEntry.optionalElement(itemId);
+        }
+
+        return new TagLoader.EntryWithSource(entry, source);
+    }
+}
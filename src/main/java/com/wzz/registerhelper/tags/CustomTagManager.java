@@ -5,6 +5,7 @@ import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.mojang.logging.LogUtils;
+import com.wzz.registerhelper.util.ConfigFileWriter;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
@@ -13,9 +14,9 @@ import net.minecraftforge.registries.ForgeRegistries;
 import org.slf4j.Logger;
 
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
@@ -73,13 +74,19 @@ public class CustomTagManager {
      */
     public static boolean removeTag(ResourceLocation tagId) {
         try {
+            // 尚未落盘的标签也算存在
+            boolean wasPending = ConfigFileWriter.isPending(getTagPath(tagId));
+            ConfigFileWriter.cancel(getTagPath(tagId));
             File tagFile = getTagFile(tagId);
             if (tagFile.exists()) {
                 tagFile.delete();
                 LOGGER.info("已删除自定义标签: {}", tagId);
                 return true;
             }
-            return false;
+            if (wasPending) {
+                LOGGER.info("已删除自定义标签: {}", tagId);
+            }
+            return wasPending;
             
         } catch (Exception e) {
             LOGGER.error("删除自定义标签失败: " + tagId, e);
@@ -91,7 +98,7 @@ public class CustomTagManager {
      * 检查标签是否存在
      */
     public static boolean hasTag(ResourceLocation tagId) {
-        return getTagFile(tagId).exists();
+        return ConfigFileWriter.isPending(getTagPath(tagId)) || getTagFile(tagId).exists();
     }
     
     /**
@@ -101,6 +108,15 @@ public class CustomTagManager {
         Set<ResourceLocation> tags = new HashSet<>();
         
         try {
+            // 尚未落盘的标签文件
+            Path tagsRoot = TAGS_DIR.toAbsolutePath().normalize();
+            for (Path pending : ConfigFileWriter.getPendingFiles(tagsRoot)) {
+                ResourceLocation tagId = toTagId(tagsRoot.relativize(pending));
+                if (tagId != null) {
+                    tags.add(tagId);
+                }
+            }
+
             File tagsDir = TAGS_DIR.toFile();
             if (!tagsDir.exists()) {
                 return tags;
@@ -129,6 +145,22 @@ public class CustomTagManager {
         return tags;
     }
     
+    /**
+     * 由相对于标签目录的路径（命名空间/items/路径.json）得到标签ID，不是标签文件时返回 null
+     */
+    private static ResourceLocation toTagId(Path relativePath) {
+        if (relativePath.getNameCount() < 3 || !relativePath.getName(1).toString().equals("items")) {
+            return null;
+        }
+        String path = relativePath.subpath(2, relativePath.getNameCount()).toString()
+                .replace(File.separatorChar, '/');
+        if (!path.endsWith(".json")) {
+            return null;
+        }
+        return new ResourceLocation(relativePath.getName(0).toString(),
+                path.substring(0, path.length() - ".json".length()));
+    }
+
     /**
      * 扫描目录中的标签
      */
@@ -150,9 +182,17 @@ public class CustomTagManager {
     }
     
     /**
-     * 保存标签文件（标准 Minecraft 标签格式）
+     * 保存标签文件（标准 Minecraft 标签格式），由异步写入服务在后台生成内容并原子写入
      */
-    private static void saveTagFile(ResourceLocation tagId, List<Item> items) throws Exception {
+    private static void saveTagFile(ResourceLocation tagId, List<Item> items) {
+        Path tagPath = getTagPath(tagId);
+        List<Item> snapshot = List.copyOf(items);
+        ConfigFileWriter.schedule(tagPath, () -> serialize(snapshot));
+        
+        LOGGER.info("已保存标签文件: {}", tagPath);
+    }
+
+    private static String serialize(List<Item> items) {
         JsonObject tagJson = new JsonObject();
         tagJson.addProperty("replace", false);
         
@@ -162,26 +202,21 @@ public class CustomTagManager {
             valuesArray.add(itemId);
         }
         tagJson.add("values", valuesArray);
-        
-        File tagFile = getTagFile(tagId);
-        Files.createDirectories(tagFile.getParentFile().toPath());
-        
-        try (FileWriter writer = new FileWriter(tagFile)) {
-            GSON.toJson(tagJson, writer);
-        }
-        
-        LOGGER.info("已保存标签文件: {}", tagFile.getPath());
+        return GSON.toJson(tagJson);
     }
     
     /**
      * 获取标签文件路径
      */
     private static File getTagFile(ResourceLocation tagId) {
-        Path tagPath = TAGS_DIR
+        return getTagPath(tagId).toFile();
+    }
+
+    private static Path getTagPath(ResourceLocation tagId) {
+        return TAGS_DIR
                 .resolve(tagId.getNamespace())
                 .resolve("items")
                 .resolve(tagId.getPath() + ".json");
-        return tagPath.toFile();
     }
     
     /**
@@ -191,12 +226,13 @@ public class CustomTagManager {
         List<String> itemIds = new ArrayList<>();
         
         try {
+            ConfigFileWriter.flush(getTagPath(tagId));
             File tagFile = getTagFile(tagId);
             if (!tagFile.exists()) {
                 return itemIds;
             }
             
-            try (FileReader reader = new FileReader(tagFile)) {
+            try (Reader reader = Files.newBufferedReader(tagFile.toPath(), StandardCharsets.UTF_8)) {
                 JsonObject tagJson = GSON.fromJson(reader, JsonObject.class);
                 if (tagJson != null && tagJson.has("values")) {
                     JsonArray values = tagJson.getAsJsonArray("values");
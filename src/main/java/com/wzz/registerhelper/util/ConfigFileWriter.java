@@ -0,0 +1,237 @@
+package com.wzz.registerhelper.util;
+
+import com.mojang.logging.LogUtils;
+import net.minecraftforge.event.server.ServerStoppingEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 配置文件异步写入服务
+ * 所有 registerhelper 配置文件的保存都经过这里：
+ *   同一文件在防抖窗口内的多次保存合并为一次写入，
+ *   序列化和磁盘 I/O 在后台线程进行，
+ *   先写临时文件并刷盘，再原子替换目标文件，
+ *   服务器关闭和进程退出时写完所有待写入的文件
+ */
+@Mod.EventBusSubscriber(modid = "registerhelper")
+public class ConfigFileWriter {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    // 最后一次修改后等待的时间
+    private static final long DEBOUNCE_MILLIS = 250;
+    // 持续修改时最长的等待时间
+    private static final long MAX_DELAY_MILLIS = 2000;
+
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "RegisterHelper-ConfigWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final Map<Path, PendingWrite> PENDING = new ConcurrentHashMap<>();
+    // 每个文件的写入锁和最后写入的序号，保证较旧的内容不会覆盖较新的内容
+    private static final Map<Path, long[]> WRITTEN = new ConcurrentHashMap<>();
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(ConfigFileWriter::flushAll, "RegisterHelper-ConfigWriter-Shutdown"));
+    }
+
+    /**
+     * 待写入的文件
+     */
+    private static class PendingWrite {
+        final long firstScheduled;
+        long sequence;
+        Supplier<String> content;
+        ScheduledFuture<?> future;
+
+        PendingWrite(long firstScheduled) {
+            this.firstScheduled = firstScheduled;
+        }
+    }
+
+    /**
+     * 安排写入文件；防抖窗口内对同一文件的多次调用只写入最后一次的内容
+     * @param content 在后台线程中生成文件内容，调用方需保证它读取的是不会再被修改的数据
+     */
+    public static void schedule(Path file, Supplier<String> content) {
+        Path key = file.toAbsolutePath().normalize();
+        long now = System.currentTimeMillis();
+        synchronized (PENDING) {
+            PendingWrite pending = PENDING.get(key);
+            if (pending == null) {
+                pending = new PendingWrite(now);
+                PENDING.put(key, pending);
+            } else if (pending.future != null) {
+                pending.future.cancel(false);
+            }
+            pending.content = content;
+            pending.sequence = SEQUENCE.incrementAndGet();
+
+            long delay = Math.min(DEBOUNCE_MILLIS, Math.max(0, pending.firstScheduled + MAX_DELAY_MILLIS - now));
+            pending.future = EXECUTOR.schedule(() -> writePending(key), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 取消尚未写入的保存（例如文件随后被删除）
+     */
+    public static void cancel(Path file) {
+        Path key = file.toAbsolutePath().normalize();
+        synchronized (PENDING) {
+            PendingWrite pending = PENDING.remove(key);
+            if (pending != null && pending.future != null) {
+                pending.future.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * 文件是否有尚未写入的保存
+     */
+    public static boolean isPending(Path file) {
+        return PENDING.containsKey(file.toAbsolutePath().normalize());
+    }
+
+    /**
+     * 目录下有尚未写入的保存的文件（例如列出目录时合并还没落盘的新文件）
+     */
+    public static List<Path> getPendingFiles(Path dir) {
+        Path prefix = dir.toAbsolutePath().normalize();
+        List<Path> files = new ArrayList<>();
+        for (Path key : PENDING.keySet()) {
+            if (key.startsWith(prefix)) {
+                files.add(key);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * 立即写入某个文件尚未写入的内容（读取文件之前调用）
+     */
+    public static void flush(Path file) {
+        Path key = file.toAbsolutePath().normalize();
+        if (PENDING.containsKey(key)) {
+            writePending(key);
+        }
+    }
+
+    /**
+     * 在写入线程上执行任务，与文件写入串行（例如日志压缩）
+     */
+    public static Future<?> execute(Runnable task) {
+        return EXECUTOR.submit(task);
+    }
+
+    /**
+     * 写入所有待写入的文件，并等待写入线程上已提交的任务完成
+     */
+    public static void flushAll() {
+        List<Path> keys;
+        synchronized (PENDING) {
+            keys = new ArrayList<>(PENDING.keySet());
+        }
+        for (Path key : keys) {
+            writePending(key);
+        }
+
+        try {
+            EXECUTOR.submit(() -> { }).get(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            LOGGER.warn("等待配置文件写入完成超时: {}", e.toString());
+        }
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onServerStopping(ServerStoppingEvent event) {
+        flushAll();
+    }
+
+    private static void writePending(Path key) {
+        PendingWrite pending;
+        synchronized (PENDING) {
+            pending = PENDING.remove(key);
+            if (pending == null) {
+                return;
+            }
+            if (pending.future != null) {
+                pending.future.cancel(false);
+            }
+        }
+
+        // 同一文件的写入互斥，避免 flush 与后台写入交错
+        long[] written = WRITTEN.computeIfAbsent(key, k -> new long[1]);
+        synchronized (written) {
+            if (pending.sequence < written[0]) {
+                return;
+            }
+            written[0] = pending.sequence;
+            try {
+                writeAtomically(key, pending.content.get());
+                LOGGER.debug("配置文件已保存: {}", key);
+            } catch (Exception e) {
+                LOGGER.error("保存配置文件失败: " + key, e);
+            }
+        }
+    }
+
+    /**
+     * 写入临时文件、刷盘后原子替换目标文件（同步）
+     */
+    public static void writeAtomically(Path file, String content) throws IOException {
+        moveIntoPlace(writeTemp(file, content), file);
+    }
+
+    /**
+     * 写入并刷盘同目录下的临时文件，返回临时文件路径
+     */
+    public static Path writeTemp(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        return tempFile;
+    }
+
+    /**
+     * 用临时文件原子替换目标文件
+     */
+    public static void moveIntoPlace(Path tempFile, Path file) throws IOException {
+        try {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.wzz.registerhelper.util;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.mojang.logging.LogUtils;
+import org.slf4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 配置操作日志（追加写）
+ * 每次修改只追加一条记录并 fsync，加载时在快照文件之上重放；
+ * 日志超过阈值后在后台把内存状态写成新快照，再删除旧日志
+ *
+ * 记录格式：一行一条，"crc32(8位十六进制) JSON"，末尾不完整或校验失败的记录在重放时被截掉
+ * 压缩时先把日志轮换为 .old，快照写完后才删除 .old，任意时刻崩溃都能从 快照 + .old + 日志 恢复
+ * （记录都是“设置为某值/移除/清空”，重复重放结果不变）
+ * 快照可以是单个文件，也可以是目录下的多个分片文件（见 {@link #compactFiles}）
+ */
+public class ConfigJournal {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    // 日志超过该大小后触发压缩
+    private static final long COMPACT_THRESHOLD_BYTES = 512 * 1024;
+
+    private final Path snapshotFile;
+    private final Path snapshotDir;
+    private final Path journalFile;
+    private final Path oldJournalFile;
+    private boolean compacting = false;
+    // 最近一次自身读写后的文件状态，用于区分外部修改
+    private volatile String lastStamp = "";
+
+    /**
+     * 快照内容：目标文件 -> 文件文本，值为 null 表示删除该文件
+     */
+    @FunctionalInterface
+    public interface SnapshotSupplier {
+        Map<Path, String> get() throws IOException;
+    }
+
+    /**
+     * @param snapshotFile 快照文件（原有的JSON配置文件），日志文件与其放在同一目录
+     */
+    public ConfigJournal(Path snapshotFile) {
+        this(snapshotFile, null);
+    }
+
+    /**
+     * @param snapshotFile 快照文件，日志文件按其名称命名并与其放在同一目录
+     * @param snapshotDir 分片快照目录，其中的 .json 文件也计入外部修改检测（可为 null）
+     */
+    public ConfigJournal(Path snapshotFile, Path snapshotDir) {
+        this.snapshotFile = snapshotFile;
+        this.snapshotDir = snapshotDir;
+        String name = snapshotFile.getFileName().toString();
+        String baseName = name.endsWith(".json") ? name.substring(0, name.length() - 5) : name;
+        this.journalFile = snapshotFile.resolveSibling(baseName + ".journal");
+        this.oldJournalFile = snapshotFile.resolveSibling(baseName + ".journal.old");
+    }
+
+    public Path getJournalFile() {
+        return journalFile;
+    }
+
+    public Path getOldJournalFile() {
+        return oldJournalFile;
+    }
+
+    /**
+     * 追加一条记录并刷盘
+     */
+    public void append(JsonObject record) throws IOException {
+        append(List.of(record));
+    }
+
+    /**
+     * 追加多条记录，只刷盘一次
+     */
+    public synchronized void append(List<JsonObject> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (JsonObject record : records) {
+            String json = record.toString();
+            CRC32 crc = new CRC32();
+            crc.update(json.getBytes(StandardCharsets.UTF_8));
+            sb.append(String.format("%08x", crc.getValue())).append(' ').append(json).append('\n');
+        }
+
+        Files.createDirectories(journalFile.getParent());
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        lastStamp = currentStamp();
+    }
+
+    /**
+     * 按顺序重放 .old 和当前日志中的记录
+     * @return 重放的记录数量
+     */
+    public synchronized int replay(Consumer<JsonObject> consumer) {
+        int count = replayFile(oldJournalFile, consumer) + replayFile(journalFile, consumer);
+        lastStamp = currentStamp();
+        return count;
+    }
+
+    /**
+     * 快照或日志在最近一次加载/写入之后是否被外部修改（例如手动编辑配置文件）
+     */
+    public boolean isModifiedExternally() {
+        return !currentStamp().equals(lastStamp);
+    }
+
+    private String currentStamp() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(stamp(snapshotFile)).append('|').append(stamp(journalFile)).append('|').append(stamp(oldJournalFile));
+        if (snapshotDir != null && Files.isDirectory(snapshotDir)) {
+            try (Stream<Path> files = Files.list(snapshotDir)) {
+                files.filter(file -> file.getFileName().toString().endsWith(".json"))
+                        .sorted()
+                        .forEach(file -> sb.append('|').append(file.getFileName()).append('=').append(stamp(file)));
+            } catch (IOException e) {
+                sb.append("|?");
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String stamp(Path file) {
+        try {
+            return Files.size(file) + "@" + Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return "-";
+        }
+    }
+
+    private int replayFile(Path file, Consumer<JsonObject> consumer) {
+        if (!Files.isRegularFile(file)) {
+            return 0;
+        }
+
+        int count = 0;
+        long validBytes = 0;
+        try (InputStream in = Files.newInputStream(file);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            long fileSize = Files.size(file);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JsonObject record = parseRecord(line);
+                long lineBytes = line.getBytes(StandardCharsets.UTF_8).length + 1;
+                if (record == null || validBytes + lineBytes > fileSize) {
+                    break;
+                }
+                consumer.accept(record);
+                validBytes += lineBytes;
+                count++;
+            }
+
+            if (validBytes < fileSize) {
+                LOGGER.warn("配置日志 {} 末尾有 {} 字节不完整的记录，已截断", file, fileSize - validBytes);
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(validBytes);
+                    channel.force(false);
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.error("重放配置日志失败: " + file, e);
+        }
+        return count;
+    }
+
+    private static JsonObject parseRecord(String line) {
+        int space = line.indexOf(' ');
+        if (space != 8) {
+            return null;
+        }
+        try {
+            String json = line.substring(space + 1);
+            CRC32 crc = new CRC32();
+            crc.update(json.getBytes(StandardCharsets.UTF_8));
+            if (crc.getValue() != Long.parseLong(line.substring(0, space), 16)) {
+                return null;
+            }
+            return JsonParser.parseString(json).getAsJsonObject();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 日志是否已超过压缩阈值
+     */
+    public boolean needsCompaction() {
+        try {
+            return Files.isRegularFile(journalFile) && Files.size(journalFile) > COMPACT_THRESHOLD_BYTES;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 开始压缩：轮换日志后在写入线程上写入快照（没有日志时直接写入快照）
+     * 调用方需保证 snapshot 捕获的状态与轮换时刻一致（在同一把锁内调用）
+     * @param snapshot 在后台线程中生成快照文本
+     */
+    public synchronized void compact(Supplier<String> snapshot) {
+        compactFiles(() -> Map.of(snapshotFile, snapshot.get()), null);
+    }
+
+    /**
+     * 压缩为多个快照文件（分片存储）
+     * @param snapshot 在后台线程中生成各文件内容
+     * @param onComplete 压缩结束后调用，参数表示快照是否已写入；未开始（正在压缩或轮换失败）时同步以 false 调用
+     */
+    public synchronized void compactFiles(SnapshotSupplier snapshot, Consumer<Boolean> onComplete) {
+        if (compacting) {
+            notifyComplete(onComplete, false);
+            return;
+        }
+        try {
+            if (Files.exists(oldJournalFile)) {
+                // 上次压缩未完成（进程中途退出）：把当前日志并入 .old，快照同样在写入线程上写
+                if (Files.isRegularFile(journalFile)) {
+                    mergeIntoOldJournal();
+                }
+            } else if (Files.isRegularFile(journalFile)) {
+                Files.move(journalFile, oldJournalFile, StandardCopyOption.ATOMIC_MOVE);
+            }
+            lastStamp = currentStamp();
+        } catch (IOException e) {
+            LOGGER.error("轮换配置日志失败: " + journalFile, e);
+            notifyComplete(onComplete, false);
+            return;
+        }
+
+        compacting = true;
+        ConfigFileWriter.execute(() -> {
+            boolean success = false;
+            try {
+                writeSnapshot(snapshot.get());
+                success = true;
+                LOGGER.debug("配置日志已压缩: {}", snapshotFile);
+            } catch (Exception e) {
+                LOGGER.error("压缩配置日志失败: " + snapshotFile, e);
+            } finally {
+                synchronized (this) {
+                    compacting = false;
+                }
+            }
+            notifyComplete(onComplete, success);
+        });
+    }
+
+    private static void notifyComplete(Consumer<Boolean> onComplete, boolean success) {
+        if (onComplete != null) {
+            onComplete.accept(success);
+        }
+    }
+
+    /**
+     * 把当前日志追加到 .old 末尾并刷盘后删除当前日志
+     * 中途崩溃时部分记录会在 .old 和日志中各重放一次，记录可重复重放，结果不变
+     */
+    private void mergeIntoOldJournal() throws IOException {
+        try (FileChannel in = FileChannel.open(journalFile, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(oldJournalFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long position = 0;
+            long size = in.size();
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+            out.force(false);
+        }
+        Files.delete(journalFile);
+    }
+
+    /**
+     * 写快照：耗时的写临时文件在锁外进行，替换/删除快照文件和删除 .old 在锁内完成，
+     * 保证持有锁读取 快照 + 日志 的一方看到一致的状态
+     */
+    private void writeSnapshot(Map<Path, String> files) throws IOException {
+        Map<Path, Path> tempFiles = new LinkedHashMap<>();
+        for (Map.Entry<Path, String> entry : files.entrySet()) {
+            if (entry.getValue() != null) {
+                tempFiles.put(entry.getKey(), ConfigFileWriter.writeTemp(entry.getKey(), entry.getValue()));
+            }
+        }
+        synchronized (this) {
+            for (Map.Entry<Path, Path> entry : tempFiles.entrySet()) {
+                ConfigFileWriter.moveIntoPlace(entry.getValue(), entry.getKey());
+            }
+            for (Map.Entry<Path, String> entry : files.entrySet()) {
+                if (entry.getValue() == null) {
+                    Files.deleteIfExists(entry.getKey());
+                }
+            }
+            Files.deleteIfExists(oldJournalFile);
+            lastStamp = currentStamp();
+        }
+    }
+}
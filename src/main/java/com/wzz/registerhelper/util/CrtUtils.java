@@ -6,6 +6,7 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.wzz.registerhelper.recipe.RecipeBundle;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraftforge.fml.ModList;
 import net.minecraftforge.fml.loading.FMLPaths;
@@ -14,7 +15,6 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
-import java.util.stream.Stream;
 
 public class CrtUtils {
     private static final String NEW_LINE = System.lineSeparator() + "\t";
@@ -367,34 +367,17 @@ public class CrtUtils {
 
     // ==================== 主要导出方法 ====================
     
-    public static List<Path> getAllJsonRecipeFiles() {
-        List<Path> jsonFiles = new ArrayList<>();
-        try {
-            Path recipesDir = FMLPaths.CONFIGDIR.get().resolve("registerhelper/recipes");
-
-            if (Files.exists(recipesDir)) {
-                try (Stream<Path> paths = Files.walk(recipesDir)) {
-                    paths.filter(Files::isRegularFile)
-                            .filter(path -> path.toString().endsWith(".json"))
-                            .forEach(jsonFiles::add);
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        return jsonFiles;
-    }
-    
     public static void exportAllJsonRecipesToZS(boolean singleFile) {
-        List<Path> jsonFiles = getAllJsonRecipeFiles();
         Path recipesBaseDir = FMLPaths.CONFIGDIR.get().resolve("registerhelper/recipes");
+        // 包含 .rhpack 打包文件中的配方，散装文件优先
+        List<RecipeBundle.Source> jsonFiles = RecipeBundle.collectSources(recipesBaseDir);
 
         if (singleFile) {
             Map<String, List<String>> recipesByMod = new LinkedHashMap<>();
             
-            for (Path jsonFile : jsonFiles) {
+            for (RecipeBundle.Source jsonFile : jsonFiles) {
                 try {
-                    String jsonContent = Files.readString(jsonFile);
+                    String jsonContent = jsonFile.read();
                     JsonObject recipeJson = JsonParser.parseString(jsonContent).getAsJsonObject();
                     String recipeType = recipeJson.get("type").getAsString();
                     
@@ -410,7 +393,7 @@ public class CrtUtils {
                     recipesByMod.computeIfAbsent(modName, k -> new ArrayList<>()).add(zsScript);
                     
                 } catch (Exception e) {
-                    System.out.println("解析配方失败: " + jsonFile);
+                    System.out.println("解析配方失败: " + jsonFile.relativePath());
                     e.printStackTrace();
                 }
             }
@@ -438,15 +421,14 @@ public class CrtUtils {
             }
 
         } else {
-            for (Path jsonFile : jsonFiles) {
+            for (RecipeBundle.Source jsonFile : jsonFiles) {
                 try {
-                    Path relativePath = recipesBaseDir.relativize(jsonFile);
-                    String fileName = relativePath.toString()
+                    String fileName = jsonFile.relativePath()
                             .replace(".json", "")
                             .replace("\\", "_")
                             .replace("/", "_");
 
-                    String jsonContent = Files.readString(jsonFile);
+                    String jsonContent = jsonFile.read();
                     JsonObject recipeJson = JsonParser.parseString(jsonContent).getAsJsonObject();
                     String recipeType = recipeJson.get("type").getAsString();
                     
@@ -463,7 +445,7 @@ public class CrtUtils {
                     Files.writeString(scriptsDir.resolve(fileName + ".zs"), zsScript);
                     
                 } catch (Exception e) {
-                    System.out.println("导出配方失败: " + jsonFile);
+                    System.out.println("导出配方失败: " + jsonFile.relativePath());
                     e.printStackTrace();
                 }
             }
@@ -0,0 +1,151 @@
+package com.wzz.registerhelper.util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.internal.LazilyParsedNumber;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * JSON 二进制编解码
+ * 以紧凑的二进制形式保存已解析的JSON树，解码时不需要再做文本解析
+ * 数字按原始文本保存，解码结果与 Gson 解析原文件得到的树完全一致
+ */
+public class JsonBinaryCodec {
+    private static final int TAG_NULL = 0;
+    private static final int TAG_OBJECT = 1;
+    private static final int TAG_ARRAY = 2;
+    private static final int TAG_STRING = 3;
+    private static final int TAG_NUMBER = 4;
+    private static final int TAG_TRUE = 5;
+    private static final int TAG_FALSE = 6;
+
+    public static byte[] encode(JsonElement element) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            write(new DataOutputStream(bytes), element);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // ByteArrayOutputStream 不会抛出 IOException
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static JsonElement decode(byte[] data) throws IOException {
+        return read(new DataInputStream(new ByteArrayInputStream(data)));
+    }
+
+    public static void write(DataOutput out, JsonElement element) throws IOException {
+        if (element == null || element.isJsonNull()) {
+            out.writeByte(TAG_NULL);
+        } else if (element.isJsonObject()) {
+            JsonObject obj = element.getAsJsonObject();
+            out.writeByte(TAG_OBJECT);
+            writeVarInt(out, obj.size());
+            for (Map.Entry<String, JsonElement> entry : obj.entrySet()) {
+                writeString(out, entry.getKey());
+                write(out, entry.getValue());
+            }
+        } else if (element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            out.writeByte(TAG_ARRAY);
+            writeVarInt(out, array.size());
+            for (JsonElement child : array) {
+                write(out, child);
+            }
+        } else {
+            JsonPrimitive primitive = element.getAsJsonPrimitive();
+            if (primitive.isBoolean()) {
+                out.writeByte(primitive.getAsBoolean() ? TAG_TRUE : TAG_FALSE);
+            } else if (primitive.isNumber()) {
+                out.writeByte(TAG_NUMBER);
+                writeString(out, primitive.getAsNumber().toString());
+            } else {
+                out.writeByte(TAG_STRING);
+                writeString(out, primitive.getAsString());
+            }
+        }
+    }
+
+    public static JsonElement read(DataInput in) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case TAG_NULL:
+                return JsonNull.INSTANCE;
+            case TAG_OBJECT: {
+                int size = readVarInt(in);
+                JsonObject obj = new JsonObject();
+                for (int i = 0; i < size; i++) {
+                    String key = readString(in);
+                    obj.add(key, read(in));
+                }
+                return obj;
+            }
+            case TAG_ARRAY: {
+                int size = readVarInt(in);
+                JsonArray array = new JsonArray(size);
+                for (int i = 0; i < size; i++) {
+                    array.add(read(in));
+                }
+                return array;
+            }
+            case TAG_STRING:
+                return new JsonPrimitive(readString(in));
+            case TAG_NUMBER:
+                return new JsonPrimitive(new LazilyParsedNumber(readString(in)));
+            case TAG_TRUE:
+                return new JsonPrimitive(true);
+            case TAG_FALSE:
+                return new JsonPrimitive(false);
+            default:
+                throw new IOException("未知的JSON二进制标记: " + tag);
+        }
+    }
+
+    public static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    public static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (shift >= 35) {
+                throw new IOException("VarInt 过长");
+            }
+            b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    public static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readString(DataInput in) throws IOException {
+        int length = readVarInt(in);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
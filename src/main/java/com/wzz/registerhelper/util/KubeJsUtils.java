@@ -4,6 +4,7 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.wzz.registerhelper.recipe.RecipeBundle;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.item.ItemStack;
@@ -14,7 +15,6 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
-import java.util.stream.Stream;
 
 public class KubeJsUtils {
     
@@ -454,35 +454,18 @@ public class KubeJsUtils {
 
     // ==================== 主要导出方法 ====================
     
-    public static List<Path> getAllJsonRecipeFiles() {
-        List<Path> jsonFiles = new ArrayList<>();
-        try {
-            Path recipesDir = FMLPaths.CONFIGDIR.get().resolve("registerhelper/recipes");
-            
-            if (Files.exists(recipesDir)) {
-                try (Stream<Path> paths = Files.walk(recipesDir)) {
-                    paths.filter(Files::isRegularFile)
-                         .filter(path -> path.toString().endsWith(".json"))
-                         .forEach(jsonFiles::add);
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        return jsonFiles;
-    }
-    
     public static void exportAllJsonRecipesToJS(boolean singleFile) {
-        List<Path> jsonFiles = getAllJsonRecipeFiles();
         Path recipesBaseDir = FMLPaths.CONFIGDIR.get().resolve("registerhelper/recipes");
+        // 包含 .rhpack 打包文件中的配方，散装文件优先
+        List<RecipeBundle.Source> jsonFiles = RecipeBundle.collectSources(recipesBaseDir);
 
         if (singleFile) {
             // 按配方类型分组
             Map<String, List<String>> recipesByMod = new LinkedHashMap<>();
             
-            for (Path jsonFile : jsonFiles) {
+            for (RecipeBundle.Source jsonFile : jsonFiles) {
                 try {
-                    String jsonContent = Files.readString(jsonFile);
+                    String jsonContent = jsonFile.read();
                     JsonObject recipeJson = JsonParser.parseString(jsonContent).getAsJsonObject();
                     String recipeType = recipeJson.get("type").getAsString();
                     
@@ -498,7 +481,7 @@ public class KubeJsUtils {
                     recipesByMod.computeIfAbsent(modName, k -> new ArrayList<>()).add(jsScript);
                     
                 } catch (Exception e) {
-                    System.out.println("解析配方失败: " + jsonFile);
+                    System.out.println("解析配方失败: " + jsonFile.relativePath());
                     e.printStackTrace();
                 }
             }
@@ -540,15 +523,14 @@ public class KubeJsUtils {
 
         } else {
             // 按目录结构分文件导出
-            for (Path jsonFile : jsonFiles) {
+            for (RecipeBundle.Source jsonFile : jsonFiles) {
                 try {
-                    Path relativePath = recipesBaseDir.relativize(jsonFile);
-                    String fileName = relativePath.toString()
+                    String fileName = jsonFile.relativePath()
                             .replace(".json", "")
                             .replace("\\", "_")
                             .replace("/", "_");
                     
-                    String jsonContent = Files.readString(jsonFile);
+                    String jsonContent = jsonFile.read();
                     JsonObject recipeJson = JsonParser.parseString(jsonContent).getAsJsonObject();
                     String recipeType = recipeJson.get("type").getAsString();
                     
@@ -578,7 +560,7 @@ public class KubeJsUtils {
                     Files.writeString(outputPath, content.toString());
                     
                 } catch (Exception e) {
-                    System.out.println("导出配方失败: " + jsonFile);
+                    System.out.println("导出配方失败: " + jsonFile.relativePath());
                     e.printStackTrace();
                 }
             }
@@ -6,6 +6,11 @@ import net.minecraftforge.fml.loading.FMLPaths;
 import org.slf4j.Logger;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 
@@ -71,8 +76,8 @@ public class NbtIgnorePresetManager {
             return;
         }
 
-        try (FileReader reader = new FileReader(file)) {
-            JsonObject root = GSON.fromJson(reader, JsonObject.class);
+        try {
+            JsonObject root = GSON.fromJson(readText(PRESET_FILE), JsonObject.class);
             if (root != null && root.has("presets")) {
                 for (JsonElement el : root.getAsJsonArray("presets")) {
                     JsonObject obj = el.getAsJsonObject();
@@ -88,31 +93,41 @@ public class NbtIgnorePresetManager {
         }
     }
 
+    /**
+     * 读取文件文本：按 UTF-8 解码，旧版本用系统默认编码写入的文件回退到默认编码
+     */
+    private static String readText(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        try {
+            return StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes)).toString();
+        } catch (CharacterCodingException e) {
+            return new String(bytes, Charset.defaultCharset());
+        }
+    }
+
     // ── 写入 ──────────────────────────────────────────────────────
 
+    /**
+     * 交给异步写入服务保存（防抖合并、原子替换）
+     */
     private static void save() {
-        try {
-            File file = PRESET_FILE.toFile();
-            file.getParentFile().mkdirs();
-
-            JsonObject root = new JsonObject();
-            JsonArray arr = new JsonArray();
-            for (Preset p : presets) {
-                JsonObject obj = new JsonObject();
-                obj.addProperty("name", p.name());
-                JsonArray keys = new JsonArray();
-                p.keys().forEach(keys::add);
-                obj.add("keys", keys);
-                arr.add(obj);
-            }
-            root.add("presets", arr);
+        List<Preset> snapshot = List.copyOf(presets);
+        ConfigFileWriter.schedule(PRESET_FILE, () -> serialize(snapshot));
+    }
 
-            try (FileWriter writer = new FileWriter(file)) {
-                GSON.toJson(root, writer);
-            }
-        } catch (Exception e) {
-            LOGGER.error("[RegisterHelper] 保存 NBT 忽略预设失败", e);
+    private static String serialize(List<Preset> presets) {
+        JsonObject root = new JsonObject();
+        JsonArray arr = new JsonArray();
+        for (Preset p : presets) {
+            JsonObject obj = new JsonObject();
+            obj.addProperty("name", p.name());
+            JsonArray keys = new JsonArray();
+            p.keys().forEach(keys::add);
+            obj.add("keys", keys);
+            arr.add(obj);
         }
+        root.add("presets", arr);
+        return GSON.toJson(root);
     }
 
     /**
@@ -8,14 +8,26 @@ import java.util.function.Function;
 /**
  * 拼音搜索助手 - 通用的拼音搜索工具类
  * 支持中文、拼音、首字母、mod过滤等多种搜索方式
+ *
+ * buildCache 时为 ID、显示名称、完整拼音、首字母、无空格拼音建立三字符片段（trigram）倒排索引，
+ * 搜索词编译一次后求各片段倒排表的交集得到候选，再逐个确认，搜索开销接近结果数量而不是对象总数
  * 
  * @param <T> 被搜索的对象类型
  */
 public class PinyinSearchHelper<T> {
     
-    private final Map<T, PinyinInfo> pinyinCache = new HashMap<>();
+    private static final int GRAM = 3;
+
     private final Function<T, String> displayNameGetter;
     private final Function<T, String> idGetter;
+
+    // 已建立索引的对象（按加入顺序）
+    private final Map<T, Indexed<T>> indexed = new HashMap<>();
+    private final List<Indexed<T>> ordered = new ArrayList<>();
+    // 片段 -> 包含该片段的对象序号（递增）
+    private final Map<Long, IntList> postings = new HashMap<>();
+    // 上一次编译的搜索词（同一个搜索词逐个调用 matches 时不再重复解析）
+    private Query lastQuery;
     
     /**
      * 拼音信息类
@@ -45,6 +57,66 @@ public class PinyinSearchHelper<T> {
         }
     }
     
+    /**
+     * 索引中的一个对象，预先计算好小写的ID、名称和拼音
+     */
+    private static final class Indexed<T> {
+        final T item;
+        final int ordinal;
+        final String id;           // 小写ID，可能为 null
+        final String name;         // 小写显示名称，可能为 null
+        final PinyinInfo pinyin;
+        final String[] pinyinWords;
+
+        Indexed(T item, int ordinal, String id, String name, PinyinInfo pinyin) {
+            this.item = item;
+            this.ordinal = ordinal;
+            this.id = id;
+            this.name = name;
+            this.pinyin = pinyin;
+            this.pinyinWords = pinyin.fullPinyin.split("\\s+");
+        }
+    }
+
+    /**
+     * 编译后的搜索词
+     */
+    private static final class Query {
+        final String text;
+        final SearchFilter filter;
+        final String lowerSearch;
+        final String[] searchWords;
+        // 候选对象序号，null 表示搜索词太短、无法用索引缩小范围
+        final BitSet candidates;
+
+        Query(String text, SearchFilter filter, String lowerSearch, String[] searchWords, BitSet candidates) {
+            this.text = text;
+            this.filter = filter;
+            this.lowerSearch = lowerSearch;
+            this.searchWords = searchWords;
+            this.candidates = candidates;
+        }
+    }
+
+    /**
+     * 递增的 int 列表（倒排表）
+     */
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int last() {
+            return size > 0 ? values[size - 1] : -1;
+        }
+    }
+    
     /**
      * 构造函数
      * @param displayNameGetter 获取显示名称的函数
@@ -56,22 +128,61 @@ public class PinyinSearchHelper<T> {
     }
     
     /**
-     * 构建拼音缓存
+     * 构建拼音缓存和搜索索引
      */
     public void buildCache(Collection<T> items) {
-        pinyinCache.clear();
+        clearCache();
+        addToCache(items);
+    }
+    
+    /**
+     * 向缓存和索引追加对象（不清除已有缓存，用于分批加载的列表）
+     */
+    public void addToCache(Collection<T> items) {
         for (T item : items) {
+            if (indexed.containsKey(item)) {
+                continue;
+            }
             String displayName = displayNameGetter.apply(item);
-            PinyinInfo pinyinInfo = convertToPinyinInfo(displayName);
-            pinyinCache.put(item, pinyinInfo);
+            String id = idGetter.apply(item);
+            Indexed<T> entry = new Indexed<>(item, ordered.size(),
+                    id != null ? id.toLowerCase() : null,
+                    displayName != null ? displayName.toLowerCase() : null,
+                    convertToPinyinInfo(displayName));
+            indexed.put(item, entry);
+            ordered.add(entry);
+            indexGrams(entry, entry.id);
+            indexGrams(entry, entry.name);
+            indexGrams(entry, entry.pinyin.fullPinyin);
+            indexGrams(entry, entry.pinyin.initials);
+            indexGrams(entry, entry.pinyin.nospace);
+        }
+        lastQuery = null;
+    }
+
+    private void indexGrams(Indexed<T> entry, String text) {
+        if (text == null) {
+            return;
+        }
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            IntList list = postings.computeIfAbsent(gramKey(text, i), k -> new IntList());
+            // 同一对象的多个字段可能含有相同片段，只记录一次
+            if (list.last() != entry.ordinal) {
+                list.add(entry.ordinal);
+            }
         }
     }
+
+    private static long gramKey(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
     
     /**
      * 获取缓存的拼音信息
      */
     public PinyinInfo getPinyinInfo(T item) {
-        return pinyinCache.get(item);
+        Indexed<T> entry = indexed.get(item);
+        return entry != null ? entry.pinyin : null;
     }
     
     /**
@@ -83,24 +194,13 @@ public class PinyinSearchHelper<T> {
         }
         
         try {
-            String fullPinyin = Pinyin.toPinyin(text, " ").toLowerCase();
-            StringBuilder initials = new StringBuilder();
-            StringBuilder nospace = new StringBuilder();
-            
-            for (char c : text.toCharArray()) {
-                if (Pinyin.isChinese(c)) {
-                    String pinyin = Pinyin.toPinyin(c).toLowerCase();
-                    if (!pinyin.isEmpty()) {
-                        initials.append(pinyin.charAt(0));
-                        nospace.append(pinyin);
-                    }
-                } else {
-                    initials.append(Character.toLowerCase(c));
-                    nospace.append(Character.toLowerCase(c));
-                }
-            }
-            
-            return new PinyinInfo(fullPinyin, initials.toString(), nospace.toString());
+            // 一次遍历同时得到三种形式
+            StringBuilder fullPinyin = new StringBuilder(text.length() * 4);
+            StringBuilder initials = new StringBuilder(text.length());
+            StringBuilder nospace = new StringBuilder(text.length() * 3);
+            Pinyin.toPinyin(text, " ", fullPinyin, initials, nospace);
+
+            return new PinyinInfo(fullPinyin.toString(), initials.toString(), nospace.toString());
             
         } catch (Exception e) {
             return new PinyinInfo(text.toLowerCase(), text.toLowerCase(), text.toLowerCase());
@@ -153,39 +253,124 @@ public class PinyinSearchHelper<T> {
     }
     
     /**
-     * 检查对象是否匹配搜索条件
+     * 编译搜索词：解析mod过滤器，并用必须出现的子串求候选集合
+     * 单个搜索词必须出现在某个字段中；多个搜索词时每个词都必须出现（整体匹配或分词拼音前缀匹配都满足这一点）
      */
-    public boolean matches(T item, String searchText) {
+    private Query compile(String searchText) {
+        Query cached = lastQuery;
+        if (cached != null && cached.text.equals(searchText)) {
+            return cached;
+        }
+
         SearchFilter filter = parseModFilter(searchText);
-        
-        // 检查mod过滤
+        String lowerSearch = filter.searchText.toLowerCase().trim();
+        String[] searchWords = lowerSearch.isEmpty() ? new String[0] : lowerSearch.split("\\s+");
+
+        List<String> required = new ArrayList<>();
         if (filter.modFilter != null) {
+            required.add(filter.modFilter);
+        }
+        if (searchWords.length > 1) {
+            required.addAll(Arrays.asList(searchWords));
+        } else if (!lowerSearch.isEmpty()) {
+            required.add(lowerSearch);
+        }
+
+        Query query = new Query(searchText, filter, lowerSearch, searchWords, findCandidates(required));
+        lastQuery = query;
+        return query;
+    }
+
+    /**
+     * 求所有子串的全部片段倒排表的交集；没有足够长的子串时返回 null
+     */
+    private BitSet findCandidates(List<String> required) {
+        List<IntList> lists = new ArrayList<>();
+        for (String text : required) {
+            for (int i = 0; i + GRAM <= text.length(); i++) {
+                IntList list = postings.get(gramKey(text, i));
+                if (list == null) {
+                    return new BitSet();
+                }
+                lists.add(list);
+            }
+        }
+        if (lists.isEmpty()) {
+            return null;
+        }
+
+        // 从最短的倒排表开始求交集
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        IntList first = lists.get(0);
+        int[] result = Arrays.copyOf(first.values, first.size);
+        int size = first.size;
+        for (int l = 1; l < lists.size() && size > 0; l++) {
+            IntList other = lists.get(l);
+            int kept = 0;
+            int from = 0;
+            for (int i = 0; i < size; i++) {
+                int pos = Arrays.binarySearch(other.values, from, other.size, result[i]);
+                if (pos >= 0) {
+                    result[kept++] = result[i];
+                    from = pos + 1;
+                } else {
+                    from = -pos - 1;
+                }
+            }
+            size = kept;
+        }
+
+        BitSet candidates = new BitSet(ordered.size());
+        for (int i = 0; i < size; i++) {
+            candidates.set(result[i]);
+        }
+        return candidates;
+    }
+
+    /**
+     * 检查对象是否匹配搜索条件
+     */
+    public boolean matches(T item, String searchText) {
+        Query query = compile(searchText);
+        Indexed<T> entry = indexed.get(item);
+        if (entry == null) {
             String id = idGetter.apply(item);
-            if (id == null || !id.toLowerCase().contains(filter.modFilter)) {
+            String displayName = displayNameGetter.apply(item);
+            return matches(query, id != null ? id.toLowerCase() : null,
+                    displayName != null ? displayName.toLowerCase() : null, null, null);
+        }
+        if (query.candidates != null && !query.candidates.get(entry.ordinal)) {
+            return false;
+        }
+        return matches(query, entry.id, entry.name, entry.pinyin, entry.pinyinWords);
+    }
+
+    private static boolean matches(Query query, String id, String name, PinyinInfo pinyinInfo,
+                                   String[] pinyinWords) {
+        // 检查mod过滤
+        if (query.filter.modFilter != null) {
+            if (id == null || !id.contains(query.filter.modFilter)) {
                 return false;
             }
         }
         
-        if (filter.searchText.isEmpty()) {
+        if (query.filter.searchText.isEmpty()) {
             return true;
         }
         
-        String lowerSearch = filter.searchText.toLowerCase().trim();
+        String lowerSearch = query.lowerSearch;
         
         // 检查ID匹配
-        String id = idGetter.apply(item);
-        if (id != null && id.toLowerCase().contains(lowerSearch)) {
+        if (id != null && id.contains(lowerSearch)) {
             return true;
         }
         
         // 检查显示名称匹配
-        String displayName = displayNameGetter.apply(item);
-        if (displayName != null && displayName.toLowerCase().contains(lowerSearch)) {
+        if (name != null && name.contains(lowerSearch)) {
             return true;
         }
         
         // 检查拼音匹配
-        PinyinInfo pinyinInfo = pinyinCache.get(item);
         if (pinyinInfo != null) {
             // 完整拼音匹配
             if (pinyinInfo.fullPinyin.contains(lowerSearch)) {
@@ -201,8 +386,7 @@ public class PinyinSearchHelper<T> {
             }
             
             // 多词匹配（支持空格分隔的拼音搜索）
-            String[] searchWords = lowerSearch.split("\\s+");
-            String[] pinyinWords = pinyinInfo.fullPinyin.split("\\s+");
+            String[] searchWords = query.searchWords;
             
             if (searchWords.length > 1 && pinyinWords.length >= searchWords.length) {
                 boolean allMatch = true;
@@ -227,6 +411,29 @@ public class PinyinSearchHelper<T> {
         
         return false;
     }
+
+    /**
+     * 在已建立索引的全部对象中搜索（按加入顺序返回）
+     */
+    public List<T> search(String searchText) {
+        Query query = compile(searchText);
+        List<T> result = new ArrayList<>();
+        if (query.candidates == null) {
+            for (Indexed<T> entry : ordered) {
+                if (matches(query, entry.id, entry.name, entry.pinyin, entry.pinyinWords)) {
+                    result.add(entry.item);
+                }
+            }
+        } else {
+            for (int i = query.candidates.nextSetBit(0); i >= 0; i = query.candidates.nextSetBit(i + 1)) {
+                Indexed<T> entry = ordered.get(i);
+                if (matches(query, entry.id, entry.name, entry.pinyin, entry.pinyinWords)) {
+                    result.add(entry.item);
+                }
+            }
+        }
+        return result;
+    }
     
     /**
      * 过滤集合中的对象
@@ -245,6 +452,9 @@ public class PinyinSearchHelper<T> {
      * 清除缓存
      */
     public void clearCache() {
-        pinyinCache.clear();
+        indexed.clear();
+        ordered.clear();
+        postings.clear();
+        lastQuery = null;
     }
-}
\ No newline at end of file
+}
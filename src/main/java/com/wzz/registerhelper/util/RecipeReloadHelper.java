@@ -1,22 +1,30 @@
 package com.wzz.registerhelper.util;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.mojang.logging.LogUtils;
+import com.wzz.registerhelper.mixin.RecipeManagerAccessor;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.protocol.game.ClientboundUpdateRecipesPacket;
+import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.dedicated.DedicatedServer;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.server.packs.repository.PackRepository;
 import net.minecraft.world.item.crafting.Recipe;
 import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.item.crafting.RecipeType;
 import net.minecraft.world.level.storage.WorldData;
 import net.minecraftforge.server.ServerLifecycleHooks;
 import org.slf4j.Logger;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -137,4 +145,51 @@ public class RecipeReloadHelper {
             LOGGER.error("同步配方到客户端失败", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 增量修改配方管理器：只替换受影响的条目，未变化的配方类型继续复用原有的映射
+     * 服务器热重载和客户端接收增量同步共用
+     */
+    public static void patchRecipeManager(RecipeManagerAccessor accessor,
+                                          Map<ResourceLocation, Recipe<?>> changed,
+                                          Collection<ResourceLocation> removed) {
+        Map<ResourceLocation, Recipe<?>> byName = new LinkedHashMap<>(accessor.registerhelper$getByName());
+        Map<RecipeType<?>, Map<ResourceLocation, Recipe<?>>> byType = new LinkedHashMap<>(accessor.registerhelper$getRecipes());
+        Map<RecipeType<?>, Map<ResourceLocation, Recipe<?>>> touched = new HashMap<>();
+
+        for (ResourceLocation id : removed) {
+            Recipe<?> old = byName.remove(id);
+            if (old != null) {
+                mutableTypeMap(byType, touched, old.getType()).remove(id);
+            }
+        }
+
+        for (Map.Entry<ResourceLocation, Recipe<?>> entry : changed.entrySet()) {
+            Recipe<?> recipe = entry.getValue();
+            Recipe<?> old = byName.put(entry.getKey(), recipe);
+            if (old != null && old.getType() != recipe.getType()) {
+                mutableTypeMap(byType, touched, old.getType()).remove(entry.getKey());
+            }
+            mutableTypeMap(byType, touched, recipe.getType()).put(entry.getKey(), recipe);
+        }
+
+        Iterator<Map.Entry<RecipeType<?>, Map<ResourceLocation, Recipe<?>>>> iterator = touched.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<RecipeType<?>, Map<ResourceLocation, Recipe<?>>> entry = iterator.next();
+            if (entry.getValue().isEmpty()) {
+                byType.remove(entry.getKey());
+            } else {
+                byType.put(entry.getKey(), ImmutableMap.copyOf(entry.getValue()));
+            }
+        }
+
+        accessor.registerhelper$setRecipes(ImmutableMap.copyOf(byType));
+        accessor.registerhelper$setByName(ImmutableMap.copyOf(byName));
+    }
+
+    private static Map<ResourceLocation, Recipe<?>> mutableTypeMap(Map<RecipeType<?>, Map<ResourceLocation, Recipe<?>>> byType,
+                                                                   Map<RecipeType<?>, Map<ResourceLocation, Recipe<?>>> touched,
+                                                                   RecipeType<?> type) {
+        return touched.computeIfAbsent(type, t -> new LinkedHashMap<>(byType.getOrDefault(t, Map.of())));
+    }
+}
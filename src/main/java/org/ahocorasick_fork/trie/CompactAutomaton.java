@@ -0,0 +1,280 @@
+package org.ahocorasick_fork.trie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable double-array form of a built {@link PayloadState} graph.
+ * <p>
+ * Characters are first mapped to dense codes (more frequent transition labels
+ * get smaller codes). A state is a slot in the {@code base} / {@code check}
+ * arrays: the transition from state {@code s} on code {@code c} goes to slot
+ * {@code base[s] + c} when {@code check[base[s] + c] == s}. A step is therefore
+ * two array reads instead of a {@code HashMap<Character, ...>} lookup.
+ * </p>
+ * <p>
+ * The outputs of a state (including the ones inherited through its failure
+ * state) are a slice of {@code outputs}, holding keyword indexes in the same
+ * order as {@link PayloadState#emit()}.
+ * </p>
+ *
+ * @param <T> The type of the payload.
+ */
+final class CompactAutomaton<T> {
+
+    static final int ROOT = 0;
+
+    private static final int NO_STATE = -1;
+
+    private final char[] codes;
+    private final int[] base;
+    private final int[] check;
+    private final int[] failure;
+    private final int[] outputStart;
+    private final int[] outputs;
+    private final String[] keywords;
+    private final Object[] data;
+
+    private CompactAutomaton(char[] codes, int[] base, int[] check, int[] failure,
+                             int[] outputStart, int[] outputs, String[] keywords, Object[] data) {
+        this.codes = codes;
+        this.base = base;
+        this.check = check;
+        this.failure = failure;
+        this.outputStart = outputStart;
+        this.outputs = outputs;
+        this.keywords = keywords;
+        this.data = data;
+    }
+
+    /**
+     * Compiles a state graph whose failure states have already been constructed.
+     */
+    static <T> CompactAutomaton<T> compile(final PayloadState<T> root) {
+        final char[] codes = assignCodes(root);
+
+        // Place the states breadth-first; every state's children get a free block of slots
+        final Map<PayloadState<T>, Integer> slots = new IdentityHashMap<>();
+        final List<PayloadState<T>> queue = new ArrayList<>();
+        final BitSet used = new BitSet();
+        int[] base = new int[1024];
+        int[] check = new int[1024];
+        Arrays.fill(check, NO_STATE);
+        int size = 1;
+        slots.put(root, ROOT);
+        queue.add(root);
+        used.set(ROOT);
+
+        for (int i = 0; i < queue.size(); i++) {
+            final PayloadState<T> state = queue.get(i);
+            final int slot = slots.get(state);
+            final Collection<Character> transitions = state.getTransitions();
+            if (transitions.isEmpty()) {
+                continue;
+            }
+
+            final char[] labels = new char[transitions.size()];
+            int n = 0;
+            for (Character transition : transitions) {
+                labels[n++] = transition;
+            }
+            final int[] childCodes = new int[labels.length];
+            for (int j = 0; j < labels.length; j++) {
+                childCodes[j] = codes[labels[j]];
+            }
+
+            final int childBase = findBase(childCodes, used);
+            final int maxSlot = childBase + maxOf(childCodes);
+            if (maxSlot >= check.length) {
+                final int oldLength = check.length;
+                final int newLength = Math.max(oldLength * 2, maxSlot + 1);
+                base = Arrays.copyOf(base, newLength);
+                check = Arrays.copyOf(check, newLength);
+                Arrays.fill(check, oldLength, newLength, NO_STATE);
+            }
+            base[slot] = childBase;
+            for (int j = 0; j < labels.length; j++) {
+                final int childSlot = childBase + childCodes[j];
+                used.set(childSlot);
+                check[childSlot] = slot;
+                final PayloadState<T> child = state.nextStateIgnoreRootState(labels[j]);
+                slots.put(child, childSlot);
+                queue.add(child);
+            }
+            size = Math.max(size, maxSlot + 1);
+        }
+
+        base = Arrays.copyOf(base, size);
+        check = Arrays.copyOf(check, size);
+
+        final PayloadState<T>[] states = stateArray(size);
+        for (Map.Entry<PayloadState<T>, Integer> entry : slots.entrySet()) {
+            states[entry.getValue()] = entry.getKey();
+        }
+
+        final int[] failure = new int[size];
+        final int[] outputStart = new int[size + 1];
+        final List<Integer> outputList = new ArrayList<>();
+        final Map<Payload<T>, Integer> keywordIds = new IdentityHashMap<>();
+        final List<Payload<T>> payloads = new ArrayList<>();
+
+        for (int slot = 0; slot < size; slot++) {
+            outputStart[slot] = outputList.size();
+            final PayloadState<T> state = states[slot];
+            if (state == null) {
+                continue;
+            }
+            failure[slot] = state.failure() == null ? ROOT : slots.get(state.failure());
+            for (Payload<T> payload : state.emit()) {
+                Integer keywordId = keywordIds.get(payload);
+                if (keywordId == null) {
+                    keywordId = payloads.size();
+                    keywordIds.put(payload, keywordId);
+                    payloads.add(payload);
+                }
+                outputList.add(keywordId);
+            }
+        }
+        outputStart[size] = outputList.size();
+
+        final int[] outputs = new int[outputList.size()];
+        for (int i = 0; i < outputs.length; i++) {
+            outputs[i] = outputList.get(i);
+        }
+        final String[] keywords = new String[payloads.size()];
+        final Object[] data = new Object[payloads.size()];
+        for (int i = 0; i < keywords.length; i++) {
+            keywords[i] = payloads.get(i).getKeyword();
+            data[i] = payloads.get(i).getData();
+        }
+
+        return new CompactAutomaton<>(codes, base, check, failure, outputStart, outputs, keywords, data);
+    }
+
+    /**
+     * Maps every transition label to a code in 1..n, most frequent label first; 0 means
+     * the character never appears in a keyword.
+     */
+    private static <T> char[] assignCodes(final PayloadState<T> root) {
+        final int[] frequency = new int[Character.MAX_VALUE + 1];
+        final List<PayloadState<T>> queue = new ArrayList<>();
+        queue.add(root);
+        for (int i = 0; i < queue.size(); i++) {
+            final PayloadState<T> state = queue.get(i);
+            for (Character transition : state.getTransitions()) {
+                frequency[transition]++;
+            }
+            queue.addAll(state.getStates());
+        }
+
+        final List<Character> labels = new ArrayList<>();
+        for (int c = 0; c < frequency.length; c++) {
+            if (frequency[c] > 0) {
+                labels.add((char) c);
+            }
+        }
+        labels.sort((a, b) -> frequency[b] != frequency[a] ? Integer.compare(frequency[b], frequency[a]) : Character.compare(a, b));
+
+        final char[] codes = new char[Character.MAX_VALUE + 1];
+        for (int i = 0; i < labels.size(); i++) {
+            codes[labels.get(i)] = (char) (i + 1);
+        }
+        return codes;
+    }
+
+    /**
+     * First base (at least 1) for which all {@code base + code} slots are free.
+     */
+    private static int findBase(final int[] childCodes, final BitSet used) {
+        final int minCode = minOf(childCodes);
+        int free = used.nextClearBit(1);
+        while (true) {
+            final int candidate = free - minCode;
+            if (candidate >= 1 && fits(candidate, childCodes, used)) {
+                return candidate;
+            }
+            free = used.nextClearBit(free + 1);
+        }
+    }
+
+    private static boolean fits(final int candidate, final int[] childCodes, final BitSet used) {
+        for (int code : childCodes) {
+            if (used.get(candidate + code)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int minOf(final int[] values) {
+        int min = Integer.MAX_VALUE;
+        for (int value : values) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    private static int maxOf(final int[] values) {
+        int max = 0;
+        for (int value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> PayloadState<T>[] stateArray(final int size) {
+        return (PayloadState<T>[]) new PayloadState[size];
+    }
+
+    /**
+     * Follows the goto / failure functions for one character.
+     */
+    int nextState(int state, final char character) {
+        final int code = codes[character];
+        if (code == 0) {
+            // The character does not occur in any keyword
+            return ROOT;
+        }
+        while (true) {
+            final int next = base[state] + code;
+            if (next < check.length && check[next] == state) {
+                return next;
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = failure[state];
+        }
+    }
+
+    int outputStart(final int state) {
+        return outputStart[state];
+    }
+
+    int outputEnd(final int state) {
+        return outputStart[state + 1];
+    }
+
+    int output(final int index) {
+        return outputs[index];
+    }
+
+    int keywordCount() {
+        return keywords.length;
+    }
+
+    String keyword(final int keyword) {
+        return keywords[keyword];
+    }
+
+    @SuppressWarnings("unchecked")
+    T data(final int keyword) {
+        return (T) data[keyword];
+    }
+}
@@ -11,6 +11,7 @@ import java.util.concurrent.LinkedBlockingDeque;
 import org.ahocorasick_fork.interval.IntervalTree;
 import org.ahocorasick_fork.interval.Intervalable;
 import org.ahocorasick_fork.trie.handler.DefaultPayloadEmitHandler;
+import org.ahocorasick_fork.trie.handler.KeywordMatchHandler;
 import org.ahocorasick_fork.trie.handler.PayloadEmitHandler;
 import org.ahocorasick_fork.trie.handler.StatefulPayloadEmitHandler;
 
@@ -22,6 +23,11 @@ import org.ahocorasick_fork.trie.handler.StatefulPayloadEmitHandler;
  * The payload trie adds the possibility to specify emitted payloads for each
  * added keyword.
  * </p>
+ * <p>
+ * Keywords are collected in a {@link PayloadState} graph while building; {@code build()}
+ * compiles it into a {@link CompactAutomaton} and drops the graph, so matching only
+ * touches primitive arrays.
+ * </p>
  *
  * @author Daniel Beck
  * @param <T> The type of the supplied of the payload.
@@ -30,7 +36,12 @@ public class PayloadTrie<T> {
 
     private final TrieConfig trieConfig;
 
-    private final PayloadState<T> rootState;
+    /**
+     * Only used while building, released once the automaton is compiled.
+     */
+    private PayloadState<T> rootState;
+
+    private CompactAutomaton<T> automaton;
 
     protected PayloadTrie(final TrieConfig trieConfig) {
         this.trieConfig = trieConfig;
@@ -166,18 +177,33 @@ public class PayloadTrie<T> {
      * @param emitHandler The handler that will be used to parse the text.
      */
     public void parseText(final CharSequence text, final PayloadEmitHandler<T> emitHandler) {
-        PayloadState<T> currentState = getRootState();
+        parseText(text, (start, end, keyword) -> emitHandler.emit(
+                new PayloadEmit<>(start, end, automaton.keyword(keyword), automaton.data(keyword))));
+    }
+
+    /**
+     * Scans the specified text and reports every match to the handler without
+     * allocating. Overlapping matches are always reported, {@code ignoreOverlaps()}
+     * only applies to the collecting variants.
+     *
+     * @param text         The character sequence to scan.
+     * @param matchHandler The handler receiving the matches.
+     */
+    public void parseText(final CharSequence text, final KeywordMatchHandler matchHandler) {
+        final CompactAutomaton<T> automaton = this.automaton;
+        final boolean caseInsensitive = trieConfig.isCaseInsensitive();
+        final boolean stopOnHit = trieConfig.isStopOnHit();
+        int state = CompactAutomaton.ROOT;
 
         for (int position = 0; position < text.length(); position++) {
-            char character = text.charAt( position);
+            char character = text.charAt(position);
 
-            if (trieConfig.isCaseInsensitive()) {
+            if (caseInsensitive) {
                 character = Character.toLowerCase(character);
             }
 
-            currentState = getState(currentState, character);
-            final Collection<Payload<T>> payloads = currentState.emit();
-            if (processEmits(text, position, payloads, emitHandler) && trieConfig.isStopOnHit()) {
+            state = automaton.nextState(state, character);
+            if (processEmits(text, position, state, matchHandler) && stopOnHit) {
                 return;
             }
         }
@@ -201,7 +227,8 @@ public class PayloadTrie<T> {
             }
         } else {
             // Fast path. Returns first match found.
-            PayloadState<T> currentState = getRootState();
+            final CompactAutomaton<T> automaton = this.automaton;
+            int state = CompactAutomaton.ROOT;
 
             for (int position = 0; position < text.length(); position++) {
                 char character = text.charAt( position);
@@ -210,20 +237,12 @@ public class PayloadTrie<T> {
                     character = Character.toLowerCase(character);
                 }
 
-                currentState = getState(currentState, character);
-                Collection<Payload<T>> payloads = currentState.emit();
-
-                if (payloads != null && !payloads.isEmpty()) {
-                    for (final Payload<T> payload : payloads) {
-                        final PayloadEmit<T> emit = new PayloadEmit<>(position - payload.getKeyword().length() + 1, position,
-                                payload.getKeyword(), payload.getData());
-                        if (trieConfig.isOnlyWholeWords()) {
-                            if (!isPartialMatch(text, emit)) {
-                                return emit;
-                            }
-                        } else {
-                            return emit;
-                        }
+                state = automaton.nextState(state, character);
+                for (int i = automaton.outputStart(state); i < automaton.outputEnd(state); i++) {
+                    final int keyword = automaton.output(i);
+                    final int start = position - automaton.keyword(keyword).length() + 1;
+                    if (!trieConfig.isOnlyWholeWords() || !isPartialMatch(text, start, position)) {
+                        return new PayloadEmit<>(start, position, automaton.keyword(keyword), automaton.data(keyword));
                     }
                 }
             }
@@ -232,26 +251,42 @@ public class PayloadTrie<T> {
         return null;
     }
 
-    private boolean isPartialMatch(final CharSequence searchText, final PayloadEmit<T> emit) {
-        return (emit.getStart() != 0 && Character.isAlphabetic(searchText.charAt(emit.getStart() - 1)))
-                || (emit.getEnd() + 1 != searchText.length() && Character.isAlphabetic(searchText.charAt(emit.getEnd() + 1)));
+    /**
+     * Returns the keyword for an index reported to a {@link KeywordMatchHandler}.
+     *
+     * @param keyword The keyword index.
+     * @return The keyword.
+     */
+    public String getKeyword(final int keyword) {
+        return automaton.keyword(keyword);
     }
 
-    private boolean isPartialMatchWhiteSpaceSeparated(final CharSequence searchText, final PayloadEmit<T> emit) {
-        final long size = searchText.length();
-        return (emit.getStart() != 0 && !isWhitespace(searchText.charAt(emit.getStart() - 1)))
-                || (emit.getEnd() + 1 != size && !isWhitespace(searchText.charAt(emit.getEnd() + 1)));
+    /**
+     * Returns the payload for an index reported to a {@link KeywordMatchHandler}.
+     *
+     * @param keyword The keyword index.
+     * @return The payload, may be {@code null}.
+     */
+    public T getPayload(final int keyword) {
+        return automaton.data(keyword);
     }
 
-    private PayloadState<T> getState(PayloadState<T> currentState, final Character character) {
-        PayloadState<T> newCurrentState = currentState.nextState(character);
+    /**
+     * @return The number of distinct keywords in this trie.
+     */
+    public int getKeywordCount() {
+        return automaton.keywordCount();
+    }
 
-        while (newCurrentState == null) {
-            currentState = currentState.failure();
-            newCurrentState = currentState.nextState(character);
-        }
+    private boolean isPartialMatch(final CharSequence searchText, final int start, final int end) {
+        return (start != 0 && Character.isAlphabetic(searchText.charAt(start - 1)))
+                || (end + 1 != searchText.length() && Character.isAlphabetic(searchText.charAt(end + 1)));
+    }
 
-        return newCurrentState;
+    private boolean isPartialMatchWhiteSpaceSeparated(final CharSequence searchText, final int start, final int end) {
+        final long size = searchText.length();
+        return (start != 0 && !isWhitespace(searchText.charAt(start - 1)))
+                || (end + 1 != size && !isWhitespace(searchText.charAt(end + 1)));
     }
 
     private void constructFailureStates() {
@@ -284,14 +319,21 @@ public class PayloadTrie<T> {
         }
     }
 
-    private boolean processEmits(final CharSequence text, final int position, final Collection<Payload<T>> payloads, final PayloadEmitHandler<T> emitHandler) {
+    private void compile() {
+        constructFailureStates();
+        this.automaton = CompactAutomaton.compile(getRootState());
+        this.rootState = null;
+    }
+
+    private boolean processEmits(final CharSequence text, final int position, final int state, final KeywordMatchHandler matchHandler) {
         boolean emitted = false;
-        for (final Payload<T> payload : payloads) {
-            final PayloadEmit<T> payloadEmit = new PayloadEmit<>(position - payload.getKeyword().length() + 1,
-                    position, payload.getKeyword(), payload.getData());
-            if (!(trieConfig.isOnlyWholeWords() && isPartialMatch(text, payloadEmit)) &&
-                    !(trieConfig.isOnlyWholeWordsWhiteSpaceSeparated() && isPartialMatchWhiteSpaceSeparated(text, payloadEmit))) {
-                emitted = emitHandler.emit(payloadEmit) || emitted;
+        final CompactAutomaton<T> automaton = this.automaton;
+        for (int i = automaton.outputStart(state); i < automaton.outputEnd(state); i++) {
+            final int keyword = automaton.output(i);
+            final int start = position - automaton.keyword(keyword).length() + 1;
+            if (!(trieConfig.isOnlyWholeWords() && isPartialMatch(text, start, position)) &&
+                    !(trieConfig.isOnlyWholeWordsWhiteSpaceSeparated() && isPartialMatchWhiteSpaceSeparated(text, start, position))) {
+                emitted = matchHandler.match(start, position, keyword) || emitted;
                 if (emitted && trieConfig.isStopOnHit()) {
                     break;
                 }
@@ -438,7 +480,7 @@ public class PayloadTrie<T> {
          * @return The configured PayloadTrie.
          */
         public PayloadTrie<T> build() {
-            this.trie.constructFailureStates();
+            this.trie.compile();
             return this.trie;
         }
 
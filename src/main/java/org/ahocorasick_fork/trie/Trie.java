@@ -5,6 +5,7 @@ import java.util.Collection;
 
 import org.ahocorasick_fork.trie.PayloadTrie.PayloadTrieBuilder;
 import org.ahocorasick_fork.trie.handler.EmitHandler;
+import org.ahocorasick_fork.trie.handler.KeywordMatchHandler;
 import org.ahocorasick_fork.trie.handler.StatefulPayloadEmitDelegateHandler;
 import org.ahocorasick_fork.trie.handler.PayloadEmitDelegateHandler;
 import org.ahocorasick_fork.trie.handler.StatefulEmitHandler;
@@ -68,6 +69,25 @@ public class Trie {
         this.payloadTrie.parseText(text, new PayloadEmitDelegateHandler(emitHandler));
     }
 
+    /**
+     * Scans the text and reports every match as primitive values, without allocating.
+     * Use {@link #getKeyword(int)} to resolve the reported keyword index.
+     *
+     * @param text         The character sequence to scan.
+     * @param matchHandler The handler receiving the matches.
+     */
+    public void parseText(final CharSequence text, final KeywordMatchHandler matchHandler) {
+        this.payloadTrie.parseText(text, matchHandler);
+    }
+
+    /**
+     * @param keyword A keyword index reported to a {@link KeywordMatchHandler}.
+     * @return The keyword.
+     */
+    public String getKeyword(final int keyword) {
+        return this.payloadTrie.getKeyword(keyword);
+    }
+
     /**
      * The first matching text sequence.
      *
@@ -0,0 +1,16 @@
+package org.ahocorasick_fork.trie.handler;
+
+/**
+ * Receives matches as primitive values, so scanning a text allocates nothing.
+ * The keyword index can be resolved with {@code getKeyword(int)} on the trie.
+ */
+public interface KeywordMatchHandler {
+
+    /**
+     * @param start   index of the first matched character (inclusive).
+     * @param end     index of the last matched character (inclusive).
+     * @param keyword index of the matched keyword in the trie.
+     * @return true if the match was accepted.
+     */
+    boolean match(int start, int end, int keyword);
+}
@@ -0,0 +1,96 @@
+package com.github.promeg.pinyinhelper_fork;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 期望值来自改为单次遍历之前的实现：full 为 toPinyin(str, " ").toLowerCase()，
+ * initials / noSeparator 为逐字符 toPinyin(char) 拼接的结果
+ */
+class PinyinTest {
+
+    @AfterEach
+    void clearDicts() {
+        Pinyin.init(null);
+    }
+
+    private static String[] convert(String text) {
+        StringBuilder full = new StringBuilder();
+        StringBuilder initials = new StringBuilder();
+        StringBuilder noSeparator = new StringBuilder();
+        Pinyin.toPinyin(text, " ", full, initials, noSeparator);
+        return new String[]{full.toString(), initials.toString(), noSeparator.toString()};
+    }
+
+    private static void assertPinyin(String text, String full, String initials, String noSeparator) {
+        assertArrayEquals(new String[]{full, initials, noSeparator}, convert(text), text);
+    }
+
+    @Test
+    void withoutDictMatchesOldOutput() {
+        assertPinyin("钻石", "zuan shi", "zs", "zuanshi");
+        assertPinyin("Hello中国!", "h e l l o zhong guo !", "hellozg!", "hellozhongguo!");
+        assertPinyin("〇号", "ling hao", "lh", "linghao");
+        assertPinyin("铁锭 Iron Ingot", "tie ding   i r o n   i n g o t", "td iron ingot", "tieding iron ingot");
+        assertPinyin("", "", "", "");
+        assertPinyin("a", "a", "a", "a");
+        assertPinyin("重庆重量", "zhong qing zhong liang", "zqzl", "zhongqingzhongliang");
+        assertPinyin("红石火把", "hong shi huo ba", "hshb", "hongshihuoba");
+        assertPinyin("安山合金", "an shan he jin", "ashj", "anshanhejin");
+        assertPinyin("粉碎铁矿石", "fen sui tie kuang shi", "fstks", "fensuitiekuangshi");
+        assertPinyin("长城 长大", "zhang cheng   zhang da", "zc zd", "zhangcheng zhangda");
+        assertPinyin("ABC-123_x", "a b c - 1 2 3 _ x", "abc-123_x", "abc-123_x");
+        assertPinyin("我在重庆市重量AB", "wo zai zhong qing shi zhong liang a b", "wzzqszlab", "wozaizhongqingshizhongliangab");
+        assertPinyin("ABAB重", "a b a b zhong", "ababz", "ababzhong");
+    }
+
+    @Test
+    void streamingMatchesStringOutputWithoutDict() {
+        for (String text : new String[]{"钻石", "Hello中国!", "〇号", "铁锭 Iron Ingot", "重庆重量"}) {
+            assertEquals(Pinyin.toPinyin(text, " ").toLowerCase(), convert(text)[0], text);
+        }
+    }
+
+    @Test
+    void withDictFullMatchesOldOutput() {
+        Map<String, String[]> mapping = new HashMap<>();
+        mapping.put("重庆", new String[]{"CHONG", "QING"});
+        mapping.put("重量", new String[]{"ZHONG", "LIANG"});
+        mapping.put("重庆市", new String[]{"CHONG", "QING", "SHI"});
+        mapping.put("AB", new String[]{"X"});
+        Pinyin.init(Pinyin.newConfig().with(new PinyinMapDict() {
+            @Override
+            public Map<String, String[]> mapping() {
+                return mapping;
+            }
+        }));
+
+        assertEquals("CHONG QING ZHONG LIANG", Pinyin.toPinyin("重庆重量", " "));
+        assertEquals("WO ZAI CHONG QING SHI ZHONG LIANG X", Pinyin.toPinyin("我在重庆市重量AB", " "));
+        assertEquals("X X ZHONG", Pinyin.toPinyin("ABAB重", " "));
+        assertEquals("CHONG QING SHI ZHONG LIANG CHONG QING", Pinyin.toPinyin("重庆市重量重庆", " "));
+        assertEquals("ZUAN SHI", Pinyin.toPinyin("钻石", " "));
+
+        assertPinyin("重庆重量", "chong qing zhong liang", "cqzl", "chongqingzhongliang");
+        assertPinyin("我在重庆市重量AB", "wo zai chong qing shi zhong liang x", "wzcqszlx", "wozaichongqingshizhongliangx");
+        assertPinyin("ABAB重", "x x zhong", "xxz", "xxzhong");
+        assertPinyin("重庆市重量重庆", "chong qing shi zhong liang chong qing", "cqszlcq", "chongqingshizhongliangchongqing");
+        assertPinyin("钻石", "zuan shi", "zs", "zuanshi");
+    }
+
+    @Test
+    void appendsToBuildersAndSkipsNullOutputs() {
+        StringBuilder full = new StringBuilder("x|");
+        Pinyin.toPinyin("钻石", " ", full, null, null);
+        assertEquals("x|zuan shi", full.toString());
+
+        StringBuilder initials = new StringBuilder();
+        Pinyin.toPinyin(new StringBuilder("红石"), "", null, initials, null);
+        assertEquals("hs", initials.toString());
+    }
+}
@@ -0,0 +1,104 @@
+package com.wzz.registerhelper.network;
+
+import com.wzz.registerhelper.info.UnifiedRecipeInfo;
+import net.minecraft.resources.ResourceLocation;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeListCodecTest {
+
+    private static UnifiedRecipeInfo info(String id, String source, boolean blacklisted, boolean override, String description) {
+        return new UnifiedRecipeInfo(new ResourceLocation(id), source, blacklisted, override, description);
+    }
+
+    private static List<UnifiedRecipeInfo> sample() {
+        return List.of(
+                info("minecraft:iron_ingot_from_blasting", "原版", false, false, "minecraft:blasting -> 铁锭"),
+                info("minecraft:iron_ingot_from_smelting", "原版", true, false, "minecraft:smelting -> 铁锭"),
+                info("minecraft:iron_block", "原版", false, true, "minecraft:crafting_shaped -> 铁块"),
+                info("create:crushing/iron_ore", "Create", true, true, "create:crushing -> Crushed Raw Iron"),
+                info("create:crushing/gold_ore", "Create", false, false, "未知配方"),
+                info("registerhelper:custom/a", "自定义", false, false, ""),
+                info("registerhelper:custom/a_b", "自定义", false, false, "a -> b -> c"));
+    }
+
+    private static void assertSameList(List<UnifiedRecipeInfo> expected, List<UnifiedRecipeInfo> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            UnifiedRecipeInfo e = expected.get(i);
+            UnifiedRecipeInfo a = actual.get(i);
+            assertEquals(e.id, a.id, "id #" + i);
+            assertEquals(e.source, a.source, "source #" + i);
+            assertEquals(e.isBlacklisted, a.isBlacklisted, "isBlacklisted #" + i);
+            assertEquals(e.hasOverride, a.hasOverride, "hasOverride #" + i);
+            assertEquals(e.description, a.description, "description #" + i);
+        }
+    }
+
+    @Test
+    void roundTripUncompressed() throws IOException {
+        byte[] data = RecipeListCodec.encode(sample(), false);
+        assertEquals(0, data[0]);
+        assertSameList(sample(), RecipeListCodec.decode(data));
+    }
+
+    @Test
+    void roundTripCompressed() throws IOException {
+        byte[] data = RecipeListCodec.encode(sample(), true);
+        assertEquals(1, data[0]);
+        assertSameList(sample(), RecipeListCodec.decode(data));
+    }
+
+    @Test
+    void roundTripEmptyList() throws IOException {
+        assertTrue(RecipeListCodec.decode(RecipeListCodec.encode(List.of(), false)).isEmpty());
+        assertTrue(RecipeListCodec.decode(RecipeListCodec.encode(List.of(), true)).isEmpty());
+    }
+
+    @Test
+    void roundTripLargeListWithSharedPrefixes() throws IOException {
+        List<UnifiedRecipeInfo> recipes = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String namespace = "mod" + (i % 7);
+            recipes.add(info(namespace + ":machine/tier_" + (i % 13) + "/recipe_" + i, "Mod " + (i % 7),
+                    i % 3 == 0, i % 5 == 0, namespace + ":machine -> 产物 " + (i % 17)));
+        }
+        byte[] compressed = RecipeListCodec.encode(recipes, true);
+        byte[] plain = RecipeListCodec.encode(recipes, false);
+        assertTrue(compressed.length < plain.length);
+        assertSameList(recipes, RecipeListCodec.decode(compressed));
+        assertSameList(recipes, RecipeListCodec.decode(plain));
+    }
+
+    @Test
+    void emptyDataIsRejected() {
+        assertThrows(IOException.class, () -> RecipeListCodec.decode(new byte[0]));
+    }
+
+    @Test
+    void truncatedDataIsRejected() {
+        byte[] plain = RecipeListCodec.encode(sample(), false);
+        assertThrows(IOException.class, () -> RecipeListCodec.decode(Arrays.copyOf(plain, plain.length / 2)));
+
+        byte[] compressed = RecipeListCodec.encode(sample(), true);
+        assertThrows(IOException.class, () -> RecipeListCodec.decode(Arrays.copyOf(compressed, compressed.length / 2)));
+    }
+
+    @Test
+    void corruptCompressedDataIsRejected() {
+        byte[] data = {1, 0x12, 0x34, 0x56, 0x78};
+        assertThrows(IOException.class, () -> RecipeListCodec.decode(data));
+    }
+
+    @Test
+    void inflateEnforcesSizeLimit() {
+        byte[] deflated = RecipeListCodec.deflate(new byte[64 * 1024]);
+        assertThrows(IOException.class, () -> RecipeListCodec.inflate(deflated, 1024));
+    }
+}
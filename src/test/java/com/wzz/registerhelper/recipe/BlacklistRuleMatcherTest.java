@@ -0,0 +1,156 @@
+package com.wzz.registerhelper.recipe;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import net.minecraft.resources.ResourceLocation;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlacklistRuleMatcherTest {
+    private static final ResourceLocation SHAPED = new ResourceLocation("minecraft", "crafting_shaped");
+    private static final ResourceLocation SMELTING = new ResourceLocation("minecraft", "smelting");
+    private static final ResourceLocation DIAMOND = new ResourceLocation("minecraft", "diamond");
+    private static final ResourceLocation STICK = new ResourceLocation("minecraft", "stick");
+
+    private static BlacklistRuleMatcher matcher(String... rules) {
+        List<BlacklistRuleMatcher.Rule> parsed = Arrays.stream(rules)
+                .map(rule -> BlacklistRuleMatcher.Rule.fromJson(JsonParser.parseString(rule)))
+                .toList();
+        return new BlacklistRuleMatcher(parsed);
+    }
+
+    private static ResourceLocation id(String id) {
+        return new ResourceLocation(id);
+    }
+
+    @Test
+    void emptyMatcherMatchesNothing() {
+        assertTrue(BlacklistRuleMatcher.EMPTY.isEmpty());
+        assertFalse(BlacklistRuleMatcher.EMPTY.matchesId(id("minecraft:stick")));
+        assertFalse(BlacklistRuleMatcher.EMPTY.matches(id("minecraft:stick"), SHAPED, STICK));
+    }
+
+    @Test
+    void prefixRuleMatchesOnlyThatPrefix() {
+        BlacklistRuleMatcher matcher = matcher("\"create:*\"", "\"mekanism:crushing/*\"");
+        assertTrue(matcher.matchesId(id("create:milling/wheat")));
+        assertTrue(matcher.matchesId(id("mekanism:crushing/gravel")));
+        assertFalse(matcher.matchesId(id("createaddition:rolling/rod")));
+        assertFalse(matcher.matchesId(id("mekanism:enriching/gravel")));
+    }
+
+    @Test
+    void namespaceRuleMatchesWholeNamespace() {
+        BlacklistRuleMatcher matcher = matcher("{\"namespace\": \"create\"}");
+        assertTrue(matcher.matchesId(id("create:milling/wheat")));
+        assertFalse(matcher.matchesId(id("createaddition:rolling/rod")));
+    }
+
+    @Test
+    void globRuleSupportsInnerWildcards() {
+        BlacklistRuleMatcher matcher = matcher("\"minecraft:*_from_*\"", "\"minecraft:?_block\"");
+        assertTrue(matcher.matchesId(id("minecraft:iron_ingot_from_nuggets")));
+        assertTrue(matcher.matchesId(id("minecraft:a_block")));
+        assertFalse(matcher.matchesId(id("minecraft:iron_ingot")));
+        assertFalse(matcher.matchesId(id("minecraft:ab_block")));
+    }
+
+    @Test
+    void plainIdRuleMatchesExactly() {
+        BlacklistRuleMatcher matcher = matcher("\"minecraft:stick\"");
+        assertTrue(matcher.matchesId(id("minecraft:stick")));
+        assertFalse(matcher.matchesId(id("minecraft:sticky_piston")));
+    }
+
+    @Test
+    void namespaceWithIdPatternRequiresBoth() {
+        BlacklistRuleMatcher matcher = matcher("{\"namespace\": \"create\", \"id\": \"*:crushing/*\"}");
+        assertTrue(matcher.matchesId(id("create:crushing/ore")));
+        assertFalse(matcher.matchesId(id("mekanism:crushing/ore")));
+        assertFalse(matcher.matchesId(id("create:milling/ore")));
+    }
+
+    @Test
+    void typeRuleNeedsRecipeType() {
+        BlacklistRuleMatcher matcher = matcher("{\"type\": \"minecraft:smelting\"}");
+        assertFalse(matcher.matchesId(id("minecraft:iron_ingot")));
+        assertTrue(matcher.matches(id("minecraft:iron_ingot"), SMELTING, null));
+        assertFalse(matcher.matches(id("minecraft:iron_ingot"), SHAPED, null));
+    }
+
+    @Test
+    void outputRuleNeedsRecipeOutput() {
+        BlacklistRuleMatcher matcher = matcher("{\"output\": \"minecraft:diamond\"}");
+        assertTrue(matcher.matches(id("any:recipe"), SHAPED, DIAMOND));
+        assertTrue(matcher.matches(id("any:recipe"), null, DIAMOND));
+        assertFalse(matcher.matches(id("any:recipe"), SHAPED, STICK));
+        assertFalse(matcher.matches(id("any:recipe"), SHAPED, null));
+    }
+
+    @Test
+    void typeAndOutputRuleRequiresBoth() {
+        BlacklistRuleMatcher matcher = matcher("{\"type\": \"minecraft:crafting_shaped\", \"output\": \"minecraft:diamond\"}");
+        assertTrue(matcher.matches(id("any:recipe"), SHAPED, DIAMOND));
+        assertFalse(matcher.matches(id("any:recipe"), SHAPED, STICK));
+        assertFalse(matcher.matches(id("any:recipe"), SMELTING, DIAMOND));
+        assertFalse(matcher.matches(id("any:recipe"), SHAPED, null));
+    }
+
+    @Test
+    void typeRuleWithIdPatternRequiresBoth() {
+        BlacklistRuleMatcher matcher = matcher("{\"type\": \"minecraft:smelting\", \"id\": \"minecraft:*_from_blasting\"}");
+        assertTrue(matcher.matches(id("minecraft:iron_from_blasting"), SMELTING, null));
+        assertFalse(matcher.matches(id("minecraft:iron_from_smelting"), SMELTING, null));
+    }
+
+    @Test
+    void jsonRulesReadTypeAndOutput() {
+        BlacklistRuleMatcher matcher = matcher(
+                "{\"type\": \"minecraft:crafting_shaped\", \"output\": \"minecraft:diamond\"}",
+                "{\"output\": \"minecraft:stick\"}");
+
+        assertTrue(matcher.matches(id("a:b"), json("{\"type\": \"minecraft:crafting_shaped\", \"result\": {\"item\": \"minecraft:diamond\"}}")));
+        assertFalse(matcher.matches(id("a:b"), json("{\"type\": \"minecraft:smelting\", \"result\": \"minecraft:diamond\"}")));
+        assertTrue(matcher.matches(id("a:b"), json("{\"type\": \"mod:machine\", \"results\": [{\"item\": \"minecraft:stick\", \"count\": 4}]}")));
+        assertTrue(matcher.matches(id("a:b"), json("{\"type\": \"mod:machine\", \"output\": {\"id\": \"minecraft:stick\"}}")));
+        assertFalse(matcher.matches(id("a:b"), json("{\"type\": \"mod:machine\", \"results\": []}")));
+    }
+
+    @Test
+    void jsonHelpersHandleMissingFields() {
+        assertNull(BlacklistRuleMatcher.getType(json("{}")));
+        assertNull(BlacklistRuleMatcher.getOutput(json("{\"result\": {\"count\": 3}}")));
+        assertNull(BlacklistRuleMatcher.getOutput(null));
+        assertEquals(DIAMOND, BlacklistRuleMatcher.getOutput(json("{\"result\": \"minecraft:diamond\"}")));
+        assertEquals(SMELTING, BlacklistRuleMatcher.getType(json("{\"type\": \"minecraft:smelting\"}")));
+    }
+
+    @Test
+    void ruleJsonRoundTrip() {
+        BlacklistRuleMatcher.Rule rule = BlacklistRuleMatcher.Rule.fromJson(json(
+                "{\"id\": \"create:*\", \"namespace\": \"create\", \"type\": \"create:milling\", \"output\": \"minecraft:flour\"}"));
+        assertEquals(rule, BlacklistRuleMatcher.Rule.fromJson(rule.toJson()));
+        assertFalse(rule.isIdOnly());
+        assertTrue(BlacklistRuleMatcher.Rule.fromJson(json("\"create:*\"")).isIdOnly());
+    }
+
+    @Test
+    void ruleWithoutConditionsIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> BlacklistRuleMatcher.Rule.fromJson(json("{}")));
+    }
+
+    @Test
+    void isPatternDetectsWildcards() {
+        assertTrue(BlacklistRuleMatcher.isPattern("create:*"));
+        assertTrue(BlacklistRuleMatcher.isPattern("minecraft:?_block"));
+        assertFalse(BlacklistRuleMatcher.isPattern("minecraft:stick"));
+    }
+
+    private static JsonElement json(String text) {
+        return JsonParser.parseString(text);
+    }
+}
@@ -0,0 +1,175 @@
+package com.wzz.registerhelper.util;
+
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigJournalTest {
+    @TempDir
+    Path dir;
+
+    private static JsonObject record(String op, String id) {
+        JsonObject record = new JsonObject();
+        record.addProperty("op", op);
+        record.addProperty("id", id);
+        return record;
+    }
+
+    private static List<JsonObject> replay(ConfigJournal journal) {
+        List<JsonObject> records = new ArrayList<>();
+        journal.replay(records::add);
+        return records;
+    }
+
+    @Test
+    void journalFileIsNamedAfterSnapshot() {
+        ConfigJournal journal = new ConfigJournal(dir.resolve("recipe_blacklist.json"));
+        assertEquals(dir.resolve("recipe_blacklist.journal"), journal.getJournalFile());
+        assertEquals(dir.resolve("recipe_blacklist.journal.old"), journal.getOldJournalFile());
+    }
+
+    @Test
+    void appendedRecordsReplayInOrder() throws IOException {
+        ConfigJournal journal = new ConfigJournal(dir.resolve("config.json"));
+        journal.append(record("add", "minecraft:stick"));
+        journal.append(List.of(record("add", "minecraft:torch"), record("remove", "minecraft:stick")));
+
+        List<JsonObject> records = replay(new ConfigJournal(dir.resolve("config.json")));
+        assertEquals(List.of(record("add", "minecraft:stick"), record("add", "minecraft:torch"),
+                record("remove", "minecraft:stick")), records);
+    }
+
+    @Test
+    void recordsAreChecksummed() throws IOException {
+        ConfigJournal journal = new ConfigJournal(dir.resolve("config.json"));
+        journal.append(record("add", "minecraft:stick"));
+
+        String line = Files.readString(journal.getJournalFile(), StandardCharsets.UTF_8);
+        assertTrue(line.matches("[0-9a-f]{8} \\{.*}\n"), line);
+    }
+
+    @Test
+    void tornTailIsDroppedAndTruncated() throws IOException {
+        ConfigJournal journal = new ConfigJournal(dir.resolve("config.json"));
+        journal.append(List.of(record("add", "a:one"), record("add", "a:two")));
+        long validSize = Files.size(journal.getJournalFile());
+
+        // 模拟写入中途崩溃：最后一条记录只写了一半，没有换行
+        String full = Files.readString(journal.getJournalFile(), StandardCharsets.UTF_8);
+        ConfigJournal other = new ConfigJournal(dir.resolve("other.json"));
+        other.append(record("add", "a:three"));
+        String torn = Files.readString(other.getJournalFile(), StandardCharsets.UTF_8);
+        Files.writeString(journal.getJournalFile(), full + torn.substring(0, torn.length() / 2), StandardCharsets.UTF_8);
+
+        assertEquals(List.of(record("add", "a:one"), record("add", "a:two")), replay(journal));
+        assertEquals(validSize, Files.size(journal.getJournalFile()));
+
+        // 截断后追加的记录可以正常重放
+        journal.append(record("add", "a:four"));
+        assertEquals(List.of(record("add", "a:one"), record("add", "a:two"), record("add", "a:four")),
+                replay(new ConfigJournal(dir.resolve("config.json"))));
+    }
+
+    @Test
+    void completeLineWithoutNewlineIsDropped() throws IOException {
+        ConfigJournal journal = new ConfigJournal(dir.resolve("config.json"));
+        journal.append(record("add", "a:one"));
+        String text = Files.readString(journal.getJournalFile(), StandardCharsets.UTF_8);
+        journal.append(record("add", "a:two"));
+        String both = Files.readString(journal.getJournalFile(), StandardCharsets.UTF_8);
+        // 最后一条记录缺少换行，视为没有写完
+        Files.writeString(journal.getJournalFile(), both.substring(0, both.length() - 1), StandardCharsets.UTF_8);
+
+        assertEquals(List.of(record("add", "a:one")), replay(journal));
+        assertEquals(text, Files.readString(journal.getJournalFile(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void checksumMismatchStopsReplay() throws IOException {
+        ConfigJournal journal = new ConfigJournal(dir.resolve("config.json"));
+        journal.append(List.of(record("add", "a:one"), record("add", "a:two"), record("add", "a:three")));
+
+        List<String> lines = Files.readAllLines(journal.getJournalFile(), StandardCharsets.UTF_8);
+        lines.set(1, lines.get(1).replace("a:two", "a:TWO"));
+        Files.write(journal.getJournalFile(), lines, StandardCharsets.UTF_8);
+
+        assertEquals(List.of(record("add", "a:one")), replay(journal));
+        assertEquals(List.of(lines.get(0)), Files.readAllLines(journal.getJournalFile(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void oldJournalReplaysBeforeCurrent() throws IOException {
+        ConfigJournal journal = new ConfigJournal(dir.resolve("config.json"));
+        journal.append(record("add", "a:old"));
+        Files.move(journal.getJournalFile(), journal.getOldJournalFile());
+        journal.append(record("add", "a:new"));
+
+        assertEquals(List.of(record("add", "a:old"), record("add", "a:new")), replay(journal));
+    }
+
+    @Test
+    void compactionWritesSnapshotAndDropsJournal() throws Exception {
+        Path snapshot = dir.resolve("config.json");
+        ConfigJournal journal = new ConfigJournal(snapshot);
+        journal.append(record("add", "a:one"));
+
+        CompletableFuture<Boolean> done = new CompletableFuture<>();
+        journal.compactFiles(() -> Map.of(snapshot, "{\"entries\":[\"a:one\"]}"), done::complete);
+        assertTrue(done.get(10, TimeUnit.SECONDS));
+
+        assertEquals("{\"entries\":[\"a:one\"]}", Files.readString(snapshot, StandardCharsets.UTF_8));
+        assertFalse(Files.exists(journal.getJournalFile()));
+        assertFalse(Files.exists(journal.getOldJournalFile()));
+        assertTrue(replay(journal).isEmpty());
+        assertFalse(journal.isModifiedExternally());
+    }
+
+    @Test
+    void leftoverOldJournalIsCompactedInBackground() throws Exception {
+        Path snapshot = dir.resolve("config.json");
+        ConfigJournal journal = new ConfigJournal(snapshot);
+        journal.append(record("add", "a:old"));
+        Files.move(journal.getJournalFile(), journal.getOldJournalFile());
+        journal.append(record("add", "a:new"));
+
+        CompletableFuture<String> snapshotThread = new CompletableFuture<>();
+        CompletableFuture<Boolean> done = new CompletableFuture<>();
+        journal.compactFiles(() -> {
+            snapshotThread.complete(Thread.currentThread().getName());
+            return Map.of(snapshot, "{\"entries\":[\"a:old\",\"a:new\"]}");
+        }, done::complete);
+        assertTrue(done.get(10, TimeUnit.SECONDS));
+        assertEquals("RegisterHelper-ConfigWriter", snapshotThread.get());
+
+        assertEquals("{\"entries\":[\"a:old\",\"a:new\"]}", Files.readString(snapshot, StandardCharsets.UTF_8));
+        assertFalse(Files.exists(journal.getJournalFile()));
+        assertFalse(Files.exists(journal.getOldJournalFile()));
+    }
+
+    @Test
+    void externalEditIsDetected() throws IOException {
+        Path snapshot = dir.resolve("config.json");
+        Files.writeString(snapshot, "{}", StandardCharsets.UTF_8);
+        ConfigJournal journal = new ConfigJournal(snapshot);
+        journal.append(record("add", "a:one"));
+        assertFalse(journal.isModifiedExternally());
+
+        Files.writeString(snapshot, "{\"edited\":true}", StandardCharsets.UTF_8, StandardOpenOption.TRUNCATE_EXISTING);
+        assertTrue(journal.isModifiedExternally());
+        replay(journal);
+        assertFalse(journal.isModifiedExternally());
+    }
+}
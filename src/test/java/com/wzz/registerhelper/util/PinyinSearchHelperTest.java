@@ -0,0 +1,168 @@
+package com.wzz.registerhelper.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PinyinSearchHelperTest {
+
+    private record Entry(String id, String name) {
+    }
+
+    private static final List<Entry> ENTRIES = List.of(
+            new Entry("minecraft:diamond", "钻石"),
+            new Entry("minecraft:diamond_block", "钻石块"),
+            new Entry("minecraft:diamond_sword", "钻石剑"),
+            new Entry("minecraft:iron_ingot", "铁锭"),
+            new Entry("minecraft:iron_block", "铁块"),
+            new Entry("minecraft:gold_ingot", "金锭"),
+            new Entry("minecraft:stick", "木棍"),
+            new Entry("minecraft:oak_planks", "橡木木板"),
+            new Entry("minecraft:redstone", "红石粉"),
+            new Entry("minecraft:redstone_torch", "红石火把"),
+            new Entry("minecraft:torch", "火把"),
+            new Entry("create:crushed_raw_iron", "粉碎铁矿石"),
+            new Entry("create:andesite_alloy", "安山合金"),
+            new Entry("create:brass_ingot", "Brass Ingot"),
+            new Entry("mekanism:ingot_osmium", "锇锭"),
+            new Entry("mekanism:dust_osmium", "Osmium Dust"),
+            new Entry("forge:ingots/iron", null),
+            new Entry(null, "无ID物品"),
+            new Entry("ae2:fluix_crystal", "福鲁伊克斯水晶"),
+            new Entry("ae2:certus_quartz_crystal", "赛特斯石英水晶"));
+
+    private static PinyinSearchHelper<Entry> helper() {
+        PinyinSearchHelper<Entry> helper = new PinyinSearchHelper<>(Entry::name, Entry::id);
+        helper.buildCache(ENTRIES);
+        return helper;
+    }
+
+    /**
+     * 不使用倒排索引、逐个对象判断的参考实现（与加入索引前的 matches 逻辑相同）
+     */
+    private static boolean bruteForceMatches(Entry entry, String searchText) {
+        PinyinSearchHelper.SearchFilter filter = PinyinSearchHelper.parseModFilter(searchText);
+        String id = entry.id() != null ? entry.id().toLowerCase() : null;
+        if (filter.modFilter != null && (id == null || !id.contains(filter.modFilter))) {
+            return false;
+        }
+        if (filter.searchText.isEmpty()) {
+            return true;
+        }
+        String lowerSearch = filter.searchText.toLowerCase().trim();
+        if (id != null && id.contains(lowerSearch)) {
+            return true;
+        }
+        if (entry.name() != null && entry.name().toLowerCase().contains(lowerSearch)) {
+            return true;
+        }
+        PinyinSearchHelper.PinyinInfo pinyin = PinyinSearchHelper.convertToPinyinInfo(entry.name());
+        if (pinyin.fullPinyin.contains(lowerSearch) || pinyin.initials.contains(lowerSearch)
+                || pinyin.nospace.contains(lowerSearch)) {
+            return true;
+        }
+        String[] searchWords = lowerSearch.split("\\s+");
+        String[] pinyinWords = pinyin.fullPinyin.split("\\s+");
+        if (searchWords.length > 1 && pinyinWords.length >= searchWords.length) {
+            for (String searchWord : searchWords) {
+                boolean found = false;
+                for (String pinyinWord : pinyinWords) {
+                    if (pinyinWord.startsWith(searchWord)) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static List<Entry> bruteForceSearch(String searchText) {
+        List<Entry> result = new ArrayList<>();
+        for (Entry entry : ENTRIES) {
+            if (bruteForceMatches(entry, searchText)) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 取各字段的所有子串作为搜索词，再加上多词拼音、mod过滤和大小写变化
+     */
+    private static Set<String> queries() {
+        Set<String> queries = new LinkedHashSet<>();
+        for (Entry entry : ENTRIES) {
+            PinyinSearchHelper.PinyinInfo pinyin = PinyinSearchHelper.convertToPinyinInfo(entry.name());
+            for (String field : new String[]{entry.id(), entry.name(), pinyin.fullPinyin, pinyin.initials, pinyin.nospace}) {
+                if (field == null) {
+                    continue;
+                }
+                for (int start = 0; start < field.length(); start++) {
+                    for (int end = start + 1; end <= Math.min(field.length(), start + 8); end++) {
+                        queries.add(field.substring(start, end));
+                    }
+                }
+            }
+        }
+        List<String> extra = List.of("", " ", "zuan shi", "zu sh", "tie ding", "hong huo", "shi jian",
+                "DIAMOND", "Iron", "钻石 @mc", "@create", "ingot @mekanism", "@minecraft tie", "xyz",
+                "dia mond", "osmium dust", "@ae2 shui jing", "ingot@forge", "木 板");
+        queries.addAll(extra);
+        return queries;
+    }
+
+    @Test
+    void searchMatchesBruteForce() {
+        PinyinSearchHelper<Entry> helper = helper();
+        for (String query : queries()) {
+            assertEquals(bruteForceSearch(query), helper.search(query), "搜索词: \"" + query + "\"");
+        }
+    }
+
+    @Test
+    void filterMatchesBruteForce() {
+        PinyinSearchHelper<Entry> helper = helper();
+        for (String query : queries()) {
+            assertEquals(bruteForceSearch(query), helper.filter(ENTRIES, query), "搜索词: \"" + query + "\"");
+        }
+    }
+
+    @Test
+    void incrementalCacheMatchesFullBuild() {
+        PinyinSearchHelper<Entry> helper = new PinyinSearchHelper<>(Entry::name, Entry::id);
+        helper.addToCache(ENTRIES.subList(0, 7));
+        helper.addToCache(ENTRIES.subList(7, ENTRIES.size()));
+        helper.addToCache(ENTRIES.subList(0, 3));
+        for (String query : queries()) {
+            assertEquals(bruteForceSearch(query), helper.search(query), "搜索词: \"" + query + "\"");
+        }
+    }
+
+    @Test
+    void examples() {
+        PinyinSearchHelper<Entry> helper = helper();
+        assertEquals(List.of(ENTRIES.get(0), ENTRIES.get(1), ENTRIES.get(2)), helper.search("zuanshi"));
+        assertEquals(List.of(ENTRIES.get(0), ENTRIES.get(1), ENTRIES.get(2)), helper.search("zs"));
+        assertEquals(List.of(ENTRIES.get(14), ENTRIES.get(15)), helper.search("osmium"));
+        assertEquals(List.of(ENTRIES.get(12)), helper.search("andesite @create"));
+        assertTrue(helper.search("no_such_item").isEmpty());
+    }
+
+    @Test
+    void clearCacheEmptiesIndex() {
+        PinyinSearchHelper<Entry> helper = helper();
+        helper.clearCache();
+        assertTrue(helper.search("diamond").isEmpty());
+        assertNull(helper.getPinyinInfo(ENTRIES.get(0)));
+    }
+}
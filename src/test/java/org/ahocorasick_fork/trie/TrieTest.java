@@ -0,0 +1,156 @@
+package org.ahocorasick_fork.trie;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The expected values were recorded from the original HashMap-based trie, before
+ * the states were compiled into a {@link CompactAutomaton}.
+ */
+class TrieTest {
+
+    private static final String[] HE_SHE = {"he", "she", "his", "hers"};
+
+    private static void assertScan(final Trie trie, final String text, final String emits,
+                                   final String firstMatch, final String tokens) {
+        assertEquals(emits, trie.parseText(text).toString(), "parseText: " + text);
+        assertEquals(firstMatch, String.valueOf(trie.firstMatch(text)), "firstMatch: " + text);
+        assertEquals(!"null".equals(firstMatch), trie.containsMatch(text), "containsMatch: " + text);
+
+        final StringBuilder fragments = new StringBuilder();
+        for (Token token : trie.tokenize(text)) {
+            fragments.append(token.isMatch() ? "[" + token.getFragment() + "]" : token.getFragment()).append('|');
+        }
+        assertEquals(tokens, fragments.toString(), "tokenize: " + text);
+    }
+
+    @Test
+    void defaultConfig() {
+        final Trie trie = Trie.builder().addKeywords(HE_SHE).build();
+        assertScan(trie, "ushers", "[2:3=he, 1:3=she, 2:5=hers]", "2:3=he",
+                "us|[he]|[she]|[hers]|");
+        assertScan(trie, "his hershe", "[0:2=his, 4:5=he, 4:7=hers, 8:9=he, 7:9=she]", "0:2=his",
+                "[his]| |[he]|[hers]|[he]|[she]|");
+        assertScan(trie, "nothing", "[]", "null", "nothing|");
+    }
+
+    @Test
+    void ignoreCase() {
+        final Trie trie = Trie.builder().ignoreCase().addKeywords(HE_SHE).build();
+        assertScan(trie, "uSHErs HIS", "[2:3=he, 1:3=she, 2:5=hers, 7:9=his]", "2:3=he",
+                "uS|[HE]|[SHE]|[HErs]| |[HIS]|");
+    }
+
+    @Test
+    void ignoreOverlaps() {
+        assertScan(Trie.builder().ignoreOverlaps().addKeywords(HE_SHE).build(), "ushers",
+                "[2:5=hers]", "2:5=hers", "us|[hers]|");
+        assertScan(Trie.builder().ignoreOverlaps().addKeywords("ab", "cba", "ababc").build(), "ababcbab",
+                "[0:4=ababc, 6:7=ab]", "0:4=ababc", "[ababc]|b|[ab]|");
+    }
+
+    @Test
+    void onlyWholeWords() {
+        assertScan(Trie.builder().onlyWholeWords().addKeywords("sugar", "cane", "sugarcane").build(),
+                "sugarcane sugar cane,sugar",
+                "[0:8=sugarcane, 10:14=sugar, 16:19=cane, 21:25=sugar]", "0:8=sugarcane",
+                "[sugarcane]| |[sugar]| |[cane]|,|[sugar]|");
+        assertScan(Trie.builder().onlyWholeWordsWhiteSpaceSeparated().addKeywords("#sugar-123").build(),
+                "#sugar-123 #sugar-1234 x#sugar-123",
+                "[0:9=#sugar-123]", "0:9=#sugar-123", "[#sugar-123]| #sugar-1234 x#sugar-123|");
+    }
+
+    @Test
+    void stopOnHit() {
+        assertScan(Trie.builder().stopOnHit().addKeywords(HE_SHE).build(), "ushers",
+                "[2:3=he]", "2:3=he", "us|[he]|rs|");
+    }
+
+    @Test
+    void chineseKeywords() {
+        assertScan(Trie.builder().addKeywords("重庆", "重要", "长大", "成长", "长城").build(), "重要的是重庆和长城，成长长大",
+                "[0:1=重要, 4:5=重庆, 7:8=长城, 10:11=成长, 12:13=长大]", "0:1=重要",
+                "[重要]|的是|[重庆]|和|[长城]|，|[成长]|[长大]|");
+    }
+
+    @Test
+    void nestedKeywords() {
+        assertScan(Trie.builder().addKeywords("a", "aa", "aaa").build(), "aaaa",
+                "[0:0=a, 1:1=a, 0:1=aa, 2:2=a, 1:2=aa, 0:2=aaa, 3:3=a, 2:3=aa, 1:3=aaa]", "0:0=a",
+                "[a]|[a]|[aa]|[a]|[aa]|[aaa]|[a]|[aa]|[aaa]|");
+    }
+
+    @Test
+    void emptyTrie() {
+        assertScan(Trie.builder().build(), "abc", "[]", "null", "abc|");
+    }
+
+    @Test
+    void keywordMatchHandlerReportsSameMatches() {
+        final Trie trie = Trie.builder().addKeywords(HE_SHE).addKeywords("重庆", "长城").build();
+        final String text = "ushers his hershe 重庆长城";
+        final List<String> matches = new ArrayList<>();
+        trie.parseText(text, (start, end, keyword) -> {
+            matches.add(start + ":" + end + "=" + trie.getKeyword(keyword));
+            return true;
+        });
+        assertEquals(trie.parseText(text).toString(), matches.toString());
+    }
+
+    @Test
+    void payloadsResolveByKeywordIndex() {
+        final PayloadTrie<Integer> trie = PayloadTrie.<Integer>builder()
+                .addKeyword("he", 1).addKeyword("she", 2).addKeyword("hers", 3).build();
+        assertEquals(3, trie.getKeywordCount());
+        final List<Integer> payloads = new ArrayList<>();
+        trie.parseText("ushers", (start, end, keyword) -> {
+            payloads.add(trie.getPayload(keyword));
+            return true;
+        });
+        assertEquals(List.of(1, 2, 3), payloads);
+        assertEquals("1:2=he->1", trie.firstMatch("she").toString());
+        assertEquals("[1:2=he->1, 0:2=she->2]", trie.parseText("she").toString());
+    }
+
+    @Test
+    void matchesEveryOccurrenceOnRandomText() {
+        // A small alphabet produces many shared prefixes and deep failure chains
+        final Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            final Set<String> keywords = new HashSet<>();
+            final int keywordCount = 1 + random.nextInt(30);
+            while (keywords.size() < keywordCount) {
+                keywords.add(randomText(random, 1 + random.nextInt(6)));
+            }
+            final Trie trie = Trie.builder().addKeywords(keywords).build();
+            final String text = randomText(random, 200);
+
+            final Set<String> expected = new HashSet<>();
+            for (String keyword : keywords) {
+                for (int i = text.indexOf(keyword); i >= 0; i = text.indexOf(keyword, i + 1)) {
+                    expected.add(i + ":" + (i + keyword.length() - 1) + "=" + keyword);
+                }
+            }
+            final Set<String> actual = new HashSet<>();
+            for (Emit emit : trie.parseText(text)) {
+                assertTrue(actual.add(emit.toString()), "duplicate emit " + emit);
+            }
+            assertEquals(expected, actual, "keywords " + keywords);
+        }
+    }
+
+    private static String randomText(final Random random, final int length) {
+        final char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(3));
+        }
+        return new String(chars);
+    }
+}